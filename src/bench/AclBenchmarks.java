@@ -0,0 +1,40 @@
+package bench;
+
+import engine.AclAnalyzer;
+import engine.AclClassifier;
+import engine.AclCompiler;
+import model.Acl;
+import model.AclRule;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ACL规则分析：五万条规则的覆盖/重复检查，一万条规则的精简和报文分类查找
+ */
+public class AclBenchmarks {
+    private AclBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        List<AclRule> rules = Fixtures.aclRules(50_000);
+        bench.add("acl.analyze.50k", bh -> bh.consume(AclAnalyzer.analyze(rules)));
+        Acl acl = new Acl(3999, "高级", "");
+        acl.rules.addAll(rules.subList(0, 10_000));
+        bench.add("acl.compile.10k", bh -> bh.consume(AclCompiler.compile(acl)));
+
+        AclClassifier classifier = new AclClassifier(acl.rules);
+        Random rnd = new Random(7);
+        int[][] packets = new int[4096][];
+        int[] protocols = {1, 6, 17};
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = new int[]{protocols[rnd.nextInt(protocols.length)], 10 << 24 | rnd.nextInt(1 << 22),
+                    172 << 24 | 16 << 16 | rnd.nextInt(512), 1024 + rnd.nextInt(60000), 80 + rnd.nextInt(4)};
+        }
+        int[] next = {0};
+        bench.add("acl.classify.10k", bh -> {
+            int[] p = packets[next[0]++ & (packets.length - 1)];
+            bh.consume(classifier.classify(p[0], p[1], p[2], p[3], p[4]));
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 轻量基准测试框架（无第三方依赖）
+ * 每个用例先预热若干轮，再测量若干轮；每轮在限定时间内反复执行，统计每次操作的耗时和分配字节数。
+ * 分配字节数取自 com.sun.management.ThreadMXBean，含义同 JMH 的 gc.alloc.rate.norm（B/op），
+ * 统计全部线程，因此并行用例（如全网渲染）也计入工作线程的分配。
+ */
+public class Bench {
+    /**
+     * 一次基准操作，结果交给 Blackhole 防止被优化掉
+     */
+    public interface Case {
+        void run(Blackhole bh) throws Exception;
+    }
+
+    /**
+     * 吞掉计算结果
+     */
+    public static final class Blackhole {
+        private int h;
+
+        public void consume(Object o) {
+            h ^= System.identityHashCode(o);
+        }
+
+        public void consume(long v) {
+            h ^= (int) (v ^ (v >>> 32));
+        }
+
+        int hash() {
+            return h;
+        }
+    }
+
+    private static class Entry {
+        final String name;
+        final Case task;
+
+        Entry(String name, Case task) {
+            this.name = name;
+            this.task = task;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threads;
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationMillis = 1000;
+
+    public Bench() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) mx).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) mx;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+        }
+    }
+
+    public void add(String name, Case task) {
+        entries.add(new Entry(name, task));
+    }
+
+    public void setWarmupIterations(int n) {
+        warmupIterations = n;
+    }
+
+    public void setIterations(int n) {
+        iterations = n;
+    }
+
+    public void setIterationMillis(long millis) {
+        iterationMillis = millis;
+    }
+
+    /**
+     * 运行名称匹配 filter（正则，null 表示全部）的用例并输出结果表
+     */
+    public void run(String filter) throws Exception {
+        Pattern p = filter == null ? null : Pattern.compile(filter);
+        Blackhole bh = new Blackhole();
+        System.out.println(String.format(Locale.ROOT, "%-40s %6s %14s %12s %14s %14s",
+                "Benchmark", "Cnt", "ns/op", "± error", "ops/s", "B/op"));
+        for (Entry e : entries) {
+            if (p != null && !p.matcher(e.name).find()) continue;
+            for (int i = 0; i < warmupIterations; i++) iterate(e, bh);
+            double[] nsPerOp = new double[iterations];
+            double allocPerOp = 0;
+            for (int i = 0; i < iterations; i++) {
+                double[] r = iterate(e, bh);
+                nsPerOp[i] = r[0];
+                allocPerOp += r[1] / iterations;
+            }
+            double mean = 0;
+            for (double v : nsPerOp) mean += v / iterations;
+            double var = 0;
+            for (double v : nsPerOp) var += (v - mean) * (v - mean);
+            double err = iterations > 1 ? 2 * Math.sqrt(var / (iterations - 1)) : 0;
+            System.out.println(String.format(Locale.ROOT, "%-40s %6d %14.1f %12.1f %14.1f %14s",
+                    e.name, iterations, mean, err, 1e9 / mean,
+                    threads == null ? "n/a" : String.format(Locale.ROOT, "%.1f", allocPerOp)));
+        }
+        // 防止整个计算被消除
+        if (bh.hash() == 42) System.out.print("");
+    }
+
+    // 返回 {ns/op, B/op}
+    private double[] iterate(Entry e, Blackhole bh) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long alloc0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        long ops = 0;
+        do {
+            e.task.run(bh);
+            ops++;
+        } while (System.nanoTime() < deadline);
+        long t1 = System.nanoTime();
+        long alloc1 = allocatedBytes();
+        return new double[]{(double) (t1 - t0) / ops, (double) (alloc1 - alloc0) / ops};
+    }
+
+    private long allocatedBytes() {
+        if (threads == null) return 0;
+        long sum = 0;
+        for (long v : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (v > 0) sum += v;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,44 @@
+package bench;
+
+/**
+ * 基准测试入口
+ * 用法：java -cp out bench.BenchMain [-f 正则] [-wi 预热轮数] [-i 测量轮数] [-t 每轮毫秒]
+ * 例如只跑ACL相关：java -cp out bench.BenchMain -f acl
+ */
+public class BenchMain {
+    public static void main(String[] args) throws Exception {
+        Bench bench = new Bench();
+        String filter = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-f":
+                    filter = args[i + 1];
+                    break;
+                case "-wi":
+                    bench.setWarmupIterations(Integer.parseInt(args[i + 1]));
+                    break;
+                case "-i":
+                    bench.setIterations(Integer.parseInt(args[i + 1]));
+                    break;
+                case "-t":
+                    bench.setIterationMillis(Long.parseLong(args[i + 1]));
+                    break;
+                default:
+                    System.err.println("未知参数: " + args[i]);
+                    return;
+            }
+        }
+        RenderBenchmarks.register(bench);
+        FleetBenchmarks.register(bench);
+        SearchBenchmarks.register(bench);
+        IoBenchmarks.register(bench);
+        AclBenchmarks.register(bench);
+        StpBenchmarks.register(bench);
+        TrunkBenchmarks.register(bench);
+        DhcpBenchmarks.register(bench);
+        RouteBenchmarks.register(bench);
+        QosBenchmarks.register(bench);
+        bench.run(filter);
+        System.exit(0);
+    }
+}
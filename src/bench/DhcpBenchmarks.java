@@ -0,0 +1,46 @@
+package bench;
+
+import engine.DhcpLeaseSimulator;
+import engine.DhcpPoolChecker;
+import engine.IpTrie;
+import model.DhcpPool;
+import model.IpInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DHCP地址池检查：五千个池加同样数量接口的全表检查，以及编辑时单个池的检查
+ * DHCP租约仿真：/8 地址池一天内一百万次地址申请的回放
+ */
+public class DhcpBenchmarks {
+    private static final int POOLS = 5000;
+
+    private DhcpBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        List<DhcpPool> pools = new ArrayList<>(POOLS);
+        List<IpInterface> interfaces = new ArrayList<>(POOLS);
+        for (int i = 0; i < POOLS; i++) {
+            int net = 10 << 24 | i << 8;
+            DhcpPool p = new DhcpPool("pool-" + i, IpTrie.formatIpv4(net), "255.255.255.0", IpTrie.formatIpv4(net + 1), "", 24);
+            p.expectedClients = 200;
+            pools.add(p);
+            interfaces.add(new IpInterface(IpTrie.formatIpv4(net + 1), "255.255.255.0", "Vlanif" + (i % 4000 + 1)));
+        }
+        // 每百个池有一个 /22 汇总池，与其下四个池重叠
+        for (int i = 0; i < POOLS; i += 100) pools.get(i).mask = "255.255.252.0";
+
+        bench.add("dhcp.check.all.5k", bh -> bh.consume(new DhcpPoolChecker(pools, interfaces).checkAll()));
+
+        DhcpPoolChecker checker = new DhcpPoolChecker(pools, interfaces);
+        DhcpPool typing = new DhcpPool("new", "10.9.0.0", "255.255.0.0", "10.9.0.1", "", 24);
+        bench.add("dhcp.check.one.5k", bh -> bh.consume(checker.check(typing, -1)));
+
+        DhcpPool big = new DhcpPool("campus", "10.0.0.0", "255.0.0.0", "10.0.0.1", "", 8);
+        DhcpLeaseSimulator lease = new DhcpLeaseSimulator(big);
+        DhcpLeaseSimulator.Trace trace = DhcpLeaseSimulator.Trace.synthetic(1, 500_000, 500_000, 3, 9);
+        bench.add("dhcp.lease.1m", bh -> bh.consume(lease.simulate(trace)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package bench;
+
+import engine.AclMatch;
+import model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成数据
+ */
+public class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * 一台中等规模接入/汇聚交换机的各模块配置
+     */
+    public static DeviceConfig template() {
+        DeviceConfig cfg = new DeviceConfig(null);
+        for (int i = 0; i < 50; i++) cfg.vlans.add(new VlanEntry(100 + i, "vlan-" + (100 + i), "GE0/0/" + (i % 48 + 1)));
+        cfg.stp = new StpConfig(true, "MSTP", "4096");
+        for (int i = 1; i <= 24; i++) cfg.stp.ports.add(new StpPort("GigabitEthernet0/0/" + i, 128, i > 4, true));
+        for (int i = 1; i <= 4; i++) {
+            cfg.trunks.add(new EthTrunk(i, "LACP", "GigabitEthernet0/0/" + (40 + 2 * i) + ",GigabitEthernet0/0/" + (41 + 2 * i),
+                    "src-dst-ip", "uplink-" + i));
+        }
+        for (int i = 1; i <= 24; i++) {
+            cfg.portSecurity.add(new PortSecurityEntry("GigabitEthernet0/0/" + i, 4, "0011-2233-44" + String.format("%02x", i), "restrict"));
+        }
+        for (int i = 0; i < 10; i++) cfg.interfaces.add(new IpInterface("10.1." + i + ".1", "255.255.255.0", "Vlanif" + (100 + i)));
+        for (int i = 0; i < 50; i++) cfg.routes.add(new RouteEntry("静态", "172.16." + i + ".0", "255.255.255.0", "10.1.0.254", ""));
+        for (int a = 0; a < 5; a++) {
+            Acl acl = new Acl(3000 + a, "高级", "acl-" + a);
+            for (int r = 0; r < 20; r++) {
+                acl.rules.add(new AclRule(5 * (r + 1), r % 4 == 0 ? "deny" : "permit", "tcp",
+                        "10." + a + "." + r + ".0 0.0.0.255", "any", "any", String.valueOf(1000 + r), ""));
+            }
+            cfg.acls.add(acl);
+        }
+        for (int q = 0; q < 3; q++) {
+            QosPolicy p = new QosPolicy("policy-" + q, "qos-" + q, "GigabitEthernet0/0/" + (q + 1));
+            for (int r = 0; r < 5; r++) p.rules.add(new QosRule(r + 1, "协议", "tcp", "限速", "1024", ""));
+            cfg.qosPolicies.add(p);
+        }
+        for (int i = 0; i < 4; i++) {
+            cfg.dhcpPools.add(new DhcpPool("pool-" + i, "10.2." + i + ".0", "255.255.255.0", "10.2." + i + ".1", "114.114.114.114", 24));
+        }
+        for (int i = 0; i < 4; i++) {
+            cfg.natPolicies.add(new NatPolicy("nat-" + i, "源NAT", "10.3." + i + ".0", "any", "GigabitEthernet0/0/48", ""));
+        }
+        cfg.snmp = new SnmpConfig();
+        cfg.snmp.communities.add(new SnmpCommunity("public", "只读", ""));
+        cfg.snmp.communities.add(new SnmpCommunity("private", "读写", ""));
+        cfg.snmp.trapHosts.add(new SnmpTrapHost("10.0.0.10", "trap", "v2c"));
+        cfg.mirrors.add(new MirrorSession(1, "本地", "GigabitEthernet0/0/1", "入+出", "GigabitEthernet0/0/24", ""));
+        for (int i = 0; i < 5; i++) cfg.users.add(new LocalUser("user" + i, 3, "Huawei@" + i, ""));
+        return cfg;
+    }
+
+    /**
+     * n 台设备：名称唯一，IP分布在 10.0.0.0/8
+     */
+    public static List<Device> devices(int n) {
+        List<Device> list = new ArrayList<>(n);
+        String[] models = {"S5735", "S5720", "S2700", "S6730"};
+        for (int i = 0; i < n; i++) {
+            list.add(new Device("SW-" + (i / 1000) + "-" + i, "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF),
+                    models[i % models.length], i % 3 == 0 ? "Telnet" : "SSH", i % 7 == 0 ? "离线" : "在线"));
+        }
+        return list;
+    }
+
+    /**
+     * n 条随机ACL规则（固定种子）：源为 10.0.0.0/10 内 /22~/32 网段，目的多为 172.16.0.0/23 内的 /24~/32，
+     * 约三分之一为 deny
+     */
+    public static List<AclRule> aclRules(int n) {
+        Random rnd = new Random(42);
+        String[] protocols = {"ip", "tcp", "udp", "icmp"};
+        List<AclRule> rules = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int srcLen = 22 + rnd.nextInt(11);
+            int src = 10 << 24 | rnd.nextInt(64) << 16 | rnd.nextInt(256) << 8 | rnd.nextInt(256);
+            int dstLen = rnd.nextInt(50) == 0 ? 0 : 24 + rnd.nextInt(9);
+            int dst = 172 << 24 | 16 << 16 | rnd.nextInt(2) << 8 | rnd.nextInt(4);
+            String dstPort = rnd.nextInt(2) == 0 ? String.valueOf(80 + rnd.nextInt(4)) : "any";
+            rules.add(new AclRule(i + 1, rnd.nextInt(3) == 0 ? "deny" : "permit", protocols[rnd.nextInt(protocols.length)],
+                    AclMatch.formatAddress(src & AclMatch.mask(srcLen), srcLen), "any",
+                    AclMatch.formatAddress(dst & AclMatch.mask(dstLen), dstLen), dstPort, ""));
+        }
+        return rules;
+    }
+}
\ No newline at end of file
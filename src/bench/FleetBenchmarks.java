@@ -0,0 +1,72 @@
+package bench;
+
+import engine.CommandSink;
+import engine.ConfigEngine;
+import engine.FleetRenderer;
+import model.Device;
+import model.DeviceConfig;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全网批量渲染：1k/10k/100k台合成设备，输出丢弃（只计字符数），衡量纯渲染吞吐
+ */
+public class FleetBenchmarks {
+    private FleetBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        FleetRenderer renderer = new FleetRenderer(ConfigEngine.getDefault());
+        DeviceConfig template = Fixtures.template();
+        for (int n : new int[]{1_000, 10_000, 100_000}) {
+            List<Device> devices = Fixtures.devices(n);
+            bench.add("fleet.render." + (n / 1000) + "k", bh -> {
+                CountingOutput out = new CountingOutput();
+                FleetRenderer.Job job = renderer.render(devices, template, out);
+                job.await();
+                if (job.getError() != null) throw new IllegalStateException(job.getError());
+                bh.consume(out.chars.get());
+            });
+        }
+    }
+
+    /**
+     * 丢弃输出，只统计字符数
+     */
+    static class CountingOutput implements FleetRenderer.Output {
+        final AtomicLong chars = new AtomicLong();
+
+        @Override
+        public CommandSink open(Device device, String fileName) {
+            return new CountingSink();
+        }
+
+        @Override
+        public void close(Device device, String fileName, CommandSink sink) {
+            chars.addAndGet(((CountingSink) sink).n);
+        }
+    }
+
+    static class CountingSink implements CommandSink {
+        long n;
+
+        @Override
+        public CommandSink append(CharSequence s) {
+            n += s.length();
+            return this;
+        }
+
+        @Override
+        public CommandSink append(char c) {
+            n++;
+            return this;
+        }
+
+        @Override
+        public CommandSink append(int i) {
+            n += 4;
+            return this;
+        }
+    }
+}
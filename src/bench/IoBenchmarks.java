@@ -0,0 +1,66 @@
+package bench;
+
+import engine.ConfigEngine;
+import engine.DeviceCsv;
+import engine.DirectoryOutput;
+import engine.FleetRenderer;
+import engine.ZipOutput;
+import model.Device;
+import model.DeviceConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 导入导出：十万行设备CSV解析，1k台设备配置导出为目录和ZIP（写入临时目录）
+ */
+public class IoBenchmarks {
+    private IoBenchmarks() {
+    }
+
+    public static void register(Bench bench) throws IOException {
+        StringWriter csv = new StringWriter();
+        DeviceCsv.write(Fixtures.devices(100_000), csv);
+        String text = csv.toString();
+        bench.add("io.csvImport.100k", bh -> {
+            try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+                bh.consume(DeviceCsv.read(reader));
+            }
+        });
+
+        FleetRenderer renderer = new FleetRenderer(ConfigEngine.getDefault());
+        DeviceConfig template = Fixtures.template();
+        List<Device> devices = Fixtures.devices(1_000);
+        Path tmp = Files.createTempDirectory("bench-export");
+        tmp.toFile().deleteOnExit();
+        bench.add("io.exportDir.1k", bh -> {
+            Path dir = Files.createTempDirectory(tmp, "cfg");
+            FleetRenderer.Job job = renderer.render(devices, template, new DirectoryOutput(dir));
+            job.await();
+            bh.consume(job.getDone());
+            deleteTree(dir);
+        });
+        bench.add("io.exportZip.1k", bh -> {
+            Path zip = tmp.resolve("configs.zip");
+            ZipOutput out = new ZipOutput(zip);
+            FleetRenderer.Job job = renderer.render(devices, template, out);
+            job.await();
+            out.close();
+            bh.consume(Files.size(zip));
+            Files.delete(zip);
+        });
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import engine.QosCompiler;
+import engine.QosRenderer;
+import engine.StringSink;
+import model.QosPolicy;
+import model.QosRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * QoS策略编译：500 个策略共一万条规则（匹配条件 400 种、动作 25 种）的去重编译，
+ * 以及逐策略渲染与全部策略共用定义的整表渲染对比
+ */
+public class QosBenchmarks {
+    private static final int POLICIES = 500;
+    private static final int RULES_PER_POLICY = 20;
+
+    private QosBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        List<QosPolicy> policies = policies();
+        QosRenderer renderer = new QosRenderer();
+        StringSink sink = new StringSink(4 * 1024 * 1024);
+        bench.add("qos.compile.10k", bh -> bh.consume(QosCompiler.compile(policies).linesAfter));
+        bench.add("qos.render.policies.10k", bh -> {
+            sink.reset();
+            for (QosPolicy p : policies) renderer.render(p, sink);
+            bh.consume(sink.length());
+        });
+        bench.add("qos.render.batch.10k", bh -> {
+            sink.reset();
+            renderer.renderBatch(policies, sink);
+            bh.consume(sink.length());
+        });
+    }
+
+    static List<QosPolicy> policies() {
+        Random rnd = new Random(41);
+        String[] types = {"协议", "源地址", "目的地址", "端口"};
+        String[] actions = {"限速", "优先级", "丢弃"};
+        List<QosPolicy> list = new ArrayList<>(POLICIES);
+        for (int p = 0; p < POLICIES; p++) {
+            QosPolicy policy = new QosPolicy("policy_" + p, "", "GE0/0/" + (p % 48 + 1));
+            for (int i = 0; i < RULES_PER_POLICY; i++) {
+                int m = rnd.nextInt(100);
+                String type = types[rnd.nextInt(types.length)];
+                String value = type.equals("协议") ? "tcp/" + (8000 + m) : type.equals("端口") ? String.valueOf(1000 + m) : "10." + m + ".0.0/16";
+                String action = actions[rnd.nextInt(actions.length)];
+                String param = action.equals("限速") ? (1 + rnd.nextInt(16)) * 1000 + "kbit" : String.valueOf(rnd.nextInt(8));
+                policy.rules.add(new QosRule((i + 1) * 10, type, value, action, param, ""));
+            }
+            list.add(policy);
+        }
+        return list;
+    }
+}
\ No newline at end of file
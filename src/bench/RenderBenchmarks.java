@@ -0,0 +1,73 @@
+package bench;
+
+import engine.CommandRenderer;
+import engine.ConfigEngine;
+import engine.InterfaceNames;
+import engine.StringSink;
+import engine.VlanMembership;
+import model.Device;
+import model.DeviceConfig;
+import model.VlanEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 各模块命令渲染吞吐：每次操作渲染该模块在模板中的全部条目
+ */
+public class RenderBenchmarks {
+    private RenderBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        ConfigEngine engine = ConfigEngine.getDefault();
+        DeviceConfig cfg = Fixtures.template().withDevice(new Device("SW-bench", "10.0.0.1", "S5735", "SSH", "在线"));
+        StringSink sink = new StringSink(64 * 1024);
+
+        module(bench, "render.vlan", engine.vlan, cfg.vlans, sink);
+        module(bench, "render.stp", engine.stp, Collections.singletonList(cfg.stp), sink);
+        module(bench, "render.ethTrunk", engine.ethTrunk, cfg.trunks, sink);
+        module(bench, "render.portSecurity", engine.portSecurity, cfg.portSecurity, sink);
+        module(bench, "render.ip", engine.ip, cfg.interfaces, sink);
+        module(bench, "render.route", engine.route, cfg.routes, sink);
+        module(bench, "render.acl", engine.acl, cfg.acls, sink);
+        module(bench, "render.qos", engine.qos, cfg.qosPolicies, sink);
+        module(bench, "render.dhcp", engine.dhcp, cfg.dhcpPools, sink);
+        module(bench, "render.nat", engine.nat, cfg.natPolicies, sink);
+        module(bench, "render.snmp", engine.snmp, Collections.singletonList(cfg.snmp), sink);
+        module(bench, "render.mirror", engine.mirror, cfg.mirrors, sink);
+        module(bench, "render.user", engine.user, cfg.users, sink);
+        bench.add("render.device", bh -> {
+            sink.reset();
+            engine.renderDevice(cfg, sink);
+            bh.consume(sink.length());
+        });
+        // 全部4094个VLAN，48个端口各放行其中一段，逐个渲染与 vlan batch 区间渲染对比
+        List<VlanEntry> allVlans = new ArrayList<>();
+        for (int id = 1; id <= 4094; id++) allVlans.add(new VlanEntry(id, id % 10 == 0 ? "vlan-" + id : "", "GE口0/0/" + (id % 48 + 1)));
+        module(bench, "render.vlan.single.4094", engine.vlan, allVlans, sink);
+        bench.add("render.vlan.batch.4094", bh -> {
+            sink.reset();
+            engine.vlan.renderBatch(allVlans, sink);
+            bh.consume(sink.length());
+        });
+        // 端口-VLAN成员索引：整机建索引与单次成员判断
+        bench.add("vlan.membership.build.4094", bh -> bh.consume(new VlanMembership(allVlans).ports().size()));
+        VlanMembership members = new VlanMembership(allVlans);
+        bench.add("vlan.membership.contains", bh -> bh.consume(members.contains("GE口0/0/12", 1451)));
+        // 接口名规范化：缓存命中路径与区间展开
+        bench.add("iface.canonical", bh -> bh.consume(InterfaceNames.canonical("GE口0/0/24")));
+        bench.add("iface.expand.48", bh -> bh.consume(InterfaceNames.expand("GE0/0/1 to 0/0/48").size()));
+        // 面板预览路径：每次新建预览缓冲区并生成字符串
+        bench.add("render.acl.preview", bh -> bh.consume(engine.acl.preview(cfg.acls.get(0))));
+    }
+
+    private static <T> void module(Bench bench, String name, CommandRenderer<T> renderer, List<T> items, StringSink sink) {
+        bench.add(name, bh -> {
+            sink.reset();
+            for (T item : items) renderer.render(item, sink);
+            bh.consume(sink.length());
+        });
+    }
+}
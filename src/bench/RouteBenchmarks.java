@@ -0,0 +1,90 @@
+package bench;
+
+import engine.AclMatch;
+import engine.IpTrie;
+import engine.RouteAggregator;
+import engine.RouteRenderer;
+import engine.RouteTable;
+import engine.StringSink;
+import model.RouteEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 路由表：五十万条静态路由的编译，以及一百万个地址的批量最长匹配查表
+ * 路由汇总：五十万条静态路由的合并
+ * 命令生成：一万条混合协议路由逐条渲染与按协议分组的整表渲染对比
+ */
+public class RouteBenchmarks {
+    private static final int ROUTES = 500_000;
+    private static final int ADDRESSES = 1_000_000;
+    private static final int RENDER_ROUTES = 10_000;
+
+    private RouteBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        List<RouteEntry> routes = routes(ROUTES);
+        bench.add("route.compile.500k", bh -> bh.consume(RouteTable.compile(routes, null)));
+        bench.add("route.aggregate.500k", bh -> bh.consume(RouteAggregator.aggregate(routes)));
+
+        RouteTable table = RouteTable.compile(routes, null);
+        Random rnd = new Random(3);
+        int[] addrs = new int[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) addrs[i] = rnd.nextInt(4) == 0 ? rnd.nextInt() : 10 << 24 | rnd.nextInt(1 << 24);
+        int[] out = new int[ADDRESSES];
+        bench.add("route.lookup.1m", bh -> {
+            table.lookupAll(addrs, ADDRESSES, out);
+            bh.consume(out[ADDRESSES - 1]);
+        });
+
+        List<RouteEntry> mixed = mixedRoutes(RENDER_ROUTES);
+        RouteRenderer renderer = new RouteRenderer();
+        StringSink sink = new StringSink(1024 * 1024);
+        bench.add("route.render.rows.10k", bh -> {
+            sink.reset();
+            for (RouteEntry r : mixed) renderer.render(r, sink);
+            bh.consume(sink.length());
+        });
+        bench.add("route.render.batch.10k", bh -> {
+            sink.reset();
+            renderer.renderBatch(mixed, sink);
+            bh.consume(sink.length());
+        });
+    }
+
+    /**
+     * n 条路由（固定种子）：静态、RIP 各一成，OSPF 六成分布在 8 个区域，BGP 两成
+     */
+    static List<RouteEntry> mixedRoutes(int n) {
+        Random rnd = new Random(29);
+        List<RouteEntry> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String dest = IpTrie.formatIpv4(10 << 24 | rnd.nextInt(1 << 16) << 8);
+            int kind = rnd.nextInt(10);
+            if (kind == 0) list.add(new RouteEntry("静态", dest, "255.255.255.0", "192.168.0." + (1 + i % 4), ""));
+            else if (kind == 1) list.add(new RouteEntry("RIP", dest, "255.255.255.0", "", "2"));
+            else if (kind < 8) list.add(new RouteEntry("OSPF", dest, "255.255.255.0", "", "area " + rnd.nextInt(8)));
+            else list.add(new RouteEntry("BGP", dest, "255.255.255.0", "", "peer 192.168.1." + (1 + rnd.nextInt(4)) + " as-number 200"));
+        }
+        return list;
+    }
+
+    /**
+     * n 条随机静态路由（固定种子）：多为 10.0.0.0/8 内的 /24，其余为 /16~/32，下一跳四选一，另有一条默认路由
+     */
+    static List<RouteEntry> routes(int n) {
+        Random rnd = new Random(17);
+        List<RouteEntry> list = new ArrayList<>(n);
+        list.add(new RouteEntry("静态", "0.0.0.0", "0.0.0.0", "192.168.0.1", ""));
+        for (int i = 1; i < n; i++) {
+            int len = rnd.nextInt(4) == 0 ? 16 + rnd.nextInt(17) : 24;
+            int net = (10 << 24 | rnd.nextInt(1 << 24)) & AclMatch.mask(len);
+            list.add(new RouteEntry("静态", IpTrie.formatIpv4(net), IpTrie.formatIpv4(AclMatch.mask(len)),
+                    "192.168.0." + (1 + i % 4), ""));
+        }
+        return list;
+    }
+}
\ No newline at end of file
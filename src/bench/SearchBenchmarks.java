@@ -0,0 +1,35 @@
+package bench;
+
+import engine.DeviceSearchIndex;
+import model.Device;
+
+import java.util.List;
+
+/**
+ * 设备搜索：十万台设备上的子串、短关键字、网段查询，以及索引构建
+ */
+public class SearchBenchmarks {
+    private SearchBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        List<Device> devices = Fixtures.devices(100_000);
+        DeviceSearchIndex index = build(devices);
+        bench.add("search.substring.100k", bh -> bh.consume(index.search("SW-42-4217")));
+        bench.add("search.model.100k", bh -> bh.consume(index.search("s6730")));
+        bench.add("search.short.100k", bh -> bh.consume(index.search("离线")));
+        bench.add("search.cidr.100k", bh -> bh.consume(index.search("10.1.0.0/16")));
+        bench.add("search.update.100k", bh -> {
+            Device d = devices.get(12345);
+            index.put(12345, new Device(d.name, d.ip, d.model, d.mgmtType, "离线".equals(d.status) ? "在线" : "离线"));
+            bh.consume(index.size());
+        });
+        bench.add("search.build.100k", bh -> bh.consume(build(devices)));
+    }
+
+    private static DeviceSearchIndex build(List<Device> devices) {
+        DeviceSearchIndex index = new DeviceSearchIndex();
+        for (int i = 0; i < devices.size(); i++) index.put(i, devices.get(i));
+        return index;
+    }
+}
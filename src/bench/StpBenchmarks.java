@@ -0,0 +1,47 @@
+package bench;
+
+import engine.StpSimulator;
+
+import java.util.Random;
+
+/**
+ * 生成树仿真：一万台交换机的全量选举，以及单条链路开销变化后的增量修复
+ */
+public class StpBenchmarks {
+    private static final int BRIDGES = 10_000;
+
+    private StpBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        StpSimulator full = mesh();
+        bench.add("stp.simulate.10k", bh -> {
+            full.recompute();
+            bh.consume(full.rootOf(0));
+        });
+
+        StpSimulator inc = mesh();
+        inc.recompute();
+        int[] next = {0};
+        bench.add("stp.link.toggle.10k", bh -> {
+            // 骨干链路（编号即环上位置）开销先升后降，各触发一次子树修复
+            int l = next[0]++ % BRIDGES;
+            inc.setLinkCost(l, 200000);
+            inc.setLinkCost(l, 20000);
+            bh.consume(inc.rootPortLink(l));
+        });
+    }
+
+    // 环形骨干加每台两条随机冗余链路，优先级随机分四档
+    private static StpSimulator mesh() {
+        Random rnd = new Random(11);
+        StpSimulator sim = new StpSimulator();
+        for (int i = 0; i < BRIDGES; i++) sim.addBridge(4096 * (4 + rnd.nextInt(4)));
+        for (int i = 0; i < BRIDGES; i++) sim.addLink(i, (i + 1) % BRIDGES, 20000);
+        for (int i = 0; i < 2 * BRIDGES; i++) {
+            int a = rnd.nextInt(BRIDGES), b = rnd.nextInt(BRIDGES);
+            if (a != b) sim.addLink(a, b, rnd.nextBoolean() ? 20000 : 2000);
+        }
+        return sim;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package bench;
+
+import engine.LoadBalanceSimulator;
+
+/**
+ * Eth-Trunk负载分担仿真：一百万条流在4个成员上按六种模式同时统计
+ */
+public class TrunkBenchmarks {
+    private TrunkBenchmarks() {
+    }
+
+    public static void register(Bench bench) {
+        LoadBalanceSimulator.Flows flows = LoadBalanceSimulator.Flows.synthetic(1_000_000, 5000, 16, 5);
+        LoadBalanceSimulator sim = new LoadBalanceSimulator();
+        bench.add("lb.simulate.1m", bh -> bh.consume(sim.simulate(flows, 4)));
+    }
+}
\ No newline at end of file
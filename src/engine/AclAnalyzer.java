@@ -0,0 +1,286 @@
+package engine;
+
+import model.AclRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * ACL规则检查：找出重复、被前面规则完全覆盖（遮蔽/冗余）以及可与相邻规则合并的规则
+ * 1. 已检查的规则按 源前缀树 -> 目的前缀树 -> 协议 -> 源端口区间树 -> 目的端口区间树 建立索引
+ * 2. 判断某条规则是否被覆盖只需沿两棵前缀树的祖先路径（各至多33个节点）查找包含其端口区间的条目，取其中序号最靠前的一条，
+ *    总体近似线性，不做两两比较
+ * 3. 只检查单条规则的覆盖，被多条规则联合覆盖的情况不报告
+ */
+public class AclAnalyzer {
+    public enum Kind {
+        DUPLICATE("重复"), SHADOWED("遮蔽"), REDUNDANT("冗余"), MERGEABLE("可合并"), UNPARSED("无法分析");
+
+        public final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    public static class Finding {
+        public final Kind kind;
+        public final AclRule rule;
+        public final AclRule other; // 覆盖它或可与之合并的规则
+        public final String message;
+
+        public Finding(Kind kind, AclRule rule, AclRule other, String message) {
+            this.kind = kind;
+            this.rule = rule;
+            this.other = other;
+            this.message = message;
+        }
+    }
+
+    private AclAnalyzer() {
+    }
+
+    /**
+     * 按匹配顺序（序号升序）检查规则
+     */
+    public static List<Finding> analyze(List<AclRule> rules) {
+        List<Finding> findings = new ArrayList<>();
+        AddrNode srcRoot = new AddrNode();
+        Map<AclMatch, Integer> exact = new HashMap<>();
+        AclMatch[] matches = new AclMatch[rules.size()];
+        int prev = -1;
+        for (int i = 0; i < rules.size(); i++) {
+            AclRule r = rules.get(i);
+            AclMatch m = AclMatch.parse(r);
+            if (m == null) {
+                findings.add(new Finding(Kind.UNPARSED, r, null, "rule " + r.id + " 的地址、协议或端口无法解析，未参与检查"));
+                continue;
+            }
+            matches[i] = m;
+            if (prev >= 0) checkMergeable(rules.get(prev), matches[prev], r, m, findings);
+            prev = i;
+
+            Integer same = exact.get(m);
+            if (same != null) {
+                AclRule o = rules.get(same);
+                if (o.action.equals(r.action)) {
+                    findings.add(new Finding(Kind.DUPLICATE, r, o, "rule " + r.id + " 与 rule " + o.id + " 完全相同"));
+                } else {
+                    findings.add(new Finding(Kind.SHADOWED, r, o, "rule " + r.id + " 与 rule " + o.id
+                            + " 匹配条件相同但动作相反，永不生效"));
+                }
+                continue;
+            }
+            int cover = findCover(srcRoot, m);
+            if (cover >= 0) {
+                AclRule o = rules.get(cover);
+                if (o.action.equals(r.action)) {
+                    findings.add(new Finding(Kind.REDUNDANT, r, o, "rule " + r.id + " 被 rule " + o.id + " 完全包含，可删除"));
+                } else {
+                    findings.add(new Finding(Kind.SHADOWED, r, o, "rule " + r.id + " 被 rule " + o.id
+                            + "（" + o.action + "）完全覆盖，永不生效"));
+                }
+                continue;
+            }
+            // 被覆盖的规则不入索引：能被它覆盖的规则也必然被覆盖它的规则覆盖
+            exact.put(m, i);
+            insert(srcRoot, m, i);
+        }
+        return findings;
+    }
+
+    /**
+     * 检查结果的文本报告
+     */
+    public static String report(List<Finding> findings, int ruleCount) {
+        StringBuilder sb = new StringBuilder();
+        int[] counts = new int[Kind.values().length];
+        for (Finding f : findings) counts[f.kind.ordinal()]++;
+        sb.append("共 ").append(ruleCount).append(" 条规则");
+        for (Kind k : Kind.values()) {
+            if (counts[k.ordinal()] > 0) sb.append("，").append(k.label).append(" ").append(counts[k.ordinal()]);
+        }
+        sb.append("\n");
+        if (findings.isEmpty()) sb.append("未发现问题\n");
+        for (Finding f : findings) sb.append("[").append(f.kind.label).append("] ").append(f.message).append("\n");
+        return sb.toString();
+    }
+
+    private static void checkMergeable(AclRule pr, AclMatch pm, AclRule r, AclMatch m, List<Finding> findings) {
+        if (!pr.action.equals(r.action) || pm.protocol != m.protocol || pm.srcPortLo != m.srcPortLo
+                || pm.srcPortHi != m.srcPortHi || pm.dstPortLo != m.dstPortLo || pm.dstPortHi != m.dstPortHi) {
+            return;
+        }
+        boolean sameSrc = pm.srcNet == m.srcNet && pm.srcLen == m.srcLen;
+        boolean sameDst = pm.dstNet == m.dstNet && pm.dstLen == m.dstLen;
+        if (sameDst && siblings(pm.srcNet, pm.srcLen, m.srcNet, m.srcLen)) {
+            findings.add(new Finding(Kind.MERGEABLE, r, pr, "rule " + pr.id + " 与 rule " + r.id + " 可合并为源地址 "
+                    + AclMatch.formatAddress(m.srcNet, m.srcLen - 1)));
+        } else if (sameSrc && siblings(pm.dstNet, pm.dstLen, m.dstNet, m.dstLen)) {
+            findings.add(new Finding(Kind.MERGEABLE, r, pr, "rule " + pr.id + " 与 rule " + r.id + " 可合并为目的地址 "
+                    + AclMatch.formatAddress(m.dstNet, m.dstLen - 1)));
+        }
+    }
+
+    // 同长度且只有最后一位不同的两个前缀可合并为上一级前缀
+    private static boolean siblings(int a, int aLen, int b, int bLen) {
+        return aLen == bLen && aLen > 0 && (a ^ b) == 1 << (32 - aLen);
+    }
+
+    /**
+     * 覆盖 m 的已入索引规则中下标最小的一条（即最先匹配的），没有返回 -1
+     * 必须走完两条祖先路径：树中先找到的（源前缀最短的）不一定是序号最小的
+     */
+    private static int findCover(AddrNode srcRoot, AclMatch m) {
+        int best = -1;
+        AddrNode s = srcRoot;
+        for (int depth = 0; s != null; depth++) {
+            if (s.dst != null) {
+                AddrNode d = s.dst;
+                for (int dd = 0; d != null; dd++) {
+                    if (d.byProto != null) {
+                        best = min(best, findPorts(d.byProto.get(m.protocol), m));
+                        if (m.protocol != AclMatch.PROTO_IP) best = min(best, findPorts(d.byProto.get(AclMatch.PROTO_IP), m));
+                    }
+                    if (dd == m.dstLen) break;
+                    d = (m.dstNet << dd) < 0 ? d.one : d.zero;
+                }
+            }
+            if (depth == m.srcLen) break;
+            s = (m.srcNet << depth) < 0 ? s.one : s.zero;
+        }
+        return best;
+    }
+
+    // 两个下标（-1 表示无）中较小的有效值
+    private static int min(int a, int b) {
+        if (a < 0) return b;
+        return b < 0 ? a : Math.min(a, b);
+    }
+
+    private static int findPorts(PortTree<PortTree<Integer>> srcPorts, AclMatch m) {
+        if (srcPorts == null) return -1;
+        return srcPorts.find(m.srcPortLo, m.srcPortHi, dst -> dst.find(m.dstPortLo, m.dstPortHi, idx -> idx));
+    }
+
+    private static void insert(AddrNode srcRoot, AclMatch m, int index) {
+        AddrNode s = srcRoot.descend(m.srcNet, m.srcLen);
+        if (s.dst == null) s.dst = new AddrNode();
+        AddrNode d = s.dst.descend(m.dstNet, m.dstLen);
+        if (d.byProto == null) d.byProto = new HashMap<>(4);
+        PortTree<PortTree<Integer>> srcPorts = d.byProto.computeIfAbsent(m.protocol, p -> new PortTree<>());
+        PortTree<Integer> dstPorts = srcPorts.get(m.srcPortLo, m.srcPortHi);
+        if (dstPorts == null) {
+            dstPorts = new PortTree<>();
+            srcPorts.put(m.srcPortLo, m.srcPortHi, dstPorts);
+        }
+        if (dstPorts.get(m.dstPortLo, m.dstPortHi) == null) dstPorts.put(m.dstPortLo, m.dstPortHi, index);
+    }
+
+    // 二进制前缀树节点；源前缀树节点挂目的前缀树，目的前缀树节点挂按协议分的端口索引
+    private static class AddrNode {
+        AddrNode zero, one;
+        AddrNode dst;
+        Map<Integer, PortTree<PortTree<Integer>>> byProto;
+
+        AddrNode descend(int net, int len) {
+            AddrNode n = this;
+            for (int i = 0; i < len; i++) {
+                if ((net << i) < 0) {
+                    if (n.one == null) n.one = new AddrNode();
+                    n = n.one;
+                } else {
+                    if (n.zero == null) n.zero = new AddrNode();
+                    n = n.zero;
+                }
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 端口区间树：以区间下界为键的稀疏线段树（0~65535），每个节点记录子树内区间上界的最大值，
+     * 查找包含 [lo, hi] 的区间时只进入下界 <= lo 且最大上界 >= hi 的子树
+     */
+    static class PortTree<V> {
+        private final Seg<V> root = new Seg<>();
+
+        private static class Seg<V> {
+            Seg<V> left, right;
+            int maxHi = -1;
+            // 叶子：同一下界的 {上界, 值}
+            int[] his;
+            List<V> values;
+        }
+
+        V get(int lo, int hi) {
+            Seg<V> n = root;
+            int a = 0, b = AclMatch.PORT_MAX;
+            while (a < b && n != null) {
+                int mid = (a + b) >>> 1;
+                if (lo <= mid) {
+                    n = n.left;
+                    b = mid;
+                } else {
+                    n = n.right;
+                    a = mid + 1;
+                }
+            }
+            if (n == null || n.his == null) return null;
+            for (int i = 0; i < n.values.size(); i++) if (n.his[i] == hi) return n.values.get(i);
+            return null;
+        }
+
+        void put(int lo, int hi, V value) {
+            Seg<V> n = root;
+            int a = 0, b = AclMatch.PORT_MAX;
+            while (true) {
+                n.maxHi = Math.max(n.maxHi, hi);
+                if (a == b) break;
+                int mid = (a + b) >>> 1;
+                if (lo <= mid) {
+                    if (n.left == null) n.left = new Seg<>();
+                    n = n.left;
+                    b = mid;
+                } else {
+                    if (n.right == null) n.right = new Seg<>();
+                    n = n.right;
+                    a = mid + 1;
+                }
+            }
+            if (n.values == null) {
+                n.values = new ArrayList<>(1);
+                n.his = new int[1];
+            } else if (n.values.size() == n.his.length) {
+                n.his = Arrays.copyOf(n.his, n.his.length * 2);
+            }
+            n.his[n.values.size()] = hi;
+            n.values.add(value);
+        }
+
+        /**
+         * 对每个包含 [lo, hi] 的区间的值调用 fn，返回非负结果中的最小值，没有返回 -1
+         */
+        int find(int lo, int hi, ToIntFunction<V> fn) {
+            return find(root, 0, AclMatch.PORT_MAX, lo, hi, fn);
+        }
+
+        private int find(Seg<V> n, int a, int b, int lo, int hi, ToIntFunction<V> fn) {
+            if (n == null || a > lo || n.maxHi < hi) return -1;
+            if (a == b) {
+                int best = -1;
+                for (int i = 0; i < n.values.size(); i++) {
+                    if (n.his[i] < hi) continue;
+                    best = min(best, fn.applyAsInt(n.values.get(i)));
+                }
+                return best;
+            }
+            int mid = (a + b) >>> 1;
+            return min(find(n.left, a, mid, lo, hi, fn), find(n.right, mid + 1, b, lo, hi, fn));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package engine;
+
+import model.AclRule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ACL报文分类仿真（位向量算法）
+ * 1. 每个维度（协议、源地址、目的地址、源端口、目的端口）按规则区间端点切成基本区间，
+ *    每个基本区间保存匹配该区间的规则位图，内容相同的位图共享
+ * 2. 查找时每个维度二分定位区间，五个位图逐字按位与，第一个非零字的最低位即首条命中规则
+ * 3. 内存约为 基本区间数 × 规则数 / 8 字节，一万条规则的ACL在数十MB以内
+ * 构造后只读，查找可多线程并发；命中计数非线程安全。
+ */
+public class AclClassifier {
+    private static final int DIMS = 5;
+
+    private final List<AclRule> rules;
+    private final int[] ruleIndex; // 位号 -> 规则下标（跳过无法解析的规则）
+    private final int words;
+    // starts[d]：基本区间起点（地址维度为翻转符号位后的有符号比较值）；bits[d][i]：第 i 个区间的规则位图
+    private final int[][] starts = new int[DIMS][];
+    private final long[][][] bits = new long[DIMS][][];
+    private final int unparsed;
+    private final long[] hits;
+    private long lookups, misses;
+
+    public static class ReplayResult {
+        public long flows, matched, skippedLines;
+        public long nanos;
+    }
+
+    public AclClassifier(List<AclRule> rules) {
+        this.rules = new ArrayList<>(rules);
+        List<AclMatch> matches = new ArrayList<>(rules.size());
+        int[] index = new int[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            AclMatch m = AclMatch.parse(rules.get(i));
+            if (m == null) continue;
+            index[matches.size()] = i;
+            matches.add(m);
+        }
+        ruleIndex = Arrays.copyOf(index, matches.size());
+        unparsed = rules.size() - matches.size();
+        words = Math.max(1, (matches.size() + 63) >>> 6);
+        int n = matches.size();
+        int[] lo = new int[n], hi = new int[n];
+        for (int d = 0; d < DIMS; d++) {
+            for (int r = 0; r < n; r++) {
+                AclMatch m = matches.get(r);
+                switch (d) {
+                    case 0:
+                        lo[r] = m.protocol == AclMatch.PROTO_IP ? 0 : m.protocol;
+                        hi[r] = m.protocol == AclMatch.PROTO_IP ? 255 : m.protocol;
+                        break;
+                    case 1:
+                        lo[r] = m.srcNet ^ Integer.MIN_VALUE;
+                        hi[r] = (m.srcNet | ~AclMatch.mask(m.srcLen)) ^ Integer.MIN_VALUE;
+                        break;
+                    case 2:
+                        lo[r] = m.dstNet ^ Integer.MIN_VALUE;
+                        hi[r] = (m.dstNet | ~AclMatch.mask(m.dstLen)) ^ Integer.MIN_VALUE;
+                        break;
+                    case 3:
+                        lo[r] = m.srcPortLo;
+                        hi[r] = m.srcPortHi;
+                        break;
+                    default:
+                        lo[r] = m.dstPortLo;
+                        hi[r] = m.dstPortHi;
+                        break;
+                }
+            }
+            build(d, lo, hi, n);
+        }
+        hits = new long[rules.size()];
+    }
+
+    // 扫描线：按端点顺序增删规则位，区间位图变化时才复制一份
+    private void build(int d, int[] lo, int[] hi, int n) {
+        long[] events = new long[2 * n];
+        int e = 0;
+        for (int r = 0; r < n; r++) {
+            // 事件值：高32位为坐标（有符号顺序），低32位为 规则号*2+（1表示移除）
+            events[e++] = (long) lo[r] << 32 | (long) r << 1;
+            if (hi[r] != Integer.MAX_VALUE) events[e++] = (long) (hi[r] + 1) << 32 | (long) r << 1 | 1;
+        }
+        events = Arrays.copyOf(events, e);
+        Arrays.sort(events);
+        int[] pos = new int[e + 1];
+        long[][] sets = new long[e + 1][];
+        Map<BitsKey, long[]> shared = new HashMap<>();
+        long[] cur = new long[words];
+        int count = 0;
+        pos[count] = Integer.MIN_VALUE;
+        sets[count++] = intern(shared, cur);
+        for (int i = 0; i < e; ) {
+            int at = (int) (events[i] >> 32);
+            while (i < e && (int) (events[i] >> 32) == at) {
+                int low = (int) events[i];
+                int r = low >>> 1;
+                if ((low & 1) == 0) cur[r >>> 6] |= 1L << r;
+                else cur[r >>> 6] &= ~(1L << r);
+                i++;
+            }
+            if (pos[count - 1] == at) count--;
+            pos[count] = at;
+            sets[count++] = intern(shared, cur);
+        }
+        starts[d] = Arrays.copyOf(pos, count);
+        bits[d] = Arrays.copyOf(sets, count);
+    }
+
+    private long[] intern(Map<BitsKey, long[]> shared, long[] cur) {
+        BitsKey key = new BitsKey(cur.clone());
+        long[] existing = shared.get(key);
+        if (existing != null) return existing;
+        shared.put(key, key.bits);
+        return key.bits;
+    }
+
+    private static class BitsKey {
+        final long[] bits;
+        final int hash;
+
+        BitsKey(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitsKey && Arrays.equals(bits, ((BitsKey) o).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 首条命中规则在输入列表中的下标，未命中返回 -1（协议为协议号，非TCP/UDP端口传 0）
+     */
+    public int classify(int protocol, int src, int dst, int srcPort, int dstPort) {
+        long[] a = bits[0][find(0, protocol)];
+        long[] b = bits[1][find(1, src ^ Integer.MIN_VALUE)];
+        long[] c = bits[2][find(2, dst ^ Integer.MIN_VALUE)];
+        long[] s = bits[3][find(3, srcPort)];
+        long[] t = bits[4][find(4, dstPort)];
+        for (int w = 0; w < words; w++) {
+            long x = a[w] & b[w] & c[w] & s[w] & t[w];
+            if (x != 0) return ruleIndex[(w << 6) + Long.numberOfTrailingZeros(x)];
+        }
+        return -1;
+    }
+
+    private int find(int d, int key) {
+        int[] p = starts[d];
+        int i = Arrays.binarySearch(p, key);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * 查找并计入命中计数
+     */
+    public int count(int protocol, int src, int dst, int srcPort, int dstPort, long packets) {
+        int r = classify(protocol, src, dst, srcPort, dstPort);
+        lookups += packets;
+        if (r < 0) misses += packets;
+        else hits[r] += packets;
+        return r;
+    }
+
+    /**
+     * 批量回放流量文件，每行：协议,源IP,目的IP,源端口,目的端口[,报文数]；
+     * 协议可写名称或协议号，无法解析的行（如表头）跳过
+     */
+    public ReplayResult replay(BufferedReader in) throws IOException {
+        ReplayResult result = new ReplayResult();
+        long start = System.nanoTime();
+        String line;
+        int[] cut = new int[6];
+        while ((line = in.readLine()) != null) {
+            int fields = 0, from = 0;
+            while (fields < 6) {
+                int comma = line.indexOf(',', from);
+                cut[fields++] = comma < 0 ? line.length() : comma;
+                if (comma < 0) break;
+                from = comma + 1;
+            }
+            if (fields < 5) {
+                result.skippedLines++;
+                continue;
+            }
+            int proto = AclMatch.parseProtocol(line.substring(0, cut[0]));
+            long src = IpTrie.parseIpv4(line.subSequence(cut[0] + 1, cut[1]).toString().trim());
+            long dst = IpTrie.parseIpv4(line.subSequence(cut[1] + 1, cut[2]).toString().trim());
+            int sp = parseInt(line, cut[2] + 1, cut[3]);
+            int dp = parseInt(line, cut[3] + 1, cut[4]);
+            long packets = fields == 6 ? parseInt(line, cut[4] + 1, cut[5]) : 1;
+            if (proto < 0 || src < 0 || dst < 0 || sp < 0 || dp < 0 || packets < 0) {
+                result.skippedLines++;
+                continue;
+            }
+            if (count(proto, (int) src, (int) dst, sp, dp, packets) >= 0) result.matched += packets;
+            result.flows += packets;
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // 非负十进制整数，格式不符返回 -1
+    private static int parseInt(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') from++;
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        if (from == to || to - from > 9) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    public long getHits(int ruleIndex) {
+        return hits[ruleIndex];
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getUnparsedCount() {
+        return unparsed;
+    }
+
+    public void resetCounters() {
+        Arrays.fill(hits, 0);
+        lookups = 0;
+        misses = 0;
+    }
+
+    /**
+     * 按命中数建议的新顺序（输入列表下标）：命中多的规则向前移动，
+     * 但不越过与它有交集且动作不同的规则，保证每个报文的处理结果不变
+     */
+    public int[] suggestOrder() {
+        List<AclMatch> parsed = new ArrayList<>(rules.size());
+        for (AclRule r : rules) parsed.add(AclMatch.parse(r));
+        int[] order = new int[rules.size()];
+        for (int i = 0; i < order.length; i++) {
+            int k = i;
+            AclMatch m = parsed.get(i);
+            while (k > 0 && m != null) {
+                int prev = order[k - 1];
+                AclMatch pm = parsed.get(prev);
+                if (pm == null || hits[prev] >= hits[i]) break;
+                if (pm.overlaps(m) && !rules.get(prev).action.equals(rules.get(i).action)) break;
+                order[k] = prev;
+                k--;
+            }
+            order[k] = i;
+        }
+        return order;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ACL规则精简：在保持首条匹配语义的前提下减少规则数
+ * 1. 删除被前面单条规则完全覆盖的规则（重复、冗余、被遮蔽）
+ * 2. 动作相同、只有一个字段不同的规则合并：兄弟前缀合并为上一级网段，相邻或重叠的端口区间合并为一个区间。
+ *    后一条规则只越过与它不相交或动作相同的规则向前合并，最多向前查看 WINDOW 条
+ * 3. 反复合并直到不再变化，最后再删一次被覆盖的规则
+ * 无法解析的规则原样保留，且不与任何规则合并、不被越过。
+ */
+public class AclCompiler {
+    static final int WINDOW = 64;
+
+    public static class Result {
+        public final Acl acl;
+        public final int rulesBefore, rulesAfter;
+        public final int tcamBefore, tcamAfter;
+
+        Result(Acl acl, int rulesBefore, int rulesAfter, int tcamBefore, int tcamAfter) {
+            this.acl = acl;
+            this.rulesBefore = rulesBefore;
+            this.rulesAfter = rulesAfter;
+            this.tcamBefore = tcamBefore;
+            this.tcamAfter = tcamAfter;
+        }
+
+        public String summary() {
+            return "规则数 " + rulesBefore + " -> " + rulesAfter + "，预计TCAM条目 " + tcamBefore + " -> " + tcamAfter;
+        }
+    }
+
+    private AclCompiler() {
+    }
+
+    /**
+     * 返回精简后的ACL（规则保留原序号，未变化的规则对象原样复用），输入不被修改
+     */
+    public static Result compile(Acl acl) {
+        List<AclRule> rules = dropCovered(acl.rules);
+        List<AclMatch> matches = new ArrayList<>(rules.size());
+        for (AclRule r : rules) matches.add(AclMatch.parse(r));
+        boolean changed = true;
+        while (changed) changed = mergePass(rules, matches);
+        rules = dropCovered(rules);
+
+        Acl out = new Acl(acl.number, acl.type, acl.description);
+        out.rules.addAll(rules);
+        return new Result(out, acl.rules.size(), rules.size(), tcamEntries(acl.rules), tcamEntries(rules));
+    }
+
+    /**
+     * 预计TCAM条目数：端口区间须拆成若干前缀掩码，每条规则占用 源端口拆分数 × 目的端口拆分数 条
+     */
+    public static int tcamEntries(List<AclRule> rules) {
+        int total = 0;
+        for (AclRule r : rules) {
+            AclMatch m = AclMatch.parse(r);
+            total += m == null ? 1 : rangePrefixes(m.srcPortLo, m.srcPortHi) * rangePrefixes(m.dstPortLo, m.dstPortHi);
+        }
+        return total;
+    }
+
+    /**
+     * 覆盖闭区间 [lo, hi] 所需的最少前缀数
+     */
+    static int rangePrefixes(int lo, int hi) {
+        int count = 0;
+        long a = lo;
+        while (a <= hi) {
+            // 以 a 为起点、不超出 hi 的最大对齐块
+            long size = a == 0 ? 1L << 16 : Long.lowestOneBit(a);
+            while (a + size - 1 > hi) size >>= 1;
+            a += size;
+            count++;
+        }
+        return count;
+    }
+
+    private static List<AclRule> dropCovered(List<AclRule> rules) {
+        List<AclAnalyzer.Finding> findings = AclAnalyzer.analyze(rules);
+        Set<AclRule> drop = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AclAnalyzer.Finding f : findings) {
+            if (f.kind == AclAnalyzer.Kind.DUPLICATE || f.kind == AclAnalyzer.Kind.REDUNDANT
+                    || f.kind == AclAnalyzer.Kind.SHADOWED) {
+                drop.add(f.rule);
+            }
+        }
+        List<AclRule> kept = new ArrayList<>(rules.size() - drop.size());
+        for (AclRule r : rules) if (!drop.contains(r)) kept.add(r);
+        return kept;
+    }
+
+    // 一轮合并，有变化返回 true；被合并掉的规则在本轮结束时移除
+    private static boolean mergePass(List<AclRule> rules, List<AclMatch> matches) {
+        boolean changed = false;
+        for (int j = 1; j < rules.size(); j++) {
+            AclMatch mj = matches.get(j);
+            if (mj == null) continue;
+            AclRule rj = rules.get(j);
+            for (int k = j - 1; k >= 0 && k >= j - WINDOW; k--) {
+                AclMatch mk = matches.get(k);
+                if (mk == null) break;
+                AclRule rk = rules.get(k);
+                if (!rk.action.equals(rj.action)) {
+                    if (mk.overlaps(mj)) break;
+                    continue;
+                }
+                AclMatch merged = merge(mk, mj);
+                if (merged == null) continue;
+                matches.set(k, merged);
+                rules.set(k, toRule(rk, merged));
+                matches.set(j, null);
+                rules.set(j, null);
+                changed = true;
+                break;
+            }
+        }
+        if (changed) {
+            int w = 0;
+            for (int i = 0; i < rules.size(); i++) {
+                if (rules.get(i) == null) continue;
+                rules.set(w, rules.get(i));
+                matches.set(w, matches.get(i));
+                w++;
+            }
+            rules.subList(w, rules.size()).clear();
+            matches.subList(w, matches.size()).clear();
+        }
+        return changed;
+    }
+
+    /**
+     * 两条规则的并集恰好是一条规则时返回合并结果，否则返回 null
+     */
+    static AclMatch merge(AclMatch a, AclMatch b) {
+        if (a.protocol != b.protocol) return null;
+        boolean src = a.srcNet == b.srcNet && a.srcLen == b.srcLen;
+        boolean dst = a.dstNet == b.dstNet && a.dstLen == b.dstLen;
+        boolean sp = a.srcPortLo == b.srcPortLo && a.srcPortHi == b.srcPortHi;
+        boolean dp = a.dstPortLo == b.dstPortLo && a.dstPortHi == b.dstPortHi;
+        if (dst && sp && dp && a.srcLen == b.srcLen && a.srcLen > 0 && (a.srcNet ^ b.srcNet) == 1 << (32 - a.srcLen)) {
+            return new AclMatch(a.protocol, a.srcNet, a.srcLen - 1, a.dstNet, a.dstLen,
+                    a.srcPortLo, a.srcPortHi, a.dstPortLo, a.dstPortHi);
+        }
+        if (src && sp && dp && a.dstLen == b.dstLen && a.dstLen > 0 && (a.dstNet ^ b.dstNet) == 1 << (32 - a.dstLen)) {
+            return new AclMatch(a.protocol, a.srcNet, a.srcLen, a.dstNet, a.dstLen - 1,
+                    a.srcPortLo, a.srcPortHi, a.dstPortLo, a.dstPortHi);
+        }
+        if (src && dst && dp && a.srcPortLo <= b.srcPortHi + 1 && b.srcPortLo <= a.srcPortHi + 1) {
+            return new AclMatch(a.protocol, a.srcNet, a.srcLen, a.dstNet, a.dstLen,
+                    Math.min(a.srcPortLo, b.srcPortLo), Math.max(a.srcPortHi, b.srcPortHi), a.dstPortLo, a.dstPortHi);
+        }
+        if (src && dst && sp && a.dstPortLo <= b.dstPortHi + 1 && b.dstPortLo <= a.dstPortHi + 1) {
+            return new AclMatch(a.protocol, a.srcNet, a.srcLen, a.dstNet, a.dstLen,
+                    a.srcPortLo, a.srcPortHi, Math.min(a.dstPortLo, b.dstPortLo), Math.max(a.dstPortHi, b.dstPortHi));
+        }
+        return null;
+    }
+
+    private static AclRule toRule(AclRule base, AclMatch m) {
+        boolean ports = m.protocol == 6 || m.protocol == 17;
+        return new AclRule(base.id, base.action, base.protocol,
+                AclMatch.formatAddress(m.srcNet, m.srcLen), ports ? AclMatch.formatPorts(m.srcPortLo, m.srcPortHi) : base.sourcePort,
+                AclMatch.formatAddress(m.dstNet, m.dstLen), ports ? AclMatch.formatPorts(m.dstPortLo, m.dstPortHi) : base.destPort,
+                base.description);
+    }
+}
\ No newline at end of file
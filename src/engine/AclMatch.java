@@ -0,0 +1,201 @@
+package engine;
+
+import model.AclRule;
+
+/**
+ * ACL规则匹配条件的数值形式：协议、源/目的前缀、源/目的端口区间
+ * 地址支持 any、单个IP、"IP 反掩码"（须为连续反掩码）和 CIDR；
+ * 端口支持 any、"80"、"eq 80"、"range 1000 2000"、"gt 1024"、"lt 1024"。
+ */
+public class AclMatch {
+    public static final int PROTO_IP = -1; // ip 匹配所有协议
+    public static final int PORT_MAX = 65535;
+
+    public final int protocol;
+    public final int srcNet, srcLen;
+    public final int dstNet, dstLen;
+    public final int srcPortLo, srcPortHi;
+    public final int dstPortLo, dstPortHi;
+
+    public AclMatch(int protocol, int srcNet, int srcLen, int dstNet, int dstLen,
+                    int srcPortLo, int srcPortHi, int dstPortLo, int dstPortHi) {
+        this.protocol = protocol;
+        this.srcNet = srcNet & mask(srcLen);
+        this.srcLen = srcLen;
+        this.dstNet = dstNet & mask(dstLen);
+        this.dstLen = dstLen;
+        this.srcPortLo = srcPortLo;
+        this.srcPortHi = srcPortHi;
+        this.dstPortLo = dstPortLo;
+        this.dstPortHi = dstPortHi;
+    }
+
+    /**
+     * 解析规则的匹配条件，无法解析（如不连续反掩码）返回 null
+     */
+    public static AclMatch parse(AclRule r) {
+        int proto = parseProtocol(r.protocol);
+        int[] src = parseAddress(r.source);
+        int[] dst = parseAddress(r.destination);
+        if (proto == Integer.MIN_VALUE || src == null || dst == null) return null;
+        int[] sp = {0, PORT_MAX}, dp = {0, PORT_MAX};
+        // 只有TCP/UDP的端口条件有意义
+        if (proto == 6 || proto == 17) {
+            sp = parsePorts(r.sourcePort);
+            dp = parsePorts(r.destPort);
+            if (sp == null || dp == null) return null;
+        }
+        return new AclMatch(proto, src[0], src[1], dst[0], dst[1], sp[0], sp[1], dp[0], dp[1]);
+    }
+
+    /**
+     * 协议号，ip 为 PROTO_IP，无法识别返回 Integer.MIN_VALUE
+     */
+    public static int parseProtocol(String s) {
+        if (s == null) return Integer.MIN_VALUE;
+        switch (s.trim().toLowerCase()) {
+            case "ip":
+                return PROTO_IP;
+            case "icmp":
+                return 1;
+            case "tcp":
+                return 6;
+            case "udp":
+                return 17;
+            case "gre":
+                return 47;
+            case "ospf":
+                return 89;
+            default:
+                try {
+                    int n = Integer.parseInt(s.trim());
+                    return n >= 0 && n <= 255 ? n : Integer.MIN_VALUE;
+                } catch (NumberFormatException e) {
+                    return Integer.MIN_VALUE;
+                }
+        }
+    }
+
+    /**
+     * 地址条件解析为 {网络, 前缀长度}，无法解析返回 null
+     */
+    public static int[] parseAddress(String s) {
+        if (s == null) return null;
+        s = s.trim();
+        if (s.isEmpty() || s.equalsIgnoreCase("any")) return new int[]{0, 0};
+        if (s.indexOf('/') >= 0) return IpTrie.parseCidr(s);
+        String[] f = s.split("\\s+");
+        long ip = IpTrie.parseIpv4(f[0]);
+        if (ip < 0 || f.length > 2) return null;
+        if (f.length == 1 || f[1].equals("0")) return new int[]{(int) ip, 32};
+        long wild = IpTrie.parseIpv4(f[1]);
+        if (wild < 0) return null;
+        // 反掩码须为低位连续的1
+        if ((wild & (wild + 1)) != 0) return null;
+        return new int[]{(int) ip, 32 - Long.bitCount(wild)};
+    }
+
+    /**
+     * 端口条件解析为闭区间 {lo, hi}，无法解析返回 null
+     */
+    public static int[] parsePorts(String s) {
+        if (s == null) return null;
+        String[] f = s.trim().toLowerCase().split("\\s+");
+        try {
+            if (f[0].isEmpty() || f[0].equals("any")) return new int[]{0, PORT_MAX};
+            if (f.length == 1) return port(Integer.parseInt(f[0]), Integer.parseInt(f[0]));
+            switch (f[0]) {
+                case "eq":
+                    return port(Integer.parseInt(f[1]), Integer.parseInt(f[1]));
+                case "gt":
+                    return port(Integer.parseInt(f[1]) + 1, PORT_MAX);
+                case "lt":
+                    return port(0, Integer.parseInt(f[1]) - 1);
+                case "range":
+                    return f.length == 3 ? port(Integer.parseInt(f[1]), Integer.parseInt(f[2])) : null;
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int[] port(int lo, int hi) {
+        return lo >= 0 && hi <= PORT_MAX && lo <= hi ? new int[]{lo, hi} : null;
+    }
+
+    public static int mask(int len) {
+        return len == 0 ? 0 : -1 << (32 - len);
+    }
+
+    /**
+     * 本条件匹配的报文是否全部被 o 匹配
+     */
+    public boolean coveredBy(AclMatch o) {
+        return (o.protocol == PROTO_IP || o.protocol == protocol)
+                && o.srcLen <= srcLen && (srcNet & mask(o.srcLen)) == o.srcNet
+                && o.dstLen <= dstLen && (dstNet & mask(o.dstLen)) == o.dstNet
+                && o.srcPortLo <= srcPortLo && o.srcPortHi >= srcPortHi
+                && o.dstPortLo <= dstPortLo && o.dstPortHi >= dstPortHi;
+    }
+
+    /**
+     * 是否存在同时被两者匹配的报文
+     */
+    public boolean overlaps(AclMatch o) {
+        int sl = Math.min(srcLen, o.srcLen), dl = Math.min(dstLen, o.dstLen);
+        return (protocol == PROTO_IP || o.protocol == PROTO_IP || protocol == o.protocol)
+                && ((srcNet ^ o.srcNet) & mask(sl)) == 0 && ((dstNet ^ o.dstNet) & mask(dl)) == 0
+                && srcPortLo <= o.srcPortHi && o.srcPortLo <= srcPortHi
+                && dstPortLo <= o.dstPortHi && o.dstPortLo <= dstPortHi;
+    }
+
+    /**
+     * 报文是否匹配（protocol 为具体协议号，TCP/UDP以外端口传 0）
+     */
+    public boolean matches(int proto, int src, int dst, int srcPort, int dstPort) {
+        return (protocol == PROTO_IP || protocol == proto)
+                && (src & mask(srcLen)) == srcNet && (dst & mask(dstLen)) == dstNet
+                && srcPort >= srcPortLo && srcPort <= srcPortHi && dstPort >= dstPortLo && dstPort <= dstPortHi;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof AclMatch)) return false;
+        AclMatch o = (AclMatch) obj;
+        return protocol == o.protocol && srcNet == o.srcNet && srcLen == o.srcLen && dstNet == o.dstNet
+                && dstLen == o.dstLen && srcPortLo == o.srcPortLo && srcPortHi == o.srcPortHi
+                && dstPortLo == o.dstPortLo && dstPortHi == o.dstPortHi;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = protocol;
+        h = h * 31 + srcNet;
+        h = h * 31 + srcLen;
+        h = h * 31 + dstNet;
+        h = h * 31 + dstLen;
+        h = h * 31 + (srcPortLo << 16 | srcPortHi);
+        return h * 31 + (dstPortLo << 16 | dstPortHi);
+    }
+
+    /**
+     * 地址的VRP写法："any"、"IP 0" 或 "网络 反掩码"
+     */
+    public static String formatAddress(int net, int len) {
+        if (len == 0) return "any";
+        return IpTrie.formatIpv4(net) + " " + IpTrie.formatIpv4(~mask(len));
+    }
+
+    /**
+     * 端口区间的VRP写法
+     */
+    public static String formatPorts(int lo, int hi) {
+        if (lo == 0 && hi == PORT_MAX) return "any";
+        if (lo == hi) return String.valueOf(lo);
+        if (hi == PORT_MAX) return "gt " + (lo - 1);
+        if (lo == 0) return "lt " + (hi + 1);
+        return "range " + lo + " " + hi;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+
+/**
+ * ACL命令渲染
+ */
+public class AclRenderer implements CommandRenderer<Acl> {
+    @Override
+    public void render(Acl acl, CommandSink out) {
+        out.append("acl ").append("高级".equals(acl.type) ? "number " : "basic ").append(acl.number).append("\n");
+        if (!acl.description.isEmpty()) out.append(" description ").append(acl.description).append("\n");
+        for (AclRule r : acl.rules) {
+            out.append(" rule ").append(r.id).append(" ").append(r.action).append(" ").append(r.protocol);
+            out.append(" source ").append(r.source);
+            if (!"any".equals(r.sourcePort)) out.append(" source-port ").append(portCondition(r.sourcePort));
+            out.append(" destination ").append(r.destination);
+            if (!"any".equals(r.destPort)) out.append(" destination-port ").append(portCondition(r.destPort));
+            if (!r.description.isEmpty()) out.append(" // ").append(r.description);
+            out.append("\n");
+        }
+        out.append("quit\n");
+    }
+
+    // 端口字段可直接写 "eq 80"、"range 1000 2000"、"gt 1024"、"lt 1024"，只写端口号时按 eq 处理
+    private static String portCondition(String port) {
+        String p = port.trim();
+        return p.startsWith("eq ") || p.startsWith("range ") || p.startsWith("gt ") || p.startsWith("lt ") ? p : "eq " + p;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按ACL号保存规则，每个ACL的规则按序号有序
+ * 1. 规则按序号存于TreeMap，增删改为O(log n)
+ * 2. 按下标读取时使用有序数组快照，修改后首次读取时重建，之后O(1)
+ * 3. 切换ACL只是换一个规则集，不复制规则
+ * 须在同一线程（事件派发线程）中使用。
+ */
+public class AclRepository {
+    private final TreeMap<Integer, RuleSet> acls = new TreeMap<>();
+
+    /**
+     * 一个ACL的规则集
+     */
+    public static class RuleSet {
+        private final TreeMap<Integer, AclRule> rules = new TreeMap<>();
+        private AclRule[] view;
+
+        public int size() {
+            return rules.size();
+        }
+
+        /**
+         * 第 index 条规则（按序号升序）
+         */
+        public AclRule get(int index) {
+            return view()[index];
+        }
+
+        public AclRule find(int id) {
+            return rules.get(id);
+        }
+
+        /**
+         * 序号对应的下标，不存在返回 -1
+         */
+        public int indexOf(int id) {
+            if (!rules.containsKey(id)) return -1;
+            AclRule[] v = view();
+            int lo = 0, hi = v.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (v[mid].id < id) lo = mid + 1;
+                else if (v[mid].id > id) hi = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        /**
+         * 添加或替换同序号规则，返回被替换的规则
+         */
+        public AclRule put(AclRule rule) {
+            view = null;
+            return rules.put(rule.id, rule);
+        }
+
+        public AclRule remove(int id) {
+            AclRule old = rules.remove(id);
+            if (old != null) view = null;
+            return old;
+        }
+
+        public Collection<AclRule> rules() {
+            return rules.values();
+        }
+
+        private AclRule[] view() {
+            if (view == null) view = rules.values().toArray(new AclRule[0]);
+            return view;
+        }
+    }
+
+    /**
+     * ACL的规则集，不存在时创建
+     */
+    public RuleSet rules(int number) {
+        return acls.computeIfAbsent(number, n -> new RuleSet());
+    }
+
+    public boolean contains(int number) {
+        return acls.containsKey(number);
+    }
+
+    public void remove(int number) {
+        acls.remove(number);
+    }
+
+    /**
+     * ACL改号，规则随之迁移；新号已存在时返回 false
+     */
+    public boolean renumber(int from, int to) {
+        if (from == to) return true;
+        if (acls.containsKey(to)) return false;
+        RuleSet set = acls.remove(from);
+        if (set != null) acls.put(to, set);
+        return true;
+    }
+
+    public void clear() {
+        acls.clear();
+    }
+
+    public int size() {
+        return acls.size();
+    }
+
+    /**
+     * 以当前规则填充 acl.rules（按序号升序）
+     */
+    public Acl fill(Acl acl) {
+        RuleSet set = acls.get(acl.number);
+        if (set != null) acl.rules.addAll(Arrays.asList(set.view()));
+        return acl;
+    }
+
+    /**
+     * 用ACL模型替换该ACL的全部规则
+     */
+    public void load(Acl acl) {
+        RuleSet set = new RuleSet();
+        for (AclRule r : acl.rules) set.rules.put(r.id, r);
+        acls.put(acl.number, set);
+    }
+
+    public Iterable<Map.Entry<Integer, RuleSet>> entries() {
+        return acls.entrySet();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式写入字节通道的输出通道（UTF-8）
+ * 仅持有固定大小的字符/字节缓冲区，内存占用与输出总量无关。
+ */
+public class ChannelSink implements CommandSink, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final char[] digits = new char[11];
+    private long bytesWritten;
+
+    public ChannelSink(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelSink(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.chars = CharBuffer.allocate(bufferSize / 4);
+        this.bytes = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * 创建（或覆盖）文件并返回写入该文件的输出通道
+     */
+    public static ChannelSink open(Path file) throws IOException {
+        return new ChannelSink(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    @Override
+    public ChannelSink append(CharSequence s) {
+        int i = 0, n = s.length();
+        while (i < n) {
+            if (!chars.hasRemaining()) drainChars(false);
+            int end = Math.min(n, i + chars.remaining());
+            if (s instanceof String) {
+                chars.put((String) s, i, end);
+            } else {
+                for (int k = i; k < end; k++) chars.put(s.charAt(k));
+            }
+            i = end;
+        }
+        return this;
+    }
+
+    @Override
+    public ChannelSink append(char c) {
+        if (!chars.hasRemaining()) drainChars(false);
+        chars.put(c);
+        return this;
+    }
+
+    @Override
+    public ChannelSink append(int i) {
+        // 直接写入数字字符，避免 Integer.toString 产生临时字符串
+        long v = i;
+        boolean negative = v < 0;
+        if (negative) v = -v;
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) digits[--pos] = '-';
+        for (int k = pos; k < digits.length; k++) append(digits[k]);
+        return this;
+    }
+
+    /**
+     * 已写入通道的字节数（不含缓冲区中尚未刷出的部分）
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 将缓冲内容全部写入通道
+     */
+    public void flush() {
+        drainChars(false);
+        flushBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drainChars(true);
+            while (encoder.flush(bytes) == CoderResult.OVERFLOW) flushBytes();
+            flushBytes();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drainChars(boolean endOfInput) {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                flushBytes();
+            } else {
+                break;
+            }
+        }
+        chars.compact();
+    }
+
+    private void flushBytes() {
+        bytes.flip();
+        try {
+            while (bytes.hasRemaining()) bytesWritten += channel.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bytes.clear();
+    }
+}
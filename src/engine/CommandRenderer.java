@@ -0,0 +1,25 @@
+package engine;
+
+/**
+ * 模块命令渲染器：将类型化的配置对象渲染为华为VRP命令行
+ *
+ * @param <T> 模块配置对象类型
+ */
+public interface CommandRenderer<T> {
+    void render(T item, CommandSink out);
+
+    default String render(T item) {
+        StringSink out = new StringSink();
+        render(item, out);
+        return out.toString();
+    }
+
+    /**
+     * 渲染用于界面展示的预览文本，超长部分截断
+     */
+    default String preview(T item) {
+        PreviewSink out = new PreviewSink();
+        render(item, out);
+        return out.toString();
+    }
+}
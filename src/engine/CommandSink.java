@@ -0,0 +1,14 @@
+package engine;
+
+/**
+ * 命令输出通道
+ * 渲染器逐段写入命令文本，具体实现决定写入内存、文件或界面预览，
+ * 从而避免为整份配置构造完整字符串。写入失败时抛出 UncheckedIOException。
+ */
+public interface CommandSink {
+    CommandSink append(CharSequence s);
+
+    CommandSink append(char c);
+
+    CommandSink append(int i);
+}
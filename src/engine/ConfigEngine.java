@@ -0,0 +1,118 @@
+package engine;
+
+import model.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 命令生成引擎（与界面无关）
+ * 各功能面板的命令预览与整机配置生成均委托到此处，可在命令行或批量任务中直接调用。
+ * 渲染器均无状态，同一实例可被多个线程共享。
+ * 配置要求精简ACL时，按ACL对象缓存精简结果：批量渲染时各设备共用模板中的同一批ACL，只精简一次。
+ */
+public class ConfigEngine {
+    public final VlanRenderer vlan = new VlanRenderer();
+    public final StpRenderer stp = new StpRenderer();
+    public final EthTrunkRenderer ethTrunk = new EthTrunkRenderer();
+    public final PortSecurityRenderer portSecurity = new PortSecurityRenderer();
+    public final IpRenderer ip = new IpRenderer();
+    public final RouteRenderer route = new RouteRenderer();
+    public final AclRenderer acl = new AclRenderer();
+    public final QosRenderer qos = new QosRenderer();
+    public final DhcpRenderer dhcp = new DhcpRenderer();
+    public final NatRenderer nat = new NatRenderer();
+    public final SnmpRenderer snmp = new SnmpRenderer();
+    public final MirrorRenderer mirror = new MirrorRenderer();
+    public final UserRenderer user = new UserRenderer();
+
+    private static final ConfigEngine DEFAULT = new ConfigEngine();
+
+    // 原ACL -> 精简后的ACL；Acl 未重写 equals，按对象本身区分
+    private final Map<Acl, Acl> optimizedAcls = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static ConfigEngine getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 渲染单台设备的完整启动配置，各模块之间以 # 分隔
+     */
+    public void renderDevice(DeviceConfig cfg, CommandSink out) {
+        out.append("sysname ").append(cfg.device.name).append("\n");
+        out.append("#\n");
+        if (!cfg.vlans.isEmpty()) {
+            vlan.renderBatch(cfg.vlans, cfg.trunks, out);
+            out.append("#\n");
+        }
+        if (cfg.stp != null) {
+            stp.render(cfg.stp, out);
+            out.append("#\n");
+        }
+        if (!cfg.trunks.isEmpty()) {
+            for (EthTrunk t : cfg.trunks) ethTrunk.render(t, out);
+            out.append("#\n");
+        }
+        if (!cfg.portSecurity.isEmpty()) {
+            for (PortSecurityEntry p : cfg.portSecurity) portSecurity.render(p, out);
+            out.append("#\n");
+        }
+        if (!cfg.interfaces.isEmpty()) {
+            for (IpInterface i : cfg.interfaces) ip.render(i, out);
+            out.append("#\n");
+        }
+        if (!cfg.routes.isEmpty()) {
+            route.renderBatch(cfg.routes, out);
+            out.append("#\n");
+        }
+        if (!cfg.acls.isEmpty()) {
+            for (Acl a : cfg.acls) acl.render(cfg.optimizeAcls ? optimized(a) : a, out);
+            out.append("#\n");
+        }
+        if (!cfg.qosPolicies.isEmpty()) {
+            qos.renderBatch(cfg.qosPolicies, out);
+            out.append("#\n");
+        }
+        if (!cfg.dhcpPools.isEmpty()) {
+            out.append("dhcp enable\n");
+            for (DhcpPool d : cfg.dhcpPools) dhcp.render(d, out);
+            out.append("#\n");
+        }
+        if (!cfg.natPolicies.isEmpty()) {
+            for (NatPolicy n : cfg.natPolicies) nat.render(n, out);
+            out.append("#\n");
+        }
+        if (cfg.snmp != null) {
+            snmp.render(cfg.snmp, out);
+            out.append("#\n");
+        }
+        if (!cfg.mirrors.isEmpty()) {
+            for (MirrorSession m : cfg.mirrors) mirror.render(m, out);
+            out.append("#\n");
+        }
+        if (!cfg.users.isEmpty()) {
+            for (LocalUser u : cfg.users) user.render(u, out);
+            out.append("#\n");
+        }
+        out.append("return\n");
+    }
+
+    public String renderDevice(DeviceConfig cfg) {
+        StringSink out = new StringSink(4096);
+        renderDevice(cfg, out);
+        return out.toString();
+    }
+
+    /**
+     * 精简后的ACL（AclCompiler），同一ACL对象只精简一次
+     */
+    public Acl optimized(Acl a) {
+        Acl o = optimizedAcls.get(a);
+        if (o == null) {
+            o = AclCompiler.compile(a).acl;
+            optimizedAcls.put(a, o);
+        }
+        return o;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,298 @@
+package engine;
+
+import model.Device;
+import model.DeviceConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量配置下发
+ * 1. 每台设备渲染完整配置后转换为交互命令（进入视图、quit返回），经 VrpSession 流水线发送
+ * 2. 固定大小线程池控制全网并发，每台设备一个会话
+ * 3. 连接或读写异常时按次数重试，命令执行错误（Error:）不重试
+ * 4. 统计吞吐（台/分钟）和单台下发耗时的P99
+ * 传输层按管理方式注册，默认只有Telnet；SSH需接入SSH库实现 PushTransport 后注册。
+ */
+public class ConfigPusher {
+    // 每个流水线窗口的命令数
+    private static final int WINDOW = 32;
+    // 在子视图中进入下一级视图的命令（OSPF 区域视图）
+    private static final String[] NESTED_VIEWS = {"area "};
+
+    private final ConfigEngine engine;
+    private final int parallelism;
+    private final int timeoutMillis;
+    private final int retries;
+    private final Map<String, PushTransport> transports = new HashMap<>();
+
+    /**
+     * @param parallelism   同时下发的设备数
+     * @param timeoutMillis 连接及等待回显的超时
+     * @param retries       连接失败时的额外重试次数
+     */
+    public ConfigPusher(ConfigEngine engine, int parallelism, int timeoutMillis, int retries) {
+        if (parallelism <= 0) throw new IllegalArgumentException("并发数须大于0: " + parallelism);
+        this.engine = engine;
+        this.parallelism = parallelism;
+        this.timeoutMillis = timeoutMillis;
+        this.retries = Math.max(0, retries);
+        transports.put("TELNET", new TelnetTransport());
+    }
+
+    /**
+     * 注册某种管理方式（SSH/Telnet）使用的传输层
+     */
+    public void setTransport(String mgmtType, PushTransport transport) {
+        transports.put(mgmtType.toUpperCase(), transport);
+    }
+
+    /**
+     * 异步下发，template 中的模块配置应用于每台设备；管理方式无法识别时使用 defaultLoginType
+     */
+    public Job push(List<Device> devices, DeviceConfig template, String username, String password, String defaultLoginType) {
+        Job job = new Job(devices, template, username, password, defaultLoginType);
+        job.start();
+        return job;
+    }
+
+    /**
+     * 将启动配置文本转换为交互下发的命令序列：
+     * 跳过 "#"、"return" 和 "//" 注释；缩进行属于上一条顶层命令进入的视图，缩进的 "area" 进入下一级视图；
+     * 渲染结果中自带的 "quit"（不论是否缩进）退回一级，离开视图时按剩余层数补 "quit"
+     */
+    public static List<String> toCommands(CharSequence config) {
+        List<String> cmds = new ArrayList<>();
+        cmds.add("system-view");
+        // 当前视图层数：0 系统视图，1 顶层命令进入的视图，2 其中的下一级视图
+        int depth = 0;
+        // 上一条是顶层命令：随后的缩进行或 quit 说明它进入了视图
+        boolean topLevel = false;
+        for (String raw : config.toString().split("\n")) {
+            String cmd = stripComment(raw).trim();
+            if (cmd.isEmpty() || cmd.equals("#") || cmd.equals("return")) continue;
+            if (cmd.equals("quit")) {
+                if (depth == 0 && topLevel) depth = 1;
+                // 系统视图下不能再quit
+                if (depth > 0) {
+                    cmds.add(cmd);
+                    depth--;
+                }
+                topLevel = false;
+                continue;
+            }
+            if (raw.startsWith(" ")) {
+                if (depth == 0) depth = 1;
+                if (isNestedView(cmd)) {
+                    // 上一个下一级视图未显式退出时先退回
+                    if (depth == 2) cmds.add("quit");
+                    depth = 2;
+                }
+                topLevel = false;
+            } else {
+                for (; depth > 0; depth--) cmds.add("quit");
+                topLevel = true;
+            }
+            cmds.add(cmd);
+        }
+        cmds.add("return");
+        return cmds;
+    }
+
+    private static boolean isNestedView(String cmd) {
+        for (String v : NESTED_VIEWS) {
+            if (cmd.startsWith(v)) return true;
+        }
+        return false;
+    }
+
+    // 渲染器在命令后附加的 "// 备注" 只供阅读，设备不识别
+    private static String stripComment(String raw) {
+        if (raw.trim().startsWith("//")) return "";
+        int c = raw.indexOf(" // ");
+        return c < 0 ? raw : raw.substring(0, c);
+    }
+
+    /**
+     * IP列支持 "host:port" 形式（如经终端服务器或本地模拟器），否则按管理方式取端口
+     */
+    static String[] hostAndPort(Device d, int defaultPort) {
+        String ip = d.ip.trim();
+        int colon = ip.lastIndexOf(':');
+        if (colon > 0 && ip.indexOf(':') == colon) {
+            return new String[]{ip.substring(0, colon), ip.substring(colon + 1)};
+        }
+        return new String[]{ip, String.valueOf(defaultPort)};
+    }
+
+    /**
+     * 单台设备的下发结果
+     */
+    public static class Result {
+        public Device device;
+        public boolean success;
+        public int attempts;
+        public long latencyMillis;
+        public String message;
+    }
+
+    /**
+     * 一次批量下发任务
+     */
+    public class Job {
+        private final List<Device> devices;
+        private final DeviceConfig template;
+        private final String username, password, defaultLoginType;
+        private final ExecutorService pool;
+        private final List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile boolean cancelled;
+
+        Job(List<Device> devices, DeviceConfig template, String username, String password, String defaultLoginType) {
+            this.devices = devices;
+            this.template = template;
+            this.username = username;
+            this.password = password;
+            this.defaultLoginType = defaultLoginType;
+            AtomicInteger seq = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, devices.size())), r -> {
+                Thread t = new Thread(r, "config-push-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        void start() {
+            for (Device d : devices) pool.execute(() -> pushOne(d));
+            pool.shutdown();
+        }
+
+        public int getTotal() {
+            return devices.size();
+        }
+
+        public int getDone() {
+            return done.get();
+        }
+
+        public int getSucceeded() {
+            return succeeded.get();
+        }
+
+        public int getFailed() {
+            return done.get() - succeeded.get();
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isFinished() {
+            return pool.isTerminated();
+        }
+
+        public void await() throws InterruptedException {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        public long getElapsedMillis() {
+            long end = isFinished() && endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        /**
+         * 已完成设备的结果快照
+         */
+        public List<Result> getResults() {
+            synchronized (results) {
+                return new ArrayList<>(results);
+            }
+        }
+
+        /**
+         * 吞吐（台/分钟）
+         */
+        public double getDevicesPerMinute() {
+            long ms = Math.max(1, getElapsedMillis());
+            return done.get() * 60_000.0 / ms;
+        }
+
+        /**
+         * 单台下发耗时的百分位（毫秒），p 取 0~100
+         */
+        public long getLatencyPercentile(double p) {
+            long[] lat;
+            synchronized (results) {
+                lat = new long[results.size()];
+                for (int i = 0; i < lat.length; i++) lat[i] = results.get(i).latencyMillis;
+            }
+            if (lat.length == 0) return 0;
+            Arrays.sort(lat);
+            int idx = (int) Math.ceil(p / 100.0 * lat.length) - 1;
+            return lat[Math.max(0, Math.min(lat.length - 1, idx))];
+        }
+
+        private void pushOne(Device device) {
+            if (cancelled) return;
+            Result r = new Result();
+            r.device = device;
+            long t0 = System.nanoTime();
+            String type = device.mgmtType;
+            if (!"SSH".equalsIgnoreCase(type) && !"Telnet".equalsIgnoreCase(type)) type = defaultLoginType;
+            PushTransport transport = transports.get(type.toUpperCase());
+            if (transport == null) {
+                r.message = "未配置" + type + "传输";
+            } else {
+                StringSink sink = new StringSink();
+                engine.renderDevice(template.withDevice(device), sink);
+                List<String> commands = toCommands(sink.toString());
+                String[] hp = hostAndPort(device, StatusPoller.portOf(type, StatusPoller.TELNET_PORT));
+                for (int attempt = 1; attempt <= retries + 1 && !cancelled; attempt++) {
+                    r.attempts = attempt;
+                    try (VrpSession session = new VrpSession(transport.connect(hp[0], Integer.parseInt(hp[1]), timeoutMillis))) {
+                        session.login(username, password);
+                        List<String> errors = session.execute(commands, WINDOW);
+                        r.success = errors.isEmpty();
+                        r.message = errors.isEmpty() ? "下发 " + commands.size() + " 条命令" : String.join("; ", errors);
+                        break;
+                    } catch (IOException | NumberFormatException e) {
+                        r.message = e.getMessage() == null ? e.toString() : e.getMessage();
+                        if (e.getMessage() != null && e.getMessage().startsWith("登录失败")) break;
+                        sleepBeforeRetry(attempt);
+                    }
+                }
+            }
+            r.latencyMillis = (System.nanoTime() - t0) / 1_000_000;
+            results.add(r);
+            if (r.success) succeeded.incrementAndGet();
+            done.incrementAndGet();
+            endNanos = System.nanoTime();
+        }
+
+        private void sleepBeforeRetry(int attempt) {
+            if (attempt > retries) return;
+            try {
+                Thread.sleep(200L * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+    }
+}
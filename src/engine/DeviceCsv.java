@@ -0,0 +1,43 @@
+package engine;
+
+import model.Device;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 设备清单CSV（每行：名称,IP,型号,管理方式[,状态]），缺省状态为“离线”，名称为空的行跳过
+ */
+public class DeviceCsv {
+    private DeviceCsv() {
+    }
+
+    public static List<Device> read(BufferedReader reader) throws IOException {
+        List<Device> devices = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Device d = parseLine(line);
+            if (d != null) devices.add(d);
+        }
+        return devices;
+    }
+
+    /**
+     * 解析一行，格式不符返回 null
+     */
+    public static Device parseLine(String line) {
+        String[] f = line.split(",", -1);
+        if (f.length < 4 || f[0].trim().isEmpty()) return null;
+        return new Device(f[0].trim(), f[1].trim(), f[2].trim(), f[3].trim(),
+                f.length > 4 && !f[4].trim().isEmpty() ? f[4].trim() : "离线");
+    }
+
+    public static void write(List<Device> devices, Writer out) throws IOException {
+        for (Device d : devices) {
+            out.write(d.name + "," + d.ip + "," + d.model + "," + d.mgmtType + "," + d.status + "\n");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package engine;
+
+import model.Device;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 设备清单的增量搜索索引
+ * 1. 名称、IP、型号、管理方式、状态按三字符片段（trigram）建倒排表，字段首尾加边界符，
+ *    短于三字符的字段和查询也能命中
+ * 2. 查询取最短的倒排表作为候选，再用保存的小写文本逐个校验，结果与原来的“包含”匹配一致
+ * 3. 增删改只处理单台设备；倒排表中的过期编号在校验时被过滤，积累过多时整体重建
+ * 4. “a.b.c.d/len” 形式的查询走IP前缀树，返回网段内全部设备
+ * 设备以稳定编号标识（不随表格行号变化）。非线程安全，需在同一线程（事件派发线程）使用。
+ */
+public class DeviceSearchIndex {
+    private static final char FIELD_START = '\u0002', FIELD_END = '\u0003';
+    private static final char FIELD_SEP = '\u0000';
+
+    private final Map<Long, Postings> grams = new HashMap<>();
+    private final IpTrie ipTrie = new IpTrie();
+    // 编号 -> 各字段小写后以 FIELD_SEP 连接的文本，null 表示已删除
+    private String[] texts = new String[16];
+    private int live;
+    private long stalePostings;
+    private long totalPostings;
+    // texts 中字符串对象的字节数
+    private long textBytes;
+
+    /**
+     * 新增或更新一台设备
+     */
+    public void put(int id, Device d) {
+        if (id >= texts.length) texts = Arrays.copyOf(texts, Math.max(id + 1, texts.length * 2));
+        String text = join(d);
+        String old = texts[id];
+        if (text.equals(old)) return;
+        if (old == null) live++;
+        else stalePostings += gramCount(old);
+        textBytes += stringBytes(text) - stringBytes(old);
+        texts[id] = text;
+        addGrams(id, text);
+        long ip = IpTrie.parseIpv4(d.ip);
+        if (ip >= 0) ipTrie.add(id, (int) ip);
+        else ipTrie.remove(id);
+        if (stalePostings > 4096 && stalePostings > totalPostings / 2) rebuild();
+    }
+
+    public void remove(int id) {
+        if (id >= texts.length || texts[id] == null) return;
+        stalePostings += gramCount(texts[id]);
+        textBytes -= stringBytes(texts[id]);
+        texts[id] = null;
+        live--;
+        ipTrie.remove(id);
+        if (stalePostings > 4096 && stalePostings > totalPostings / 2) rebuild();
+    }
+
+    public void clear() {
+        grams.clear();
+        ipTrie.clear();
+        texts = new String[16];
+        live = 0;
+        stalePostings = 0;
+        totalPostings = 0;
+        textBytes = 0;
+    }
+
+    public int size() {
+        return live;
+    }
+
+    /**
+     * 已分配存储的字节数估算：倒排表（HashMap 条目、Long 键、编号数组）、小写文本和IP前缀树
+     */
+    public long memoryBytes() {
+        int table = 16;
+        while (table * 3L / 4 < grams.size()) table <<= 1;
+        long bytes = 16L + 4L * table;
+        for (Postings p : grams.values()) bytes += 32 + 16 + 24 + 16 + 4L * p.ids.length;
+        return bytes + 16L + 4L * texts.length + textBytes + ipTrie.memoryBytes();
+    }
+
+    /**
+     * 查询匹配的设备编号；空查询返回 null 表示不过滤
+     */
+    public BitSet search(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return null;
+        BitSet result = new BitSet();
+        int[] cidr = IpTrie.parseCidr(q);
+        if (cidr != null) {
+            ipTrie.collect(cidr[0], cidr[1], result);
+            return result;
+        }
+        if (q.length() >= 3) {
+            Postings best = null;
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                Postings p = grams.get(key(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+                if (p == null) return result;
+                if (best == null || p.size < best.size) best = p;
+            }
+            verify(best, q, result);
+        } else {
+            // 一两个字符的查询：并上所有包含该片段的trigram倒排表
+            for (Map.Entry<Long, Postings> e : grams.entrySet()) {
+                if (gramContains(e.getKey(), q)) verify(e.getValue(), q, result);
+            }
+        }
+        return result;
+    }
+
+    private void verify(Postings p, String q, BitSet result) {
+        for (int i = 0; i < p.size; i++) {
+            int id = p.ids[i];
+            if (result.get(id)) continue;
+            String text = texts[id];
+            if (text != null && text.contains(q)) result.set(id);
+        }
+    }
+
+    private void addGrams(int id, String text) {
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf(FIELD_SEP, start);
+            if (end < 0) end = text.length();
+            // 字段前后补边界符，长度为L的字段产生L个trigram
+            for (int i = start; i < end; i++) {
+                char a = i == start ? FIELD_START : text.charAt(i - 1);
+                char c = i + 1 == end ? FIELD_END : text.charAt(i + 1);
+                grams.computeIfAbsent(key(a, text.charAt(i), c), k -> new Postings()).add(id);
+                totalPostings++;
+            }
+            start = end + 1;
+        }
+    }
+
+    private void rebuild() {
+        grams.clear();
+        stalePostings = 0;
+        totalPostings = 0;
+        for (int id = 0; id < texts.length; id++) {
+            if (texts[id] != null) addGrams(id, texts[id]);
+        }
+    }
+
+    private static long gramCount(String text) {
+        // 分隔符不产生trigram，其余每个字符对应一个
+        long n = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == FIELD_SEP) n--;
+        }
+        return n;
+    }
+
+    private static boolean gramContains(long key, String q) {
+        char a = (char) (key >>> 32), b = (char) (key >>> 16), c = (char) key;
+        if (q.length() == 1) {
+            char x = q.charAt(0);
+            return a == x || b == x || c == x;
+        }
+        char x = q.charAt(0), y = q.charAt(1);
+        return (a == x && b == y) || (b == x && c == y);
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // String 对象头加 byte[]：全部字符不超过 0xFF 时每字符1字节，否则2字节
+    private static long stringBytes(String s) {
+        if (s == null) return 0;
+        int perChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                perChar = 2;
+                break;
+            }
+        }
+        return 24 + 16 + (long) perChar * s.length();
+    }
+
+    private static String join(Device d) {
+        return (nz(d.name) + FIELD_SEP + nz(d.ip) + FIELD_SEP + nz(d.model) + FIELD_SEP
+                + nz(d.mgmtType) + FIELD_SEP + nz(d.status)).toLowerCase(Locale.ROOT);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * 可增长的编号数组
+     */
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
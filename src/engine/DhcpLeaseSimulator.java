@@ -0,0 +1,404 @@
+package engine;
+
+import model.DhcpPool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * DHCP租约仿真：按终端上下线轨迹回放一个地址池的分配与租约到期，统计耗尽时刻、峰值使用率和碎片
+ * 1. 地址池为分层位图，每层一位表示下一层的一个64位字已满，分配最小空闲地址为逐层一次取尾零，/8 池共4层
+ * 2. 在线终端持续续约；下线后地址保留到租期结束，期间重新上线仍拿回原地址
+ * 3. 同一地址池租期相同，到期时刻随下线顺序递增，到期队列为先进先出的环形数组
+ * 热循环中不分配对象，百万级租约的回放在秒级以内
+ */
+public class DhcpLeaseSimulator {
+    private static final int HOUR = 3600;
+    private static final int DAY = 24 * HOUR;
+    // 最多记录的耗尽区间数（次数照常统计）
+    private static final int MAX_SPANS = 100;
+
+    /**
+     * 终端上下线轨迹，事件编码为 时间(秒) << 32 | 终端号（下线时取反），回放前按时间排序
+     */
+    public static class Trace {
+        public long[] events = new long[1024];
+        public int size;
+        public int clients;
+        // 导入时格式不符而跳过的行数
+        public int skippedLines;
+
+        public void add(int seconds, int client, boolean online) {
+            if (size == events.length) events = Arrays.copyOf(events, size * 2);
+            events[size++] = (long) seconds << 32 | ((online ? client : ~client) & 0xFFFFFFFFL);
+            if (client >= clients) clients = client + 1;
+        }
+
+        public void sort() {
+            Arrays.sort(events, 0, size);
+        }
+
+        /**
+         * 合成轨迹：residents 台常驻终端每天约8点上线、18点下线；每天另有 guestsPerDay 台新访客，
+         * 8~18点随机到达，停留时长服从均值为 guestHours 小时的指数分布
+         */
+        public static Trace synthetic(int days, int residents, int guestsPerDay, double guestHours, long seed) {
+            Random rnd = new Random(seed);
+            Trace t = new Trace();
+            t.events = new long[Math.max(16, 2 * days * (residents + guestsPerDay))];
+            for (int d = 0; d < days; d++) {
+                int day = d * DAY;
+                for (int c = 0; c < residents; c++) {
+                    int on = day + 8 * HOUR + rnd.nextInt(2 * HOUR) - HOUR;
+                    t.add(on, c, true);
+                    t.add(day + 18 * HOUR + rnd.nextInt(2 * HOUR) - HOUR, c, false);
+                }
+                for (int g = 0; g < guestsPerDay; g++) {
+                    int c = residents + d * guestsPerDay + g;
+                    int on = day + 8 * HOUR + rnd.nextInt(10 * HOUR);
+                    t.add(on, c, true);
+                    t.add(on + 60 + (int) (-Math.log(1 - rnd.nextDouble()) * guestHours * HOUR), c, false);
+                }
+            }
+            t.sort();
+            return t;
+        }
+
+        /**
+         * 导入轨迹，每行 "时间(秒),终端标识,on|off"，终端标识可为MAC或任意字符串
+         */
+        public static Trace read(BufferedReader in) throws IOException {
+            Trace t = new Trace();
+            Map<String, Integer> ids = new HashMap<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    if (!line.trim().isEmpty()) t.skippedLines++;
+                    continue;
+                }
+                String state = parts[2].trim().toLowerCase();
+                int seconds;
+                try {
+                    seconds = Integer.parseInt(parts[0].trim());
+                } catch (NumberFormatException e) {
+                    seconds = -1;
+                }
+                if (seconds < 0 || !(state.equals("on") || state.equals("off"))) {
+                    t.skippedLines++;
+                    continue;
+                }
+                Integer id = ids.get(parts[1].trim());
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(parts[1].trim(), id);
+                }
+                t.add(seconds, id, state.equals("on"));
+            }
+            t.sort();
+            return t;
+        }
+    }
+
+    /**
+     * 回放结果，时间均为距轨迹起点的秒数
+     */
+    public static class Result {
+        public String pool;
+        public int network, prefixLength, leaseHours;
+        public long capacity;
+        public long requests, failures;
+        public long peakUsed;
+        public int peakTime;
+        // 首次分配失败的时刻，未耗尽为 -1
+        public int firstExhaustion = -1;
+        public int exhaustionCount;
+        // 耗尽区间 {开始, 结束}，结束为 -1 表示到轨迹结束仍未恢复
+        public List<int[]> exhaustionSpans = new ArrayList<>();
+        // 每天的峰值使用数
+        public long[] dailyPeak;
+        // 碎片率 = 1 - 最大连续空闲块 / 空闲地址数；按整点采样
+        public double maxFragmentation;
+        public int maxFragmentationTime;
+        public double finalFragmentation;
+        public long finalFreeBlocks, finalLargestFree;
+        public long nanos;
+    }
+
+    private final DhcpPool pool;
+    private final int base, prefixLength;
+    private final int size;
+    private final int gatewayOffset;
+    private final int leaseSeconds;
+
+    /**
+     * 地址池须为 /8 ~ /30 的合法网段
+     */
+    public DhcpLeaseSimulator(DhcpPool pool) {
+        long net = IpTrie.parseIpv4(pool.network.trim());
+        int len = IpTrie.parseMask(pool.mask.trim());
+        if (net < 0 || len < 0) throw new IllegalArgumentException("地址池网段或掩码格式错误: " + pool.name);
+        if (len < 8 || len > 30) throw new IllegalArgumentException("仅支持 /8 ~ /30 的地址池: " + pool.name + " /" + len);
+        if (pool.leaseHours <= 0) throw new IllegalArgumentException("租期须大于0: " + pool.name);
+        this.pool = pool;
+        this.prefixLength = len;
+        this.base = (int) net & AclMatch.mask(len);
+        this.size = 1 << (32 - len);
+        long gw = IpTrie.parseIpv4(pool.gateway.trim());
+        this.gatewayOffset = gw >= 0 && ((int) gw & AclMatch.mask(len)) == base ? (int) gw - base : 0;
+        this.leaseSeconds = pool.leaseHours * HOUR;
+    }
+
+    public Result simulate(Trace trace) {
+        long start = System.nanoTime();
+        Result r = new Result();
+        r.pool = pool.name;
+        r.network = base;
+        r.prefixLength = prefixLength;
+        r.leaseHours = pool.leaseHours;
+
+        Bitmap map = new Bitmap(size);
+        map.set(0);
+        map.set(size - 1);
+        map.set(gatewayOffset);
+        long reserved = gatewayOffset == 0 ? 2 : 3;
+        r.capacity = size - reserved;
+
+        int clients = trace.clients;
+        int[] addr = new int[clients];
+        Arrays.fill(addr, -1);
+        // 最近一次下线时刻，在线为 -1
+        int[] departed = new int[clients];
+        Arrays.fill(departed, -1);
+        // 到期队列：到期时刻 << 32 | 终端号；容量为终端数即可（每台终端最多一条有效记录，过期记录出队时丢弃）
+        long[] queue = new long[Math.max(1, clients)];
+        int head = 0, count = 0;
+
+        int end = trace.size == 0 ? 0 : (int) (trace.events[trace.size - 1] >>> 32);
+        r.dailyPeak = new long[end / DAY + 1];
+        long used = 0;
+        int nextSample = HOUR;
+        int[] openSpan = null;
+        long[] events = trace.events;
+        for (int e = 0; e < trace.size; e++) {
+            int now = (int) (events[e] >>> 32);
+            int code = (int) events[e];
+            // 先处理到期的租约，再在整点采样碎片
+            while (count > 0 && (int) (queue[head] >>> 32) <= now) {
+                long q = queue[head];
+                head = head + 1 == queue.length ? 0 : head + 1;
+                count--;
+                int c = (int) q;
+                if (departed[c] >= 0 && departed[c] + leaseSeconds == (int) (q >>> 32)) {
+                    map.clear(addr[c]);
+                    addr[c] = -1;
+                    departed[c] = -1;
+                    used--;
+                    if (openSpan != null) {
+                        openSpan[1] = (int) (q >>> 32);
+                        openSpan = null;
+                    }
+                }
+            }
+            while (now >= nextSample) {
+                double f = fragmentation(map, null);
+                if (f > r.maxFragmentation) {
+                    r.maxFragmentation = f;
+                    r.maxFragmentationTime = nextSample;
+                }
+                nextSample += HOUR;
+            }
+            if (code >= 0) {
+                int c = code;
+                if (addr[c] >= 0) {
+                    // 租期内回来，沿用原地址
+                    departed[c] = -1;
+                    continue;
+                }
+                r.requests++;
+                int a = map.firstClear();
+                if (a < 0) {
+                    r.failures++;
+                    if (openSpan == null) {
+                        r.exhaustionCount++;
+                        if (r.firstExhaustion < 0) r.firstExhaustion = now;
+                        openSpan = new int[]{now, -1};
+                        if (r.exhaustionSpans.size() < MAX_SPANS) r.exhaustionSpans.add(openSpan);
+                    }
+                    continue;
+                }
+                map.set(a);
+                addr[c] = a;
+                used++;
+                if (used > r.peakUsed) {
+                    r.peakUsed = used;
+                    r.peakTime = now;
+                }
+                int day = now / DAY;
+                if (used > r.dailyPeak[day]) r.dailyPeak[day] = used;
+            } else {
+                int c = ~code;
+                if (addr[c] < 0 || departed[c] >= 0) continue;
+                departed[c] = now;
+                if (count == queue.length) {
+                    // 同一终端反复上下线会留下过期记录，队列满时扩容
+                    long[] grown = new long[queue.length * 2];
+                    for (int i = 0; i < count; i++) grown[i] = queue[(head + i) % queue.length];
+                    queue = grown;
+                    head = 0;
+                }
+                queue[(head + count) % queue.length] = (long) (now + leaseSeconds) << 32 | c;
+                count++;
+            }
+        }
+        long[] blocks = new long[2];
+        r.finalFragmentation = fragmentation(map, blocks);
+        r.finalFreeBlocks = blocks[0];
+        r.finalLargestFree = blocks[1];
+        r.nanos = System.nanoTime() - start;
+        return r;
+    }
+
+    /**
+     * 文本报告
+     */
+    public static String report(Result r, Trace trace) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("地址池 ").append(r.pool).append(" ").append(IpTrie.formatIpv4(r.network)).append("/").append(r.prefixLength)
+                .append("，可分配 ").append(r.capacity).append(" 个，租期 ").append(r.leaseHours).append(" 小时\n");
+        sb.append("轨迹: ").append(trace.size).append(" 个事件，").append(trace.clients).append(" 台终端");
+        if (trace.skippedLines > 0) sb.append("，跳过格式不符的行 ").append(trace.skippedLines).append(" 行");
+        sb.append(String.format("，回放耗时 %.1f ms\n", r.nanos / 1e6));
+        sb.append("申请地址 ").append(r.requests).append(" 次，失败 ").append(r.failures).append(" 次\n");
+        sb.append(String.format("峰值占用 %d 个（%.1f%%），出现在 %s\n", r.peakUsed, r.peakUsed * 100.0 / r.capacity, time(r.peakTime)));
+        if (r.firstExhaustion < 0) {
+            sb.append("未发生耗尽\n");
+        } else {
+            sb.append("首次耗尽于 ").append(time(r.firstExhaustion)).append("，共耗尽 ").append(r.exhaustionCount).append(" 次：\n");
+            int shown = Math.min(10, r.exhaustionSpans.size());
+            for (int i = 0; i < shown; i++) {
+                int[] s = r.exhaustionSpans.get(i);
+                sb.append("    ").append(time(s[0])).append(" ~ ").append(s[1] < 0 ? "轨迹结束" : time(s[1])).append("\n");
+            }
+            if (r.exhaustionCount > shown) sb.append("    ……\n");
+            sb.append("建议扩大网段或缩短租期\n");
+        }
+        sb.append(String.format("碎片率: 整点采样最大 %.1f%%（%s），结束时 %.1f%%，空闲块 %d 个，最大空闲块 %d 个地址\n",
+                r.maxFragmentation * 100, time(r.maxFragmentationTime), r.finalFragmentation * 100,
+                r.finalFreeBlocks, r.finalLargestFree));
+        sb.append("每日峰值使用率:\n");
+        for (int d = 0; d < r.dailyPeak.length; d++) {
+            sb.append(String.format("    第%d天 %5.1f%%\n", d + 1, r.dailyPeak[d] * 100.0 / r.capacity));
+        }
+        return sb.toString();
+    }
+
+    private static String time(int seconds) {
+        return String.format("第%d天 %02d:%02d", seconds / DAY + 1, seconds % DAY / HOUR, seconds % HOUR / 60);
+    }
+
+    /**
+     * 碎片率；blocks 非空时填入 {空闲块数, 最大空闲块}
+     */
+    private static double fragmentation(Bitmap map, long[] blocks) {
+        long[] words = map.levels[0];
+        long free = 0, largest = 0, run = 0, runs = 0;
+        for (long w : words) {
+            if (w == 0) {
+                if (run == 0) runs++;
+                run += 64;
+                continue;
+            }
+            if (w == -1L) {
+                largest = Math.max(largest, run);
+                free += run;
+                run = 0;
+                continue;
+            }
+            int pos = 0;
+            while (pos < 64) {
+                long f = ~w >>> pos;
+                if ((f & 1) != 0) {
+                    int n = Math.min(Long.numberOfTrailingZeros(~f), 64 - pos);
+                    if (run == 0) runs++;
+                    run += n;
+                    pos += n;
+                } else {
+                    largest = Math.max(largest, run);
+                    free += run;
+                    run = 0;
+                    pos += Long.numberOfTrailingZeros(f);
+                }
+            }
+        }
+        largest = Math.max(largest, run);
+        free += run;
+        if (blocks != null) {
+            blocks[0] = runs;
+            blocks[1] = largest;
+        }
+        return free == 0 ? 0 : 1 - largest / (double) free;
+    }
+
+    /**
+     * 分层位图：levels[0] 每位一个地址（1为已占用），levels[k] 第 i 位为 1 表示 levels[k-1] 第 i 个字已满
+     */
+    static final class Bitmap {
+        final long[][] levels;
+
+        Bitmap(int size) {
+            List<long[]> list = new ArrayList<>();
+            int bits = size;
+            do {
+                int words = (bits + 63) >>> 6;
+                list.add(new long[words]);
+                bits = words;
+            } while (bits > 1);
+            levels = list.toArray(new long[0][]);
+            // 各层末尾不对应任何地址的位置 1
+            for (int k = 0; k < levels.length; k++) {
+                int valid = k == 0 ? size : levels[k - 1].length;
+                for (int i = valid; i < levels[k].length << 6; i++) set(k, i);
+            }
+        }
+
+        void set(int i) {
+            set(0, i);
+        }
+
+        private void set(int k, int i) {
+            for (; k < levels.length; k++) {
+                long[] w = levels[k];
+                w[i >>> 6] |= 1L << i;
+                if (w[i >>> 6] != -1L) return;
+                i >>>= 6;
+            }
+        }
+
+        void clear(int i) {
+            for (long[] w : levels) {
+                w[i >>> 6] &= ~(1L << i);
+                i >>>= 6;
+            }
+        }
+
+        /**
+         * 最小的空闲位置，已满返回 -1
+         */
+        int firstClear() {
+            int i = 0;
+            for (int k = levels.length - 1; k >= 0; k--) {
+                long w = levels[k][i];
+                if (w == -1L) return -1;
+                i = i << 6 | Long.numberOfTrailingZeros(~w);
+            }
+            return i;
+        }
+    }
+}
\ No newline at end of file
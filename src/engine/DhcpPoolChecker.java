@@ -0,0 +1,211 @@
+package engine;
+
+import model.DhcpPool;
+import model.IpInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DHCP地址池检查：格式、网关是否在网段内、池之间及池与接口网段的重叠、可分配地址与预计终端数
+ * 地址池和接口网段都是对齐的前缀块，两块之间只有包含或不相交两种关系，
+ * 因此索引只需一个按 (起始地址, 前缀长度) 排序的数组：被包含的块是一段连续区间，
+ * 包含它的块逐个前缀长度二分查找。建索引 O(n log n)，检查一个池 O(33·log n + 命中数)。
+ * 编辑对话框打开时建一次索引，之后每次按键只检查当前输入。
+ */
+public class DhcpPoolChecker {
+    // 条目低位：1位类型（接口为1）+ 下标
+    private static final int OWNER_BITS = 26;
+    private static final int INTERFACE_FLAG = 1 << (OWNER_BITS - 1);
+    // 可分配地址使用率高于此值时提示余量不足
+    private static final double HEADROOM = 0.8;
+
+    public static class Issue {
+        // 所属地址池下标，检查未入表的池时为 -1
+        public final int pool;
+        public final boolean error;
+        public final String message;
+
+        Issue(int pool, boolean error, String message) {
+            this.pool = pool;
+            this.error = error;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return (error ? "[错误] " : "[提示] ") + message;
+        }
+    }
+
+    private final List<DhcpPool> pools;
+    private final List<IpInterface> interfaces;
+    // 排序后的条目：(起始地址 << 6 | 前缀长度) << OWNER_BITS | 类型 | 下标
+    private final long[] entries;
+    private final int[] ifAddr;
+    private final Map<String, Integer> poolByName = new HashMap<>();
+
+    /**
+     * interfaces 为 null 时不做与接口相关的检查
+     */
+    public DhcpPoolChecker(List<DhcpPool> pools, List<IpInterface> interfaces) {
+        if (pools.size() + (interfaces == null ? 0 : interfaces.size()) >= INTERFACE_FLAG) {
+            throw new IllegalArgumentException("地址池和接口过多: " + pools.size());
+        }
+        this.pools = pools;
+        this.interfaces = interfaces;
+        long[] e = new long[pools.size() + (interfaces == null ? 0 : interfaces.size())];
+        int n = 0;
+        for (int i = 0; i < pools.size(); i++) {
+            DhcpPool p = pools.get(i);
+            poolByName.putIfAbsent(p.name, i);
+            long net = IpTrie.parseIpv4(p.network.trim());
+            int len = IpTrie.parseMask(p.mask.trim());
+            if (net >= 0 && len >= 0) e[n++] = entry((int) net & AclMatch.mask(len), len, i);
+        }
+        int ifCount = interfaces == null ? 0 : interfaces.size();
+        ifAddr = new int[ifCount];
+        for (int i = 0; i < ifCount; i++) {
+            IpInterface f = interfaces.get(i);
+            long ip = IpTrie.parseIpv4(f.ip.trim());
+            int len = IpTrie.parseMask(f.mask.trim());
+            ifAddr[i] = (int) ip;
+            if (ip >= 0 && len >= 0) e[n++] = entry((int) ip & AclMatch.mask(len), len, INTERFACE_FLAG | i);
+        }
+        entries = Arrays.copyOf(e, n);
+        Arrays.sort(entries);
+    }
+
+    /**
+     * 检查表中全部地址池
+     */
+    public List<Issue> checkAll() {
+        List<Issue> out = new ArrayList<>();
+        for (int i = 0; i < pools.size(); i++) check(pools.get(i), i, pools.get(i).name + ": ", out);
+        return out;
+    }
+
+    /**
+     * 检查一个地址池；self 为它在表中的下标（编辑时跳过自身），新增时传 -1
+     */
+    public List<Issue> check(DhcpPool pool, int self) {
+        List<Issue> out = new ArrayList<>();
+        check(pool, self, "", out);
+        return out;
+    }
+
+    private void check(DhcpPool pool, int self, String prefix, List<Issue> out) {
+        Integer sameName = poolByName.get(pool.name);
+        if (sameName != null && sameName != self) out.add(new Issue(self, true, prefix + "池名称 " + pool.name + " 重复"));
+        long net = IpTrie.parseIpv4(pool.network.trim());
+        int len = IpTrie.parseMask(pool.mask.trim());
+        long gw = IpTrie.parseIpv4(pool.gateway.trim());
+        if (net < 0) out.add(new Issue(self, true, prefix + "网段格式错误: " + pool.network));
+        if (len < 0) out.add(new Issue(self, true, prefix + "掩码格式错误: " + pool.mask));
+        if (gw < 0) out.add(new Issue(self, true, prefix + "网关格式错误: " + pool.gateway));
+        if (net < 0 || len < 0 || gw < 0) return;
+        if (len > 30) {
+            out.add(new Issue(self, true, prefix + "掩码 /" + len + " 没有可分配地址"));
+            return;
+        }
+        int mask = AclMatch.mask(len);
+        int base = (int) net & mask, broadcast = base | ~mask;
+        String segment = IpTrie.formatIpv4(base) + "/" + len;
+        if (base != (int) net) out.add(new Issue(self, true, prefix + "网段与掩码不匹配，网络地址应为 " + IpTrie.formatIpv4(base)));
+        boolean gwInside = ((int) gw & mask) == base;
+        if (!gwInside) {
+            out.add(new Issue(self, true, prefix + "网关 " + pool.gateway.trim() + " 不在网段 " + segment + " 内"));
+        } else if ((int) gw == base || (int) gw == broadcast) {
+            out.add(new Issue(self, true, prefix + "网关不能是网络地址或广播地址"));
+            gwInside = false;
+        }
+
+        // 被本池包含（含相同网段）的块是一段连续区间
+        long reserved = gwInside ? 1 : 0;
+        boolean served = false;
+        int from = lowerBound(entry(base, len, 0));
+        int to = lowerBound(entry(broadcast, 33, 0));
+        for (int i = from; i < to; i++) {
+            int owner = (int) (entries[i] & ((1L << OWNER_BITS) - 1));
+            int entryLen = (int) (entries[i] >>> OWNER_BITS) & 63;
+            if ((owner & INTERFACE_FLAG) == 0) {
+                if (owner != self) out.add(overlap(self, prefix, owner));
+                continue;
+            }
+            int f = owner & ~INTERFACE_FLAG;
+            if (ifAddr[f] != (int) gw) reserved++;
+            if (entryLen == len) {
+                served = true;
+                if (ifAddr[f] != (int) gw) {
+                    out.add(new Issue(self, false, prefix + "网关 " + pool.gateway.trim() + " 与接口 " + interfaces.get(f).iface
+                            + " 的地址 " + interfaces.get(f).ip + " 不一致"));
+                }
+            } else {
+                out.add(new Issue(self, true, prefix + "与接口 " + interfaces.get(f).iface + " 的网段 "
+                        + IpTrie.formatIpv4(ifAddr[f] & AclMatch.mask(entryLen)) + "/" + entryLen + " 部分重叠"));
+            }
+        }
+        // 包含本池的块：每个更短的前缀长度各查一次
+        for (int l = 0; l < len; l++) {
+            long key = entry(base & AclMatch.mask(l), l, 0) >>> OWNER_BITS;
+            for (int i = lowerBound(key << OWNER_BITS); i < entries.length && entries[i] >>> OWNER_BITS == key; i++) {
+                int owner = (int) (entries[i] & ((1L << OWNER_BITS) - 1));
+                if ((owner & INTERFACE_FLAG) == 0) {
+                    if (owner != self) out.add(overlap(self, prefix, owner));
+                    continue;
+                }
+                int f = owner & ~INTERFACE_FLAG;
+                out.add(new Issue(self, true, prefix + "与接口 " + interfaces.get(f).iface + " 的网段 "
+                        + IpTrie.formatIpv4(base & AclMatch.mask(l)) + "/" + l + " 部分重叠"));
+                if ((ifAddr[f] & mask) == base && ifAddr[f] != (int) gw) reserved++;
+            }
+        }
+        if (interfaces != null && !served) {
+            out.add(new Issue(self, false, prefix + "没有接口配置在网段 " + segment + "，该地址池不会分配地址"));
+        }
+
+        long usable = (1L << (32 - len)) - 2 - reserved;
+        if (pool.expectedClients > usable) {
+            out.add(new Issue(self, true, prefix + "可分配地址 " + Math.max(usable, 0) + " 个，少于预计终端数 " + pool.expectedClients));
+        } else if (pool.expectedClients > usable * HEADROOM) {
+            out.add(new Issue(self, false, prefix + String.format("预计终端数占可分配地址 %.0f%%，余量不足",
+                    pool.expectedClients * 100.0 / usable)));
+        }
+    }
+
+    /**
+     * 可分配地址数：网段地址数去掉网络地址、广播地址和池内网关（格式错误返回 -1）
+     */
+    public static long usableHosts(DhcpPool pool) {
+        long net = IpTrie.parseIpv4(pool.network.trim());
+        int len = IpTrie.parseMask(pool.mask.trim());
+        if (net < 0 || len < 0 || len > 30) return -1;
+        int mask = AclMatch.mask(len);
+        long gw = IpTrie.parseIpv4(pool.gateway.trim());
+        int base = (int) net & mask;
+        boolean gwInside = gw >= 0 && ((int) gw & mask) == base && (int) gw != base && (int) gw != (base | ~mask);
+        return (1L << (32 - len)) - 2 - (gwInside ? 1 : 0);
+    }
+
+    private Issue overlap(int self, String prefix, int other) {
+        DhcpPool p = pools.get(other);
+        return new Issue(self, true, prefix + "与地址池 " + p.name + "（" + p.network.trim() + "/" + IpTrie.parseMask(p.mask.trim()) + "）重叠");
+    }
+
+    private static long entry(int start, int len, int owner) {
+        return ((start & 0xFFFFFFFFL) << 6 | len) << OWNER_BITS | owner;
+    }
+
+    private int lowerBound(long key) {
+        int lo = 0, hi = entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package engine;
+
+import model.DhcpPool;
+
+/**
+ * DHCP地址池命令渲染（不含全局 dhcp enable）
+ */
+public class DhcpRenderer implements CommandRenderer<DhcpPool> {
+    @Override
+    public void render(DhcpPool pool, CommandSink out) {
+        out.append("ip pool ").append(pool.name).append("\n");
+        out.append(" network ").append(pool.network).append(" ").append(pool.mask).append("\n");
+        out.append(" gateway-list ").append(pool.gateway).append("\n");
+        if (!pool.dns.isEmpty()) {
+            out.append(" dns-list ").append(pool.dns).append("\n");
+        }
+        out.append(" lease day 0 hour ").append(pool.leaseHours).append("\n");
+        out.append(" quit\n");
+    }
+}
@@ -0,0 +1,35 @@
+package engine;
+
+import model.Device;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 批量渲染输出：每台设备一个配置文件（设备名.cfg，重名时见 FleetRenderer.fileNames），边渲染边写盘
+ */
+public class DirectoryOutput implements FleetRenderer.Output {
+    private final Path dir;
+
+    public DirectoryOutput(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    @Override
+    public CommandSink open(Device device, String fileName) throws IOException {
+        return ChannelSink.open(dir.resolve(fileName));
+    }
+
+    @Override
+    public void close(Device device, String fileName, CommandSink sink) throws IOException {
+        ((ChannelSink) sink).close();
+    }
+
+    /**
+     * 替换文件系统不允许的字符
+     */
+    public static String sanitize(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+}
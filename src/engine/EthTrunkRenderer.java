@@ -0,0 +1,26 @@
+package engine;
+
+import model.EthTrunk;
+
+/**
+ * Eth-Trunk聚合组命令渲染
+ */
+public class EthTrunkRenderer implements CommandRenderer<EthTrunk> {
+    @Override
+    public void render(EthTrunk trunk, CommandSink out) {
+        // 配置聚合接口
+        out.append("interface Eth-Trunk").append(trunk.groupId).append("\n");
+        if (!trunk.description.isEmpty()) out.append(" description ").append(trunk.description).append("\n");
+        if ("LACP".equals(trunk.mode)) out.append(" mode lacp\n");
+        else out.append(" mode manual\n");
+        out.append(" load-balance ").append(trunk.loadBalance).append("\n");
+        out.append(" quit\n");
+
+        // 配置成员端口
+        for (String p : trunk.members) {
+            out.append("interface ").append(InterfaceNames.canonical(p)).append("\n");
+            out.append(" eth-trunk ").append(trunk.groupId).append("\n");
+            out.append(" quit\n");
+        }
+    }
+}
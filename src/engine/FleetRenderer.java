@@ -0,0 +1,193 @@
+package engine;
+
+import model.Device;
+import model.DeviceConfig;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 全网设备批量配置渲染
+ * 基于ForkJoin线程池并行渲染每台设备的完整启动配置，支持进度查询与取消。
+ * 设备之间无共享可变状态，吞吐随核数线性增长；配置直接流式写出，内存占用与设备数量无关。
+ */
+public class FleetRenderer {
+    /**
+     * 渲染结果的去向，open/close 会在多个工作线程中被并发调用，
+     * 每台设备的配置直接流式写入 open 返回的输出通道；
+     * fileName 在同一任务内唯一（不区分大小写），可直接用作文件名或归档条目名
+     */
+    public interface Output {
+        CommandSink open(Device device, String fileName) throws IOException;
+
+        void close(Device device, String fileName, CommandSink sink) throws IOException;
+    }
+
+    // 每个子任务至少处理的设备数，避免任务拆分过细
+    private static final int BATCH = 16;
+
+    private final ConfigEngine engine;
+    private final ForkJoinPool pool;
+
+    public FleetRenderer(ConfigEngine engine) {
+        this(engine, Runtime.getRuntime().availableProcessors());
+    }
+
+    public FleetRenderer(ConfigEngine engine, int parallelism) {
+        this.engine = engine;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 按设备顺序分配配置文件名：重名（含替换字符后重名、仅大小写不同）的设备依次追加IP、序号后缀，
+     * 先出现的设备保留原名，结果与渲染线程的调度无关
+     */
+    public static String[] fileNames(List<Device> devices) {
+        String[] names = new String[devices.size()];
+        Set<String> used = new HashSet<>(devices.size() * 2);
+        for (int i = 0; i < names.length; i++) {
+            Device d = devices.get(i);
+            String base = DirectoryOutput.sanitize(d.name == null ? "" : d.name.trim());
+            if (base.isEmpty()) base = "device";
+            String name = base;
+            if (!used.add(name.toLowerCase(Locale.ROOT))) {
+                String ip = d.ip == null ? "" : DirectoryOutput.sanitize(d.ip.trim());
+                name = base + "_" + ip;
+                if (ip.isEmpty() || !used.add(name.toLowerCase(Locale.ROOT))) {
+                    int n = 2;
+                    while (!used.add((base + "_" + n).toLowerCase(Locale.ROOT))) n++;
+                    name = base + "_" + n;
+                }
+            }
+            names[i] = name + ".cfg";
+        }
+        return names;
+    }
+
+    /**
+     * 异步渲染全部设备，template 中的模块配置应用于每台设备
+     */
+    public Job render(List<Device> devices, DeviceConfig template, Output output) {
+        Job job = new Job(devices, template, output);
+        pool.execute(job.root);
+        return job;
+    }
+
+    /**
+     * 一次批量渲染任务
+     */
+    public class Job {
+        private final List<Device> devices;
+        private final DeviceConfig template;
+        private final Output output;
+        private final String[] fileNames;
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final RangeTask root;
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile boolean cancelled;
+
+        Job(List<Device> devices, DeviceConfig template, Output output) {
+            this.devices = devices;
+            this.template = template;
+            this.output = output;
+            this.fileNames = fileNames(devices);
+            this.root = new RangeTask(this, 0, devices.size());
+        }
+
+        public int getTotal() {
+            return devices.size();
+        }
+
+        public int getDone() {
+            return done.get();
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isFinished() {
+            return root.isDone();
+        }
+
+        /**
+         * 第一个渲染或输出异常，无异常时为 null
+         */
+        public Throwable getError() {
+            return error.get();
+        }
+
+        /**
+         * 从开始到结束（或到当前）经过的毫秒数
+         */
+        public long getElapsedMillis() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        /**
+         * 阻塞等待任务结束
+         */
+        public void await() {
+            root.join();
+        }
+
+        void renderOne(int index) {
+            if (cancelled || error.get() != null) return;
+            Device device = devices.get(index);
+            String fileName = fileNames[index];
+            try {
+                CommandSink sink = output.open(device, fileName);
+                try {
+                    engine.renderDevice(template.withDevice(device), sink);
+                } finally {
+                    output.close(device, fileName, sink);
+                }
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            }
+            done.incrementAndGet();
+        }
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private final Job job;
+        private final int lo, hi;
+
+        RangeTask(Job job, int lo, int hi) {
+            this.job = job;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= BATCH) {
+                for (int i = lo; i < hi && !job.cancelled; i++) {
+                    job.renderOne(i);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RangeTask(job, lo, mid), new RangeTask(job, mid, hi));
+            }
+            if (lo == 0 && hi == job.devices.size()) job.endNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package engine;
+
+/**
+ * 规范化后的接口名（不可变，由 InterfaceNames 统一创建并驻留，可用 == 比较）
+ * 编号最多三段：槽位/子卡/端口；Vlanif、Eth-Trunk 等只有一段编号时 slot、card 为 -1
+ */
+public final class InterfaceName {
+    /**
+     * 接口类型：VRP全称、简称、界面下拉中的写法（无则为null）
+     */
+    public enum Type {
+        XGE("XGigabitEthernet", "XGE", "XGE口"),
+        GE("GigabitEthernet", "GE", "GE口"),
+        FE("FastEthernet", "FE", "FE口"),
+        ETH("Ethernet", "Eth", "E口"),
+        GE_10("10GE", "10GE", null),
+        GE_25("25GE", "25GE", null),
+        GE_40("40GE", "40GE", null),
+        GE_100("100GE", "100GE", null),
+        ETH_TRUNK("Eth-Trunk", "Eth-Trunk", null),
+        VLANIF("Vlanif", "Vlanif", null),
+        LOOPBACK("LoopBack", "Loop", null),
+        METH("MEth", "MEth", null);
+
+        public final String fullName;
+        public final String shortName;
+        public final String uiLabel;
+
+        Type(String fullName, String shortName, String uiLabel) {
+            this.fullName = fullName;
+            this.shortName = shortName;
+            this.uiLabel = uiLabel;
+        }
+    }
+
+    public final Type type;
+    public final int slot, card, port;
+    // 规范全称，如 GigabitEthernet0/0/1
+    public final String name;
+
+    InterfaceName(Type type, int slot, int card, int port) {
+        this.type = type;
+        this.slot = slot;
+        this.card = card;
+        this.port = port;
+        this.name = type.fullName + numbers();
+    }
+
+    /**
+     * 编号部分，如 "0/0/1"、"100"
+     */
+    public String numbers() {
+        if (slot < 0) return String.valueOf(port);
+        if (card < 0) return slot + "/" + port;
+        return slot + "/" + card + "/" + port;
+    }
+
+    /**
+     * 简称，如 GE0/0/1
+     */
+    public String shortName() {
+        return type.shortName + numbers();
+    }
+
+    /**
+     * 界面写法，如 GE口0/0/1；该类型不在下拉中时返回全称
+     */
+    public String uiName() {
+        return type.uiLabel == null ? name : type.uiLabel + numbers();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
\ No newline at end of file
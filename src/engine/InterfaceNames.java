@@ -0,0 +1,195 @@
+package engine;
+
+import engine.InterfaceName.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 接口名解析与驻留：界面写法（GE口1/0/1）、简称（GE1/0/1）和全称（GigabitEthernet1/0/1）统一成同一个 InterfaceName
+ * 类型前缀查预先建好的按首字母分桶的别名表，编号按下标直接解析，解析结果按原文缓存，重复渲染时不再产生中间字符串
+ */
+public final class InterfaceNames {
+    // 原文缓存上限，超出后只解析不缓存
+    private static final int TEXT_CACHE_LIMIT = 1 << 16;
+    private static final int MAX_NUMBER = 9999;
+
+    private static final Alias[][] ALIASES = new Alias[128][];
+    private static final ConcurrentHashMap<String, InterfaceName> BY_TEXT = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Long, InterfaceName> INTERNED = new ConcurrentHashMap<>();
+
+    private static final class Alias {
+        final String text;
+        final Type type;
+
+        Alias(String text, Type type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    static {
+        List<Alias> all = new ArrayList<>();
+        for (Type t : Type.values()) {
+            all.add(new Alias(t.fullName, t));
+            if (!t.shortName.equalsIgnoreCase(t.fullName)) all.add(new Alias(t.shortName, t));
+            if (t.uiLabel != null) all.add(new Alias(t.uiLabel, t));
+        }
+        all.add(new Alias("Vlan-interface", Type.VLANIF));
+        all.add(new Alias("Lo", Type.LOOPBACK));
+        all.add(new Alias("Trunk", Type.ETH_TRUNK));
+        for (int c = 0; c < ALIASES.length; c++) {
+            List<Alias> bucket = new ArrayList<>();
+            for (Alias a : all) if (Character.toLowerCase(a.text.charAt(0)) == c) bucket.add(a);
+            ALIASES[c] = bucket.toArray(new Alias[0]);
+        }
+    }
+
+    private InterfaceNames() {
+    }
+
+    /**
+     * 解析接口名，无法识别（未知类型、子接口、编号格式不对）时返回 null
+     */
+    public static InterfaceName parse(String text) {
+        if (text == null) return null;
+        InterfaceName cached = BY_TEXT.get(text);
+        if (cached != null) return cached;
+        InterfaceName n = parse(text, 0, text.length(), null);
+        if (n != null && BY_TEXT.size() < TEXT_CACHE_LIMIT) BY_TEXT.putIfAbsent(text, n);
+        return n;
+    }
+
+    /**
+     * 渲染用：能识别的返回规范全称，否则原样返回
+     */
+    public static String canonical(String text) {
+        InterfaceName n = parse(text);
+        return n == null ? text : n.name;
+    }
+
+    /**
+     * 按类型和编号取驻留实例；只有一段编号时 slot、card 传 -1，两段时 card 传 -1
+     */
+    public static InterfaceName of(Type type, int slot, int card, int port) {
+        long key = (long) type.ordinal() << 48 | (long) (slot + 1) << 32 | (long) (card + 1) << 16 | (port + 1);
+        InterfaceName n = INTERNED.get(key);
+        if (n != null) return n;
+        return INTERNED.computeIfAbsent(key, k -> new InterfaceName(type, slot, card, port));
+    }
+
+    /**
+     * 展开接口列表，逗号/分号分隔，每项可写 "GE0/0/1 to 0/0/48" 或 "GE0/0/1 to GE0/0/48"
+     * 格式错误时抛出 IllegalArgumentException（消息可直接提示用户）
+     */
+    public static List<InterfaceName> expand(String text) {
+        List<InterfaceName> out = new ArrayList<>();
+        int len = text.length();
+        int start = 0;
+        while (start <= len) {
+            int end = start;
+            while (end < len && !isSeparator(text.charAt(end))) end++;
+            expandItem(text, start, end, out);
+            start = end + 1;
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("请填写接口");
+        return out;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == '，' || c == ';' || c == '；';
+    }
+
+    private static void expandItem(String text, int from, int to, List<InterfaceName> out) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        if (from == to) return;
+        int kw = indexOfTo(text, from, to);
+        InterfaceName first = parse(text, from, kw < 0 ? to : kw, null);
+        if (first == null) throw new IllegalArgumentException("无法识别的接口: " + text.substring(from, kw < 0 ? to : kw).trim());
+        if (kw < 0) {
+            out.add(first);
+            return;
+        }
+        InterfaceName last = parse(text, kw + 2, to, first.type);
+        if (last == null || last.type != first.type || last.slot != first.slot || last.card != first.card) {
+            throw new IllegalArgumentException("区间两端须为同一类型、同一槽位的接口: " + text.substring(from, to));
+        }
+        if (last.port < first.port) throw new IllegalArgumentException("区间起点大于终点: " + text.substring(from, to));
+        for (int p = first.port; p <= last.port; p++) out.add(of(first.type, first.slot, first.card, p));
+    }
+
+    // 查找两侧为空白的 "to"，返回其下标
+    private static int indexOfTo(String text, int from, int to) {
+        for (int i = from + 1; i + 2 < to; i++) {
+            if (Character.isWhitespace(text.charAt(i - 1)) && text.regionMatches(true, i, "to", 0, 2)
+                    && Character.isWhitespace(text.charAt(i + 2))) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 解析 [from,to) 区间；implied 非空时允许省略类型前缀（区间终点只写编号）
+     */
+    private static InterfaceName parse(String text, int from, int to, Type implied) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        if (from == to) return null;
+        // 类型前缀：允许以数字开头（10GE），到下一个数字为止
+        int p = from;
+        Type type;
+        if (allDigitsOrSlash(text, from, to)) {
+            if (implied == null) return null;
+            type = implied;
+        } else {
+            while (p < to && isDigit(text.charAt(p))) p++;
+            while (p < to && !isDigit(text.charAt(p))) p++;
+            int prefixEnd = p;
+            while (prefixEnd > from && Character.isWhitespace(text.charAt(prefixEnd - 1))) prefixEnd--;
+            type = lookup(text, from, prefixEnd);
+            if (type == null) return null;
+        }
+        // 编号：最多三段，以 / 分隔
+        int[] seg = new int[3];
+        int count = 0;
+        while (true) {
+            if (count == 3 || p == to || !isDigit(text.charAt(p))) return null;
+            int v = 0;
+            while (p < to && isDigit(text.charAt(p))) {
+                v = v * 10 + (text.charAt(p++) - '0');
+                if (v > MAX_NUMBER) return null;
+            }
+            seg[count++] = v;
+            if (p == to) break;
+            if (text.charAt(p++) != '/') return null;
+        }
+        boolean logical = type == Type.ETH_TRUNK || type == Type.VLANIF || type == Type.LOOPBACK;
+        if (logical != (count == 1)) return null;
+        if (count == 1) return of(type, -1, -1, seg[0]);
+        if (count == 2) return of(type, seg[0], -1, seg[1]);
+        return of(type, seg[0], seg[1], seg[2]);
+    }
+
+    private static Type lookup(String text, int from, int to) {
+        char c = Character.toLowerCase(text.charAt(from));
+        if (c >= ALIASES.length) return null;
+        int len = to - from;
+        for (Alias a : ALIASES[c]) {
+            if (a.text.length() == len && text.regionMatches(true, from, a.text, 0, len)) return a.type;
+        }
+        return null;
+    }
+
+    private static boolean allDigitsOrSlash(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c) && c != '/') return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package engine;
+
+import model.IpInterface;
+
+/**
+ * 接口IP地址命令渲染
+ */
+public class IpRenderer implements CommandRenderer<IpInterface> {
+    @Override
+    public void render(IpInterface ipIf, CommandSink out) {
+        out.append("interface ").append(InterfaceNames.canonical(ipIf.iface)).append("\n");
+        out.append(" ip address ").append(ipIf.ip).append(" ").append(ipIf.mask).append("\n");
+        out.append("quit\n");
+    }
+}
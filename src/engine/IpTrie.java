@@ -0,0 +1,186 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * IPv4前缀树（步长8位，共4层），用于按网段（CIDR）查找设备
+ * 叶子层保存同一IP下的设备编号链表；插入、删除为O(1)次数组访问，
+ * 网段查询的代价与命中数量成正比。非线程安全。
+ */
+public class IpTrie {
+    private static final int FANOUT = 256;
+
+    // nodes[n][b]：中间层为子节点编号（0表示空），最后一层为设备链表头（id+1，0表示空）
+    private int[][] nodes = new int[16][];
+    private int nodeCount;
+    // 同一IP下的设备链表
+    private int[] next = new int[16];
+    private int[] ipOf = new int[16];
+    private final BitSet present = new BitSet();
+
+    public IpTrie() {
+        nodes[0] = new int[FANOUT];
+        nodeCount = 1;
+    }
+
+    public void add(int id, int ip) {
+        if (present.get(id)) remove(id);
+        ensureId(id);
+        int[] leaf = leafFor(ip, true);
+        int b = ip & 0xFF;
+        next[id] = leaf[b];
+        leaf[b] = id + 1;
+        ipOf[id] = ip;
+        present.set(id);
+    }
+
+    public void remove(int id) {
+        if (!present.get(id)) return;
+        present.clear(id);
+        int ip = ipOf[id];
+        int[] leaf = leafFor(ip, false);
+        int b = ip & 0xFF;
+        // 从链表中摘除
+        int cur = leaf[b], prev = -1;
+        while (cur != 0) {
+            int curId = cur - 1;
+            if (curId == id) {
+                if (prev == -1) leaf[b] = next[curId];
+                else next[prev] = next[curId];
+                return;
+            }
+            prev = curId;
+            cur = next[curId];
+        }
+    }
+
+    public void clear() {
+        nodes = new int[16][];
+        nodes[0] = new int[FANOUT];
+        nodeCount = 1;
+        present.clear();
+    }
+
+    /**
+     * 已分配存储的字节数估算（含数组对象头）
+     */
+    public long memoryBytes() {
+        return 16L + 4L * nodes.length + nodeCount * (16L + 4L * FANOUT) + 2 * (16L + 4L * next.length)
+                + 24L + present.size() / 8;
+    }
+
+    /**
+     * 查找落在 network/prefixLen 网段内的全部设备编号，结果并入 out
+     */
+    public void collect(int network, int prefixLen, BitSet out) {
+        if (prefixLen < 0 || prefixLen > 32) throw new IllegalArgumentException("前缀长度须为0~32: " + prefixLen);
+        collect(0, 0, network, prefixLen, out);
+    }
+
+    private void collect(int node, int level, int network, int prefixLen, BitSet out) {
+        int[] children = nodes[node];
+        int b = (network >>> (24 - 8 * level)) & 0xFF;
+        int bits = Math.max(0, Math.min(8, prefixLen - 8 * level));
+        int mask = bits == 0 ? 0 : (0xFF << (8 - bits)) & 0xFF;
+        int lo = b & mask, hi = lo | (~mask & 0xFF);
+        for (int c = lo; c <= hi; c++) {
+            int v = children[c];
+            if (v == 0) continue;
+            if (level == 3) {
+                for (int cur = v; cur != 0; cur = next[cur - 1]) out.set(cur - 1);
+            } else {
+                collect(v, level + 1, network, prefixLen, out);
+            }
+        }
+    }
+
+    private int[] leafFor(int ip, boolean create) {
+        int node = 0;
+        for (int level = 0; level < 3; level++) {
+            int b = (ip >>> (24 - 8 * level)) & 0xFF;
+            int child = nodes[node][b];
+            if (child == 0) {
+                if (!create) return new int[FANOUT];
+                if (nodeCount == nodes.length) nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                nodes[nodeCount] = new int[FANOUT];
+                child = nodeCount++;
+                nodes[node][b] = child;
+            }
+            node = child;
+        }
+        return nodes[node];
+    }
+
+    private void ensureId(int id) {
+        if (id >= next.length) {
+            int n = Math.max(id + 1, next.length * 2);
+            next = Arrays.copyOf(next, n);
+            ipOf = Arrays.copyOf(ipOf, n);
+        }
+    }
+
+    /**
+     * 解析 "a.b.c.d/len" 形式的网段，返回 {network, len}；格式不符返回 null
+     */
+    public static int[] parseCidr(String s) {
+        int slash = s.indexOf('/');
+        if (slash < 0) return null;
+        long ip = parseIpv4(s.substring(0, slash));
+        if (ip < 0) return null;
+        try {
+            int len = Integer.parseInt(s.substring(slash + 1));
+            if (len < 0 || len > 32) return null;
+            return new int[]{(int) ip, len};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析点分十进制IPv4，非法返回 -1
+     */
+    public static long parseIpv4(CharSequence s) {
+        int n = s.length();
+        if (n < 7 || n > 15) return -1;
+        long result = 0;
+        int octet = -1, dots = 0;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) return -1;
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                result = (result << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || octet < 0) return -1;
+        return (result << 8) | octet;
+    }
+
+    /**
+     * 解析掩码，可写点分十进制（255.255.255.0）或前缀长度（24），返回前缀长度；不连续或非法返回 -1
+     */
+    public static int parseMask(String s) {
+        if (s.length() <= 2) {
+            try {
+                int len = Integer.parseInt(s);
+                return len >= 0 && len <= 32 ? len : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        long m = parseIpv4(s);
+        if (m < 0) return -1;
+        int len = Integer.bitCount((int) m);
+        return (int) m == AclMatch.mask(len) ? len : -1;
+    }
+
+    public static String formatIpv4(int ip) {
+        return ((ip >>> 24) & 0xFF) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+    }
+}
@@ -0,0 +1,295 @@
+package engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Eth-Trunk负载分担仿真：把一组流按六种负载分担模式哈希到成员端口，统计各成员的流数与字节数
+ * 哈希按常见交换芯片的做法把所选字段异或折叠成16位再对成员数取模，适合比较模式优劣，不代表设备的精确结果。
+ * 一次遍历同时计算六种模式，流按列存放，分段并行统计，热循环中不分配对象
+ */
+public class LoadBalanceSimulator {
+    // 每个子任务至少处理的流数
+    private static final int BATCH = 1 << 16;
+
+    public enum Mode {
+        SRC_MAC("src-mac"), DST_MAC("dst-mac"), SRC_DST_MAC("src-dst-mac"),
+        SRC_IP("src-ip"), DST_IP("dst-ip"), SRC_DST_IP("src-dst-ip");
+
+        // 与 load-balance 命令参数一致
+        public final String command;
+
+        Mode(String command) {
+            this.command = command;
+        }
+
+        public static Mode of(String command) {
+            for (Mode m : values()) if (m.command.equals(command)) return m;
+            return null;
+        }
+    }
+
+    /**
+     * 流集合，按列存放；MAC为低48位，IPv4为32位
+     */
+    public static class Flows {
+        public long[] srcMac, dstMac;
+        public int[] srcIp, dstIp;
+        public long[] bytes;
+        public int size;
+        // 导入时格式不符而跳过的行数
+        public int skippedLines;
+
+        public Flows(int capacity) {
+            capacity = Math.max(capacity, 16);
+            srcMac = new long[capacity];
+            dstMac = new long[capacity];
+            srcIp = new int[capacity];
+            dstIp = new int[capacity];
+            bytes = new long[capacity];
+        }
+
+        public void add(long sMac, long dMac, int sIp, int dIp, long len) {
+            if (size == srcMac.length) {
+                int cap = size * 2;
+                srcMac = Arrays.copyOf(srcMac, cap);
+                dstMac = Arrays.copyOf(dstMac, cap);
+                srcIp = Arrays.copyOf(srcIp, cap);
+                dstIp = Arrays.copyOf(dstIp, cap);
+                bytes = Arrays.copyOf(bytes, cap);
+            }
+            srcMac[size] = sMac;
+            dstMac[size] = dMac;
+            srcIp[size] = sIp;
+            dstIp[size] = dIp;
+            bytes[size] = len;
+            size++;
+        }
+
+        /**
+         * 合成流量：clients 台终端（地址连续）访问 servers 台服务器（同一网关后），流长度为重尾分布
+         */
+        public static Flows synthetic(int count, int clients, int servers, long seed) {
+            Random rnd = new Random(seed);
+            Flows f = new Flows(count);
+            long gatewayMac = 0x00E0FC000001L;
+            for (int i = 0; i < count; i++) {
+                int c = rnd.nextInt(Math.max(1, clients));
+                int s = rnd.nextInt(Math.max(1, servers));
+                long len = (long) (1500 / Math.pow(1 - rnd.nextDouble(), 0.8));
+                f.add(0x001122000000L + c, gatewayMac, 10 << 24 | c, 172 << 24 | 16 << 16 | s, len);
+            }
+            return f;
+        }
+
+        /**
+         * 导入流文件，每行 "源MAC,目的MAC,源IP,目的IP[,字节数]"，MAC可写 0011-2233-4455 或 00:11:22:33:44:55
+         */
+        public static Flows read(BufferedReader in) throws IOException {
+            Flows f = new Flows(1024);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 4) {
+                    if (!line.trim().isEmpty()) f.skippedLines++;
+                    continue;
+                }
+                long sMac = parseMac(parts[0]), dMac = parseMac(parts[1]);
+                long sIp = IpTrie.parseIpv4(parts[2].trim()), dIp = IpTrie.parseIpv4(parts[3].trim());
+                long len = 1;
+                if (parts.length > 4) {
+                    try {
+                        len = Long.parseLong(parts[4].trim());
+                    } catch (NumberFormatException e) {
+                        len = -1;
+                    }
+                }
+                if (sMac < 0 || dMac < 0 || sIp < 0 || dIp < 0 || len < 0) {
+                    f.skippedLines++;
+                    continue;
+                }
+                f.add(sMac, dMac, (int) sIp, (int) dIp, len);
+            }
+            return f;
+        }
+    }
+
+    /**
+     * 单个模式的分布结果
+     */
+    public static class Result {
+        public Mode mode;
+        public long[] flows;
+        public long[] bytes;
+
+        /**
+         * 最重成员字节数与平均值之比，1.0 为完全均衡
+         */
+        public double skew() {
+            long max = 0, total = 0;
+            for (long b : bytes) {
+                max = Math.max(max, b);
+                total += b;
+            }
+            return total == 0 ? 1.0 : max * (double) bytes.length / total;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public LoadBalanceSimulator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public LoadBalanceSimulator(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * 按六种模式分别统计 members 个成员端口上的流数与字节数，结果按 Mode 顺序排列
+     */
+    public List<Result> simulate(Flows flows, int members) {
+        if (members <= 0) throw new IllegalArgumentException("成员端口数须大于0: " + members);
+        // 16位哈希值到成员下标的查表，省去热循环里的取模除法
+        int[] memberOf = new int[1 << 16];
+        for (int h = 0; h < memberOf.length; h++) memberOf[h] = h % members;
+        long[] counts = pool.invoke(new CountTask(flows, memberOf, members, 0, flows.size));
+        List<Result> results = new ArrayList<>();
+        Mode[] modes = Mode.values();
+        for (int m = 0; m < modes.length; m++) {
+            Result r = new Result();
+            r.mode = modes[m];
+            r.flows = Arrays.copyOfRange(counts, (2 * m) * members, (2 * m + 1) * members);
+            r.bytes = Arrays.copyOfRange(counts, (2 * m + 1) * members, (2 * m + 2) * members);
+            results.add(r);
+        }
+        return results;
+    }
+
+    /**
+     * 字节分布最均衡的模式；并列时优先当前模式
+     */
+    public static Result best(List<Result> results, Mode current) {
+        Result best = null;
+        for (Result r : results) {
+            double s = r.skew();
+            if (best == null || s < best.skew() - 1e-9 || (Math.abs(s - best.skew()) <= 1e-9 && r.mode == current)) best = r;
+        }
+        return best;
+    }
+
+    /**
+     * 文本报告：每种模式各成员的字节占比与倾斜度
+     */
+    public static String report(List<Result> results, List<String> memberNames, Mode current, long flowCount, long nanos) {
+        Result best = best(results, current);
+        StringBuilder sb = new StringBuilder();
+        sb.append("流数: ").append(flowCount).append("，成员端口: ").append(memberNames.size())
+                .append(String.format("，耗时 %.1f ms（%.1f 百万流/秒）\n\n", nanos / 1e6, flowCount * 1e3 / Math.max(1, nanos)));
+        for (Result r : results) {
+            long total = 0;
+            for (long b : r.bytes) total += b;
+            sb.append(String.format("%-12s 倾斜度 %.2f", r.mode.command, r.skew()));
+            if (r.mode == current) sb.append(" [当前]");
+            if (r == best) sb.append(" [推荐]");
+            sb.append("\n");
+            for (int i = 0; i < memberNames.size(); i++) {
+                sb.append(String.format("    %-24s %6.1f%%  %d 条流\n", memberNames.get(i),
+                        total == 0 ? 0.0 : r.bytes[i] * 100.0 / total, r.flows[i]));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析MAC地址（0011-2233-4455、00:11:22:33:44:55、001122334455），格式不符返回 -1
+     */
+    public static long parseMac(String text) {
+        long v = 0;
+        int digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int d = Character.digit(c, 16);
+            if (d >= 0) {
+                v = v << 4 | d;
+                digits++;
+            } else if (c != '-' && c != ':' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return digits == 12 ? v : -1;
+    }
+
+    // 16位异或折叠
+    private static int fold48(long v) {
+        return (int) ((v ^ v >>> 16 ^ v >>> 32) & 0xFFFF);
+    }
+
+    private static int fold32(int v) {
+        return (v ^ v >>> 16) & 0xFFFF;
+    }
+
+    /**
+     * 统计区间 [from,to) 内的流，结果按 模式×(流数,字节数)×成员 展平
+     */
+    private static class CountTask extends RecursiveTask<long[]> {
+        private final Flows f;
+        private final int[] memberOf;
+        private final int members, from, to;
+
+        CountTask(Flows f, int[] memberOf, int members, int from, int to) {
+            this.f = f;
+            this.memberOf = memberOf;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > BATCH) {
+                int mid = (from + to) >>> 1;
+                CountTask left = new CountTask(f, memberOf, members, from, mid);
+                left.fork();
+                long[] right = new CountTask(f, memberOf, members, mid, to).compute();
+                long[] l = left.join();
+                for (int i = 0; i < l.length; i++) l[i] += right[i];
+                return l;
+            }
+            int n = members;
+            int[] m = memberOf;
+            long[] c = new long[12 * n];
+            long[] srcMac = f.srcMac, dstMac = f.dstMac, bytes = f.bytes;
+            int[] srcIp = f.srcIp, dstIp = f.dstIp;
+            for (int i = from; i < to; i++) {
+                long b = bytes[i];
+                int k;
+                k = m[fold48(srcMac[i])];
+                c[k]++;
+                c[n + k] += b;
+                k = m[fold48(dstMac[i])];
+                c[2 * n + k]++;
+                c[3 * n + k] += b;
+                k = m[fold48(srcMac[i] ^ dstMac[i])];
+                c[4 * n + k]++;
+                c[5 * n + k] += b;
+                k = m[fold32(srcIp[i])];
+                c[6 * n + k]++;
+                c[7 * n + k] += b;
+                k = m[fold32(dstIp[i])];
+                c[8 * n + k]++;
+                c[9 * n + k] += b;
+                k = m[fold32(srcIp[i] ^ dstIp[i])];
+                c[10 * n + k]++;
+                c[11 * n + k] += b;
+            }
+            return c;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package engine;
+
+import model.MirrorSession;
+
+/**
+ * 端口镜像命令渲染
+ */
+public class MirrorRenderer implements CommandRenderer<MirrorSession> {
+    @Override
+    public void render(MirrorSession m, CommandSink out) {
+        String kind = "local".equals(m.type) || "本地".equals(m.type) ? "local" : "remote-source";
+        out.append("mirroring-group ").append(m.session).append(" ").append(kind).append("\n");
+        if (!m.description.isEmpty()) out.append(" description ").append(m.description).append("\n");
+        out.append("mirroring-group ").append(m.session).append(" ").append(kind)
+                .append(" source ").append(InterfaceNames.canonical(m.sourcePort)).append(" ");
+        if ("入".equals(m.direction)) {
+            out.append("inbound\n");
+        } else if ("出".equals(m.direction)) {
+            out.append("outbound\n");
+        } else {
+            out.append("both\n");
+        }
+        out.append("mirroring-group ").append(m.session).append(" ").append(kind)
+                .append(" monitor-port ").append(InterfaceNames.canonical(m.destPort)).append("\n");
+
+        out.append("quit\n");
+    }
+}
@@ -0,0 +1,25 @@
+package engine;
+
+import model.NatPolicy;
+
+/**
+ * NAT策略命令渲染
+ */
+public class NatRenderer implements CommandRenderer<NatPolicy> {
+    @Override
+    public void render(NatPolicy nat, CommandSink out) {
+        boolean sourceNat = "源NAT".equals(nat.type);
+        out.append("nat ").append(sourceNat ? "address-group " : "server ").append(nat.name).append("\n");
+        if (!nat.description.isEmpty()) out.append(" description ").append(nat.description).append("\n");
+        if (sourceNat) {
+            out.append(" rule 1 source-address ").append(nat.source.isEmpty() ? "any" : nat.source);
+            out.append(" outbound-interface ").append(nat.iface);
+            out.append("\n");
+        } else {
+            out.append(" rule 1 destination-address ").append(nat.destination.isEmpty() ? "any" : nat.destination);
+            out.append(" inbound-interface ").append(nat.iface);
+            out.append("\n");
+        }
+        out.append(" quit\n");
+    }
+}
@@ -0,0 +1,25 @@
+package engine;
+
+import model.PortSecurityEntry;
+
+/**
+ * 端口安全命令渲染
+ */
+public class PortSecurityRenderer implements CommandRenderer<PortSecurityEntry> {
+    @Override
+    public void render(PortSecurityEntry entry, CommandSink out) {
+        out.append("interface ").append(InterfaceNames.canonical(entry.port)).append("\n");
+        out.append(" port-security enable\n");
+        out.append(" port-security max-mac-num ").append(entry.maxMac).append("\n");
+        for (String m : entry.macs) {
+            out.append(" port-security mac-address ").append(m).append(" sticky\n");
+        }
+        if ("shutdown".equals(entry.action))
+            out.append(" port-security violation shutdown\n");
+        else if ("restrict".equals(entry.action))
+            out.append(" port-security violation restrict\n");
+        else if ("protect".equals(entry.action))
+            out.append(" port-security violation protect\n");
+        out.append(" quit\n");
+    }
+}
@@ -0,0 +1,61 @@
+package engine;
+
+/**
+ * 界面预览用输出通道：只保留前 maxChars 个字符（按整行截断），
+ * 其余内容仅计数，保证命令预览区内存占用有上限。
+ */
+public class PreviewSink implements CommandSink {
+    public static final int DEFAULT_MAX_CHARS = 64 * 1024;
+
+    private final StringBuilder sb = new StringBuilder();
+    private final int maxChars;
+    private boolean truncated;
+    private long omittedLines;
+
+    public PreviewSink() {
+        this(DEFAULT_MAX_CHARS);
+    }
+
+    public PreviewSink(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    @Override
+    public PreviewSink append(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) append(s.charAt(i));
+        return this;
+    }
+
+    @Override
+    public PreviewSink append(char c) {
+        if (!truncated && sb.length() < maxChars) {
+            sb.append(c);
+        } else {
+            truncated = true;
+            if (c == '\n') omittedLines++;
+        }
+        return this;
+    }
+
+    @Override
+    public PreviewSink append(int i) {
+        if (truncated || sb.length() >= maxChars - 11) {
+            append(Integer.toString(i));
+        } else {
+            sb.append(i);
+        }
+        return this;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        if (!truncated) return sb.toString();
+        // 去掉被截断的半行（其换行符已计入 omittedLines）
+        int end = sb.lastIndexOf("\n") + 1;
+        return sb.substring(0, end) + "...（预览已截断，省略 " + omittedLines + " 行）\n";
+    }
+}
@@ -0,0 +1,349 @@
+package engine;
+
+import model.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工程文件中各模型对象的二进制编解码，字段顺序即文件格式，修改需提升 ProjectStore.VERSION
+ */
+class ProjectCodec {
+    // 模块分段编号（ACL按编号单独存储，不在此列）
+    static final int VLAN = 1, STP = 2, TRUNK = 3, PORT_SECURITY = 4, IP = 5, ROUTE = 6,
+            QOS = 7, DHCP = 8, NAT = 9, SNMP = 10, MIRROR = 11, USER = 12;
+    static final int[] SECTIONS = {VLAN, STP, TRUNK, PORT_SECURITY, IP, ROUTE, QOS, DHCP, NAT, SNMP, MIRROR, USER};
+
+    private ProjectCodec() {
+    }
+
+    static void writeDevice(RecordWriter w, Device d) {
+        w.writeString(d.name);
+        w.writeString(d.ip);
+        w.writeString(d.model);
+        w.writeString(d.mgmtType);
+        w.writeString(d.status);
+    }
+
+    static Device readDevice(RecordReader r) throws IOException {
+        return new Device(r.readString(), r.readString(), r.readString(), r.readString(), r.readString());
+    }
+
+    static void writeSection(RecordWriter w, int section, DeviceConfig cfg) {
+        switch (section) {
+            case VLAN:
+                w.writeVarInt(cfg.vlans.size());
+                for (VlanEntry v : cfg.vlans) {
+                    w.writeVarInt(v.id);
+                    w.writeString(v.name);
+                    w.writeString(v.port);
+                }
+                break;
+            case STP:
+                w.writeBool(cfg.stp != null);
+                if (cfg.stp == null) break;
+                w.writeBool(cfg.stp.enabled);
+                w.writeString(cfg.stp.mode);
+                w.writeString(cfg.stp.bridgePriority);
+                w.writeVarInt(cfg.stp.ports.size());
+                for (StpPort p : cfg.stp.ports) {
+                    w.writeString(p.port);
+                    w.writeVarInt(p.priority);
+                    w.writeBool(p.edge);
+                    w.writeBool(p.enabled);
+                }
+                break;
+            case TRUNK:
+                w.writeVarInt(cfg.trunks.size());
+                for (EthTrunk t : cfg.trunks) {
+                    w.writeVarInt(t.groupId);
+                    w.writeString(t.mode);
+                    writeStrings(w, t.members);
+                    w.writeString(t.loadBalance);
+                    w.writeString(t.description);
+                }
+                break;
+            case PORT_SECURITY:
+                w.writeVarInt(cfg.portSecurity.size());
+                for (PortSecurityEntry p : cfg.portSecurity) {
+                    w.writeString(p.port);
+                    w.writeVarInt(p.maxMac);
+                    writeStrings(w, p.macs);
+                    w.writeString(p.action);
+                }
+                break;
+            case IP:
+                w.writeVarInt(cfg.interfaces.size());
+                for (IpInterface i : cfg.interfaces) {
+                    w.writeString(i.ip);
+                    w.writeString(i.mask);
+                    w.writeString(i.iface);
+                }
+                break;
+            case ROUTE:
+                w.writeVarInt(cfg.routes.size());
+                for (RouteEntry e : cfg.routes) {
+                    w.writeString(e.type);
+                    w.writeString(e.dest);
+                    w.writeString(e.mask);
+                    w.writeString(e.nextHop);
+                    w.writeString(e.param);
+                }
+                break;
+            case QOS:
+                w.writeVarInt(cfg.qosPolicies.size());
+                for (QosPolicy p : cfg.qosPolicies) {
+                    w.writeString(p.name);
+                    w.writeString(p.description);
+                    w.writeString(p.iface);
+                    w.writeVarInt(p.rules.size());
+                    for (QosRule q : p.rules) {
+                        w.writeVarInt(q.id);
+                        w.writeString(q.matchType);
+                        w.writeString(q.matchValue);
+                        w.writeString(q.action);
+                        w.writeString(q.param);
+                        w.writeString(q.description);
+                    }
+                }
+                break;
+            case DHCP:
+                w.writeVarInt(cfg.dhcpPools.size());
+                for (DhcpPool p : cfg.dhcpPools) {
+                    w.writeString(p.name);
+                    w.writeString(p.network);
+                    w.writeString(p.mask);
+                    w.writeString(p.gateway);
+                    w.writeString(p.dns);
+                    w.writeVarInt(p.leaseHours);
+                }
+                // 后加的字段写在分段末尾，旧文件读到这里已无剩余内容
+                for (DhcpPool p : cfg.dhcpPools) w.writeVarInt(p.expectedClients);
+                break;
+            case NAT:
+                w.writeVarInt(cfg.natPolicies.size());
+                for (NatPolicy n : cfg.natPolicies) {
+                    w.writeString(n.name);
+                    w.writeString(n.type);
+                    w.writeString(n.source);
+                    w.writeString(n.destination);
+                    w.writeString(n.iface);
+                    w.writeString(n.description);
+                }
+                break;
+            case SNMP:
+                w.writeBool(cfg.snmp != null);
+                if (cfg.snmp == null) break;
+                w.writeVarInt(cfg.snmp.communities.size());
+                for (SnmpCommunity c : cfg.snmp.communities) {
+                    w.writeString(c.name);
+                    w.writeString(c.permission);
+                    w.writeString(c.source);
+                }
+                w.writeVarInt(cfg.snmp.trapHosts.size());
+                for (SnmpTrapHost h : cfg.snmp.trapHosts) {
+                    w.writeString(h.address);
+                    w.writeString(h.type);
+                    w.writeString(h.version);
+                }
+                break;
+            case MIRROR:
+                w.writeVarInt(cfg.mirrors.size());
+                for (MirrorSession m : cfg.mirrors) {
+                    w.writeVarInt(m.session);
+                    w.writeString(m.type);
+                    w.writeString(m.sourcePort);
+                    w.writeString(m.direction);
+                    w.writeString(m.destPort);
+                    w.writeString(m.description);
+                }
+                break;
+            case USER:
+                w.writeVarInt(cfg.users.size());
+                for (LocalUser u : cfg.users) {
+                    w.writeString(u.username);
+                    w.writeVarInt(u.level);
+                    w.writeString(u.password);
+                    w.writeString(u.note);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("未知分段: " + section);
+        }
+    }
+
+    static void readSection(RecordReader r, int section, DeviceConfig cfg) throws IOException {
+        int n;
+        switch (section) {
+            case VLAN:
+                n = r.readVarInt();
+                cfg.vlans = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) cfg.vlans.add(new VlanEntry(r.readVarInt(), r.readString(), r.readString()));
+                break;
+            case STP:
+                if (!r.readBool()) {
+                    cfg.stp = null;
+                    break;
+                }
+                cfg.stp = new StpConfig(r.readBool(), r.readString(), r.readString());
+                n = r.readVarInt();
+                for (int i = 0; i < n; i++) cfg.stp.ports.add(new StpPort(r.readString(), r.readVarInt(), r.readBool(), r.readBool()));
+                break;
+            case TRUNK:
+                n = r.readVarInt();
+                cfg.trunks = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    int groupId = r.readVarInt();
+                    String mode = r.readString();
+                    List<String> members = readStrings(r);
+                    EthTrunk t = new EthTrunk(groupId, mode, "", r.readString(), r.readString());
+                    t.members = members;
+                    cfg.trunks.add(t);
+                }
+                break;
+            case PORT_SECURITY:
+                n = r.readVarInt();
+                cfg.portSecurity = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    String port = r.readString();
+                    int maxMac = r.readVarInt();
+                    List<String> macs = readStrings(r);
+                    PortSecurityEntry p = new PortSecurityEntry(port, maxMac, "", r.readString());
+                    p.macs = macs;
+                    cfg.portSecurity.add(p);
+                }
+                break;
+            case IP:
+                n = r.readVarInt();
+                cfg.interfaces = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) cfg.interfaces.add(new IpInterface(r.readString(), r.readString(), r.readString()));
+                break;
+            case ROUTE:
+                n = r.readVarInt();
+                cfg.routes = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    cfg.routes.add(new RouteEntry(r.readString(), r.readString(), r.readString(), r.readString(), r.readString()));
+                }
+                break;
+            case QOS:
+                n = r.readVarInt();
+                cfg.qosPolicies = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    QosPolicy p = new QosPolicy(r.readString(), r.readString(), r.readString());
+                    int rules = r.readVarInt();
+                    for (int j = 0; j < rules; j++) {
+                        p.rules.add(new QosRule(r.readVarInt(), r.readString(), r.readString(), r.readString(), r.readString(), r.readString()));
+                    }
+                    cfg.qosPolicies.add(p);
+                }
+                break;
+            case DHCP:
+                n = r.readVarInt();
+                cfg.dhcpPools = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    cfg.dhcpPools.add(new DhcpPool(r.readString(), r.readString(), r.readString(), r.readString(), r.readString(), r.readVarInt()));
+                }
+                if (r.remaining() > 0) for (DhcpPool p : cfg.dhcpPools) p.expectedClients = r.readVarInt();
+                break;
+            case NAT:
+                n = r.readVarInt();
+                cfg.natPolicies = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    cfg.natPolicies.add(new NatPolicy(r.readString(), r.readString(), r.readString(), r.readString(), r.readString(), r.readString()));
+                }
+                break;
+            case SNMP:
+                if (!r.readBool()) {
+                    cfg.snmp = null;
+                    break;
+                }
+                cfg.snmp = new SnmpConfig();
+                n = r.readVarInt();
+                for (int i = 0; i < n; i++) cfg.snmp.communities.add(new SnmpCommunity(r.readString(), r.readString(), r.readString()));
+                n = r.readVarInt();
+                for (int i = 0; i < n; i++) cfg.snmp.trapHosts.add(new SnmpTrapHost(r.readString(), r.readString(), r.readString()));
+                break;
+            case MIRROR:
+                n = r.readVarInt();
+                cfg.mirrors = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    cfg.mirrors.add(new MirrorSession(r.readVarInt(), r.readString(), r.readString(), r.readString(), r.readString(), r.readString()));
+                }
+                break;
+            case USER:
+                n = r.readVarInt();
+                cfg.users = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) cfg.users.add(new LocalUser(r.readString(), r.readVarInt(), r.readString(), r.readString()));
+                break;
+            default:
+                throw new IOException("未知分段: " + section);
+        }
+    }
+
+    static void writeAcl(RecordWriter w, Acl acl) {
+        w.writeVarInt(acl.number);
+        w.writeString(acl.type);
+        w.writeString(acl.description);
+        w.writeVarInt(acl.rules.size());
+        for (AclRule r : acl.rules) {
+            w.writeVarInt(r.id);
+            w.writeString(r.action);
+            w.writeString(r.protocol);
+            w.writeString(r.source);
+            w.writeString(r.sourcePort);
+            w.writeString(r.destination);
+            w.writeString(r.destPort);
+            w.writeString(r.description);
+        }
+    }
+
+    static Acl readAcl(RecordReader r) throws IOException {
+        Acl acl = new Acl(r.readVarInt(), r.readString(), r.readString());
+        int n = r.readVarInt();
+        for (int i = 0; i < n; i++) {
+            acl.rules.add(new AclRule(r.readVarInt(), r.readString(), r.readString(), r.readString(),
+                    r.readString(), r.readString(), r.readString(), r.readString()));
+        }
+        return acl;
+    }
+
+    static void writeTopology(RecordWriter w, List<TopologyNode> nodes, List<TopologyLink> links) {
+        w.writeVarInt(nodes.size());
+        for (TopologyNode n : nodes) {
+            w.writeString(n.name);
+            w.writeString(n.type);
+            w.writeVarInt(n.x);
+            w.writeVarInt(n.y);
+        }
+        w.writeVarInt(links.size());
+        for (TopologyLink l : links) {
+            w.writeVarInt(l.a);
+            w.writeVarInt(l.b);
+            w.writeString(l.name);
+            w.writeString(l.bandwidth);
+            w.writeString(l.delay);
+        }
+    }
+
+    static void readTopology(RecordReader r, List<TopologyNode> nodes, List<TopologyLink> links) throws IOException {
+        int n = r.readVarInt();
+        for (int i = 0; i < n; i++) nodes.add(new TopologyNode(r.readString(), r.readString(), r.readVarInt(), r.readVarInt()));
+        n = r.readVarInt();
+        for (int i = 0; i < n; i++) {
+            links.add(new TopologyLink(r.readVarInt(), r.readVarInt(), r.readString(), r.readString(), r.readString()));
+        }
+    }
+
+    private static void writeStrings(RecordWriter w, List<String> list) {
+        w.writeVarInt(list.size());
+        for (String s : list) w.writeString(s);
+    }
+
+    private static List<String> readStrings(RecordReader r) throws IOException {
+        int n = r.readVarInt();
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(r.readString());
+        return list;
+    }
+}
@@ -0,0 +1,432 @@
+package engine;
+
+import model.Acl;
+import model.Device;
+import model.DeviceConfig;
+import model.Project;
+import model.TopologyLink;
+import model.TopologyNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 工程文件（.hwp）：只追加写入的二进制记录日志
+ * 1. 文件头 "HWPJ"+版本号，之后每条记录为 [长度][类型+内容][CRC32]
+ * 2. 设备按稳定编号逐台记录增删改；ACL按编号单独记录；其余模块和拓扑按分段整体记录，
+ *    保存时只追加内容有变化的部分，修改一条ACL规则只写入该ACL
+ * 3. 打开时整个文件读入堆内缓冲区顺序重放，末尾不完整或校验失败的记录（写入中断）被截掉。
+ *    不用内存映射：Windows 上映射未释放（要等GC）时文件不能截断，也不能被重写时的原子替换覆盖
+ * 4. 过期记录超过有效数据一倍时整体重写（先写临时文件再原子替换）
+ * 须在同一线程（事件派发线程）中使用。
+ */
+public class ProjectStore implements Closeable {
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x4857504A; // "HWPJ"
+    private static final int HEADER = 8;
+    private static final int DEVICE_PUT = 1, DEVICE_REMOVE = 2, DEVICES = 3,
+            SECTION = 10, ACL_PUT = 11, ACL_REMOVE = 12, TOPOLOGY = 20;
+    private static final long MIN_COMPACT_BYTES = 256 * 1024;
+
+    private final Path path;
+    private FileChannel channel;
+    private long fileSize;
+    private final RecordWriter pending = new RecordWriter(64 * 1024);
+    private final RecordWriter scratch = new RecordWriter(4096);
+    private final CRC32 crc = new CRC32();
+
+    // 当前有效状态：设备对象，其余部分保存最近一次写入的编码
+    private Device[] devices = new Device[16];
+    private int[] deviceBytes = new int[16];
+    private int deviceCount;
+    private long liveDeviceBytes;
+    private final Map<Integer, byte[]> sections = new HashMap<>();
+    private final TreeMap<Integer, byte[]> acls = new TreeMap<>();
+    private byte[] topology;
+
+    private ProjectStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 打开（不存在则新建）工程文件并读入全部记录
+     */
+    public static ProjectStore open(Path path) throws IOException {
+        ProjectStore store = new ProjectStore(path);
+        store.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            store.replay();
+        } catch (IOException | RuntimeException e) {
+            store.channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * 当前工程数据（每次调用重新解码模块分段，设备对象与存储共享）
+     */
+    public Project getProject() throws IOException {
+        Project p = new Project();
+        int[] ids = new int[deviceCount];
+        int n = 0;
+        for (int id = 0; id < devices.length; id++) {
+            if (devices[id] == null) continue;
+            p.devices.add(devices[id]);
+            ids[n++] = id;
+        }
+        p.deviceIds = ids;
+        for (Map.Entry<Integer, byte[]> e : sections.entrySet()) {
+            ProjectCodec.readSection(reader(e.getValue()), e.getKey(), p.template);
+        }
+        for (byte[] b : acls.values()) p.template.acls.add(ProjectCodec.readAcl(reader(b)));
+        if (topology != null) ProjectCodec.readTopology(reader(topology), p.nodes, p.links);
+        return p;
+    }
+
+    public int getDeviceCount() {
+        return deviceCount;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void putDevice(int id, Device d) {
+        int start = beginRecord(DEVICE_PUT);
+        pending.writeVarInt(id);
+        ProjectCodec.writeDevice(pending, d);
+        int size = endRecord(start);
+        setDevice(id, d, size);
+    }
+
+    public void removeDevice(int id) {
+        if (id >= devices.length || devices[id] == null) return;
+        int start = beginRecord(DEVICE_REMOVE);
+        pending.writeVarInt(id);
+        endRecord(start);
+        setDevice(id, null, 0);
+    }
+
+    /**
+     * 批量写入设备（导入时使用），整批一条记录
+     */
+    public void putDevices(int[] ids, List<Device> list) {
+        if (list.isEmpty()) return;
+        int start = beginRecord(DEVICES);
+        pending.writeVarInt(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            pending.writeVarInt(ids[i]);
+            ProjectCodec.writeDevice(pending, list.get(i));
+        }
+        int size = endRecord(start);
+        int per = size / list.size();
+        for (int i = 0; i < list.size(); i++) setDevice(ids[i], list.get(i), per);
+    }
+
+    /**
+     * 使存储中的设备与给定清单一致：只为新增或字段有变化的设备追加记录，并删除清单中没有的编号；
+     * 返回追加的记录数
+     */
+    public int syncDevices(int[] ids, List<Device> list) {
+        int written = 0;
+        boolean[] keep = new boolean[devices.length];
+        for (int i = 0; i < list.size(); i++) {
+            int id = ids[i];
+            Device d = list.get(i);
+            if (id < keep.length) keep[id] = true;
+            if (id < devices.length && sameDevice(devices[id], d)) continue;
+            putDevice(id, d);
+            written++;
+        }
+        for (int id = 0; id < keep.length; id++) {
+            if (keep[id] || devices[id] == null) continue;
+            removeDevice(id);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * 保存各模块配置：只追加与上次保存内容不同的分段和ACL，返回追加的记录数
+     */
+    public int saveConfig(DeviceConfig cfg) {
+        int written = 0;
+        for (int section : ProjectCodec.SECTIONS) {
+            scratch.reset();
+            ProjectCodec.writeSection(scratch, section, cfg);
+            byte[] b = scratch.copyRange(0, scratch.position());
+            if (Arrays.equals(b, sections.get(section))) continue;
+            int start = beginRecord(SECTION);
+            pending.writeVarInt(section);
+            pending.writeBytes(b, 0, b.length);
+            endRecord(start);
+            sections.put(section, b);
+            written++;
+        }
+        Map<Integer, Acl> current = new HashMap<>();
+        for (Acl acl : cfg.acls) current.put(acl.number, acl);
+        for (Iterator<Integer> it = acls.keySet().iterator(); it.hasNext(); ) {
+            int number = it.next();
+            if (current.containsKey(number)) continue;
+            int start = beginRecord(ACL_REMOVE);
+            pending.writeVarInt(number);
+            endRecord(start);
+            it.remove();
+            written++;
+        }
+        for (Acl acl : current.values()) {
+            scratch.reset();
+            ProjectCodec.writeAcl(scratch, acl);
+            byte[] b = scratch.copyRange(0, scratch.position());
+            if (Arrays.equals(b, acls.get(acl.number))) continue;
+            int start = beginRecord(ACL_PUT);
+            pending.writeBytes(b, 0, b.length);
+            endRecord(start);
+            acls.put(acl.number, b);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * 保存拓扑，内容未变化时不写入
+     */
+    public boolean saveTopology(List<TopologyNode> nodes, List<TopologyLink> links) {
+        scratch.reset();
+        ProjectCodec.writeTopology(scratch, nodes, links);
+        byte[] b = scratch.copyRange(0, scratch.position());
+        if (Arrays.equals(b, topology)) return false;
+        int start = beginRecord(TOPOLOGY);
+        pending.writeBytes(b, 0, b.length);
+        endRecord(start);
+        topology = b;
+        return true;
+    }
+
+    /**
+     * 将缓冲的记录追加到文件末尾并落盘；过期数据过多时顺带重写
+     */
+    public void flush() throws IOException {
+        if (pending.position() > 0) {
+            ByteBuffer bb = ByteBuffer.wrap(pending.array(), 0, pending.position());
+            while (bb.hasRemaining()) fileSize += channel.write(bb, fileSize);
+            pending.reset();
+            channel.force(false);
+        }
+        long live = HEADER + liveDeviceBytes + topologyBytes();
+        for (byte[] b : sections.values()) live += b.length + 14;
+        for (byte[] b : acls.values()) live += b.length + 9;
+        if (fileSize > MIN_COMPACT_BYTES && fileSize > 2 * live) compact();
+    }
+
+    /**
+     * 以当前有效状态重写整个文件
+     */
+    public void compact() throws IOException {
+        pending.reset();
+        writeHeader(pending);
+        int count = 0;
+        for (Device d : devices) if (d != null) count++;
+        if (count > 0) {
+            int start = beginRecord(DEVICES);
+            pending.writeVarInt(count);
+            for (int id = 0; id < devices.length; id++) {
+                if (devices[id] == null) continue;
+                pending.writeVarInt(id);
+                ProjectCodec.writeDevice(pending, devices[id]);
+            }
+            int per = endRecord(start) / count;
+            for (int id = 0; id < devices.length; id++) deviceBytes[id] = devices[id] == null ? 0 : per;
+            liveDeviceBytes = (long) per * count;
+        }
+        for (Map.Entry<Integer, byte[]> e : sections.entrySet()) {
+            int start = beginRecord(SECTION);
+            pending.writeVarInt(e.getKey());
+            pending.writeBytes(e.getValue(), 0, e.getValue().length);
+            endRecord(start);
+        }
+        for (byte[] b : acls.values()) {
+            int start = beginRecord(ACL_PUT);
+            pending.writeBytes(b, 0, b.length);
+            endRecord(start);
+        }
+        if (topology != null) {
+            int start = beginRecord(TOPOLOGY);
+            pending.writeBytes(topology, 0, topology.length);
+            endRecord(start);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bb = ByteBuffer.wrap(pending.array(), 0, pending.position());
+            while (bb.hasRemaining()) out.write(bb);
+            out.force(true);
+        }
+        long size = pending.position();
+        pending.reset();
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileSize = size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static boolean sameDevice(Device a, Device b) {
+        return a != null && Objects.equals(a.name, b.name) && Objects.equals(a.ip, b.ip)
+                && Objects.equals(a.model, b.model) && Objects.equals(a.mgmtType, b.mgmtType)
+                && Objects.equals(a.status, b.status);
+    }
+
+    private void replay() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            RecordWriter w = new RecordWriter(HEADER);
+            writeHeader(w);
+            channel.write(ByteBuffer.wrap(w.array(), 0, HEADER), 0);
+            fileSize = HEADER;
+            return;
+        }
+        if (size > Integer.MAX_VALUE) throw new IOException("工程文件过大: " + size);
+        ByteBuffer buf = ByteBuffer.allocate((int) size);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, buf.position()) < 0) throw new IOException("读取工程文件时遇到意外的文件结尾: " + path);
+        }
+        buf.clear();
+        if (size < HEADER || buf.getInt(0) != MAGIC) throw new IOException("不是工程文件: " + path);
+        int version = buf.getInt(4);
+        if (version != VERSION) throw new IOException("不支持的工程文件版本: " + version);
+        RecordReader r = new RecordReader(buf);
+        r.position(HEADER);
+        int good = HEADER;
+        while (r.remaining() >= 9) {
+            int len = buf.getInt(good);
+            if (len <= 0 || len + 8L > r.remaining()) break;
+            crc.reset();
+            ByteBuffer body = buf.duplicate();
+            body.position(good + 4).limit(good + 4 + len);
+            crc.update(body);
+            if ((int) crc.getValue() != buf.getInt(good + 4 + len)) break;
+            r.position(good + 4);
+            apply(r, len);
+            good += len + 8;
+            r.position(good);
+        }
+        fileSize = good;
+        if (good < size) channel.truncate(good); // 丢弃写入中断的残缺记录
+    }
+
+    private void apply(RecordReader r, int len) throws IOException {
+        int end = r.position() + len;
+        int type = r.readByte();
+        switch (type) {
+            case DEVICE_PUT: {
+                int id = r.readVarInt();
+                setDevice(id, ProjectCodec.readDevice(r), len + 8);
+                break;
+            }
+            case DEVICE_REMOVE:
+                setDevice(r.readVarInt(), null, 0);
+                break;
+            case DEVICES: {
+                int n = r.readVarInt();
+                int per = n == 0 ? 0 : (len + 8) / n;
+                for (int i = 0; i < n; i++) {
+                    int id = r.readVarInt();
+                    setDevice(id, ProjectCodec.readDevice(r), per);
+                }
+                break;
+            }
+            case SECTION: {
+                int section = r.readVarInt();
+                sections.put(section, r.readBytes(end - r.position()));
+                break;
+            }
+            case ACL_PUT: {
+                int start = r.position();
+                byte[] b = r.readBytes(end - start);
+                acls.put(ProjectCodec.readAcl(reader(b)).number, b);
+                break;
+            }
+            case ACL_REMOVE:
+                acls.remove(r.readVarInt());
+                break;
+            case TOPOLOGY:
+                topology = r.readBytes(end - r.position());
+                break;
+            default:
+                // 新版本的记录类型，跳过
+                break;
+        }
+    }
+
+    private void setDevice(int id, Device d, int bytes) {
+        if (id < 0) throw new IllegalArgumentException("设备编号非法: " + id);
+        if (id >= devices.length) {
+            int n = Math.max(id + 1, devices.length * 2);
+            devices = Arrays.copyOf(devices, n);
+            deviceBytes = Arrays.copyOf(deviceBytes, n);
+        }
+        if (devices[id] != null) deviceCount--;
+        if (d != null) deviceCount++;
+        liveDeviceBytes += bytes - deviceBytes[id];
+        devices[id] = d;
+        deviceBytes[id] = bytes;
+    }
+
+    private long topologyBytes() {
+        return topology == null ? 0 : topology.length + 9;
+    }
+
+    private int beginRecord(int type) {
+        int start = pending.position();
+        pending.writeInt(0); // 长度占位
+        pending.writeByte(type);
+        return start;
+    }
+
+    // 回填长度并追加CRC，返回记录总字节数
+    private int endRecord(int start) {
+        int len = pending.position() - start - 4;
+        pending.putInt(start, len);
+        crc.reset();
+        crc.update(pending.array(), start + 4, len);
+        pending.writeInt((int) crc.getValue());
+        return len + 8;
+    }
+
+    private static void writeHeader(RecordWriter w) {
+        w.writeInt(MAGIC);
+        w.writeInt(VERSION);
+    }
+
+    private static RecordReader reader(byte[] b) {
+        return new RecordReader(ByteBuffer.wrap(b));
+    }
+}
@@ -0,0 +1,26 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 配置下发使用的传输层，负责建立到设备的字节流
+ * 登录提示、命令回显和提示符由 VrpSession 统一处理，与具体协议无关
+ */
+public interface PushTransport {
+    /**
+     * 建立连接，timeoutMillis 同时作为连接超时和读超时
+     */
+    Connection connect(String host, int port, int timeoutMillis) throws IOException;
+
+    /**
+     * 一条已建立的双向连接
+     */
+    interface Connection extends Closeable {
+        InputStream in();
+
+        OutputStream out();
+    }
+}
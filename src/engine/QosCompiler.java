@@ -0,0 +1,142 @@
+package engine;
+
+import model.QosPolicy;
+import model.QosRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QoS策略编译：全部策略的流分类和流行为按内容去重，匹配条件或动作相同的只定义一次，各流量策略按名称引用
+ * 分类以 if-match 行、行为以动作行为键，按首次出现的顺序命名为 c1、c2… 和 b1、b2…，
+ * 一遍扫描加哈希表去重，耗时与规则数成正比。同一策略内匹配条件重复的规则永远不会命中，编译时忽略并给出提示。
+ */
+public class QosCompiler {
+    public static class Binding {
+        // 在 Result.classifiers / behaviors 中的下标
+        public final int classifier, behavior;
+        public final QosRule rule;
+
+        Binding(int classifier, int behavior, QosRule rule) {
+            this.classifier = classifier;
+            this.behavior = behavior;
+            this.rule = rule;
+        }
+    }
+
+    public static class Result {
+        // 去重后的 if-match 行与动作行（未知类型为空串），下标 i 对应 c(i+1)、b(i+1)
+        public final List<String> classifiers = new ArrayList<>();
+        public final List<String> behaviors = new ArrayList<>();
+        public final List<QosPolicy> policies = new ArrayList<>();
+        // 与 policies 同序，各策略按规则顺序的绑定
+        public final List<List<Binding>> bindings = new ArrayList<>();
+        public final List<String> issues = new ArrayList<>();
+        public int rules;
+        // 每条规则各自定义分类和行为时的命令行数，以及编译后的命令行数
+        public long linesBefore, linesAfter;
+        public long nanos;
+
+        public long saved() {
+            return linesBefore - linesAfter;
+        }
+
+        public double reduction() {
+            return linesBefore == 0 ? 0 : saved() / (double) linesBefore;
+        }
+    }
+
+    private QosCompiler() {
+    }
+
+    public static Result compile(List<QosPolicy> policies) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        Map<String, Integer> classifierIds = new HashMap<>();
+        Map<String, Integer> behaviorIds = new HashMap<>();
+        // 分类最近一次被哪个策略（序号+1）引用，用于发现同一策略内的重复匹配
+        int[] usedBy = new int[16];
+        int[] usedByRule = new int[16];
+        long fixed = 0, perRule = 0, shared = 0;
+        for (QosPolicy p : policies) {
+            int policyNo = result.policies.size() + 1;
+            result.policies.add(p);
+            List<Binding> list = new ArrayList<>(p.rules.size());
+            result.bindings.add(list);
+            // traffic policy、quit 和应用到接口的三行
+            fixed += 5 + (p.description.isEmpty() ? 0 : 1);
+            for (QosRule r : p.rules) {
+                result.rules++;
+                String match = matchLine(r);
+                Integer c = classifierIds.get(match);
+                if (c == null) {
+                    c = result.classifiers.size();
+                    classifierIds.put(match, c);
+                    result.classifiers.add(match);
+                    shared += definitionLines(match);
+                    if (c == usedBy.length) {
+                        usedBy = Arrays.copyOf(usedBy, c * 2);
+                        usedByRule = Arrays.copyOf(usedByRule, c * 2);
+                    }
+                } else if (usedBy[c] == policyNo) {
+                    result.issues.add("策略 " + p.name + " 的规则 " + r.id + " 与规则 " + usedByRule[c] + " 匹配条件相同，不会命中，已忽略");
+                    continue;
+                }
+                usedBy[c] = policyNo;
+                usedByRule[c] = r.id;
+                String action = actionLine(r);
+                Integer b = behaviorIds.get(action);
+                if (b == null) {
+                    b = result.behaviors.size();
+                    behaviorIds.put(action, b);
+                    result.behaviors.add(action);
+                    shared += definitionLines(action);
+                }
+                list.add(new Binding(c, b, r));
+                fixed += 1 + (r.description.isEmpty() ? 0 : 1);
+                perRule += definitionLines(match) + definitionLines(action);
+            }
+        }
+        result.linesBefore = fixed + perRule;
+        result.linesAfter = fixed + shared;
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * 规则的 if-match 行，匹配类型未知时为空串
+     */
+    static String matchLine(QosRule r) {
+        String v = r.matchValue.trim();
+        switch (r.matchType) {
+            case "协议":
+                return "if-match protocol " + v;
+            case "源地址":
+                return "if-match src-ip " + v;
+            case "目的地址":
+                return "if-match dst-ip " + v;
+            case "端口":
+                return "if-match dport " + v;
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * 规则的动作行，动作未知时为空串
+     */
+    static String actionLine(QosRule r) {
+        if ("限速".equals(r.action)) return "car cir " + r.param.trim();
+        if ("优先级".equals(r.action)) return "priority " + r.param.trim();
+        if ("丢弃".equals(r.action)) return "discard";
+        return "";
+    }
+
+    // traffic classifier/behavior 定义行、内容行、quit
+    private static int definitionLines(String body) {
+        return body.isEmpty() ? 2 : 3;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package engine;
+
+import model.QosPolicy;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QoS流量策略命令渲染
+ * 流分类和流行为是设备全局对象，按 QosCompiler 去重后先统一定义，再由各流量策略引用
+ */
+public class QosRenderer implements CommandRenderer<QosPolicy> {
+    @Override
+    public void render(QosPolicy policy, CommandSink out) {
+        render(QosCompiler.compile(Collections.singletonList(policy)), out);
+    }
+
+    /**
+     * 整表渲染：全部策略共用一套流分类和流行为定义
+     */
+    public void renderBatch(List<QosPolicy> policies, CommandSink out) {
+        render(QosCompiler.compile(policies), out);
+    }
+
+    public void render(QosCompiler.Result compiled, CommandSink out) {
+        for (int i = 0; i < compiled.classifiers.size(); i++) classifier(compiled, i, out);
+        for (int i = 0; i < compiled.behaviors.size(); i++) behavior(compiled, i, out);
+        for (int p = 0; p < compiled.policies.size(); p++) policy(compiled, p, out);
+    }
+
+    /**
+     * 只渲染第 policyIndex 个策略及它引用的流分类和流行为，名称与整表编译结果一致
+     */
+    public void renderPolicy(QosCompiler.Result compiled, int policyIndex, CommandSink out) {
+        List<QosCompiler.Binding> bindings = compiled.bindings.get(policyIndex);
+        BitSet classifiers = new BitSet(), behaviors = new BitSet();
+        for (QosCompiler.Binding b : bindings) {
+            classifiers.set(b.classifier);
+            behaviors.set(b.behavior);
+        }
+        for (int i = classifiers.nextSetBit(0); i >= 0; i = classifiers.nextSetBit(i + 1)) classifier(compiled, i, out);
+        for (int i = behaviors.nextSetBit(0); i >= 0; i = behaviors.nextSetBit(i + 1)) behavior(compiled, i, out);
+        policy(compiled, policyIndex, out);
+    }
+
+    /**
+     * 单个策略的预览，超长部分截断
+     */
+    public String previewPolicy(QosCompiler.Result compiled, int policyIndex) {
+        PreviewSink out = new PreviewSink();
+        renderPolicy(compiled, policyIndex, out);
+        return out.toString();
+    }
+
+    private static void classifier(QosCompiler.Result compiled, int i, CommandSink out) {
+        out.append("traffic classifier c").append(i + 1).append("\n");
+        definitionBody(compiled.classifiers.get(i), out);
+    }
+
+    private static void behavior(QosCompiler.Result compiled, int i, CommandSink out) {
+        out.append("traffic behavior b").append(i + 1).append("\n");
+        definitionBody(compiled.behaviors.get(i), out);
+    }
+
+    private static void policy(QosCompiler.Result compiled, int p, CommandSink out) {
+        QosPolicy policy = compiled.policies.get(p);
+        out.append("traffic policy ").append(policy.name).append("\n");
+        if (!policy.description.isEmpty()) out.append(" description ").append(policy.description).append("\n");
+        for (QosCompiler.Binding b : compiled.bindings.get(p)) {
+            out.append(" classifier c").append(b.classifier + 1).append(" behavior b").append(b.behavior + 1).append("\n");
+            if (!b.rule.description.isEmpty()) out.append("  // ").append(b.rule.description).append("\n");
+        }
+        out.append(" quit\n");
+        out.append("interface ").append(InterfaceNames.canonical(policy.iface)).append("\n");
+        out.append(" traffic-policy ").append(policy.name).append(" inbound\n");
+        out.append(" quit\n");
+    }
+
+    private static void definitionBody(String line, CommandSink out) {
+        if (!line.isEmpty()) out.append(" ").append(line).append("\n");
+        out.append(" quit\n");
+    }
+}
\ No newline at end of file
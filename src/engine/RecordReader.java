@@ -0,0 +1,69 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RecordWriter 的对应解码器，直接读取（内存映射的）ByteBuffer
+ */
+class RecordReader {
+    private final ByteBuffer buf;
+    private byte[] scratch = new byte[256];
+
+    RecordReader(ByteBuffer buf) {
+        this.buf = buf;
+    }
+
+    int readByte() {
+        return buf.get() & 0xFF;
+    }
+
+    int readInt() {
+        return buf.getInt();
+    }
+
+    int readVarInt() throws IOException {
+        int u = 0, shift = 0;
+        while (true) {
+            int b = buf.get();
+            u |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            shift += 7;
+            if (shift > 28) throw new IOException("变长整数格式错误");
+        }
+        return (u >>> 1) ^ -(u & 1);
+    }
+
+    boolean readBool() {
+        return buf.get() != 0;
+    }
+
+    String readString() throws IOException {
+        int n = readVarInt();
+        if (n == 0) return null;
+        n--;
+        if (n < 0 || n > buf.remaining()) throw new IOException("字符串长度越界: " + n);
+        if (n > scratch.length) scratch = new byte[Math.max(n, scratch.length * 2)];
+        buf.get(scratch, 0, n);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    byte[] readBytes(int n) {
+        byte[] b = new byte[n];
+        buf.get(b);
+        return b;
+    }
+
+    int position() {
+        return buf.position();
+    }
+
+    void position(int p) {
+        buf.position(p);
+    }
+
+    int remaining() {
+        return buf.remaining();
+    }
+}
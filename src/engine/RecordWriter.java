@@ -0,0 +1,102 @@
+package engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 工程文件的二进制编码缓冲区：变长整数、带长度前缀的UTF-8字符串
+ */
+class RecordWriter {
+    private byte[] buf;
+    private int pos;
+
+    RecordWriter(int capacity) {
+        buf = new byte[capacity];
+    }
+
+    void writeByte(int b) {
+        ensure(1);
+        buf[pos++] = (byte) b;
+    }
+
+    void writeInt(int v) {
+        ensure(4);
+        buf[pos++] = (byte) (v >>> 24);
+        buf[pos++] = (byte) (v >>> 16);
+        buf[pos++] = (byte) (v >>> 8);
+        buf[pos++] = (byte) v;
+    }
+
+    /**
+     * zigzag变长整数，小数值只占1字节
+     */
+    void writeVarInt(int v) {
+        int u = (v << 1) ^ (v >> 31);
+        ensure(5);
+        while ((u & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((u & 0x7F) | 0x80);
+            u >>>= 7;
+        }
+        buf[pos++] = (byte) u;
+    }
+
+    void writeBool(boolean b) {
+        writeByte(b ? 1 : 0);
+    }
+
+    /**
+     * 长度+1 写在前面，0 表示 null
+     */
+    void writeString(String s) {
+        if (s == null) {
+            writeVarInt(0);
+            return;
+        }
+        // 纯ASCII时直接写，避免编码数组
+        int n = s.length();
+        boolean ascii = true;
+        for (int i = 0; i < n && ascii; i++) ascii = s.charAt(i) < 0x80;
+        if (ascii) {
+            writeVarInt(n + 1);
+            ensure(n);
+            for (int i = 0; i < n; i++) buf[pos++] = (byte) s.charAt(i);
+        } else {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(b.length + 1);
+            writeBytes(b, 0, b.length);
+        }
+    }
+
+    void writeBytes(byte[] b, int off, int len) {
+        ensure(len);
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    void putInt(int at, int v) {
+        buf[at] = (byte) (v >>> 24);
+        buf[at + 1] = (byte) (v >>> 16);
+        buf[at + 2] = (byte) (v >>> 8);
+        buf[at + 3] = (byte) v;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    byte[] array() {
+        return buf;
+    }
+
+    byte[] copyRange(int from, int to) {
+        return Arrays.copyOfRange(buf, from, to);
+    }
+
+    void reset() {
+        pos = 0;
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+    }
+}
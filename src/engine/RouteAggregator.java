@@ -0,0 +1,185 @@
+package engine;
+
+import model.RouteEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 静态路由汇总：把下一跳相同、地址连续的前缀合并为尽量短的汇总网段，并删除被同下一跳上级路由覆盖的冗余路由
+ * 转发行为保持不变：任一目的地址在汇总前后命中的下一跳集合相同，原来没有路由的地址汇总后仍然没有路由
+ * （不引入原表中不存在的覆盖，也不生成黑洞路由），因此结果不一定是理论上的最少条数。
+ * 做法：路由按 (网络地址, 前缀长度) 排序后即为一棵隐式二叉前缀树，递归对半切分区间，
+ * 两半转发一致的子树整体上报给上层，不一致处才输出路由。全程 O(n·32)，不建树节点。
+ */
+public class RouteAggregator {
+    // 递归返回值：子树转发不一致（已输出所需路由）
+    private static final int MIXED = -1;
+    // 下一跳组编号 0 表示无路由
+    private static final int NONE = 0;
+
+    public static class Result {
+        // 汇总后的静态路由，之后依次为原表中的其他路由
+        public final List<RouteEntry> routes = new ArrayList<>();
+        public int inputStatic, outputStatic, dynamicEntries;
+        // 格式错误而原样保留的静态路由
+        public int skipped;
+        public long nanos;
+
+        /**
+         * 静态路由条数减少的比例
+         */
+        public double reduction() {
+            return inputStatic == 0 ? 0 : 1 - outputStatic / (double) inputStatic;
+        }
+    }
+
+    private long[] sorted;
+    private int[] groupOf;
+    private int[] outNet, outLen, outGroup;
+    private int outCount;
+
+    private RouteAggregator() {
+    }
+
+    public static Result aggregate(List<RouteEntry> entries) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        List<RouteEntry> others = new ArrayList<>();
+        // 同一网段的多条静态路由合并为一个下一跳组（等价路由），组按 下一跳+参数 集合去重
+        Map<Long, List<RouteEntry>> byPrefix = new HashMap<>();
+        List<RouteEntry> invalid = new ArrayList<>();
+        for (RouteEntry e : entries) {
+            if (!"静态".equals(e.type)) {
+                result.dynamicEntries++;
+                others.add(e);
+                continue;
+            }
+            result.inputStatic++;
+            long dest = IpTrie.parseIpv4(e.dest.trim());
+            int len = IpTrie.parseMask(e.mask.trim());
+            if (dest < 0 || len < 0 || IpTrie.parseIpv4(e.nextHop.trim()) < 0) {
+                result.skipped++;
+                invalid.add(e);
+                continue;
+            }
+            long key = ((dest & AclMatch.mask(len)) & 0xFFFFFFFFL) << 6 | len;
+            List<RouteEntry> same = byPrefix.get(key);
+            if (same == null) byPrefix.put(key, same = new ArrayList<>(1));
+            boolean duplicate = false;
+            for (RouteEntry s : same) {
+                if (s.nextHop.trim().equals(e.nextHop.trim()) && s.param.equals(e.param)) duplicate = true;
+            }
+            if (!duplicate) same.add(e);
+        }
+
+        Map<String, Integer> groupIds = new HashMap<>();
+        List<List<RouteEntry>> groups = new ArrayList<>();
+        groups.add(null);
+        RouteAggregator a = new RouteAggregator();
+        a.sorted = new long[byPrefix.size()];
+        a.groupOf = new int[byPrefix.size()];
+        int[] groupByIndex = new int[byPrefix.size()];
+        int n = 0;
+        for (Map.Entry<Long, List<RouteEntry>> e : byPrefix.entrySet()) {
+            String signature = signature(e.getValue());
+            Integer g = groupIds.get(signature);
+            if (g == null) {
+                g = groups.size();
+                groupIds.put(signature, g);
+                groups.add(e.getValue());
+            }
+            long key = e.getKey();
+            a.sorted[n] = sortKey((int) (key >>> 6), (int) (key & 63), n);
+            groupByIndex[n] = g;
+            n++;
+        }
+        Arrays.sort(a.sorted);
+        for (int i = 0; i < n; i++) a.groupOf[i] = groupByIndex[(int) (a.sorted[i] & ((1 << 26) - 1))];
+
+        a.outNet = new int[Math.max(16, n)];
+        a.outLen = new int[a.outNet.length];
+        a.outGroup = new int[a.outNet.length];
+        int top = a.walk(0, 0, 0, n, NONE);
+        if (top > NONE) a.emit(0, 0, top);
+
+        // 按网络地址、前缀长度输出
+        long[] order = new long[a.outCount];
+        for (int i = 0; i < a.outCount; i++) order[i] = sortKey(a.outNet[i], a.outLen[i], i);
+        Arrays.sort(order);
+        for (long o : order) {
+            int i = (int) (o & ((1 << 26) - 1));
+            String dest = IpTrie.formatIpv4(a.outNet[i]);
+            String mask = IpTrie.formatIpv4(AclMatch.mask(a.outLen[i]));
+            for (RouteEntry hop : groups.get(a.outGroup[i])) {
+                result.routes.add(new RouteEntry("静态", dest, mask, hop.nextHop.trim(), hop.param));
+            }
+        }
+        result.routes.addAll(invalid);
+        result.outputStatic = result.routes.size();
+        result.routes.addAll(others);
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * 处理前缀 net/len 对应的子树，路由在 sorted[lo,hi) 中，inherited 为上层（原表）生效的下一跳组
+     * 子树内转发一致时返回该下一跳组且不输出任何路由，由调用方决定是否在更短的前缀上输出
+     */
+    private int walk(int net, int len, int lo, int hi, int inherited) {
+        int effective = inherited;
+        if (lo < hi && sorted[lo] >>> 26 == sortKey(net, len, 0) >>> 26) {
+            effective = groupOf[lo];
+            lo++;
+        }
+        if (lo == hi || len == 32) return effective;
+        int mid = net | 1 << (31 - len);
+        int split = lowerBound(lo, hi, sortKey(mid, 0, 0));
+        int left = walk(net, len + 1, lo, split, effective);
+        int right = walk(mid, len + 1, split, hi, effective);
+        if (left != MIXED && left == right) return left;
+        // 两半不一致：一致的一半若与本层生效值不同，在该半输出；本层自身的路由与上层不同时输出
+        if (left != MIXED && left != effective) emit(net, len + 1, left);
+        if (right != MIXED && right != effective) emit(mid, len + 1, right);
+        if (effective != inherited) emit(net, len, effective);
+        return MIXED;
+    }
+
+    /**
+     * 排序键：网络地址（翻转符号位，使有符号比较等同无符号顺序）在高32位，其次前缀长度，低26位为下标
+     */
+    private static long sortKey(int net, int len, int index) {
+        return (long) (net ^ Integer.MIN_VALUE) << 32 | (long) len << 26 | index;
+    }
+
+    private void emit(int net, int len, int group) {
+        if (outCount == outNet.length) {
+            outNet = Arrays.copyOf(outNet, outCount * 2);
+            outLen = Arrays.copyOf(outLen, outCount * 2);
+            outGroup = Arrays.copyOf(outGroup, outCount * 2);
+        }
+        outNet[outCount] = net;
+        outLen[outCount] = len;
+        outGroup[outCount] = group;
+        outCount++;
+    }
+
+    private int lowerBound(int lo, int hi, long key) {
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (sorted[m] < key) lo = m + 1;
+            else hi = m;
+        }
+        return lo;
+    }
+
+    private static String signature(List<RouteEntry> hops) {
+        String[] parts = new String[hops.size()];
+        for (int i = 0; i < parts.length; i++) parts[i] = hops.get(i).nextHop.trim() + "|" + hops.get(i).param;
+        Arrays.sort(parts);
+        return String.join(",", parts);
+    }
+}
\ No newline at end of file
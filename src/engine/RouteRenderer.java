@@ -0,0 +1,111 @@
+package engine;
+
+import model.RouteEntry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 路由命令渲染
+ */
+public class RouteRenderer implements CommandRenderer<RouteEntry> {
+    @Override
+    public void render(RouteEntry route, CommandSink out) {
+        String param = route.param;
+        if ("静态".equals(route.type)) {
+            out.append("ip route-static ").append(route.dest).append(" ").append(route.mask).append(" ").append(route.nextHop).append("\n");
+        } else if ("RIP".equals(route.type)) {
+            out.append("rip\n");
+            out.append(" version ").append(arg(param, "version", "2")).append("\n");
+            out.append(" network ").append(route.dest).append("\n");
+            out.append(" quit\n");
+        } else if ("OSPF".equals(route.type)) {
+            out.append("ospf 1\n");
+            out.append(" area ").append(arg(param, "area", "0")).append("\n");
+            out.append(" network ").append(route.dest).append(" ").append(route.mask).append("\n");
+            out.append(" quit\n");
+        } else if ("BGP".equals(route.type)) {
+            out.append("bgp 100\n");
+            out.append(" network ").append(route.dest).append(" mask ").append(route.mask).append("\n");
+            if (!param.isEmpty()) out.append(" ").append(param).append("\n");
+            out.append(" quit\n");
+        }
+    }
+
+    /**
+     * 整表渲染：静态路由逐条输出，RIP、OSPF、BGP 各只进入一次进程视图，OSPF 按区域分组，BGP 邻居参数去重
+     * 一遍扫描时直接写出静态路由并把动态条目归入分组，之后按分组写出；设备上的最终配置与逐条渲染相同
+     * （RIP 版本以最后一条为准，与逐条下发时后者覆盖前者一致）
+     */
+    public void renderBatch(List<RouteEntry> routes, CommandSink out) {
+        List<RouteEntry> rip = new ArrayList<>();
+        // 先按原始参数文本分组（不做字符串处理），输出前再把写法不同的同一区域合并
+        Map<String, List<RouteEntry>> ospfByParam = new LinkedHashMap<>();
+        List<RouteEntry> bgp = new ArrayList<>();
+        for (RouteEntry r : routes) {
+            if ("静态".equals(r.type)) {
+                render(r, out);
+            } else if ("RIP".equals(r.type)) {
+                rip.add(r);
+            } else if ("OSPF".equals(r.type)) {
+                ospfByParam.computeIfAbsent(r.param, k -> new ArrayList<>()).add(r);
+            } else if ("BGP".equals(r.type)) {
+                bgp.add(r);
+            }
+        }
+        if (!rip.isEmpty()) {
+            out.append("rip\n");
+            out.append(" version ").append(arg(rip.get(rip.size() - 1).param, "version", "2")).append("\n");
+            for (RouteEntry r : rip) out.append(" network ").append(r.dest).append("\n");
+            out.append(" quit\n");
+        }
+        if (!ospfByParam.isEmpty()) {
+            Map<String, List<List<RouteEntry>>> areas = new LinkedHashMap<>();
+            for (Map.Entry<String, List<RouteEntry>> e : ospfByParam.entrySet()) {
+                areas.computeIfAbsent(arg(e.getKey(), "area", "0"), k -> new ArrayList<>()).add(e.getValue());
+            }
+            out.append("ospf 1\n");
+            for (Map.Entry<String, List<List<RouteEntry>>> area : areas.entrySet()) {
+                out.append(" area ").append(area.getKey()).append("\n");
+                for (List<RouteEntry> group : area.getValue()) {
+                    for (RouteEntry r : group) out.append(" network ").append(r.dest).append(" ").append(r.mask).append("\n");
+                }
+                out.append(" quit\n");
+            }
+        }
+        if (!bgp.isEmpty()) {
+            // 同一邻居参数只输出一次
+            Set<String> params = new HashSet<>();
+            out.append("bgp 100\n");
+            for (RouteEntry r : bgp) {
+                out.append(" network ").append(r.dest).append(" mask ").append(r.mask).append("\n");
+                if (!r.param.isEmpty() && params.add(r.param)) out.append(" ").append(r.param).append("\n");
+            }
+            out.append(" quit\n");
+        }
+    }
+
+    /**
+     * 整表预览，超长部分截断
+     */
+    public String previewBatch(List<RouteEntry> routes) {
+        PreviewSink out = new PreviewSink();
+        renderBatch(routes, out);
+        return out.toString();
+    }
+
+    // 协议参数列可只写值，也可连同关键字写（如 "area 0"），统一取值部分
+    private static String arg(String param, String keyword, String defaultValue) {
+        String p = param.trim();
+        if (p.isEmpty()) return defaultValue;
+        if (p.regionMatches(true, 0, keyword, 0, keyword.length()) && p.length() > keyword.length()
+                && Character.isWhitespace(p.charAt(keyword.length()))) {
+            return p.substring(keyword.length()).trim();
+        }
+        return p;
+    }
+}
\ No newline at end of file
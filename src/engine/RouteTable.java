@@ -0,0 +1,230 @@
+package engine;
+
+import model.IpInterface;
+import model.RouteEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的IPv4路由表：最长前缀匹配查表与下一跳迭代解析
+ * 1. 路由来自静态路由条目和接口地址（直连路由）；RIP/OSPF/BGP 条目只是宣告网段，路由由协议学习，不参与离线查表
+ * 2. 按 16-8-8 三级数组存放（DIR-24-8 的缩小版，根表 64K 项），查一个地址最多三次数组访问
+ * 3. 编译时按前缀长度从短到长逐条展开写入，较长前缀覆盖较短前缀，子表创建时继承父项，保证最长匹配
+ * 4. 同一网段的多条静态路由合并为等价路由；与直连路由同网段时直连优先
+ * 编译后只读，可多线程查表
+ */
+public class RouteTable {
+    private static final int ROOT = 1 << 16;
+    private static final int CHUNK = 256;
+    // 迭代解析下一跳的最大深度
+    private static final int MAX_RECURSION = 8;
+
+    public static class Route {
+        public final int network, prefixLength;
+        // "静态" 或 "直连"
+        public final String protocol;
+        public final List<String> nextHops = new ArrayList<>();
+        // 出接口：直连路由为接口名，静态路由为迭代解析的结果，解析不到为 null
+        public String outInterface;
+
+        Route(int network, int prefixLength, String protocol) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+            this.protocol = protocol;
+        }
+
+        public String prefix() {
+            return IpTrie.formatIpv4(network) + "/" + prefixLength;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(prefix()).append(" ").append(protocol);
+            if (!nextHops.isEmpty()) sb.append(" 下一跳 ").append(String.join(", ", nextHops));
+            sb.append(" 出接口 ").append(outInterface == null ? "未解析" : outInterface);
+            return sb.toString();
+        }
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    // 各项：0 无路由；正数为路由下标+1；负数为子表起点取反
+    private int[] table = new int[ROOT];
+    private int used = ROOT;
+    // 编译时跳过的条目说明
+    public final List<String> issues = new ArrayList<>();
+    public int dynamicEntries;
+
+    /**
+     * interfaces 为 null 时只有静态路由，出接口不解析
+     */
+    public static RouteTable compile(List<RouteEntry> entries, List<IpInterface> interfaces) {
+        RouteTable t = new RouteTable();
+        Map<Long, Route> byPrefix = new HashMap<>();
+        if (interfaces != null) {
+            for (IpInterface f : interfaces) {
+                long ip = IpTrie.parseIpv4(f.ip.trim());
+                int len = IpTrie.parseMask(f.mask.trim());
+                if (ip < 0 || len < 0) {
+                    t.issues.add("接口 " + f.iface + " 地址格式错误，未生成直连路由");
+                    continue;
+                }
+                int net = (int) ip & AclMatch.mask(len);
+                Route r = byPrefix.get(key(net, len));
+                if (r != null) continue;
+                r = new Route(net, len, "直连");
+                r.outInterface = InterfaceNames.canonical(f.iface);
+                byPrefix.put(key(net, len), r);
+            }
+        }
+        for (RouteEntry e : entries) {
+            if (!"静态".equals(e.type)) {
+                t.dynamicEntries++;
+                continue;
+            }
+            long dest = IpTrie.parseIpv4(e.dest.trim());
+            int len = IpTrie.parseMask(e.mask.trim());
+            long hop = IpTrie.parseIpv4(e.nextHop.trim());
+            if (dest < 0 || len < 0 || hop < 0) {
+                t.issues.add("静态路由 " + e.dest + " " + e.mask + " " + e.nextHop + " 格式错误，已跳过");
+                continue;
+            }
+            int net = (int) dest & AclMatch.mask(len);
+            Route r = byPrefix.get(key(net, len));
+            if (r == null) {
+                r = new Route(net, len, "静态");
+                byPrefix.put(key(net, len), r);
+            } else if (!r.protocol.equals("静态")) {
+                continue;
+            }
+            String h = IpTrie.formatIpv4((int) hop);
+            if (!r.nextHops.contains(h)) r.nextHops.add(h);
+        }
+
+        // 按前缀长度计数排序后依次写入
+        int[] count = new int[34];
+        for (Route r : byPrefix.values()) count[r.prefixLength + 1]++;
+        for (int i = 1; i < count.length; i++) count[i] += count[i - 1];
+        Route[] sorted = new Route[byPrefix.size()];
+        for (Route r : byPrefix.values()) sorted[count[r.prefixLength]++] = r;
+        for (Route r : sorted) {
+            t.routes.add(r);
+            t.insert(r.network, r.prefixLength, t.routes.size());
+        }
+        t.table = Arrays.copyOf(t.table, t.used);
+        t.resolveNextHops(interfaces != null);
+        return t;
+    }
+
+    /**
+     * 最长匹配的路由下标，无路由返回 -1
+     */
+    public int lookup(int addr) {
+        int[] t = table;
+        int v = t[addr >>> 16];
+        if (v < 0) {
+            v = t[~v + (addr >>> 8 & 0xFF)];
+            if (v < 0) v = t[~v + (addr & 0xFF)];
+        }
+        return v - 1;
+    }
+
+    /**
+     * 批量查表，out[i] 为 addrs[i] 命中的路由下标（-1 为无路由）
+     */
+    public void lookupAll(int[] addrs, int count, int[] out) {
+        int[] t = table;
+        for (int i = 0; i < count; i++) {
+            int a = addrs[i];
+            int v = t[a >>> 16];
+            if (v < 0) {
+                v = t[~v + (a >>> 8 & 0xFF)];
+                if (v < 0) v = t[~v + (a & 0xFF)];
+            }
+            out[i] = v - 1;
+        }
+    }
+
+    public Route route(int index) {
+        return routes.get(index);
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * 查表占用的数组项数（根表加全部子表）
+     */
+    public int tableEntries() {
+        return table.length;
+    }
+
+    private void insert(int net, int len, int value) {
+        if (len <= 16) {
+            int from = net >>> 16;
+            Arrays.fill(table, from, from + (1 << (16 - len)), value);
+            return;
+        }
+        int chunk = child(net >>> 16);
+        if (len <= 24) {
+            int from = chunk + (net >>> 8 & 0xFF);
+            Arrays.fill(table, from, from + (1 << (24 - len)), value);
+            return;
+        }
+        chunk = child(chunk + (net >>> 8 & 0xFF));
+        int from = chunk + (net & 0xFF);
+        Arrays.fill(table, from, from + (1 << (32 - len)), value);
+    }
+
+    // 取 slot 的子表起点，没有时新建并继承原值
+    private int child(int slot) {
+        int v = table[slot];
+        if (v < 0) return ~v;
+        if (used + CHUNK > table.length) table = Arrays.copyOf(table, Math.max(table.length * 2, used + CHUNK));
+        int chunk = used;
+        used += CHUNK;
+        Arrays.fill(table, chunk, chunk + CHUNK, v);
+        table[slot] = ~chunk;
+        return chunk;
+    }
+
+    private void resolveNextHops(boolean withInterfaces) {
+        if (!withInterfaces) return;
+        for (Route r : routes) {
+            if (r.outInterface != null) continue;
+            List<String> outs = new ArrayList<>();
+            for (String hop : r.nextHops) {
+                String out = resolve((int) IpTrie.parseIpv4(hop), 0);
+                if (out == null) {
+                    issues.add("静态路由 " + r.prefix() + " 的下一跳 " + hop + " 不可达");
+                } else if (!outs.contains(out)) {
+                    outs.add(out);
+                }
+            }
+            if (!outs.isEmpty()) r.outInterface = String.join(", ", outs);
+        }
+    }
+
+    // 迭代查找下一跳所在的直连网段
+    private String resolve(int hop, int depth) {
+        int i = lookup(hop);
+        if (i < 0 || depth >= MAX_RECURSION) return null;
+        Route r = routes.get(i);
+        if (r.protocol.equals("直连")) return r.outInterface;
+        for (String next : r.nextHops) {
+            int n = (int) IpTrie.parseIpv4(next);
+            if (n == hop) continue;
+            String out = resolve(n, depth + 1);
+            if (out != null) return out;
+        }
+        return null;
+    }
+
+    private static long key(int net, int len) {
+        return (net & 0xFFFFFFFFL) << 6 | len;
+    }
+}
\ No newline at end of file
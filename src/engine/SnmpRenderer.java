@@ -0,0 +1,26 @@
+package engine;
+
+import model.SnmpCommunity;
+import model.SnmpConfig;
+import model.SnmpTrapHost;
+
+/**
+ * SNMP命令渲染
+ */
+public class SnmpRenderer implements CommandRenderer<SnmpConfig> {
+    @Override
+    public void render(SnmpConfig snmp, CommandSink out) {
+        // 社区配置
+        for (SnmpCommunity c : snmp.communities) {
+            out.append("snmp-agent community ").append(c.permission.toLowerCase()).append(" ").append(c.name);
+            if (!"any".equals(c.source)) out.append(" source ").append(c.source);
+            out.append("\n");
+        }
+        // Trap配置
+        for (SnmpTrapHost t : snmp.trapHosts) {
+            out.append("snmp-agent target-host ").append(t.address)
+                    .append(" params securityname public")
+                    .append(" ").append(t.type).append(" version-").append(t.version).append("\n");
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package engine;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 设备可达性轮询
+ * 对每台设备的管理端口（SSH 22 / Telnet 23）做一次TCP连接检测，连接建立即视为在线。
+ * 单个线程用NIO Selector驱动全部非阻塞连接，同时在途的连接数受并发上限约束；
+ * 各设备的发起时间在抖动窗口内随机打散，避免同一时刻集中建连。
+ * 结果按批回调（默认每100ms或每512条一批），调用方可一次性刷新表格。
+ */
+public class StatusPoller {
+    public static final int SSH_PORT = 22, TELNET_PORT = 23;
+
+    /**
+     * 批量结果回调，在轮询线程中调用；数组仅在回调期间有效
+     */
+    public interface Listener {
+        void onResults(int[] ids, boolean[] reachable, int count);
+    }
+
+    /**
+     * 一台待检测的设备，id 由调用方定义并原样回传
+     */
+    public static class Target {
+        public int id;
+        public String host;
+        public int port;
+
+        public Target(int id, String host, int port) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+        }
+    }
+
+    private static final int BATCH_SIZE = 512;
+    private static final long BATCH_NANOS = 100_000_000L;
+
+    private final int concurrency;
+    private final int timeoutMillis;
+    private final int jitterMillis;
+
+    /**
+     * @param concurrency   同时在途的连接数上限
+     * @param timeoutMillis 单台设备的连接超时
+     * @param jitterMillis  发起时间的随机打散窗口，0 表示不打散
+     */
+    public StatusPoller(int concurrency, int timeoutMillis, int jitterMillis) {
+        if (concurrency <= 0) throw new IllegalArgumentException("并发数须大于0: " + concurrency);
+        if (timeoutMillis <= 0) throw new IllegalArgumentException("超时须大于0: " + timeoutMillis);
+        this.concurrency = concurrency;
+        this.timeoutMillis = timeoutMillis;
+        this.jitterMillis = Math.max(0, jitterMillis);
+    }
+
+    /**
+     * 按管理方式取端口，无法识别时返回 defaultPort
+     */
+    public static int portOf(String mgmtType, int defaultPort) {
+        if ("SSH".equalsIgnoreCase(mgmtType)) return SSH_PORT;
+        if ("Telnet".equalsIgnoreCase(mgmtType)) return TELNET_PORT;
+        return defaultPort;
+    }
+
+    /**
+     * 在后台线程中检测全部设备
+     */
+    public Job poll(List<Target> targets, Listener listener) {
+        Job job = new Job(targets, listener);
+        Thread t = new Thread(job::run, "status-poller");
+        t.setDaemon(true);
+        t.start();
+        return job;
+    }
+
+    /**
+     * 一次轮询任务
+     */
+    public class Job {
+        private final Target[] targets;
+        private final long[] startAt;
+        private final InetAddress[] addresses;
+        private final Listener listener;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+        private volatile boolean cancelled;
+        private volatile int done;
+        private volatile int reachableCount;
+        private volatile Throwable error;
+
+        private final int[] batchIds = new int[BATCH_SIZE];
+        private final boolean[] batchUp = new boolean[BATCH_SIZE];
+        private int batchCount;
+        private long lastFlush = System.nanoTime();
+        // 尚未完成的连接数，并发上限按它计算
+        private int active;
+
+        Job(List<Target> list, Listener listener) {
+            this.listener = listener;
+            this.targets = list.toArray(new Target[0]);
+            this.startAt = new long[targets.length];
+            this.addresses = new InetAddress[targets.length];
+            // 按随机发起时间排序，轮询时按序启动
+            Random rnd = new Random();
+            long base = System.nanoTime();
+            Integer[] order = new Integer[targets.length];
+            long[] at = new long[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                order[i] = i;
+                at[i] = base + (jitterMillis == 0 ? 0 : (long) rnd.nextInt(jitterMillis) * 1_000_000L);
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(at[a], at[b]));
+            Target[] sorted = new Target[targets.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = list.get(order[i]);
+                startAt[i] = at[order[i]];
+            }
+            System.arraycopy(sorted, 0, targets, 0, sorted.length);
+        }
+
+        public int getTotal() {
+            return targets.length;
+        }
+
+        public int getDone() {
+            return done;
+        }
+
+        public int getReachable() {
+            return reachableCount;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isFinished() {
+            return finished.getCount() == 0;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getElapsedMillis() {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        public void await() throws InterruptedException {
+            finished.await();
+        }
+
+        private void run() {
+            try (Selector selector = Selector.open()) {
+                resolve();
+                loop(selector);
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                flush();
+                endNanos = System.nanoTime();
+                finished.countDown();
+            }
+        }
+
+        // 域名解析是阻塞调用，在进入Selector循环前完成，同名主机只解析一次；解析失败的保持为 null
+        private void resolve() {
+            Map<String, InetAddress> cache = new HashMap<>();
+            for (int i = 0; i < targets.length && !cancelled; i++) {
+                String host = targets[i].host;
+                if (host == null) continue;
+                if (!cache.containsKey(host)) cache.put(host, lookup(host));
+                addresses[i] = cache.get(host);
+            }
+        }
+
+        private InetAddress lookup(String host) {
+            try {
+                long ip = IpTrie.parseIpv4(host);
+                if (ip >= 0) {
+                    return InetAddress.getByAddress(new byte[]{
+                            (byte) (ip >>> 24), (byte) (ip >>> 16), (byte) (ip >>> 8), (byte) ip});
+                }
+                return InetAddress.getByName(host);
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private void loop(Selector selector) throws IOException {
+            long timeoutNanos = timeoutMillis * 1_000_000L;
+            // 在途连接按发起顺序排列，超时时间单调递增，只需检查队首；
+            // 提前完成的连接留在队列中直到移到队首，不计入 active
+            ArrayDeque<SelectionKey> inflight = new ArrayDeque<>();
+            int next = 0;
+            while (!cancelled && (next < targets.length || !inflight.isEmpty())) {
+                long now = System.nanoTime();
+                while (next < targets.length && active < concurrency && startAt[next] <= now) {
+                    SelectionKey key = connect(selector, targets[next], addresses[next], now + timeoutNanos);
+                    if (key != null) {
+                        inflight.addLast(key);
+                        active++;
+                    }
+                    next++;
+                }
+                // 清理已完成和已超时的连接
+                while (!inflight.isEmpty()) {
+                    SelectionKey head = inflight.peekFirst();
+                    if (!head.isValid()) {
+                        inflight.pollFirst();
+                    } else if (((Pending) head.attachment()).deadline <= now) {
+                        inflight.pollFirst();
+                        finish(head, false);
+                    } else {
+                        break;
+                    }
+                }
+                long wait = Long.MAX_VALUE;
+                if (!inflight.isEmpty()) wait = ((Pending) inflight.peekFirst().attachment()).deadline - now;
+                if (next < targets.length && active < concurrency) wait = Math.min(wait, startAt[next] - now);
+                wait = Math.min(wait, BATCH_NANOS);
+                selector.select(Math.max(1, wait / 1_000_000));
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    boolean up;
+                    try {
+                        up = ((SocketChannel) key.channel()).finishConnect();
+                    } catch (IOException e) {
+                        up = false;
+                    }
+                    if (up || !key.channel().isOpen()) finish(key, up);
+                }
+                if (System.nanoTime() - lastFlush >= BATCH_NANOS) flush();
+            }
+            for (SelectionKey key : inflight) {
+                if (key.isValid()) key.channel().close();
+            }
+        }
+
+        private SelectionKey connect(Selector selector, Target t, InetAddress resolved, long deadline) {
+            if (resolved == null) {
+                record(t.id, false);
+                return null;
+            }
+            SocketChannel ch = null;
+            try {
+                InetSocketAddress addr = new InetSocketAddress(resolved, t.port);
+                ch = SocketChannel.open();
+                ch.configureBlocking(false);
+                if (ch.connect(addr)) {
+                    ch.close();
+                    record(t.id, true);
+                    return null;
+                }
+                return ch.register(selector, SelectionKey.OP_CONNECT, new Pending(t.id, deadline));
+            } catch (IOException | RuntimeException e) {
+                if (ch != null) {
+                    try {
+                        ch.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+                record(t.id, false);
+                return null;
+            }
+        }
+
+        private void finish(SelectionKey key, boolean up) {
+            active--;
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+            }
+            record(((Pending) key.attachment()).id, up);
+        }
+
+        private void record(int id, boolean up) {
+            batchIds[batchCount] = id;
+            batchUp[batchCount] = up;
+            batchCount++;
+            done++;
+            if (up) reachableCount++;
+            if (batchCount == BATCH_SIZE) flush();
+        }
+
+        private void flush() {
+            lastFlush = System.nanoTime();
+            if (batchCount == 0) return;
+            listener.onResults(batchIds, batchUp, batchCount);
+            batchCount = 0;
+        }
+    }
+
+    private static class Pending {
+        final int id;
+        final long deadline;
+
+        Pending(int id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package engine;
+
+import model.StpConfig;
+import model.StpPort;
+
+/**
+ * 生成树命令渲染
+ */
+public class StpRenderer implements CommandRenderer<StpConfig> {
+    @Override
+    public void render(StpConfig stp, CommandSink out) {
+        if (!stp.enabled) {
+            out.append("undo stp enable\n");
+            return;
+        }
+
+        out.append("stp enable\n");
+        if ("STP".equals(stp.mode)) out.append("stp mode stp\n");
+        else if ("RSTP".equals(stp.mode)) out.append("stp mode rstp\n");
+        else if ("MSTP".equals(stp.mode)) out.append("stp mode mstp\n");
+        out.append("stp priority ").append(stp.bridgePriority).append("\n");
+
+        for (StpPort p : stp.ports) {
+            out.append("interface ").append(InterfaceNames.canonical(p.port)).append("\n");
+            out.append(" stp port priority ").append(p.priority).append("\n");
+            if (p.edge) out.append(" stp edged-port enable\n");
+            else out.append(" stp edged-port disable\n");
+            if (p.enabled) out.append(" stp enable\n");
+            else out.append(" stp disable\n");
+            out.append(" quit\n");
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package engine;
+
+import model.StpConfig;
+import model.StpPort;
+
+import java.util.Arrays;
+
+/**
+ * 生成树仿真：按802.1D/802.1w规则在拓扑上选举根桥、根端口、指定端口和替代端口
+ * 每个桥的优先级向量为（根桥ID，根路径开销，发送桥ID，发送端口ID，接收端口ID），逐项比较取最小；
+ * 全量计算是以每个桥自身为源的多源Dijkstra，链路增删、开销或优先级变化时只修复受影响的子树。
+ * 各模式收敛后的端口角色相同；MSTP按CIST（实例0）计算。节点与链路编号由 add* 返回，删除后不复用。
+ * 非线程安全
+ */
+public class StpSimulator {
+    public static final int DEFAULT_BRIDGE_PRIORITY = 32768;
+    public static final int DEFAULT_PORT_PRIORITY = 128;
+    private static final long MAC_MASK = (1L << 48) - 1;
+
+    public enum Role {
+        ROOT("根端口"), DESIGNATED("指定端口"), ALTERNATE("替代端口"), NONE("");
+
+        public final String label;
+
+        Role(String label) {
+            this.label = label;
+        }
+    }
+
+    // 节点：参与生成树的交换机，或只挂在交换机下的路由器/PC
+    private int nodeCount;
+    private boolean[] bridge = new boolean[16];
+    private boolean[] nodeAlive = new boolean[16];
+    private long[] bridgeId = new long[16];
+    private long[] rootId = new long[16];
+    private long[] cost = new long[16];
+    private int[] rootPort = new int[16];
+    private int[][] adj = new int[16][];
+    private int[] degree = new int[16];
+    private int[] nextPortNo = new int[16];
+
+    // 链路：两端节点、开销、两端端口ID（优先级<<8 | 12位端口号）
+    private int linkCount;
+    private int[] endA = new int[16], endB = new int[16];
+    private long[] linkCost = new long[16];
+    private int[] portA = new int[16], portB = new int[16];
+    private boolean[] linkAlive = new boolean[16];
+
+    private boolean computed;
+
+    // Dijkstra用的索引堆，mark按轮次区分已出堆/已访问的节点
+    private int[] heap = new int[16];
+    private int[] heapPos = new int[16];
+    private int heapSize;
+    private int[] mark = new int[16];
+    private int epoch;
+
+    /**
+     * 新增交换机，返回节点编号
+     */
+    public int addBridge(int priority) {
+        int n = newNode();
+        bridge[n] = true;
+        bridgeId[n] = bridgeId(priority, n);
+        selfRoot(n);
+        return n;
+    }
+
+    /**
+     * 新增不运行生成树的终端（路由器、PC），返回节点编号
+     */
+    public int addHost() {
+        return newNode();
+    }
+
+    /**
+     * 新增链路，两端端口号按各自节点上链路加入的顺序从1分配，返回链路编号
+     */
+    public int addLink(int a, int b, long pathCost) {
+        if (a == b || !nodeAlive[a] || !nodeAlive[b]) throw new IllegalArgumentException("链路两端须为不同的有效节点");
+        int l = linkCount++;
+        if (l == endA.length) growLinks();
+        endA[l] = a;
+        endB[l] = b;
+        linkCost[l] = Math.max(1, pathCost);
+        portA[l] = DEFAULT_PORT_PRIORITY << 8 | ++nextPortNo[a];
+        portB[l] = DEFAULT_PORT_PRIORITY << 8 | ++nextPortNo[b];
+        linkAlive[l] = true;
+        attach(a, l);
+        attach(b, l);
+        if (computed && bridge[a] && bridge[b]) relaxAcross(l);
+        return l;
+    }
+
+    public void removeLink(int l) {
+        if (!linkAlive[l]) return;
+        int a = endA[l], b = endB[l];
+        linkAlive[l] = false;
+        detach(a, l);
+        detach(b, l);
+        if (!computed || !bridge[a] || !bridge[b]) return;
+        if (rootPort[a] == l) repair(subtree(a));
+        else if (rootPort[b] == l) repair(subtree(b));
+    }
+
+    public void removeNode(int n) {
+        if (!nodeAlive[n]) return;
+        while (degree[n] > 0) removeLink(adj[n][degree[n] - 1]);
+        nodeAlive[n] = false;
+    }
+
+    public void setLinkCost(int l, long pathCost) {
+        long old = linkCost[l];
+        linkCost[l] = Math.max(1, pathCost);
+        int a = endA[l], b = endB[l];
+        if (!computed || !linkAlive[l] || !bridge[a] || !bridge[b] || linkCost[l] == old) return;
+        if (linkCost[l] < old) {
+            relaxAcross(l);
+        } else if (rootPort[a] == l) {
+            repair(subtree(a));
+        } else if (rootPort[b] == l) {
+            repair(subtree(b));
+        }
+    }
+
+    public void setBridgePriority(int n, int priority) {
+        long id = bridgeId(priority, n);
+        if (!computed) {
+            bridgeId[n] = id;
+            selfRoot(n);
+            return;
+        }
+        if (id == bridgeId[n]) return;
+        if (rootPort[n] < 0) {
+            // 原来是根桥：整棵树重新选举
+            int[] tree = subtree(n);
+            bridgeId[n] = id;
+            repair(tree);
+        } else if (id < rootId[n]) {
+            // 成为新的根桥，沿途各桥的向量只会变好
+            bridgeId[n] = id;
+            selfRoot(n);
+            epoch++;
+            push(n);
+            run();
+        } else {
+            // 根和开销不变，只影响邻居在等价路径间的选择
+            bridgeId[n] = id;
+            for (int i = 0; i < degree[n]; i++) reevaluate(other(adj[n][i], n));
+        }
+    }
+
+    /**
+     * 设置链路某一端（0为a端，1为b端）的端口优先级
+     */
+    public void setPortPriority(int l, int end, int priority) {
+        if (end == 0) portA[l] = priority << 8 | (portA[l] & 0xFFF);
+        else portB[l] = priority << 8 | (portB[l] & 0xFFF);
+        if (!computed || !linkAlive[l]) return;
+        reevaluate(endA[l]);
+        reevaluate(endB[l]);
+    }
+
+    public boolean isBridge(int n) {
+        return bridge[n];
+    }
+
+    /**
+     * 该节点所在生成树的根桥编号，终端返回 -1
+     */
+    public int rootOf(int n) {
+        ensureComputed();
+        return bridge[n] ? (int) (rootId[n] & MAC_MASK) - 1 : -1;
+    }
+
+    public boolean isRoot(int n) {
+        return rootOf(n) == n;
+    }
+
+    public long rootPathCost(int n) {
+        ensureComputed();
+        return cost[n];
+    }
+
+    /**
+     * 根端口所在链路，根桥和终端返回 -1
+     */
+    public int rootPortLink(int n) {
+        ensureComputed();
+        return bridge[n] ? rootPort[n] : -1;
+    }
+
+    /**
+     * 链路某一端（0为a端，1为b端）的端口角色；终端一侧为 NONE，交换机连终端的端口为指定端口
+     */
+    public Role role(int l, int end) {
+        ensureComputed();
+        int x = end == 0 ? endA[l] : endB[l];
+        int y = end == 0 ? endB[l] : endA[l];
+        if (!linkAlive[l] || !bridge[x]) return Role.NONE;
+        if (!bridge[y]) return Role.DESIGNATED;
+        if (rootPort[x] == l) return Role.ROOT;
+        if (rootPort[y] == l) return Role.DESIGNATED;
+        int c = compare(rootId[x], cost[x], bridgeId[x], portAt(x, l), 0,
+                rootId[y], cost[y], bridgeId[y], portAt(y, l), 0);
+        return c < 0 ? Role.DESIGNATED : Role.ALTERNATE;
+    }
+
+    /**
+     * 两端均为交换机且都不是根端口的链路被阻塞
+     */
+    public boolean isBlocked(int l) {
+        ensureComputed();
+        int a = endA[l], b = endB[l];
+        return linkAlive[l] && bridge[a] && bridge[b] && rootPort[a] != l && rootPort[b] != l;
+    }
+
+    public int blockedCount() {
+        int n = 0;
+        for (int l = 0; l < linkCount; l++) if (isBlocked(l)) n++;
+        return n;
+    }
+
+    /**
+     * 丢弃增量结果，全部重算
+     */
+    public void recompute() {
+        epoch++;
+        heapSize = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            if (!nodeAlive[n] || !bridge[n]) continue;
+            selfRoot(n);
+            push(n);
+        }
+        run();
+        computed = true;
+    }
+
+    // ---- 路径开销与StpPanel参数 ----
+
+    /**
+     * 按802.1t由带宽文本（如 100M、1G、10Gbps）计算端口路径开销，无法识别时按1G
+     */
+    public static long pathCost(String bandwidth) {
+        double mbps = 1000;
+        if (bandwidth != null) {
+            String s = bandwidth.trim().toUpperCase();
+            if (s.endsWith("BPS")) s = s.substring(0, s.length() - 3);
+            double unit = 1;
+            if (s.endsWith("K")) unit = 0.001;
+            else if (s.endsWith("M")) unit = 1;
+            else if (s.endsWith("G")) unit = 1000;
+            else if (s.endsWith("T")) unit = 1000000;
+            if (!s.isEmpty() && !Character.isDigit(s.charAt(s.length() - 1))) s = s.substring(0, s.length() - 1);
+            try {
+                double v = Double.parseDouble(s.trim());
+                if (v > 0) mbps = v * unit;
+            } catch (NumberFormatException ignored) {
+                // 保持默认
+            }
+        }
+        return Math.max(1, Math.min(200000000L, Math.round(20000000 / mbps)));
+    }
+
+    /**
+     * 桥优先级，无效时取默认值
+     */
+    public static int bridgePriority(StpConfig stp) {
+        try {
+            int p = Integer.parseInt(stp.bridgePriority.trim());
+            if (p >= 0 && p <= 61440) return p;
+        } catch (NumberFormatException ignored) {
+            // 取默认
+        }
+        return DEFAULT_BRIDGE_PRIORITY;
+    }
+
+    /**
+     * StpPanel中端口号为 portNo 的端口优先级（按接口名最后一段编号对应），未配置时取默认值
+     */
+    public static int portPriority(StpConfig stp, int portNo) {
+        for (StpPort p : stp.ports) {
+            InterfaceName n = InterfaceNames.parse(p.port);
+            if (n != null && n.port == portNo) return p.priority;
+        }
+        return DEFAULT_PORT_PRIORITY;
+    }
+
+    public int portNo(int l, int end) {
+        return (end == 0 ? portA[l] : portB[l]) & 0xFFF;
+    }
+
+    // ---- 增量修复 ----
+
+    private void ensureComputed() {
+        if (!computed) recompute();
+    }
+
+    private void relaxAcross(int l) {
+        epoch++;
+        heapSize = 0;
+        int a = endA[l], b = endB[l];
+        if (improves(a, l)) {
+            take(a, l);
+            push(a);
+        } else if (improves(b, l)) {
+            take(b, l);
+            push(b);
+        }
+        run();
+    }
+
+    /**
+     * 受影响的节点先各自当根，再从未受影响的邻居接收最优向量，最后一起跑Dijkstra
+     */
+    private void repair(int[] affected) {
+        epoch++;
+        heapSize = 0;
+        int inSet = epoch;
+        for (int n : affected) {
+            selfRoot(n);
+            mark[n] = inSet;
+        }
+        for (int n : affected) {
+            for (int i = 0; i < degree[n]; i++) {
+                int l = adj[n][i];
+                int u = other(l, n);
+                if (bridge[u] && mark[u] != inSet && improves(n, l)) take(n, l);
+            }
+        }
+        // 出堆标记使用新的轮次，与上面的集合标记区分
+        epoch++;
+        for (int n : affected) push(n);
+        run();
+    }
+
+    /**
+     * 等价路径间重新选择根端口；根和开销若有变化说明增量假设不成立，退回全量计算
+     */
+    private void reevaluate(int n) {
+        if (!bridge[n] || rootPort[n] < 0) return;
+        long r = rootId[n], c = cost[n];
+        int best = rootPort[n];
+        for (int i = 0; i < degree[n]; i++) {
+            int l = adj[n][i];
+            if (l == best || !bridge[other(l, n)]) continue;
+            if (better(n, l, best)) best = l;
+        }
+        take(n, best);
+        if (rootId[n] != r || cost[n] != c) recompute();
+    }
+
+    private void run() {
+        while (heapSize > 0) {
+            int u = pop();
+            mark[u] = epoch;
+            for (int i = 0; i < degree[u]; i++) {
+                int l = adj[u][i];
+                int w = other(l, u);
+                if (!bridge[w] || mark[w] == epoch) continue;
+                if (improves(w, l)) {
+                    take(w, l);
+                    push(w);
+                }
+            }
+        }
+    }
+
+    // 以根端口方向的子树（含自身）
+    private int[] subtree(int n) {
+        int[] out = new int[8];
+        int size = 0, head = 0;
+        out[size++] = n;
+        while (head < size) {
+            int x = out[head++];
+            for (int i = 0; i < degree[x]; i++) {
+                int l = adj[x][i];
+                int w = other(l, x);
+                if (bridge[w] && rootPort[w] == l) {
+                    if (size == out.length) out = Arrays.copyOf(out, size * 2);
+                    out[size++] = w;
+                }
+            }
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    // ---- 优先级向量 ----
+
+    private static long bridgeId(int priority, int n) {
+        return (long) priority << 48 | (n + 1);
+    }
+
+    private void selfRoot(int n) {
+        rootId[n] = bridgeId[n];
+        cost[n] = 0;
+        rootPort[n] = -1;
+    }
+
+    private void take(int n, int l) {
+        int u = other(l, n);
+        rootId[n] = rootId[u];
+        cost[n] = cost[u] + linkCost[l];
+        rootPort[n] = l;
+    }
+
+    // 经链路 l 从对端收到的向量是否优于 n 当前的向量
+    private boolean improves(int n, int l) {
+        int u = other(l, n);
+        long sb, sp, op;
+        if (rootPort[n] < 0) {
+            sb = bridgeId[n];
+            sp = 0;
+            op = 0;
+        } else {
+            int v = other(rootPort[n], n);
+            sb = bridgeId[v];
+            sp = portAt(v, rootPort[n]);
+            op = portAt(n, rootPort[n]);
+        }
+        return compare(rootId[u], cost[u] + linkCost[l], bridgeId[u], portAt(u, l), portAt(n, l),
+                rootId[n], cost[n], sb, sp, op) < 0;
+    }
+
+    // 经链路 l 是否优于经链路 cur
+    private boolean better(int n, int l, int cur) {
+        int u = other(l, n), v = other(cur, n);
+        return compare(rootId[u], cost[u] + linkCost[l], bridgeId[u], portAt(u, l), portAt(n, l),
+                rootId[v], cost[v] + linkCost[cur], bridgeId[v], portAt(v, cur), portAt(n, cur)) < 0;
+    }
+
+    private static int compare(long r1, long c1, long s1, long sp1, long op1, long r2, long c2, long s2, long sp2, long op2) {
+        if (r1 != r2) return r1 < r2 ? -1 : 1;
+        if (c1 != c2) return c1 < c2 ? -1 : 1;
+        if (s1 != s2) return s1 < s2 ? -1 : 1;
+        if (sp1 != sp2) return sp1 < sp2 ? -1 : 1;
+        return Long.compare(op1, op2);
+    }
+
+    // 堆内按（根桥ID，开销，发送桥ID）排序，同开销时先出堆的顺序不影响结果
+    private boolean less(int x, int y) {
+        if (rootId[x] != rootId[y]) return rootId[x] < rootId[y];
+        if (cost[x] != cost[y]) return cost[x] < cost[y];
+        return bridgeId[x] < bridgeId[y];
+    }
+
+    private int portAt(int n, int l) {
+        return endA[l] == n ? portA[l] : portB[l];
+    }
+
+    private int other(int l, int n) {
+        return endA[l] == n ? endB[l] : endA[l];
+    }
+
+    // ---- 索引堆 ----
+
+    private void push(int n) {
+        if (heapPos[n] >= 0 && heapPos[n] < heapSize && heap[heapPos[n]] == n) {
+            siftUp(heapPos[n]);
+            return;
+        }
+        heap[heapSize] = n;
+        heapPos[n] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapPos[top] = -1;
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int n = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(n, heap[p])) break;
+            heap[i] = heap[p];
+            heapPos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = n;
+        heapPos[n] = i;
+    }
+
+    private void siftDown(int i) {
+        int n = heap[i];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= heapSize) break;
+            if (c + 1 < heapSize && less(heap[c + 1], heap[c])) c++;
+            if (!less(heap[c], n)) break;
+            heap[i] = heap[c];
+            heapPos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = n;
+        heapPos[n] = i;
+    }
+
+    // ---- 存储 ----
+
+    private int newNode() {
+        int n = nodeCount++;
+        if (n == bridge.length) growNodes();
+        nodeAlive[n] = true;
+        adj[n] = new int[4];
+        heapPos[n] = -1;
+        rootPort[n] = -1;
+        return n;
+    }
+
+    private void attach(int n, int l) {
+        if (degree[n] == adj[n].length) adj[n] = Arrays.copyOf(adj[n], degree[n] * 2);
+        adj[n][degree[n]++] = l;
+    }
+
+    private void detach(int n, int l) {
+        for (int i = 0; i < degree[n]; i++) {
+            if (adj[n][i] == l) {
+                adj[n][i] = adj[n][--degree[n]];
+                return;
+            }
+        }
+    }
+
+    private void growNodes() {
+        int cap = bridge.length * 2;
+        bridge = Arrays.copyOf(bridge, cap);
+        nodeAlive = Arrays.copyOf(nodeAlive, cap);
+        bridgeId = Arrays.copyOf(bridgeId, cap);
+        rootId = Arrays.copyOf(rootId, cap);
+        cost = Arrays.copyOf(cost, cap);
+        rootPort = Arrays.copyOf(rootPort, cap);
+        adj = Arrays.copyOf(adj, cap);
+        degree = Arrays.copyOf(degree, cap);
+        nextPortNo = Arrays.copyOf(nextPortNo, cap);
+        heap = Arrays.copyOf(heap, cap);
+        heapPos = Arrays.copyOf(heapPos, cap);
+        mark = Arrays.copyOf(mark, cap);
+    }
+
+    private void growLinks() {
+        int cap = endA.length * 2;
+        endA = Arrays.copyOf(endA, cap);
+        endB = Arrays.copyOf(endB, cap);
+        linkCost = Arrays.copyOf(linkCost, cap);
+        portA = Arrays.copyOf(portA, cap);
+        portB = Arrays.copyOf(portB, cap);
+        linkAlive = Arrays.copyOf(linkAlive, cap);
+    }
+}
\ No newline at end of file
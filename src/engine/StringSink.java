@@ -0,0 +1,51 @@
+package engine;
+
+/**
+ * 写入内存的输出通道，用于单条预览和小规模输出
+ */
+public class StringSink implements CommandSink {
+    private final StringBuilder sb;
+
+    public StringSink() {
+        this(256);
+    }
+
+    public StringSink(int capacity) {
+        sb = new StringBuilder(capacity);
+    }
+
+    @Override
+    public StringSink append(CharSequence s) {
+        sb.append(s);
+        return this;
+    }
+
+    @Override
+    public StringSink append(char c) {
+        sb.append(c);
+        return this;
+    }
+
+    @Override
+    public StringSink append(int i) {
+        sb.append(i);
+        return this;
+    }
+
+    public int length() {
+        return sb.length();
+    }
+
+    public CharSequence chars() {
+        return sb;
+    }
+
+    public void reset() {
+        sb.setLength(0);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
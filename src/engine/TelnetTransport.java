@@ -0,0 +1,104 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Telnet传输：TCP连接，过滤掉协商序列（IAC），对设备的所有选项请求一律拒绝
+ */
+public class TelnetTransport implements PushTransport {
+    private static final int IAC = 255, DONT = 254, DO = 253, WONT = 252, WILL = 251, SB = 250, SE = 240;
+
+    @Override
+    public Connection connect(String host, int port, int timeoutMillis) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        OutputStream out = socket.getOutputStream();
+        InputStream in = new NegotiationFilter(new BufferedInputStream(socket.getInputStream()), out);
+        return new Connection() {
+            @Override
+            public InputStream in() {
+                return in;
+            }
+
+            @Override
+            public OutputStream out() {
+                return out;
+            }
+
+            @Override
+            public void close() throws IOException {
+                socket.close();
+            }
+        };
+    }
+
+    /**
+     * 从输入流中剔除协商命令，并对 DO/WILL 回复 WONT/DONT
+     */
+    private static class NegotiationFilter extends FilterInputStream {
+        private final OutputStream reply;
+
+        NegotiationFilter(InputStream in, OutputStream reply) {
+            super(in);
+            this.reply = reply;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (true) {
+                int b = in.read();
+                if (b != IAC) return b;
+                int cmd = in.read();
+                if (cmd < 0) return -1;
+                if (cmd == IAC) return IAC;
+                if (cmd == DO || cmd == WILL || cmd == DONT || cmd == WONT) {
+                    int opt = in.read();
+                    if (opt < 0) return -1;
+                    if (cmd == DO) reply(WONT, opt);
+                    else if (cmd == WILL) reply(DONT, opt);
+                } else if (cmd == SB) {
+                    // 跳过子协商直到 IAC SE
+                    int prev = 0, c;
+                    while ((c = in.read()) >= 0 && !(prev == IAC && c == SE)) prev = c;
+                    if (c < 0) return -1;
+                }
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            // 先阻塞读第一个字节，其余只取已到达的部分
+            int first = read();
+            if (first < 0) return -1;
+            b[off] = (byte) first;
+            int n = 1;
+            while (n < len && in.available() > 0) {
+                int c = read();
+                if (c < 0) break;
+                b[off + n++] = (byte) c;
+            }
+            return n;
+        }
+
+        private void reply(int cmd, int opt) throws IOException {
+            synchronized (reply) {
+                reply.write(new byte[]{(byte) IAC, (byte) cmd, (byte) opt});
+                reply.flush();
+            }
+        }
+    }
+}
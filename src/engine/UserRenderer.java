@@ -0,0 +1,17 @@
+package engine;
+
+import model.LocalUser;
+
+/**
+ * 本地用户命令渲染
+ */
+public class UserRenderer implements CommandRenderer<LocalUser> {
+    @Override
+    public void render(LocalUser user, CommandSink out) {
+        out.append("local-user ").append(user.username).append("\n");
+        out.append(" password irreversible-cipher ").append(user.password).append("\n");
+        out.append(" privilege level ").append(user.level).append("\n");
+        out.append(" service-type ssh telnet terminal\n");
+        out.append(" quit\n");
+    }
+}
@@ -0,0 +1,179 @@
+package engine;
+
+import engine.InterfaceName.Type;
+import model.EthTrunk;
+import model.VlanEntry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 整机端口-VLAN成员关系索引：每个端口一个4094位的VLAN集合，每个VLAN一个端口编号集合
+ * 端口按规范全称登记，编号按首次出现顺序分配；成员判断为一次查表加一次位测试
+ * 按VLAN查端口的反向索引在首次查询时由端口集合整体生成，登记或合并后失效
+ */
+public class VlanMembership {
+    private final List<String> ports = new ArrayList<>();
+    private final Map<String, Integer> portIndex = new HashMap<>();
+    private final List<BitSet> vlansByPort = new ArrayList<>();
+    private BitSet[] portsByVlan;
+    private final BitSet vlans = new BitSet(VlanRanges.MAX + 1);
+
+    public VlanMembership() {
+    }
+
+    public VlanMembership(List<VlanEntry> entries) {
+        for (VlanEntry v : entries) add(v.id, v.port);
+    }
+
+    /**
+     * 登记VLAN及其端口；端口为空时只登记VLAN
+     */
+    public void add(int vlan, String port) {
+        vlans.set(vlan);
+        if (port == null || port.isEmpty()) return;
+        int i = indexOf(InterfaceNames.canonical(port), true);
+        vlansByPort.get(i).set(vlan);
+        portsByVlan = null;
+    }
+
+    public boolean contains(String port, int vlan) {
+        int i = indexOf(InterfaceNames.canonical(port), false);
+        return i >= 0 && vlansByPort.get(i).get(vlan);
+    }
+
+    /**
+     * 端口所属VLAN集合（副本），端口未登记时为空集合
+     */
+    public BitSet vlansOf(String port) {
+        int i = indexOf(InterfaceNames.canonical(port), false);
+        return i < 0 ? new BitSet() : (BitSet) vlansByPort.get(i).clone();
+    }
+
+    /**
+     * 承载该VLAN的端口，按登记顺序
+     */
+    public List<String> portsOf(int vlan) {
+        List<String> out = new ArrayList<>();
+        BitSet set = portsByVlan()[vlan];
+        if (set != null) for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) out.add(ports.get(i));
+        return out;
+    }
+
+    /**
+     * 多个端口VLAN集合的并集
+     */
+    public BitSet union(Collection<String> portNames) {
+        BitSet out = new BitSet(VlanRanges.MAX + 1);
+        for (String p : portNames) {
+            int i = indexOf(InterfaceNames.canonical(p), false);
+            if (i >= 0) out.or(vlansByPort.get(i));
+        }
+        return out;
+    }
+
+    /**
+     * 已登记的全部VLAN编号（只读视图，请勿修改）
+     */
+    public BitSet vlans() {
+        return vlans;
+    }
+
+    /**
+     * 至少属于一个VLAN的端口，按登记顺序
+     */
+    public List<String> ports() {
+        List<String> out = new ArrayList<>(ports.size());
+        for (int i = 0; i < ports.size(); i++) if (!vlansByPort.get(i).isEmpty()) out.add(ports.get(i));
+        return out;
+    }
+
+    /**
+     * 端口的VLAN集合（只读视图，请勿修改），未登记时为 null
+     */
+    public BitSet viewOf(String canonicalPort) {
+        Integer i = portIndex.get(canonicalPort);
+        return i == null ? null : vlansByPort.get(i);
+    }
+
+    /**
+     * 与聚合组交叉检查：成员端口重复加入多个聚合组、同组成员的VLAN不一致
+     */
+    public List<String> checkTrunks(List<EthTrunk> trunks) {
+        List<String> issues = new ArrayList<>();
+        Map<String, Integer> owner = new HashMap<>();
+        for (EthTrunk t : trunks) {
+            BitSet first = null;
+            String firstPort = null;
+            for (String m : t.members) {
+                String port = InterfaceNames.canonical(m);
+                Integer prev = owner.putIfAbsent(port, t.groupId);
+                if (prev != null && prev != t.groupId) {
+                    issues.add(port + " 同时属于 Eth-Trunk" + prev + " 和 Eth-Trunk" + t.groupId);
+                }
+                BitSet v = viewOf(port);
+                if (v == null) v = new BitSet();
+                if (first == null) {
+                    first = v;
+                    firstPort = port;
+                } else if (!first.equals(v)) {
+                    issues.add(trunkName(t) + " 成员VLAN不一致：" + firstPort + " [" + VlanRanges.format(first) + "]，"
+                            + port + " [" + VlanRanges.format(v) + "]");
+                }
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * 成员端口不能单独配置VLAN：把各成员的VLAN并到对应Eth-Trunk接口上，并清空成员端口
+     */
+    public void foldTrunks(List<EthTrunk> trunks) {
+        for (EthTrunk t : trunks) {
+            BitSet merged = new BitSet(VlanRanges.MAX + 1);
+            for (String m : t.members) {
+                int i = indexOf(InterfaceNames.canonical(m), false);
+                if (i < 0) continue;
+                BitSet v = vlansByPort.get(i);
+                merged.or(v);
+                v.clear();
+            }
+            if (merged.isEmpty()) continue;
+            int ti = indexOf(trunkName(t), true);
+            vlansByPort.get(ti).or(merged);
+        }
+        portsByVlan = null;
+    }
+
+    private static String trunkName(EthTrunk t) {
+        return InterfaceNames.of(Type.ETH_TRUNK, -1, -1, t.groupId).name;
+    }
+
+    private int indexOf(String port, boolean create) {
+        Integer i = portIndex.get(port);
+        if (i != null) return i;
+        if (!create) return -1;
+        int n = ports.size();
+        ports.add(port);
+        portIndex.put(port, n);
+        vlansByPort.add(new BitSet(VlanRanges.MAX + 1));
+        return n;
+    }
+
+    private BitSet[] portsByVlan() {
+        if (portsByVlan != null) return portsByVlan;
+        BitSet[] byVlan = new BitSet[VlanRanges.MAX + 1];
+        for (int i = 0; i < vlansByPort.size(); i++) {
+            BitSet v = vlansByPort.get(i);
+            for (int id = v.nextSetBit(0); id >= 0; id = v.nextSetBit(id + 1)) {
+                if (byVlan[id] == null) byVlan[id] = new BitSet();
+                byVlan[id].set(i);
+            }
+        }
+        return portsByVlan = byVlan;
+    }
+}
\ No newline at end of file
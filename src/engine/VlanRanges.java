@@ -0,0 +1,81 @@
+package engine;
+
+import java.util.BitSet;
+
+/**
+ * VLAN编号集合与区间文本互转（1~4094）
+ * 输入如 "10,20,100-399 1000~1099"；输出为VRP格式 "10 20 100 to 399"，每条命令至多10段
+ */
+public class VlanRanges {
+    public static final int MIN = 1, MAX = 4094;
+    // vlan batch / port trunk allow-pass vlan 每条命令最多10段
+    public static final int MAX_SEGMENTS = 10;
+
+    private VlanRanges() {
+    }
+
+    /**
+     * 解析区间文本，格式错误或超出1~4094时抛出 IllegalArgumentException（消息可直接提示用户）
+     */
+    public static BitSet parse(String text) {
+        BitSet set = new BitSet(MAX + 1);
+        String normalized = text.replace("，", ",").replace("~", "-").replaceAll("\\s*(to|-)\\s*", "-");
+        for (String part : normalized.split("[,;\\s]+")) {
+            if (part.isEmpty()) continue;
+            int dash = part.indexOf('-');
+            int lo = parseId(dash < 0 ? part : part.substring(0, dash));
+            int hi = dash < 0 ? lo : parseId(part.substring(dash + 1));
+            if (lo > hi) throw new IllegalArgumentException("区间起点大于终点: " + part);
+            set.set(lo, hi + 1);
+        }
+        if (set.isEmpty()) throw new IllegalArgumentException("请填写VLAN编号或区间");
+        return set;
+    }
+
+    private static int parseId(String s) {
+        try {
+            int id = Integer.parseInt(s.trim());
+            if (id >= MIN && id <= MAX) return id;
+        } catch (NumberFormatException ignored) {
+            // 统一在下面提示
+        }
+        throw new IllegalArgumentException("VLAN编号须为1~4094的数字: " + s);
+    }
+
+    /**
+     * 按VRP格式输出，每 MAX_SEGMENTS 段一行（不含命令前缀），行间以换行分隔
+     */
+    public static String toCommandArgs(BitSet set) {
+        StringBuilder sb = new StringBuilder();
+        int segments = 0;
+        for (int lo = set.nextSetBit(MIN); lo >= 0 && lo <= MAX; ) {
+            int hi = set.nextClearBit(lo) - 1;
+            if (segments == MAX_SEGMENTS) {
+                sb.append('\n');
+                segments = 0;
+            } else if (segments > 0) {
+                sb.append(' ');
+            }
+            sb.append(lo);
+            if (hi > lo) sb.append(" to ").append(hi);
+            segments++;
+            lo = set.nextSetBit(hi + 1);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 界面显示用的紧凑写法，如 "10,20,100-399"
+     */
+    public static String format(BitSet set) {
+        StringBuilder sb = new StringBuilder();
+        for (int lo = set.nextSetBit(MIN); lo >= 0 && lo <= MAX; ) {
+            int hi = set.nextClearBit(lo) - 1;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(lo);
+            if (hi > lo) sb.append('-').append(hi);
+            lo = set.nextSetBit(hi + 1);
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package engine;
+
+import model.EthTrunk;
+import model.VlanEntry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * VLAN命令渲染
+ */
+public class VlanRenderer implements CommandRenderer<VlanEntry> {
+    @Override
+    public void render(VlanEntry vlan, CommandSink out) {
+        out.append("vlan ").append(vlan.id).append("\n");
+        if (!vlan.name.isEmpty()) out.append(" description ").append(vlan.name).append("\n");
+        if (!vlan.port.isEmpty()) out.append(" port ").append(InterfaceNames.canonical(vlan.port)).append("\n");
+        out.append("quit\n");
+    }
+
+    /**
+     * 批量渲染：所有VLAN用 vlan batch 区间一次创建；只有描述或单个VLAN的端口才进入VLAN视图；
+     * 属于多个VLAN的端口配置为Trunk，放行列表合并为区间。总代价与VLAN数和端口数成线性
+     */
+    public void renderBatch(List<VlanEntry> vlans, CommandSink out) {
+        renderBatch(vlans, Collections.emptyList(), out);
+    }
+
+    /**
+     * 同上；聚合组成员端口上的VLAN合并到对应 Eth-Trunk 接口放行
+     */
+    public void renderBatch(List<VlanEntry> vlans, List<EthTrunk> trunks, CommandSink out) {
+        if (vlans.isEmpty()) return;
+        String[] names = new String[VlanRanges.MAX + 1];
+        VlanMembership members = new VlanMembership();
+        for (VlanEntry v : vlans) {
+            if (names[v.id] == null && !v.name.isEmpty()) names[v.id] = v.name;
+            members.add(v.id, v.port);
+        }
+        if (!trunks.isEmpty()) members.foldTrunks(trunks);
+        BitSet ids = members.vlans();
+        for (String line : VlanRanges.toCommandArgs(ids).split("\n")) out.append("vlan batch ").append(line).append("\n");
+
+        // 只属于一个VLAN的端口仍在VLAN视图中加入
+        List<String> ports = members.ports();
+        List<List<String>> accessPorts = new ArrayList<>(VlanRanges.MAX + 1);
+        for (int i = 0; i <= VlanRanges.MAX; i++) accessPorts.add(null);
+        for (String p : ports) {
+            BitSet set = members.viewOf(p);
+            if (set.cardinality() != 1) continue;
+            int id = set.nextSetBit(0);
+            if (accessPorts.get(id) == null) accessPorts.set(id, new ArrayList<>(1));
+            accessPorts.get(id).add(p);
+        }
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            List<String> access = accessPorts.get(id);
+            if (names[id] == null && access == null) continue;
+            out.append("vlan ").append(id).append("\n");
+            if (names[id] != null) out.append(" description ").append(names[id]).append("\n");
+            if (access != null) for (String p : access) out.append(" port ").append(p).append("\n");
+            out.append("quit\n");
+        }
+
+        for (String p : ports) {
+            BitSet set = members.viewOf(p);
+            if (set.cardinality() == 1) continue;
+            out.append("interface ").append(p).append("\n");
+            out.append(" port link-type trunk\n");
+            for (String line : VlanRanges.toCommandArgs(set).split("\n")) {
+                out.append(" port trunk allow-pass vlan ").append(line).append("\n");
+            }
+            out.append("quit\n");
+        }
+    }
+
+    /**
+     * 批量渲染的预览文本，超长部分截断
+     */
+    public String previewBatch(List<VlanEntry> vlans) {
+        PreviewSink out = new PreviewSink();
+        renderBatch(vlans, out);
+        return out.toString();
+    }
+}
\ No newline at end of file
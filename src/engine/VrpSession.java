@@ -0,0 +1,142 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * VRP命令行会话（提示符感知的流水线下发）
+ * 一次发送一个窗口的多条命令，再按回显中出现的提示符个数确认全部执行完毕，
+ * 避免逐条命令等待往返。输出中以 "Error:" 开头的行记为执行错误。
+ */
+public class VrpSession implements Closeable {
+    // 提示符：<HUAWEI>、[HUAWEI]、[HUAWEI-vlan10] 等
+    private static final Pattern PROMPT = Pattern.compile("[<\\[][^<>\\[\\]\\s]+[>\\]]");
+    private static final int MAX_LOGIN_LINES = 200;
+
+    private final PushTransport.Connection conn;
+    private final Reader in;
+    private final OutputStream out;
+    private final char[] buf = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private String prompt;
+
+    public VrpSession(PushTransport.Connection conn) {
+        this.conn = conn;
+        this.in = new InputStreamReader(conn.in(), StandardCharsets.UTF_8);
+        this.out = conn.out();
+    }
+
+    /**
+     * 应答用户名/密码提示，直到出现命令提示符
+     */
+    public void login(String username, String password) throws IOException {
+        int lines = 0;
+        while (true) {
+            int n = in.read(buf);
+            if (n < 0) throw new IOException("登录时连接被关闭");
+            for (int i = 0; i < n; i++) {
+                char c = buf[i];
+                if (c == '\n') {
+                    String done = completedLine();
+                    if (done.contains("Error:") || done.contains("failed")) throw new IOException("登录失败: " + done.trim());
+                    if (++lines > MAX_LOGIN_LINES) throw new IOException("登录时未出现提示符");
+                } else if (c != '\r') {
+                    line.append(c);
+                }
+            }
+            String tail = line.toString().trim();
+            String lower = tail.toLowerCase();
+            if (lower.endsWith("username:") || lower.endsWith("login:")) {
+                line.setLength(0);
+                write(username + "\r\n");
+            } else if (lower.endsWith("password:")) {
+                line.setLength(0);
+                write(password + "\r\n");
+            } else if (PROMPT.matcher(tail).matches()) {
+                prompt = tail;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按窗口流水线发送命令，返回执行错误（为空表示全部成功）
+     */
+    public List<String> execute(List<String> commands, int window) throws IOException {
+        if (prompt == null) throw new IllegalStateException("尚未登录");
+        List<String> errors = new ArrayList<>();
+        for (int from = 0; from < commands.size(); from += window) {
+            int to = Math.min(commands.size(), from + window);
+            StringBuilder batch = new StringBuilder();
+            for (int i = from; i < to; i++) batch.append(commands.get(i)).append("\r\n");
+            write(batch.toString());
+            awaitPrompts(to - from, errors);
+        }
+        return errors;
+    }
+
+    /**
+     * 当前提示符，如 [HUAWEI-vlan10]
+     */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    @Override
+    public void close() throws IOException {
+        conn.close();
+    }
+
+    // 每条命令回显为“提示符+命令”一行，全部回显后末尾再出现一个单独的提示符
+    private void awaitPrompts(int expected, List<String> errors) throws IOException {
+        int seen = 0;
+        String lastCommand = "";
+        while (true) {
+            int n = in.read(buf);
+            if (n < 0) throw new IOException("执行命令时连接被关闭");
+            for (int i = 0; i < n; i++) {
+                char c = buf[i];
+                if (c == '\n') {
+                    String done = completedLine();
+                    Matcher m = PROMPT.matcher(done);
+                    if (m.lookingAt()) {
+                        seen++;
+                        lastCommand = done.substring(m.end()).trim();
+                    } else if (done.trim().startsWith("Error:")) {
+                        errors.add(lastCommand + " -> " + done.trim());
+                    }
+                } else if (c != '\r') {
+                    line.append(c);
+                }
+            }
+            if (seen >= expected) {
+                String tail = line.toString().trim();
+                if (PROMPT.matcher(tail).matches()) {
+                    prompt = tail;
+                    return;
+                }
+            }
+        }
+    }
+
+    private String completedLine() {
+        String s = line.toString();
+        line.setLength(0);
+        return s;
+    }
+
+    private void write(String s) throws IOException {
+        synchronized (out) {
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package engine;
+
+import model.Device;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 批量渲染输出：所有设备配置写入单个ZIP归档
+ * 各工作线程先渲染到线程内复用的缓冲区，再串行写入归档条目，
+ * 内存占用上限为“线程数 × 单台配置大小”，与设备总数无关。
+ */
+public class ZipOutput implements FleetRenderer.Output, Closeable {
+    private final ZipOutputStream zip;
+    private final ChannelSink zipSink;
+    private final ThreadLocal<StringSink> buffers = ThreadLocal.withInitial(() -> new StringSink(8192));
+
+    public ZipOutput(Path file) throws IOException {
+        zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        zipSink = new ChannelSink(Channels.newChannel(zip));
+    }
+
+    @Override
+    public CommandSink open(Device device, String fileName) {
+        StringSink buffer = buffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    @Override
+    public void close(Device device, String fileName, CommandSink sink) throws IOException {
+        StringSink buffer = (StringSink) sink;
+        synchronized (zip) {
+            zip.putNextEntry(new ZipEntry(fileName));
+            zipSink.append(buffer.chars());
+            zipSink.flush();
+            zip.closeEntry();
+        }
+        // 避免个别超大配置长期占用线程缓冲区
+        if (buffer.length() > 1 << 20) buffers.remove();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (zip) {
+            zipSink.close();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ACL及其规则列表
+ */
+public class Acl {
+    public int number;
+    public String type; // 基础, 高级
+    public String description;
+    public List<AclRule> rules = new ArrayList<>();
+
+    public Acl(int number, String type, String description) {
+        this.number = number;
+        this.type = type;
+        this.description = description;
+    }
+}
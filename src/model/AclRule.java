@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * ACL规则
+ */
+public class AclRule {
+    public int id;
+    public String action;   // permit, deny
+    public String protocol; // ip, tcp, udp, icmp
+    public String source;
+    public String sourcePort;
+    public String destination;
+    public String destPort;
+    public String description;
+
+    public AclRule(int id, String action, String protocol, String source, String sourcePort,
+                   String destination, String destPort, String description) {
+        this.id = id;
+        this.action = action;
+        this.protocol = protocol;
+        this.source = source;
+        this.sourcePort = sourcePort;
+        this.destination = destination;
+        this.destPort = destPort;
+        this.description = description;
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * 设备清单条目（名称、IP、型号、管理方式、状态）
+ */
+public class Device {
+    public String name;
+    public String ip;
+    public String model;
+    public String mgmtType; // SSH, Telnet
+    public String status;   // 在线, 离线
+
+    public Device(String name, String ip, String model, String mgmtType, String status) {
+        this.name = name;
+        this.ip = ip;
+        this.model = model;
+        this.mgmtType = mgmtType;
+        this.status = status;
+    }
+}
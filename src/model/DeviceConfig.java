@@ -0,0 +1,52 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单台设备的完整配置数据，供命令生成引擎渲染启动配置
+ */
+public class DeviceConfig {
+    public Device device;
+    public List<VlanEntry> vlans = new ArrayList<>();
+    public StpConfig stp;
+    public List<EthTrunk> trunks = new ArrayList<>();
+    public List<PortSecurityEntry> portSecurity = new ArrayList<>();
+    public List<IpInterface> interfaces = new ArrayList<>();
+    public List<RouteEntry> routes = new ArrayList<>();
+    public List<Acl> acls = new ArrayList<>();
+    public List<QosPolicy> qosPolicies = new ArrayList<>();
+    public List<DhcpPool> dhcpPools = new ArrayList<>();
+    public List<NatPolicy> natPolicies = new ArrayList<>();
+    public SnmpConfig snmp;
+    public List<MirrorSession> mirrors = new ArrayList<>();
+    public List<LocalUser> users = new ArrayList<>();
+    // 渲染时按首条匹配语义精简ACL规则（acls 中保存的仍是原始规则）
+    public boolean optimizeAcls;
+
+    public DeviceConfig(Device device) {
+        this.device = device;
+    }
+
+    /**
+     * 以当前配置为模板生成指定设备的配置（浅拷贝，模块列表与模板共享）
+     */
+    public DeviceConfig withDevice(Device device) {
+        DeviceConfig cfg = new DeviceConfig(device);
+        cfg.vlans = vlans;
+        cfg.stp = stp;
+        cfg.trunks = trunks;
+        cfg.portSecurity = portSecurity;
+        cfg.interfaces = interfaces;
+        cfg.routes = routes;
+        cfg.acls = acls;
+        cfg.qosPolicies = qosPolicies;
+        cfg.dhcpPools = dhcpPools;
+        cfg.natPolicies = natPolicies;
+        cfg.snmp = snmp;
+        cfg.mirrors = mirrors;
+        cfg.users = users;
+        cfg.optimizeAcls = optimizeAcls;
+        return cfg;
+    }
+}
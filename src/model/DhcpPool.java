@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * DHCP地址池
+ */
+public class DhcpPool {
+    public String name;
+    public String network;
+    public String mask;
+    public String gateway;
+    public String dns;
+    public int leaseHours;
+    // 预计终端数，用于容量检查；0 表示未填写
+    public int expectedClients;
+
+    public DhcpPool(String name, String network, String mask, String gateway, String dns, int leaseHours) {
+        this.name = name;
+        this.network = network;
+        this.mask = mask;
+        this.gateway = gateway;
+        this.dns = dns;
+        this.leaseHours = leaseHours;
+    }
+}
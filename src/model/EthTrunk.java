@@ -0,0 +1,26 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eth-Trunk聚合组
+ */
+public class EthTrunk {
+    public int groupId;
+    public String mode; // LACP, 静态
+    public List<String> members = new ArrayList<>();
+    public String loadBalance;
+    public String description;
+
+    public EthTrunk(int groupId, String mode, String members, String loadBalance, String description) {
+        this.groupId = groupId;
+        this.mode = mode;
+        this.loadBalance = loadBalance;
+        this.description = description;
+        for (String port : members.split(",")) {
+            String p = port.trim();
+            if (!p.isEmpty()) this.members.add(p);
+        }
+    }
+}
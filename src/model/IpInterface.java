@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * 接口IP地址，接口保存界面格式（如 GE口1/0/1）
+ */
+public class IpInterface {
+    public String ip;
+    public String mask;
+    public String iface;
+
+    public IpInterface(String ip, String mask, String iface) {
+        this.ip = ip;
+        this.mask = mask;
+        this.iface = iface;
+    }
+}
@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * 本地用户账号
+ */
+public class LocalUser {
+    public String username;
+    public int level;
+    public String password;
+    public String note;
+
+    public LocalUser(String username, int level, String password, String note) {
+        this.username = username;
+        this.level = level;
+        this.password = password;
+        this.note = note;
+    }
+}
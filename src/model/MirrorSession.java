@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * 端口镜像会话
+ */
+public class MirrorSession {
+    public int session;
+    public String type;      // 本地, 远程
+    public String sourcePort;
+    public String direction; // 入, 出, 入+出
+    public String destPort;
+    public String description;
+
+    public MirrorSession(int session, String type, String sourcePort, String direction, String destPort, String description) {
+        this.session = session;
+        this.type = type;
+        this.sourcePort = sourcePort;
+        this.direction = direction;
+        this.destPort = destPort;
+        this.description = description;
+    }
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * NAT策略
+ */
+public class NatPolicy {
+    public String name;
+    public String type; // 源NAT, 目的NAT
+    public String source;
+    public String destination;
+    public String iface;
+    public String description;
+
+    public NatPolicy(String name, String type, String source, String destination, String iface, String description) {
+        this.name = name;
+        this.type = type;
+        this.source = source;
+        this.destination = destination;
+        this.iface = iface;
+        this.description = description;
+    }
+}
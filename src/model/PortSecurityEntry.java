@@ -0,0 +1,24 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 端口安全策略
+ */
+public class PortSecurityEntry {
+    public String port;
+    public int maxMac;
+    public List<String> macs = new ArrayList<>();
+    public String action; // shutdown, restrict, protect
+
+    public PortSecurityEntry(String port, int maxMac, String macs, String action) {
+        this.port = port;
+        this.maxMac = maxMac;
+        this.action = action;
+        for (String mac : macs.split(",")) {
+            String m = mac.trim();
+            if (!m.isEmpty()) this.macs.add(m);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工程数据：设备清单（带稳定编号）、各模块配置模板和拓扑
+ */
+public class Project {
+    public List<Device> devices = new ArrayList<>();
+    // 与 devices 一一对应的稳定编号
+    public int[] deviceIds = new int[0];
+    public DeviceConfig template = new DeviceConfig(null);
+    public List<TopologyNode> nodes = new ArrayList<>();
+    public List<TopologyLink> links = new ArrayList<>();
+}
@@ -0,0 +1,20 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QoS流量策略及其规则
+ */
+public class QosPolicy {
+    public String name;
+    public String description;
+    public String iface;
+    public List<QosRule> rules = new ArrayList<>();
+
+    public QosPolicy(String name, String description, String iface) {
+        this.name = name;
+        this.description = description;
+        this.iface = iface;
+    }
+}
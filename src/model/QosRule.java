@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * QoS流分类与动作
+ */
+public class QosRule {
+    public int id;
+    public String matchType;  // 协议, 源地址, 目的地址, 端口
+    public String matchValue;
+    public String action;     // 限速, 优先级, 丢弃
+    public String param;
+    public String description;
+
+    public QosRule(int id, String matchType, String matchValue, String action, String param, String description) {
+        this.id = id;
+        this.matchType = matchType;
+        this.matchValue = matchValue;
+        this.action = action;
+        this.param = param;
+        this.description = description;
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * 路由条目（静态/RIP/OSPF/BGP）
+ */
+public class RouteEntry {
+    public String type; // 静态, RIP, OSPF, BGP
+    public String dest;
+    public String mask;
+    public String nextHop;
+    public String param;
+
+    public RouteEntry(String type, String dest, String mask, String nextHop, String param) {
+        this.type = type;
+        this.dest = dest;
+        this.mask = mask;
+        this.nextHop = nextHop;
+        this.param = param;
+    }
+}
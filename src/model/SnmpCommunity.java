@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * SNMP社区
+ */
+public class SnmpCommunity {
+    public String name;
+    public String permission; // RO, RW
+    public String source;
+
+    public SnmpCommunity(String name, String permission, String source) {
+        this.name = name;
+        this.permission = permission;
+        this.source = source;
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SNMP配置（社区与Trap服务器）
+ */
+public class SnmpConfig {
+    public List<SnmpCommunity> communities = new ArrayList<>();
+    public List<SnmpTrapHost> trapHosts = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * SNMP Trap服务器
+ */
+public class SnmpTrapHost {
+    public String address;
+    public String type;    // trap, inform
+    public String version; // v1, v2c, v3
+
+    public SnmpTrapHost(String address, String type, String version) {
+        this.address = address;
+        this.type = type;
+        this.version = version;
+    }
+}
@@ -0,0 +1,23 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成树全局配置及端口参数
+ */
+public class StpConfig {
+    public boolean enabled = true;
+    public String mode = "STP"; // STP, RSTP, MSTP
+    public String bridgePriority = "32768";
+    public List<StpPort> ports = new ArrayList<>();
+
+    public StpConfig() {
+    }
+
+    public StpConfig(boolean enabled, String mode, String bridgePriority) {
+        this.enabled = enabled;
+        this.mode = mode;
+        this.bridgePriority = bridgePriority;
+    }
+}
@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * 端口STP参数
+ */
+public class StpPort {
+    public String port;
+    public int priority;
+    public boolean edge;
+    public boolean enabled;
+
+    public StpPort(String port, int priority, boolean edge, boolean enabled) {
+        this.port = port;
+        this.priority = priority;
+        this.edge = edge;
+        this.enabled = enabled;
+    }
+}
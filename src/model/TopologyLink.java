@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * 拓扑链路，两端以节点在列表中的下标表示
+ */
+public class TopologyLink {
+    public int a, b;
+    public String name;
+    public String bandwidth;
+    public String delay;
+
+    public TopologyLink(int a, int b, String name, String bandwidth, String delay) {
+        this.a = a;
+        this.b = b;
+        this.name = name;
+        this.bandwidth = bandwidth;
+        this.delay = delay;
+    }
+}
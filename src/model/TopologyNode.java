@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * 拓扑节点（交换机、路由器、PC），坐标为画布像素
+ */
+public class TopologyNode {
+    public String name;
+    public String type; // switch, router, pc
+    public int x, y;
+
+    public TopologyNode(String name, String type, int x, int y) {
+        this.name = name;
+        this.type = type;
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * VLAN条目，端口保存界面格式（如 GE口1/0/1）
+ */
+public class VlanEntry {
+    public int id;
+    public String name;
+    public String port;
+
+    public VlanEntry(int id, String name, String port) {
+        this.id = id;
+        this.name = name;
+        this.port = port;
+    }
+}
@@ -1,9 +1,27 @@
 package ui;
 
+import engine.AclAnalyzer;
+import engine.AclClassifier;
+import engine.AclCompiler;
+import engine.AclMatch;
+import engine.AclRepository;
+import engine.ConfigEngine;
+import engine.IpTrie;
+import model.DeviceConfig;
+import model.Acl;
+import model.AclRule;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * ACL（访问控制列表）配置界面
@@ -12,13 +30,17 @@ import java.awt.event.*;
  * 2. 支持每条ACL下的规则增删改查（序号、动作、源、目的、协议、端口等）
  * 3. 命令生成预览
  */
-public class AclPanel extends JPanel {
-    private DefaultTableModel aclTableModel, ruleTableModel;
+public class AclPanel extends JPanel implements ConfigContributor {
+    private DefaultTableModel aclTableModel;
+    private AclRuleTableModel ruleTableModel;
     private JTable aclTable, ruleTable;
     private JButton addAclBtn, editAclBtn, delAclBtn;
     private JButton addRuleBtn, editRuleBtn, delRuleBtn;
-    private JButton previewBtn;
+    private JButton previewBtn, checkBtn, simulateBtn;
+    private JCheckBox optimizeBox;
     private JTextArea cmdPreviewArea;
+    // 各ACL的规则（按ACL号），规则表直接显示所选ACL的规则集
+    private final AclRepository repository = new AclRepository();
 
     public AclPanel(String acl) {
         setLayout(new BorderLayout());
@@ -40,10 +62,7 @@ public class AclPanel extends JPanel {
         aclScroll.setPreferredSize(new Dimension(320, 150));
 
         // 规则表
-        String[] ruleCols = {"序号", "动作", "协议", "源地址", "源端口", "目的地址", "目的端口", "描述"};
-        ruleTableModel = new DefaultTableModel(ruleCols, 0) {
-            public boolean isCellEditable(int row, int col) { return false; }
-        };
+        ruleTableModel = new AclRuleTableModel();
         ruleTable = new JTable(ruleTableModel);
         ruleTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane ruleScroll = new JScrollPane(ruleTable);
@@ -91,7 +110,14 @@ public class AclPanel extends JPanel {
         // 底部命令按钮
         JPanel bottomPanel = new JPanel();
         previewBtn = new JButton("命令预览");
+        checkBtn = new JButton("规则检查");
         bottomPanel.add(previewBtn);
+        bottomPanel.add(checkBtn);
+        simulateBtn = new JButton("报文仿真");
+        bottomPanel.add(simulateBtn);
+        // 勾选后预览精简后的规则，并在每次修改规则后自动重新精简；整机配置生成、导出和下发同样使用精简后的规则
+        optimizeBox = new JCheckBox("精简规则");
+        bottomPanel.add(optimizeBox);
         add(bottomPanel, BorderLayout.SOUTH);
 
         add(cmdScroll, BorderLayout.EAST);
@@ -107,6 +133,9 @@ public class AclPanel extends JPanel {
         editRuleBtn.addActionListener(e -> editSelectedRule());
         delRuleBtn.addActionListener(e -> deleteSelectedRule());
         previewBtn.addActionListener(e -> previewCmd());
+        checkBtn.addActionListener(e -> checkRules());
+        simulateBtn.addActionListener(e -> showSimulator());
+        optimizeBox.addActionListener(e -> previewCmd());
 
         // 选中ACL时，加载对应规则
         aclTable.getSelectionModel().addListSelectionListener(e -> {
@@ -130,9 +159,11 @@ public class AclPanel extends JPanel {
     private void addTestData() {
         aclTableModel.addRow(new Object[]{"3000", "高级", "办公区访问控制"});
         aclTableModel.addRow(new Object[]{"2000", "基础", "外部访问"});
-        // 只为第一个ACL添加演示规则（实际应和ACL号关联，可用Map实现，此处简化）
-        ruleTableModel.addRow(new Object[]{"5", "permit", "tcp", "192.168.1.0 0.0.0.255", "any", "10.1.1.1", "80", "允许办公区访问Web"});
-        ruleTableModel.addRow(new Object[]{"10", "deny", "ip", "any", "any", "any", "any", "拒绝其他流量"});
+        repository.rules(2000);
+        // 只为第一个ACL添加演示规则
+        AclRepository.RuleSet rules = repository.rules(3000);
+        rules.put(new AclRule(5, "permit", "tcp", "192.168.1.0 0.0.0.255", "any", "10.1.1.1", "80", "允许办公区访问Web"));
+        rules.put(new AclRule(10, "deny", "ip", "any", "any", "any", "any", "拒绝其他流量"));
     }
 
     private void showAclDialog(Object[] data) {
@@ -170,17 +201,28 @@ public class AclPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "请填写ACL号", "提示", JOptionPane.WARNING_MESSAGE);
                 return;
             }
+            int n;
             try {
-                int n = Integer.parseInt(num);
+                n = Integer.parseInt(num);
                 if (n < 2000 || n > 3999) throw new NumberFormatException();
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog, "ACL号须为2000~3999的数字", "错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
             if (data == null) {
+                if (repository.contains(n)) {
+                    JOptionPane.showMessageDialog(dialog, "ACL " + n + " 已存在", "错误", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                repository.rules(n);
                 aclTableModel.addRow(new Object[]{num, type, desc});
             } else {
                 int row = aclTable.getSelectedRow();
+                // ACL号变化时规则随之迁移
+                if (!repository.renumber(Integer.parseInt(data[0].toString()), n)) {
+                    JOptionPane.showMessageDialog(dialog, "ACL " + n + " 已存在", "错误", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
                 aclTableModel.setValueAt(num, row, 0);
                 aclTableModel.setValueAt(type, row, 1);
                 aclTableModel.setValueAt(desc, row, 2);
@@ -210,12 +252,19 @@ public class AclPanel extends JPanel {
         }
         int confirm = JOptionPane.showConfirmDialog(this, "确认删除所选ACL？", "确认", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
+            // 同时删除该ACL的规则
+            repository.remove(Integer.parseInt(aclTableModel.getValueAt(row, 0).toString()));
             aclTableModel.removeRow(row);
-            // 实际应删除对应规则，此处简化不实现
+            loadAclRules();
         }
     }
 
     private void showRuleDialog(Object[] data) {
+        AclRepository.RuleSet rules = ruleTableModel.getRules();
+        if (rules == null) {
+            JOptionPane.showMessageDialog(this, "请先选择ACL", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), data == null ? "添加规则" : "编辑规则", true);
         dialog.setSize(580, 250);
         dialog.setLocationRelativeTo(this);
@@ -272,26 +321,26 @@ public class AclPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "请填写序号", "提示", JOptionPane.WARNING_MESSAGE);
                 return;
             }
+            int n;
             try {
-                int n = Integer.parseInt(id);
+                n = Integer.parseInt(id);
                 if (n < 1 || n > 9999) throw new NumberFormatException();
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(dialog, "序号须为1~9999的数字", "错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            if (data == null) {
-                ruleTableModel.addRow(new Object[]{id, action, proto, src, srcPort, dst, dstPort, desc});
-            } else {
-                int row = ruleTable.getSelectedRow();
-                ruleTableModel.setValueAt(id, row, 0);
-                ruleTableModel.setValueAt(action, row, 1);
-                ruleTableModel.setValueAt(proto, row, 2);
-                ruleTableModel.setValueAt(src, row, 3);
-                ruleTableModel.setValueAt(srcPort, row, 4);
-                ruleTableModel.setValueAt(dst, row, 5);
-                ruleTableModel.setValueAt(dstPort, row, 6);
-                ruleTableModel.setValueAt(desc, row, 7);
+            int old = data == null ? -1 : Integer.parseInt(data[0].toString());
+            if (n != old && rules.find(n) != null) {
+                JOptionPane.showMessageDialog(dialog, "序号 " + n + " 已存在", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            if (old != -1) rules.remove(old);
+            rules.put(new AclRule(n, action, proto, src, srcPort, dst, dstPort, desc));
+            ruleTableModel.fireTableDataChanged();
+            if (optimizeBox.isSelected()) previewCmd();
+            int row = rules.indexOf(n);
+            ruleTable.getSelectionModel().setSelectionInterval(row, row);
+            ruleTable.scrollRectToVisible(ruleTable.getCellRect(row, 0, true));
             dialog.dispose();
         });
         cancelBtn.addActionListener(e -> dialog.dispose());
@@ -317,20 +366,17 @@ public class AclPanel extends JPanel {
         }
         int confirm = JOptionPane.showConfirmDialog(this, "确认删除所选规则？", "确认", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            ruleTableModel.removeRow(row);
+            ruleTableModel.getRules().remove(ruleTableModel.getRule(row).id);
+            ruleTableModel.fireTableRowsDeleted(row, row);
+            if (optimizeBox.isSelected()) previewCmd();
         }
     }
 
-    // 选中不同ACL时应加载对应规则，本示例为简化（仅演示用），实际可用Map<aclNum, List<rules>>
+    // 选中ACL时规则表切换到该ACL的规则集
     private void loadAclRules() {
-        // 可扩展
-        // 这里只清空不做持久化
-        ruleTableModel.setRowCount(0);
         int row = aclTable.getSelectedRow();
-        if (row == 0) { // 演示：第一个ACL加载测试规则
-            ruleTableModel.addRow(new Object[]{"5", "permit", "tcp", "192.168.1.0 0.0.0.255", "any", "10.1.1.1", "80", "允许办公区访问Web"});
-            ruleTableModel.addRow(new Object[]{"10", "deny", "ip", "any", "any", "any", "any", "拒绝其他流量"});
-        }
+        ruleTableModel.setRules(row == -1 ? null
+                : repository.rules(Integer.parseInt(aclTableModel.getValueAt(row, 0).toString())));
     }
 
     private void previewCmd() {
@@ -339,30 +385,214 @@ public class AclPanel extends JPanel {
             cmdPreviewArea.setText("请先选择ACL条目");
             return;
         }
-        String aclNum = aclTableModel.getValueAt(aclRow, 0).toString();
-        String aclType = aclTableModel.getValueAt(aclRow, 1).toString();
-        String aclDesc = aclTableModel.getValueAt(aclRow, 2).toString();
+        Acl acl = toAcl(aclRow);
+        if (!optimizeBox.isSelected()) {
+            cmdPreviewArea.setText(ConfigEngine.getDefault().acl.preview(acl));
+            return;
+        }
+        AclCompiler.Result result = AclCompiler.compile(acl);
+        cmdPreviewArea.setText("# " + result.summary() + "\n" + ConfigEngine.getDefault().acl.preview(result.acl));
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    // 检查所选ACL中的重复、被覆盖和可合并规则
+    private void checkRules() {
+        int aclRow = aclTable.getSelectedRow();
+        if (aclRow == -1) {
+            cmdPreviewArea.setText("请先选择ACL条目");
+            return;
+        }
+        Acl acl = toAcl(aclRow);
+        List<AclAnalyzer.Finding> findings = AclAnalyzer.analyze(acl.rules);
+        cmdPreviewArea.setText("ACL " + acl.number + " 规则检查\n" + AclAnalyzer.report(findings, acl.rules.size()));
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    /**
+     * 报文仿真：按所选ACL的规则查找单个五元组命中的规则，或回放流量文件统计各规则命中数
+     */
+    private void showSimulator() {
+        int aclRow = aclTable.getSelectedRow();
+        if (aclRow == -1) {
+            JOptionPane.showMessageDialog(this, "请先选择ACL", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Acl acl = toAcl(aclRow);
+        AclClassifier classifier = new AclClassifier(acl.rules);
+
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "报文仿真 - ACL " + acl.number, true);
+        dialog.setSize(720, 560);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel form = new JPanel(new GridLayout(2, 5, 8, 4));
+        JComboBox<String> protoBox = new JComboBox<>(new String[]{"tcp", "udp", "icmp", "gre", "ospf"});
+        protoBox.setEditable(true);
+        JTextField srcField = new JTextField("192.168.1.10");
+        JTextField dstField = new JTextField("10.1.1.1");
+        JTextField srcPortField = new JTextField("1024");
+        JTextField dstPortField = new JTextField("80");
+        form.add(new JLabel("协议"));
+        form.add(new JLabel("源地址"));
+        form.add(new JLabel("目的地址"));
+        form.add(new JLabel("源端口"));
+        form.add(new JLabel("目的端口"));
+        form.add(protoBox);
+        form.add(srcField);
+        form.add(dstField);
+        form.add(srcPortField);
+        form.add(dstPortField);
+
+        JTextArea resultArea = new JTextArea();
+        resultArea.setEditable(false);
+        JScrollPane resultScroll = new JScrollPane(resultArea);
+        resultScroll.setBorder(BorderFactory.createTitledBorder("仿真结果"));
+
+        JPanel btnPanel = new JPanel();
+        JButton lookupBtn = new JButton("查找");
+        JButton replayBtn = new JButton("回放流量文件");
+        JButton applyBtn = new JButton("应用建议顺序");
+        JButton closeBtn = new JButton("关闭");
+        applyBtn.setEnabled(false);
+        btnPanel.add(lookupBtn);
+        btnPanel.add(replayBtn);
+        btnPanel.add(applyBtn);
+        btnPanel.add(closeBtn);
+
+        dialog.add(form, BorderLayout.NORTH);
+        dialog.add(resultScroll, BorderLayout.CENTER);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        resultArea.setText("共 " + acl.rules.size() + " 条规则" + (classifier.getUnparsedCount() > 0
+                ? "，其中 " + classifier.getUnparsedCount() + " 条无法解析，仿真时忽略" : "") + "\n"
+                + "流量文件每行：协议,源IP,目的IP,源端口,目的端口[,报文数]\n");
+
+        lookupBtn.addActionListener(e -> {
+            int proto = AclMatch.parseProtocol(String.valueOf(protoBox.getSelectedItem()));
+            long src = IpTrie.parseIpv4(srcField.getText().trim());
+            long dst = IpTrie.parseIpv4(dstField.getText().trim());
+            boolean ports = proto == 6 || proto == 17;
+            int[] sp = ports ? AclMatch.parsePorts(srcPortField.getText()) : new int[]{0, 0};
+            int[] dp = ports ? AclMatch.parsePorts(dstPortField.getText()) : new int[]{0, 0};
+            if (proto < 0 || src < 0 || dst < 0 || sp == null || dp == null || sp[0] != sp[1] || dp[0] != dp[1]) {
+                JOptionPane.showMessageDialog(dialog, "请填写具体的协议、IP地址和端口号", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            long start = System.nanoTime();
+            int r = classifier.classify(proto, (int) src, (int) dst, sp[0], dp[0]);
+            long ns = System.nanoTime() - start;
+            resultArea.append(r < 0 ? "未命中任何规则"
+                    : "命中 rule " + acl.rules.get(r).id + " " + acl.rules.get(r).action
+                    + (acl.rules.get(r).description.isEmpty() ? "" : "（" + acl.rules.get(r).description + "）"));
+            resultArea.append("，查找耗时 " + ns + " ns\n");
+        });
+        replayBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("选择流量文件（CSV）");
+            if (chooser.showOpenDialog(dialog) != JFileChooser.APPROVE_OPTION) return;
+            File file = chooser.getSelectedFile();
+            replayBtn.setEnabled(false);
+            lookupBtn.setEnabled(false);
+            resultArea.append("正在回放 " + file.getName() + " ...\n");
+            new Thread(() -> {
+                AclClassifier.ReplayResult result = null;
+                String error = null;
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    classifier.resetCounters();
+                    result = classifier.replay(reader);
+                } catch (IOException ex) {
+                    error = ex.getMessage();
+                }
+                AclClassifier.ReplayResult res = result;
+                String err = error;
+                SwingUtilities.invokeLater(() -> {
+                    replayBtn.setEnabled(true);
+                    lookupBtn.setEnabled(true);
+                    if (err != null) {
+                        JOptionPane.showMessageDialog(dialog, "读取失败: " + err, "错误", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    resultArea.append(hitReport(acl, classifier, res));
+                    applyBtn.setEnabled(true);
+                });
+            }, "acl-replay").start();
+        });
+        applyBtn.addActionListener(e -> {
+            int confirm = JOptionPane.showConfirmDialog(dialog, "按命中数重新排列规则并重新编号？", "确认", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            if (!applyOrder(acl, classifier.suggestOrder())) {
+                JOptionPane.showMessageDialog(dialog, "规则过多，无法重新编号", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            dialog.dispose();
+        });
+        closeBtn.addActionListener(e -> dialog.dispose());
+        dialog.setVisible(true);
+    }
+
+    private static String hitReport(Acl acl, AclClassifier classifier, AclClassifier.ReplayResult res) {
         StringBuilder sb = new StringBuilder();
-        sb.append("acl ").append("高级".equals(aclType) ? "number " : "basic ").append(aclNum).append("\n");
-        if (!aclDesc.isEmpty()) sb.append(" description ").append(aclDesc).append("\n");
-        for (int i = 0; i < ruleTableModel.getRowCount(); i++) {
-            String id = ruleTableModel.getValueAt(i, 0).toString();
-            String action = ruleTableModel.getValueAt(i, 1).toString();
-            String proto = ruleTableModel.getValueAt(i, 2).toString();
-            String src = ruleTableModel.getValueAt(i, 3).toString();
-            String srcPort = ruleTableModel.getValueAt(i, 4).toString();
-            String dst = ruleTableModel.getValueAt(i, 5).toString();
-            String dstPort = ruleTableModel.getValueAt(i, 6).toString();
-            String desc = ruleTableModel.getValueAt(i, 7).toString();
-            sb.append(" rule ").append(id).append(" ").append(action).append(" ").append(proto);
-            sb.append(" source ").append(src);
-            if (!"any".equals(srcPort)) sb.append(" source-port eq ").append(srcPort);
-            sb.append(" destination ").append(dst);
-            if (!"any".equals(dstPort)) sb.append(" destination-port eq ").append(dstPort);
-            if (!desc.isEmpty()) sb.append(" // ").append(desc);
-            sb.append("\n");
+        double seconds = Math.max(res.nanos, 1) / 1e9;
+        sb.append("回放 ").append(res.flows).append(" 个报文，命中 ").append(res.matched).append("，未命中 ")
+                .append(res.flows - res.matched).append("，跳过 ").append(res.skippedLines).append(" 行，耗时 ")
+                .append(res.nanos / 1_000_000).append(" ms（").append(String.format("%.0f", res.flows / seconds))
+                .append(" 报文/秒）\n");
+        // 命中数前20的规则
+        Integer[] idx = new Integer[acl.rules.size()];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> Long.compare(classifier.getHits(b), classifier.getHits(a)));
+        sb.append("命中最多的规则：\n");
+        for (int i = 0; i < Math.min(20, idx.length) && classifier.getHits(idx[i]) > 0; i++) {
+            AclRule r = acl.rules.get(idx[i]);
+            long h = classifier.getHits(idx[i]);
+            sb.append("  rule ").append(r.id).append(" ").append(r.action).append("  ").append(h)
+                    .append(String.format("（%.1f%%）", 100.0 * h / Math.max(1, res.flows))).append("\n");
+        }
+        int[] order = classifier.suggestOrder();
+        int moved = 0;
+        for (int i = 0; i < order.length; i++) if (order[i] != i) moved++;
+        sb.append("建议顺序（不改变任何报文的处理结果）：").append(moved == 0 ? "当前顺序已最优" : moved + " 条规则位置变化").append("\n");
+        for (int i = 0; i < Math.min(20, order.length) && moved > 0; i++) {
+            sb.append("  ").append(i + 1).append(". rule ").append(acl.rules.get(order[i]).id).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // 按新顺序重新编号（步长5，规则过多时步长1），写回规则集
+    private boolean applyOrder(Acl acl, int[] order) {
+        int step = order.length * 5 <= 9999 ? 5 : 1;
+        if (order.length * step > 9999) return false;
+        AclRepository.RuleSet rules = repository.rules(acl.number);
+        for (AclRule r : acl.rules) rules.remove(r.id);
+        for (int i = 0; i < order.length; i++) {
+            AclRule r = acl.rules.get(order[i]);
+            rules.put(new AclRule((i + 1) * step, r.action, r.protocol, r.source, r.sourcePort,
+                    r.destination, r.destPort, r.description));
+        }
+        loadAclRules();
+        return true;
+    }
+
+    private Acl toAcl(int aclRow) {
+        Acl acl = new Acl(
+                Integer.parseInt(aclTableModel.getValueAt(aclRow, 0).toString()),
+                aclTableModel.getValueAt(aclRow, 1).toString(),
+                aclTableModel.getValueAt(aclRow, 2).toString());
+        return repository.fill(acl);
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < aclTableModel.getRowCount(); i++) cfg.acls.add(toAcl(i));
+        cfg.optimizeAcls = optimizeBox.isSelected();
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        ruleTableModel.setRules(null);
+        repository.clear();
+        aclTableModel.setRowCount(0);
+        for (Acl acl : cfg.acls) {
+            repository.load(acl);
+            aclTableModel.addRow(new Object[]{String.valueOf(acl.number), acl.type, acl.description});
         }
-        sb.append("quit\n");
-        cmdPreviewArea.setText(sb.toString());
     }
 }
\ No newline at end of file
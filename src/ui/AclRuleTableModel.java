@@ -0,0 +1,76 @@
+package ui;
+
+import engine.AclRepository;
+import model.AclRule;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * ACL规则表模型：直接读取当前ACL的规则集，切换ACL时不重建表格行
+ */
+public class AclRuleTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"序号", "动作", "协议", "源地址", "源端口", "目的地址", "目的端口", "描述"};
+
+    private AclRepository.RuleSet rules;
+
+    /**
+     * 切换显示的规则集，null 表示不显示
+     */
+    public void setRules(AclRepository.RuleSet rules) {
+        this.rules = rules;
+        fireTableDataChanged();
+    }
+
+    public AclRepository.RuleSet getRules() {
+        return rules;
+    }
+
+    public AclRule getRule(int row) {
+        return rules.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rules == null ? 0 : rules.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        AclRule r = rules.get(row);
+        switch (column) {
+            case 0:
+                return String.valueOf(r.id);
+            case 1:
+                return r.action;
+            case 2:
+                return r.protocol;
+            case 3:
+                return r.source;
+            case 4:
+                return r.sourcePort;
+            case 5:
+                return r.destination;
+            case 6:
+                return r.destPort;
+            case 7:
+                return r.description;
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ui;
+
+import model.DeviceConfig;
+
+/**
+ * 可向整机配置贡献模块数据的功能面板（用于批量生成和工程保存）
+ * 须在事件派发线程中调用。
+ */
+public interface ConfigContributor {
+    void contributeTo(DeviceConfig cfg);
+
+    /**
+     * 用工程中的模块数据替换面板现有内容
+     */
+    void loadFrom(DeviceConfig cfg);
+}
@@ -17,6 +17,7 @@ public class ConfigPanel extends JPanel {
     private JComboBox<String> loginTypeBox;
     private JTextField snmpVerField;
     private JTextField snmpCommField;
+    private JTextField concurrencyField;
     private JButton applyBtn, resetBtn, importBtn, exportBtn;
     private JFileChooser fileChooser;
 
@@ -34,6 +35,7 @@ public class ConfigPanel extends JPanel {
         timeoutField = new JTextField("30");
         snmpVerField = new JTextField("v2c");
         snmpCommField = new JTextField("public");
+        concurrencyField = new JTextField("256");
 
         configPanel.add(new JLabel("默认登录方式:"));
         configPanel.add(loginTypeBox);
@@ -43,6 +45,8 @@ public class ConfigPanel extends JPanel {
         configPanel.add(snmpVerField);
         configPanel.add(new JLabel("SNMP社区:"));
         configPanel.add(snmpCommField);
+        configPanel.add(new JLabel("设备连接并发数:"));
+        configPanel.add(concurrencyField);
 
         add(configPanel, BorderLayout.CENTER);
 
@@ -75,12 +79,14 @@ public class ConfigPanel extends JPanel {
         String timeout = timeoutField.getText().trim();
         String snmpVer = snmpVerField.getText().trim();
         String snmpComm = snmpCommField.getText().trim();
+        String concurrency = concurrencyField.getText().trim();
         // 可扩展：参数校验
         JOptionPane.showMessageDialog(this,
                 "已应用配置：\n登录方式: " + loginType +
                         "\n超时: " + timeout +
                         "\nSNMP版本: " + snmpVer +
-                        "\nSNMP社区: " + snmpComm,
+                        "\nSNMP社区: " + snmpComm +
+                        "\n连接并发数: " + concurrency,
                 "应用成功", JOptionPane.INFORMATION_MESSAGE);
     }
 
@@ -89,6 +95,7 @@ public class ConfigPanel extends JPanel {
         timeoutField.setText("30");
         snmpVerField.setText("v2c");
         snmpCommField.setText("public");
+        concurrencyField.setText("256");
         JOptionPane.showMessageDialog(this, "已恢复默认配置", "提示", JOptionPane.INFORMATION_MESSAGE);
     }
 
@@ -120,6 +127,10 @@ public class ConfigPanel extends JPanel {
                         String v = content.split("\"snmpComm\"\\s*:\\s*\"")[1].split("\"")[0];
                         snmpCommField.setText(v);
                     }
+                    if (content.contains("\"concurrency\"")) {
+                        String v = content.split("\"concurrency\"\\s*:\\s*\"")[1].split("\"")[0];
+                        concurrencyField.setText(v);
+                    }
                     JOptionPane.showMessageDialog(this, "配置导入成功", "导入", JOptionPane.INFORMATION_MESSAGE);
                 } else {
                     JOptionPane.showMessageDialog(this, "暂仅支持JSON格式的简单导入", "格式不支持", JOptionPane.WARNING_MESSAGE);
@@ -138,7 +149,8 @@ public class ConfigPanel extends JPanel {
                     "  \"loginType\": \"" + loginTypeBox.getSelectedItem() + "\",\n" +
                     "  \"timeout\": \"" + timeoutField.getText().trim() + "\",\n" +
                     "  \"snmpVer\": \"" + snmpVerField.getText().trim() + "\",\n" +
-                    "  \"snmpComm\": \"" + snmpCommField.getText().trim() + "\"\n" +
+                    "  \"snmpComm\": \"" + snmpCommField.getText().trim() + "\",\n" +
+                    "  \"concurrency\": \"" + concurrencyField.getText().trim() + "\"\n" +
                     "}";
             try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
                 writer.write(json);
@@ -148,4 +160,34 @@ public class ConfigPanel extends JPanel {
             }
         }
     }
+
+    /**
+     * 默认登录方式（SSH/Telnet）
+     */
+    public String getLoginType() {
+        return (String) loginTypeBox.getSelectedItem();
+    }
+
+    /**
+     * 登录超时（秒），填写非法时取默认值30
+     */
+    public int getTimeoutSeconds() {
+        return parsePositive(timeoutField.getText(), 30);
+    }
+
+    /**
+     * 连接设备时的并发上限，填写非法时取默认值256
+     */
+    public int getConcurrency() {
+        return parsePositive(concurrencyField.getText(), 256);
+    }
+
+    private static int parsePositive(String text, int def) {
+        try {
+            int v = Integer.parseInt(text.trim());
+            return v > 0 ? v : def;
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
 }
\ No newline at end of file
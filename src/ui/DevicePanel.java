@@ -1,24 +1,62 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.ConfigPusher;
+import engine.DeviceCsv;
+import engine.DirectoryOutput;
+import engine.FleetRenderer;
+import engine.StatusPoller;
+import engine.VlanMembership;
+import engine.ZipOutput;
+import model.Device;
+import model.DeviceConfig;
+
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
 
 /**
  * 设备管理界面（美化版）
  * 实现功能：
  * 1. 显示设备列表（名称、IP、型号、状态等）
  * 2. 添加、编辑、删除设备
- * 3. 支持设备搜索
- * 4. 设备状态刷新（占位，可扩展为真实通信）
+ * 3. 支持设备搜索（索引检索，输入即过滤，支持 10.12.0.0/16 网段查询）
+ * 4. 设备状态刷新（并发TCP连接检测管理端口，结果批量刷新表格）
+ * 5. 全部设备批量生成启动配置（并行渲染，支持进度与取消）
+ * 6. 批量下发配置到设备（Telnet会话，流水线发送，失败重试）
+ * 7. 列式表格模型，支持十万级设备清单的导入、排序
  */
 public class DevicePanel extends JPanel {
-    private DefaultTableModel tableModel;
+    private DeviceTableModel tableModel;
     private JTable deviceTable;
-    private JButton addButton, editButton, delButton, refreshButton;
+    private JButton addButton, editButton, delButton, refreshButton, renderAllButton, pushButton, importButton;
     private JTextField searchField;
+    private TableRowSorter<DeviceTableModel> sorter;
+    // 当前搜索命中的设备编号，null 表示不过滤
+    private BitSet searchHits;
+    private Timer searchTimer;
+    private JLabel footerLabel;
+    private List<ConfigContributor> contributors = Collections.emptyList();
+    private FleetRenderer fleetRenderer;
+    private ConfigPanel configPanel;
+    private StatusPoller.Job pollJob;
 
     public DevicePanel(String 设备管理) {
         setLayout(new BorderLayout());
@@ -48,25 +86,28 @@ public class DevicePanel extends JPanel {
         editButton = createButton("编辑设备", new Color(37, 81, 166), Color.WHITE);
         delButton = createButton("删除设备", new Color(240, 61, 70), Color.WHITE);
         refreshButton = createButton("刷新状态", new Color(37, 166, 81), Color.WHITE);
+        renderAllButton = createButton("批量生成", new Color(255, 153, 0), Color.WHITE);
+        pushButton = createButton("下发配置", new Color(240, 61, 70), Color.WHITE);
+        importButton = createButton("导入设备", new Color(69, 149, 236), Color.WHITE);
 
+        btnPanel.add(importButton);
         btnPanel.add(addButton);
         btnPanel.add(editButton);
         btnPanel.add(delButton);
         btnPanel.add(refreshButton);
+        btnPanel.add(renderAllButton);
+        btnPanel.add(pushButton);
 
         topPanel.add(searchPanel, BorderLayout.WEST);
         topPanel.add(btnPanel, BorderLayout.EAST);
         add(topPanel, BorderLayout.NORTH);
 
-        // 表格区域
-        String[] columns = {"设备名称", "IP地址", "设备型号", "管理方式", "状态"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // 表格不可直接编辑
-            }
-        };
+        // 表格区域（列式存储，排序只维护索引映射）
+        tableModel = new DeviceTableModel();
         deviceTable = new JTable(tableModel);
+        sorter = new TableRowSorter<>(tableModel);
+        sorter.setComparator(DeviceTableModel.COL_IP, (a, b) -> DeviceTableModel.compareIp((String) a, (String) b));
+        deviceTable.setRowSorter(sorter);
         deviceTable.getTableHeader().setFont(new Font("微软雅黑", Font.BOLD, 16));
         deviceTable.setFont(new Font("微软雅黑", Font.PLAIN, 15));
         deviceTable.setRowHeight(28);
@@ -80,6 +121,17 @@ public class DevicePanel extends JPanel {
 
         add(tableScroll, BorderLayout.CENTER);
 
+        // 底部统计栏
+        footerLabel = new JLabel();
+        footerLabel.setFont(new Font("微软雅黑", Font.PLAIN, 13));
+        footerLabel.setBorder(BorderFactory.createEmptyBorder(4, 16, 4, 16));
+        add(footerLabel, BorderLayout.SOUTH);
+        tableModel.addTableModelListener(e -> {
+            updateFooter();
+            // 清单变化后按当前关键字重新过滤
+            if (searchHits != null) searchTimer.restart();
+        });
+
         // 初始化测试数据
         addTestData();
 
@@ -88,7 +140,19 @@ public class DevicePanel extends JPanel {
         editButton.addActionListener(e -> editSelectedDevice());
         delButton.addActionListener(e -> deleteSelectedDevice());
         searchButton.addActionListener(e -> searchDevice());
+        searchField.addActionListener(e -> searchDevice());
+        // 输入即过滤，合并连续按键
+        searchTimer = new Timer(120, e -> applySearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
         refreshButton.addActionListener(e -> refreshStatus());
+        renderAllButton.addActionListener(e -> renderAllDevices());
+        pushButton.addActionListener(e -> pushConfigs());
+        importButton.addActionListener(e -> importDevices());
 
         // 双击编辑
         deviceTable.addMouseListener(new MouseAdapter() {
@@ -126,9 +190,9 @@ public class DevicePanel extends JPanel {
     }
 
     private void addTestData() {
-        tableModel.addRow(new Object[]{"核心交换机", "192.168.1.1", "S5735", "SSH", "在线"});
-        tableModel.addRow(new Object[]{"汇聚交换机1", "192.168.1.2", "S5720", "Telnet", "离线"});
-        tableModel.addRow(new Object[]{"接入交换机A", "192.168.1.101", "S2700", "SSH", "在线"});
+        tableModel.addDevice(new Device("核心交换机", "192.168.1.1", "S5735", "SSH", "在线"));
+        tableModel.addDevice(new Device("汇聚交换机1", "192.168.1.2", "S5720", "Telnet", "离线"));
+        tableModel.addDevice(new Device("接入交换机A", "192.168.1.101", "S2700", "SSH", "在线"));
     }
 
     private void showAddOrEditDialog(Vector<Object> existingData) {
@@ -182,9 +246,9 @@ public class DevicePanel extends JPanel {
                 return;
             }
             if (existingData == null) {
-                tableModel.addRow(new Object[]{name, ip, model, mgmt, status});
+                tableModel.addDevice(new Device(name, ip, model, mgmt, status));
             } else {
-                int row = deviceTable.getSelectedRow();
+                int row = selectedModelRow();
                 tableModel.setValueAt(name, row, 0);
                 tableModel.setValueAt(ip, row, 1);
                 tableModel.setValueAt(model, row, 2);
@@ -199,7 +263,7 @@ public class DevicePanel extends JPanel {
     }
 
     private void editSelectedDevice() {
-        int row = deviceTable.getSelectedRow();
+        int row = selectedModelRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "请先选择要编辑的设备", "提示", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -212,7 +276,7 @@ public class DevicePanel extends JPanel {
     }
 
     private void deleteSelectedDevice() {
-        int row = deviceTable.getSelectedRow();
+        int row = selectedModelRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "请先选择要删除的设备", "提示", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -224,35 +288,319 @@ public class DevicePanel extends JPanel {
     }
 
     private void searchDevice() {
-        String kw = searchField.getText().trim();
-        if (kw.isEmpty()) {
+        searchTimer.stop();
+        applySearch();
+        if (searchHits == null) {
             deviceTable.clearSelection();
             return;
         }
-        boolean found = false;
+        if (deviceTable.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "未找到相关设备", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        deviceTable.setRowSelectionInterval(0, 0);
+        deviceTable.scrollRectToVisible(deviceTable.getCellRect(0, 0, true));
+    }
+
+    /**
+     * 按搜索框内容查询索引并设置表格过滤器
+     */
+    private void applySearch() {
+        searchHits = tableModel.getSearchIndex().search(searchField.getText());
+        if (searchHits == null) {
+            sorter.setRowFilter(null);
+        } else {
+            BitSet hits = searchHits;
+            sorter.setRowFilter(new RowFilter<DeviceTableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends DeviceTableModel, ? extends Integer> entry) {
+                    return hits.get(entry.getModel().getRowId(entry.getIdentifier()));
+                }
+            });
+        }
+        updateFooter();
+    }
+
+    /**
+     * 当前选中行在模型中的下标（表格可能已排序），未选中返回 -1
+     */
+    private int selectedModelRow() {
+        int view = deviceTable.getSelectedRow();
+        return view == -1 ? -1 : deviceTable.convertRowIndexToModel(view);
+    }
+
+    private void updateFooter() {
+        footerLabel.setText("共 " + tableModel.getRowCount() + " 台设备，清单内存约 "
+                + tableModel.estimateMemoryBytes() / 1024 + " KB（列存储 " + tableModel.estimateColumnBytes() / 1024
+                + " KB + 搜索索引 " + tableModel.getSearchIndex().memoryBytes() / 1024 + " KB，"
+                + tableModel.estimateBytesPerRow() + " 字节/台）"
+                + (searchHits == null ? "" : "，搜索命中 " + searchHits.cardinality() + " 台"));
+    }
+
+    /**
+     * 从CSV导入设备（每行：名称,IP,型号,管理方式[,状态]），后台解析后一次性加入表格
+     */
+    private void importDevices() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("导入设备清单（CSV）");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        importButton.setEnabled(false);
+        new Thread(() -> {
+            List<Device> devices = new ArrayList<>();
+            String error = null;
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                devices.addAll(DeviceCsv.read(reader));
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            String err = error;
+            SwingUtilities.invokeLater(() -> {
+                importButton.setEnabled(true);
+                if (err != null) {
+                    JOptionPane.showMessageDialog(this, "导入失败: " + err, "错误", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                tableModel.addDevices(devices);
+                JOptionPane.showMessageDialog(this, "已导入 " + devices.size() + " 台设备", "导入", JOptionPane.INFORMATION_MESSAGE);
+            });
+        }, "device-import").start();
+    }
+
+    private void refreshStatus() {
+        if (pollJob != null && !pollJob.isFinished()) {
+            pollJob.cancel();
+            return;
+        }
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "设备列表为空", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        String loginType = configPanel != null ? configPanel.getLoginType() : "SSH";
+        int timeout = configPanel != null ? configPanel.getTimeoutSeconds() : 30;
+        int concurrency = configPanel != null ? configPanel.getConcurrency() : 256;
+        int defaultPort = StatusPoller.portOf(loginType, StatusPoller.SSH_PORT);
+        List<StatusPoller.Target> targets = new ArrayList<>(tableModel.getRowCount());
         for (int i = 0; i < tableModel.getRowCount(); i++) {
-            boolean match = false;
-            for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                Object val = tableModel.getValueAt(i, j);
-                if (val != null && val.toString().toLowerCase().contains(kw.toLowerCase())) {
-                    match = true;
-                    break;
+            String mgmt = (String) tableModel.getValueAt(i, DeviceTableModel.COL_MGMT);
+            targets.add(new StatusPoller.Target(tableModel.getRowId(i),
+                    (String) tableModel.getValueAt(i, DeviceTableModel.COL_IP),
+                    StatusPoller.portOf(mgmt, defaultPort)));
+        }
+        // 发起时间按设备数打散，最多2秒
+        StatusPoller poller = new StatusPoller(concurrency, timeout * 1000, Math.min(2000, targets.size()));
+        pollJob = poller.poll(targets, (ids, reachable, count) -> {
+            int[] batchIds = Arrays.copyOf(ids, count);
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) values[i] = reachable[i] ? "在线" : "离线";
+            SwingUtilities.invokeLater(() -> tableModel.setStatuses(batchIds, values, count));
+        });
+        StatusPoller.Job job = pollJob;
+        String label = refreshButton.getText();
+        Timer timer = new Timer(200, null);
+        timer.addActionListener(e -> {
+            refreshButton.setText("停止刷新 " + job.getDone() + "/" + job.getTotal());
+            if (!job.isFinished()) return;
+            timer.stop();
+            refreshButton.setText(label);
+            // 最后一批结果已排入事件队列，之后再提示
+            SwingUtilities.invokeLater(() -> {
+                if (job.getError() != null) {
+                    JOptionPane.showMessageDialog(this, "状态刷新失败: " + job.getError().getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+                String msg = (job.isCancelled() ? "状态刷新已停止" : "状态已刷新")
+                        + "\n已检测 " + job.getDone() + "/" + job.getTotal() + " 台，在线 " + job.getReachable()
+                        + " 台\n用时 " + job.getElapsedMillis() + " ms";
+                JOptionPane.showMessageDialog(this, msg, "提示", JOptionPane.INFORMATION_MESSAGE);
+            });
+        });
+        timer.start();
+    }
+
+    /**
+     * 设置全局配置面板，状态刷新时读取登录方式、超时和并发数
+     */
+    public void setConfigPanel(ConfigPanel configPanel) {
+        this.configPanel = configPanel;
+    }
+
+    /**
+     * 设置批量生成时提供模块配置的面板
+     */
+    public void setConfigContributors(List<ConfigContributor> contributors) {
+        this.contributors = contributors;
+    }
+
+    public DeviceTableModel getTableModel() {
+        return tableModel;
+    }
+
+    /**
+     * 当前设备清单快照
+     */
+    public List<Device> getDevices() {
+        List<Device> devices = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) devices.add(tableModel.getDevice(i));
+        return devices;
+    }
+
+    private void renderAllDevices() {
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "设备列表为空", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        String[] options = {"按设备分文件", "单个ZIP归档"};
+        int mode = JOptionPane.showOptionDialog(this, "请选择输出方式", "批量生成", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (mode == JOptionPane.CLOSED_OPTION) return;
+        JFileChooser chooser = new JFileChooser();
+        if (mode == 0) {
+            chooser.setDialogTitle("选择配置输出目录");
+            chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        } else {
+            chooser.setDialogTitle("保存配置归档");
+            chooser.setSelectedFile(new File("configs.zip"));
+        }
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File target = chooser.getSelectedFile();
+
+        // 模板在事件派发线程中取快照，渲染线程只读
+        DeviceConfig template = new DeviceConfig(null);
+        for (ConfigContributor c : contributors) c.contributeTo(template);
+        if (!confirmTemplate(template)) return;
+        List<Device> devices = getDevices();
+
+        FleetRenderer.Output output;
+        try {
+            output = mode == 0 ? new DirectoryOutput(target.toPath()) : new ZipOutput(target.toPath());
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "无法创建输出: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (fleetRenderer == null) fleetRenderer = new FleetRenderer(ConfigEngine.getDefault());
+        FleetRenderer.Job job = fleetRenderer.render(devices, template, output);
+
+        showProgress("批量生成", "并行线程数: " + fleetRenderer.getParallelism(), job.getTotal(),
+                job::getDone, job::isFinished, job::cancel);
+
+        if (output instanceof Closeable) {
+            try {
+                ((Closeable) output).close();
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "写入归档失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-            if (match) {
-                deviceTable.setRowSelectionInterval(i, i);
-                deviceTable.scrollRectToVisible(deviceTable.getCellRect(i, 0, true));
-                found = true;
+        }
+
+        if (job.getError() != null) {
+            JOptionPane.showMessageDialog(this, "生成失败: " + job.getError().getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+        } else if (job.isCancelled()) {
+            JOptionPane.showMessageDialog(this, "已取消，已生成 " + job.getDone() + " 台设备配置", "提示", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "已生成 " + job.getDone() + " 台设备配置，用时 " + job.getElapsedMillis() + " ms",
+                    "完成", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    /**
+     * VLAN与聚合组成员交叉检查，有问题时由用户确认是否继续
+     */
+    private boolean confirmTemplate(DeviceConfig template) {
+        List<String> issues = new VlanMembership(template.vlans).checkTrunks(template.trunks);
+        if (issues.isEmpty()) return true;
+        StringBuilder msg = new StringBuilder("VLAN与聚合组检查发现以下问题：\n");
+        for (int i = 0; i < Math.min(10, issues.size()); i++) msg.append(issues.get(i)).append("\n");
+        if (issues.size() > 10) msg.append("…共 ").append(issues.size()).append(" 项\n");
+        msg.append("成员端口的VLAN将合并到Eth-Trunk接口放行，是否继续？");
+        return JOptionPane.showConfirmDialog(this, msg.toString(), "配置检查", JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE) == JOptionPane.YES_OPTION;
+    }
+
+    private void pushConfigs() {
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "设备列表为空", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        // 有选中行时只下发选中设备
+        List<Device> devices = new ArrayList<>();
+        for (int view : deviceTable.getSelectedRows()) devices.add(tableModel.getDevice(deviceTable.convertRowIndexToModel(view)));
+        if (devices.isEmpty()) devices = getDevices();
+
+        JTextField userField = new JTextField("admin");
+        JPasswordField passField = new JPasswordField();
+        JPanel form = new JPanel(new GridLayout(3, 2, 8, 8));
+        form.add(new JLabel("目标设备:"));
+        form.add(new JLabel(devices.size() + " 台"));
+        form.add(new JLabel("登录用户名:"));
+        form.add(userField);
+        form.add(new JLabel("登录密码:"));
+        form.add(passField);
+        int ok = JOptionPane.showConfirmDialog(this, form, "下发配置", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (ok != JOptionPane.OK_OPTION) return;
+
+        DeviceConfig template = new DeviceConfig(null);
+        for (ConfigContributor c : contributors) c.contributeTo(template);
+        if (!confirmTemplate(template)) return;
+        String loginType = configPanel != null ? configPanel.getLoginType() : "SSH";
+        int timeout = configPanel != null ? configPanel.getTimeoutSeconds() : 30;
+        int concurrency = configPanel != null ? configPanel.getConcurrency() : 256;
+        ConfigPusher pusher = new ConfigPusher(ConfigEngine.getDefault(), concurrency, timeout * 1000, 2);
+        ConfigPusher.Job job = pusher.push(devices, template, userField.getText().trim(),
+                new String(passField.getPassword()), loginType);
+        showProgress("下发配置", "并发会话数: " + Math.min(concurrency, devices.size()), job.getTotal(),
+                job::getDone, job::isFinished, job::cancel);
+
+        StringBuilder msg = new StringBuilder();
+        msg.append(job.isCancelled() ? "已取消，" : "").append("成功 ").append(job.getSucceeded())
+                .append(" 台，失败 ").append(job.getFailed()).append(" 台\n")
+                .append(String.format("吞吐 %.1f 台/分钟，P99耗时 %d ms", job.getDevicesPerMinute(), job.getLatencyPercentile(99)));
+        int shown = 0;
+        for (ConfigPusher.Result r : job.getResults()) {
+            if (r.success) continue;
+            if (shown++ == 10) {
+                msg.append("\n……");
                 break;
             }
+            msg.append("\n").append(r.device.name).append("（").append(r.device.ip).append("）: ").append(r.message);
         }
-        if (!found) {
-            JOptionPane.showMessageDialog(this, "未找到相关设备", "提示", JOptionPane.INFORMATION_MESSAGE);
-        }
+        JOptionPane.showMessageDialog(this, msg.toString(), "下发结果",
+                job.getFailed() == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
     }
 
-    private void refreshStatus() {
-        // 占位：此处可实现真实的设备状态获取（如Ping、SNMP等）
-        JOptionPane.showMessageDialog(this, "状态已刷新（演示模式）", "提示", JOptionPane.INFORMATION_MESSAGE);
+    /**
+     * 模态进度对话框：定时轮询进度，避免每台设备一次界面事件；任务结束后返回
+     */
+    private void showProgress(String title, String status, int total, IntSupplier done, BooleanSupplier finished, Runnable cancel) {
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), title, true);
+        dialog.setSize(420, 150);
+        dialog.setLocationRelativeTo(this);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialog.setLayout(new BorderLayout());
+        JProgressBar progressBar = new JProgressBar(0, total);
+        progressBar.setStringPainted(true);
+        JLabel statusLabel = new JLabel(status, SwingConstants.CENTER);
+        JPanel body = new JPanel(new BorderLayout(0, 8));
+        body.setBorder(BorderFactory.createEmptyBorder(14, 18, 6, 18));
+        body.add(progressBar, BorderLayout.CENTER);
+        body.add(statusLabel, BorderLayout.SOUTH);
+        dialog.add(body, BorderLayout.CENTER);
+        JPanel btnPanel = new JPanel();
+        JButton cancelBtn = createButton("取消", new Color(180, 180, 180), Color.WHITE);
+        btnPanel.add(cancelBtn);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        cancelBtn.addActionListener(e -> cancel.run());
+
+        Timer timer = new Timer(100, null);
+        timer.addActionListener(e -> {
+            progressBar.setValue(done.getAsInt());
+            progressBar.setString(done.getAsInt() + " / " + total);
+            if (finished.getAsBoolean()) {
+                timer.stop();
+                dialog.dispose();
+            }
+        });
+        timer.start();
+        dialog.setVisible(true);
     }
 }
\ No newline at end of file
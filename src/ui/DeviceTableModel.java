@@ -0,0 +1,462 @@
+package ui;
+
+import engine.DeviceSearchIndex;
+import engine.IpTrie;
+import model.Device;
+
+import javax.swing.table.AbstractTableModel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 设备清单的列式表格模型
+ * 1. 每列独立存储：名称为UTF-8字节区，IP为int，型号/管理方式/状态为字典编码
+ * 2. 单元格值在渲染时按需生成，不为每行保存Vector和字符串对象
+ * 3. 行访问O(1)；排序和过滤交给TableRowSorter的索引映射，不复制行
+ * 4. 每行有稳定编号，增删改同步到搜索索引
+ */
+public class DeviceTableModel extends AbstractTableModel {
+    public static final int COL_NAME = 0, COL_IP = 1, COL_MODEL = 2, COL_MGMT = 3, COL_STATUS = 4;
+    private static final String[] COLUMNS = {"设备名称", "IP地址", "设备型号", "管理方式", "状态"};
+
+    private int size;
+    private final Utf8Column names = new Utf8Column();
+    private int[] ips = new int[16];
+    // 置位的行 IP 为合法IPv4，取值在 ips 中
+    private final BitSet ipv4Rows = new BitSet();
+    // IP无法解析为IPv4时保存原文（可为空串），合法IPv4对应空串
+    private final Utf8Column rawIps = new Utf8Column();
+    private final DictColumn models = new DictColumn();
+    private final DictColumn mgmtTypes = new DictColumn();
+    private final DictColumn statuses = new DictColumn();
+    // 行号 -> 稳定编号（删除行后其余行编号不变）
+    private int[] rowIds = new int[16];
+    // 稳定编号 -> 行号，已删除或未分配为 -1（扩容时填充）
+    private int[] idRows = new int[0];
+    private int nextId;
+    private final DeviceSearchIndex searchIndex = new DeviceSearchIndex();
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // 表格不可直接编辑
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        checkRow(row);
+        switch (column) {
+            case COL_NAME:
+                return names.get(row);
+            case COL_IP:
+                return ipv4Rows.get(row) ? formatIp(ips[row]) : rawIps.get(row);
+            case COL_MODEL:
+                return models.get(row);
+            case COL_MGMT:
+                return mgmtTypes.get(row);
+            case COL_STATUS:
+                return statuses.get(row);
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        checkRow(row);
+        String s = value == null ? "" : value.toString();
+        switch (column) {
+            case COL_NAME:
+                names.set(row, s);
+                break;
+            case COL_IP:
+                setIp(row, s);
+                break;
+            case COL_MODEL:
+                models.set(row, s);
+                break;
+            case COL_MGMT:
+                mgmtTypes.set(row, s);
+                break;
+            case COL_STATUS:
+                statuses.set(row, s);
+                break;
+            default:
+                throw new IndexOutOfBoundsException("column " + column);
+        }
+        searchIndex.put(rowIds[row], getDevice(row));
+        fireTableCellUpdated(row, column);
+    }
+
+    public void addDevice(Device d) {
+        append(d);
+        fireTableRowsInserted(size - 1, size - 1);
+    }
+
+    /**
+     * 批量追加设备，只触发一次表格事件
+     */
+    public void addDevices(List<Device> devices) {
+        if (devices.isEmpty()) return;
+        int first = size;
+        for (Device d : devices) append(d);
+        fireTableRowsInserted(first, size - 1);
+    }
+
+    /**
+     * 按指定稳定编号批量追加设备（打开工程时恢复编号），之后新增的设备编号从最大编号之后分配
+     */
+    public void addDevices(List<Device> devices, int[] ids) {
+        if (devices.isEmpty()) return;
+        int first = size;
+        int saved = nextId;
+        for (int i = 0; i < devices.size(); i++) {
+            if (ids[i] < idRows.length && idRows[ids[i]] >= 0) throw new IllegalArgumentException("duplicate id " + ids[i]);
+            nextId = ids[i];
+            append(devices.get(i));
+            saved = Math.max(saved, nextId);
+        }
+        nextId = saved;
+        fireTableRowsInserted(first, size - 1);
+    }
+
+    /**
+     * 当前全部设备及其稳定编号（工程保存用）
+     */
+    public List<Device> getDevices(int[] idsOut) {
+        List<Device> list = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            list.add(getDevice(row));
+            idsOut[row] = rowIds[row];
+        }
+        return list;
+    }
+
+    public void removeRow(int row) {
+        checkRow(row);
+        searchIndex.remove(rowIds[row]);
+        idRows[rowIds[row]] = -1;
+        System.arraycopy(rowIds, row + 1, rowIds, row, size - row - 1);
+        for (int r = row; r < size - 1; r++) idRows[rowIds[r]] = r;
+        names.remove(row, size);
+        rawIps.remove(row, size);
+        System.arraycopy(ips, row + 1, ips, row, size - row - 1);
+        BitSet tail = ipv4Rows.get(row + 1, size);
+        ipv4Rows.clear(row, size);
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) ipv4Rows.set(row + i);
+        models.remove(row, size);
+        mgmtTypes.remove(row, size);
+        statuses.remove(row, size);
+        size--;
+        fireTableRowsDeleted(row, row);
+    }
+
+    public void clear() {
+        int old = size;
+        size = 0;
+        names.clear();
+        rawIps.clear();
+        ipv4Rows.clear();
+        models.clear();
+        mgmtTypes.clear();
+        statuses.clear();
+        searchIndex.clear();
+        Arrays.fill(idRows, -1);
+        nextId = 0;
+        if (old > 0) fireTableRowsDeleted(0, old - 1);
+    }
+
+    public Device getDevice(int row) {
+        return new Device(
+                (String) getValueAt(row, COL_NAME),
+                (String) getValueAt(row, COL_IP),
+                models.get(row),
+                mgmtTypes.get(row),
+                statuses.get(row));
+    }
+
+    /**
+     * 行的稳定编号，与 getSearchIndex() 的查询结果对应
+     */
+    public int getRowId(int row) {
+        checkRow(row);
+        return rowIds[row];
+    }
+
+    /**
+     * 稳定编号对应的当前行号，设备已删除返回 -1
+     */
+    public int rowOf(int id) {
+        return id >= 0 && id < nextId ? idRows[id] : -1;
+    }
+
+    /**
+     * 按稳定编号批量更新状态列（已删除的设备忽略），只触发一次表格事件
+     */
+    public void setStatuses(int[] ids, String[] values, int count) {
+        int first = Integer.MAX_VALUE, last = -1;
+        for (int i = 0; i < count; i++) {
+            int row = rowOf(ids[i]);
+            if (row < 0 || statuses.get(row).equals(values[i])) continue;
+            statuses.set(row, values[i]);
+            searchIndex.put(ids[i], getDevice(row));
+            first = Math.min(first, row);
+            last = Math.max(last, row);
+        }
+        if (last >= 0) fireTableRowsUpdated(first, last);
+    }
+
+    public DeviceSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * IPv4地址的整数值（无符号比较需用 Integer.compareUnsigned），非法IP返回 -1 且 isIpv4 为 false
+     */
+    public int getIpValue(int row) {
+        checkRow(row);
+        return ipv4Rows.get(row) ? ips[row] : -1;
+    }
+
+    public boolean isIpv4(int row) {
+        checkRow(row);
+        return ipv4Rows.get(row);
+    }
+
+    /**
+     * 当前已分配存储的总字节数估算：各列（含数组对象头和字典）加搜索索引
+     */
+    public long estimateMemoryBytes() {
+        return estimateColumnBytes() + searchIndex.memoryBytes();
+    }
+
+    /**
+     * 只计各列存储（含数组对象头和字典），不含搜索索引
+     */
+    public long estimateColumnBytes() {
+        return names.memoryBytes() + rawIps.memoryBytes() + 2 * (16L + 4L * ips.length) + 16L + ipv4Rows.size() / 8
+                + 16L + 4L * idRows.length + models.memoryBytes() + mgmtTypes.memoryBytes() + statuses.memoryBytes();
+    }
+
+    /**
+     * 平均每行占用字节数（含搜索索引）
+     */
+    public long estimateBytesPerRow() {
+        return size == 0 ? 0 : estimateMemoryBytes() / size;
+    }
+
+    private void append(Device d) {
+        if (size == ips.length) {
+            ips = Arrays.copyOf(ips, grow(ips.length));
+            rowIds = Arrays.copyOf(rowIds, ips.length);
+        }
+        names.add(size, d.name);
+        rawIps.add(size, "");
+        models.add(size, d.model);
+        mgmtTypes.add(size, d.mgmtType);
+        statuses.add(size, d.status);
+        if (nextId >= idRows.length) {
+            int len = idRows.length;
+            idRows = Arrays.copyOf(idRows, Math.max(grow(len), nextId + 1));
+            Arrays.fill(idRows, len, idRows.length, -1);
+        }
+        idRows[nextId] = size;
+        rowIds[size] = nextId++;
+        size++;
+        setIp(size - 1, d.ip);
+        searchIndex.put(rowIds[size - 1], d);
+    }
+
+    private void setIp(int row, String ip) {
+        long v = parseIpv4(ip);
+        if (v >= 0) {
+            ips[row] = (int) v;
+            ipv4Rows.set(row);
+            rawIps.set(row, "");
+        } else {
+            ips[row] = -1;
+            ipv4Rows.clear(row);
+            rawIps.set(row, ip == null ? "" : ip);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+    }
+
+    static int grow(int n) {
+        return Math.max(16, n + (n >> 1));
+    }
+
+    /**
+     * 解析点分十进制IPv4，非法返回 -1
+     */
+    public static long parseIpv4(CharSequence s) {
+        return IpTrie.parseIpv4(s);
+    }
+
+    public static String formatIp(int ip) {
+        return IpTrie.formatIpv4(ip);
+    }
+
+    /**
+     * 按IP数值比较两个单元格字符串（供排序使用，非IPv4排在最后按字符串比较）
+     */
+    public static int compareIp(String a, String b) {
+        long x = parseIpv4(a), y = parseIpv4(b);
+        if (x >= 0 && y >= 0) return Long.compare(x, y);
+        if (x >= 0) return -1;
+        if (y >= 0) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * 字符串列：所有行的UTF-8字节连续存放于同一字节区，按偏移和长度定位
+     */
+    static class Utf8Column {
+        private byte[] data = new byte[256];
+        private int used;
+        private int garbage;
+        private int rows;
+        private int[] offsets = new int[16];
+        private int[] lengths = new int[16];
+
+        String get(int row) {
+            return new String(data, offsets[row], lengths[row], StandardCharsets.UTF_8);
+        }
+
+        int length(int row) {
+            return lengths[row];
+        }
+
+        void add(int row, String s) {
+            if (row == offsets.length) {
+                offsets = Arrays.copyOf(offsets, grow(offsets.length));
+                lengths = Arrays.copyOf(lengths, grow(lengths.length));
+            }
+            offsets[row] = 0;
+            lengths[row] = 0;
+            rows++;
+            set(row, s);
+        }
+
+        void set(int row, String s) {
+            garbage += lengths[row];
+            if (s.isEmpty()) {
+                offsets[row] = 0;
+                lengths[row] = 0;
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            if (used + b.length > data.length) {
+                // 垃圾过半时先压缩，否则扩容
+                if (garbage > used / 2) compact(row);
+                if (used + b.length > data.length) data = Arrays.copyOf(data, Math.max(grow(data.length), used + b.length));
+            }
+            System.arraycopy(b, 0, data, used, b.length);
+            offsets[row] = used;
+            lengths[row] = b.length;
+            used += b.length;
+        }
+
+        void remove(int row, int size) {
+            garbage += lengths[row];
+            System.arraycopy(offsets, row + 1, offsets, row, size - row - 1);
+            System.arraycopy(lengths, row + 1, lengths, row, size - row - 1);
+            rows--;
+        }
+
+        void clear() {
+            used = 0;
+            garbage = 0;
+            rows = 0;
+        }
+
+        long memoryBytes() {
+            return 16L + data.length + 2 * (16L + 4L * offsets.length);
+        }
+
+        // 重新排布字节区；skipRow 的旧内容即将被覆盖，不保留
+        private void compact(int skipRow) {
+            byte[] fresh = new byte[data.length];
+            int pos = 0;
+            for (int r = 0; r < rows; r++) {
+                if (r == skipRow || lengths[r] == 0) continue;
+                System.arraycopy(data, offsets[r], fresh, pos, lengths[r]);
+                offsets[r] = pos;
+                pos += lengths[r];
+            }
+            data = fresh;
+            used = pos;
+            garbage = 0;
+        }
+    }
+
+    /**
+     * 字典编码列：取值种类少（型号、管理方式、状态），每行仅存一个char编码（无符号，最多65536种）
+     */
+    static class DictColumn {
+        private char[] codes = new char[16];
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Character> index = new HashMap<>();
+
+        String get(int row) {
+            return values.get(codes[row]);
+        }
+
+        void add(int row, String s) {
+            if (row == codes.length) codes = Arrays.copyOf(codes, grow(codes.length));
+            set(row, s);
+        }
+
+        void set(int row, String s) {
+            Character code = index.get(s);
+            if (code == null) {
+                if (values.size() >= Character.MAX_VALUE + 1) throw new IllegalStateException("取值种类过多: " + s);
+                code = (char) values.size();
+                values.add(s);
+                index.put(s, code);
+            }
+            codes[row] = code;
+        }
+
+        void remove(int row, int size) {
+            System.arraycopy(codes, row + 1, codes, row, size - row - 1);
+        }
+
+        void clear() {
+            values.clear();
+            index.clear();
+        }
+
+        long memoryBytes() {
+            long dict = 0;
+            for (String v : values) dict += 40 + 2L * v.length() + 48;
+            return 16L + 2L * codes.length + dict;
+        }
+    }
+}
@@ -1,9 +1,29 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.DhcpLeaseSimulator;
+import engine.DhcpPoolChecker;
+import engine.PreviewSink;
+import model.DeviceConfig;
+import model.DhcpPool;
+import model.IpInterface;
+
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * DHCP配置界面
@@ -11,12 +31,16 @@ import java.awt.event.*;
  * 1. 支持DHCP池管理（名称、网段、网关、掩码、DNS等）
  * 2. 支持池的添加、编辑、删除
  * 3. 命令生成预览
+ * 4. 地址检查：池之间、池与接口网段的重叠，网关位置，可分配地址与预计终端数（编辑时随输入检查）
+ * 5. 租约仿真：按终端上下线轨迹回放地址分配，查看耗尽时刻、峰值使用率和碎片
  */
-public class DhcpPanel extends JPanel {
+public class DhcpPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel poolTableModel;
     private JTable poolTable;
-    private JButton addBtn, editBtn, delBtn, previewBtn;
+    private JButton addBtn, editBtn, delBtn, previewBtn, checkBtn, leaseBtn;
     private JTextArea cmdPreviewArea;
+    // IP配置界面的接口地址，未设置时不做与接口相关的检查
+    private Supplier<List<IpInterface>> interfaceSource;
 
     public DhcpPanel(String dhcp) {
         setLayout(new BorderLayout());
@@ -27,7 +51,7 @@ public class DhcpPanel extends JPanel {
         add(title, BorderLayout.NORTH);
 
         // DHCP池表
-        String[] columns = {"池名称", "网段", "掩码", "网关", "DNS", "租期(小时)"};
+        String[] columns = {"池名称", "网段", "掩码", "网关", "DNS", "租期(小时)", "预计终端数"};
         poolTableModel = new DefaultTableModel(columns, 0) {
             public boolean isCellEditable(int row, int col) { return false; }
         };
@@ -42,10 +66,14 @@ public class DhcpPanel extends JPanel {
         editBtn = new JButton("编辑池");
         delBtn = new JButton("删除池");
         previewBtn = new JButton("命令预览");
+        checkBtn = new JButton("地址检查");
+        leaseBtn = new JButton("租约仿真");
         btnPanel.add(addBtn);
         btnPanel.add(editBtn);
         btnPanel.add(delBtn);
         btnPanel.add(previewBtn);
+        btnPanel.add(checkBtn);
+        btnPanel.add(leaseBtn);
         add(btnPanel, BorderLayout.SOUTH);
 
         // 命令预览区
@@ -66,6 +94,8 @@ public class DhcpPanel extends JPanel {
         editBtn.addActionListener(e -> editSelected());
         delBtn.addActionListener(e -> deleteSelected());
         previewBtn.addActionListener(e -> previewCmd());
+        checkBtn.addActionListener(e -> checkAll());
+        leaseBtn.addActionListener(e -> showLeaseDialog());
 
         // 双击编辑
         poolTable.addMouseListener(new MouseAdapter() {
@@ -78,22 +108,30 @@ public class DhcpPanel extends JPanel {
     }
 
     private void addTestData() {
-        poolTableModel.addRow(new Object[]{"office", "192.168.10.0", "255.255.255.0", "192.168.10.1", "8.8.8.8", "24"});
-        poolTableModel.addRow(new Object[]{"lab", "10.0.0.0", "255.255.255.0", "10.0.0.254", "223.5.5.5", "12"});
+        poolTableModel.addRow(new Object[]{"office", "192.168.10.0", "255.255.255.0", "192.168.10.1", "8.8.8.8", "24", "200"});
+        poolTableModel.addRow(new Object[]{"lab", "10.0.0.0", "255.255.255.0", "10.0.0.254", "223.5.5.5", "12", ""});
+    }
+
+    /**
+     * 设置接口地址来源（IP配置界面），用于检查地址池与接口网段
+     */
+    public void setInterfaceSource(Supplier<List<IpInterface>> source) {
+        this.interfaceSource = source;
     }
 
     private void showDialog(Object[] data) {
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), data == null ? "添加DHCP池" : "编辑DHCP池", true);
-        dialog.setSize(420, 270);
+        dialog.setSize(460, 460);
         dialog.setLocationRelativeTo(this);
 
-        JPanel form = new JPanel(new GridLayout(6, 2, 10, 10));
+        JPanel form = new JPanel(new GridLayout(7, 2, 10, 10));
         JTextField nameField = new JTextField(data == null ? "" : data[0].toString());
         JTextField segmentField = new JTextField(data == null ? "" : data[1].toString());
         JTextField maskField = new JTextField(data == null ? "" : data[2].toString());
         JTextField gwField = new JTextField(data == null ? "" : data[3].toString());
         JTextField dnsField = new JTextField(data == null ? "" : data[4].toString());
         JTextField leaseField = new JTextField(data == null ? "24" : data[5].toString());
+        JTextField clientsField = new JTextField(data == null ? "" : data[6].toString());
 
         form.add(new JLabel("池名称:"));
         form.add(nameField);
@@ -107,8 +145,38 @@ public class DhcpPanel extends JPanel {
         form.add(dnsField);
         form.add(new JLabel("租期(小时):"));
         form.add(leaseField);
+        form.add(new JLabel("预计终端数(可空):"));
+        form.add(clientsField);
+
+        JTextArea issueArea = new JTextArea(5, 30);
+        issueArea.setEditable(false);
+        issueArea.setLineWrap(true);
+        JScrollPane issueScroll = new JScrollPane(issueArea);
+        issueScroll.setBorder(BorderFactory.createTitledBorder("地址检查"));
 
         dialog.add(form, BorderLayout.CENTER);
+        dialog.add(issueScroll, BorderLayout.NORTH);
+
+        // 索引只在打开时建一次（不含正在编辑的行），之后每次输入只检查当前池
+        int editingRow = data == null ? -1 : poolTable.getSelectedRow();
+        DhcpPoolChecker checker = newChecker();
+        Timer checkTimer = new Timer(120, e -> {
+            DhcpPool candidate = new DhcpPool(nameField.getText().trim(), segmentField.getText(), maskField.getText(),
+                    gwField.getText(), "", 0);
+            candidate.expectedClients = parseClients(clientsField.getText());
+            issueArea.setText(formatIssues(checker.check(candidate, editingRow), candidate));
+            issueArea.setCaretPosition(0);
+        });
+        checkTimer.setRepeats(false);
+        DocumentListener recheck = new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { checkTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { checkTimer.restart(); }
+            public void changedUpdate(DocumentEvent e) { checkTimer.restart(); }
+        };
+        for (JTextField f : new JTextField[]{nameField, segmentField, maskField, gwField, clientsField}) {
+            f.getDocument().addDocumentListener(recheck);
+        }
+        if (data != null) checkTimer.restart();
 
         JPanel dialogBtnPanel = new JPanel();
         JButton okBtn = new JButton("确定");
@@ -124,6 +192,7 @@ public class DhcpPanel extends JPanel {
             String gw = gwField.getText().trim();
             String dns = dnsField.getText().trim();
             String lease = leaseField.getText().trim();
+            String clients = clientsField.getText().trim();
 
             if (name.isEmpty() || segment.isEmpty() || mask.isEmpty() || gw.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "请填写池名称、网段、掩码、网关", "提示", JOptionPane.WARNING_MESSAGE);
@@ -136,8 +205,24 @@ public class DhcpPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "租期须为1~168小时的数字", "错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            if (!clients.isEmpty() && parseClients(clients) <= 0) {
+                JOptionPane.showMessageDialog(dialog, "预计终端数须为正整数", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            DhcpPool candidate = new DhcpPool(name, segment, mask, gw, dns, 0);
+            candidate.expectedClients = parseClients(clients);
+            List<String> errors = new ArrayList<>();
+            for (DhcpPoolChecker.Issue issue : checker.check(candidate, editingRow)) {
+                if (issue.error) errors.add(issue.message);
+            }
+            if (!errors.isEmpty()) {
+                int confirm = JOptionPane.showConfirmDialog(dialog, "存在以下问题：\n" + String.join("\n", errors) + "\n仍然保存？",
+                        "地址检查", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                if (confirm != JOptionPane.YES_OPTION) return;
+            }
+            checkTimer.stop();
             if (data == null) {
-                poolTableModel.addRow(new Object[]{name, segment, mask, gw, dns, lease});
+                poolTableModel.addRow(new Object[]{name, segment, mask, gw, dns, lease, clients});
             } else {
                 int row = poolTable.getSelectedRow();
                 poolTableModel.setValueAt(name, row, 0);
@@ -146,10 +231,14 @@ public class DhcpPanel extends JPanel {
                 poolTableModel.setValueAt(gw, row, 3);
                 poolTableModel.setValueAt(dns, row, 4);
                 poolTableModel.setValueAt(lease, row, 5);
+                poolTableModel.setValueAt(clients, row, 6);
             }
             dialog.dispose();
         });
-        cancelBtn.addActionListener(e -> dialog.dispose());
+        cancelBtn.addActionListener(e -> {
+            checkTimer.stop();
+            dialog.dispose();
+        });
         dialog.setVisible(true);
     }
 
@@ -159,8 +248,8 @@ public class DhcpPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "请先选择要编辑的池", "提示", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-        Object[] data = new Object[6];
-        for (int i = 0; i < 6; i++) data[i] = poolTableModel.getValueAt(row, i);
+        Object[] data = new Object[7];
+        for (int i = 0; i < 7; i++) data[i] = poolTableModel.getValueAt(row, i);
         showDialog(data);
     }
 
@@ -182,23 +271,181 @@ public class DhcpPanel extends JPanel {
             cmdPreviewArea.setText("请先选择DHCP池条目");
             return;
         }
-        String name = poolTableModel.getValueAt(row, 0).toString();
-        String segment = poolTableModel.getValueAt(row, 1).toString();
-        String mask = poolTableModel.getValueAt(row, 2).toString();
-        String gw = poolTableModel.getValueAt(row, 3).toString();
-        String dns = poolTableModel.getValueAt(row, 4).toString();
-        String lease = poolTableModel.getValueAt(row, 5).toString();
+        PreviewSink out = new PreviewSink();
+        out.append("dhcp enable\n");
+        ConfigEngine.getDefault().dhcp.render(toDhcpPool(row), out);
+        cmdPreviewArea.setText(out.toString());
+    }
 
+    private void checkAll() {
+        DhcpPoolChecker checker = newChecker();
+        List<DhcpPoolChecker.Issue> issues = checker.checkAll();
         StringBuilder sb = new StringBuilder();
-        sb.append("dhcp enable\n");
-        sb.append("ip pool ").append(name).append("\n");
-        sb.append(" network ").append(segment).append(" ").append(mask).append("\n");
-        sb.append(" gateway-list ").append(gw).append("\n");
-        if (!dns.isEmpty()) {
-            sb.append(" dns-list ").append(dns).append("\n");
-        }
-        sb.append(" lease day 0 hour ").append(lease).append("\n");
-        sb.append(" quit\n");
+        sb.append("共 ").append(poolTableModel.getRowCount()).append(" 个地址池");
+        if (interfaceSource == null) sb.append("（未获取接口地址，跳过接口检查）");
+        sb.append(issues.isEmpty() ? "，未发现问题\n" : "，发现 " + issues.size() + " 个问题：\n");
+        for (DhcpPoolChecker.Issue issue : issues) sb.append(issue).append("\n");
         cmdPreviewArea.setText(sb.toString());
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    private void showLeaseDialog() {
+        int row = poolTable.getSelectedRow();
+        if (row == -1) {
+            JOptionPane.showMessageDialog(this, "请先选择DHCP池", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        DhcpPool pool = toDhcpPool(row);
+        DhcpLeaseSimulator simulator;
+        try {
+            simulator = new DhcpLeaseSimulator(pool);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "租约仿真 - " + pool.name, true);
+        dialog.setSize(620, 560);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel form = new JPanel(new GridLayout(2, 4, 8, 4));
+        JTextField daysField = new JTextField("7");
+        JTextField residentsField = new JTextField(String.valueOf(pool.expectedClients > 0 ? pool.expectedClients : 100));
+        JTextField guestsField = new JTextField("50");
+        JTextField guestHoursField = new JTextField("2");
+        form.add(new JLabel("天数"));
+        form.add(new JLabel("常驻终端数"));
+        form.add(new JLabel("每日访客数"));
+        form.add(new JLabel("访客停留(小时)"));
+        form.add(daysField);
+        form.add(residentsField);
+        form.add(guestsField);
+        form.add(guestHoursField);
+
+        JTextArea resultArea = new JTextArea();
+        resultArea.setEditable(false);
+        JScrollPane resultScroll = new JScrollPane(resultArea);
+        resultScroll.setBorder(BorderFactory.createTitledBorder("仿真结果"));
+
+        JPanel btnPanel = new JPanel();
+        JButton syntheticBtn = new JButton("合成轨迹仿真");
+        JButton importBtn = new JButton("导入轨迹文件");
+        JButton closeBtn = new JButton("关闭");
+        btnPanel.add(syntheticBtn);
+        btnPanel.add(importBtn);
+        btnPanel.add(closeBtn);
+
+        dialog.add(form, BorderLayout.NORTH);
+        dialog.add(resultScroll, BorderLayout.CENTER);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        resultArea.setText("轨迹文件每行：时间(秒),终端标识,on|off\n");
+
+        // 后台生成或读取轨迹并回放，完成后在界面线程输出报告
+        Consumer<Callable<DhcpLeaseSimulator.Trace>> run = source -> {
+            syntheticBtn.setEnabled(false);
+            importBtn.setEnabled(false);
+            resultArea.setText("正在仿真...\n");
+            new Thread(() -> {
+                String text;
+                try {
+                    DhcpLeaseSimulator.Trace trace = source.call();
+                    text = DhcpLeaseSimulator.report(simulator.simulate(trace), trace);
+                } catch (Exception ex) {
+                    text = "仿真失败: " + ex.getMessage() + "\n";
+                }
+                String out = text;
+                SwingUtilities.invokeLater(() -> {
+                    syntheticBtn.setEnabled(true);
+                    importBtn.setEnabled(true);
+                    resultArea.setText(out);
+                    resultArea.setCaretPosition(0);
+                });
+            }, "dhcp-lease").start();
+        };
+        syntheticBtn.addActionListener(e -> {
+            int days, residents, guests;
+            double guestHours;
+            try {
+                days = Integer.parseInt(daysField.getText().trim());
+                residents = Integer.parseInt(residentsField.getText().trim());
+                guests = Integer.parseInt(guestsField.getText().trim());
+                guestHours = Double.parseDouble(guestHoursField.getText().trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "请填写数字", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (days < 1 || days > 365 || residents < 0 || guests < 0 || guestHours <= 0
+                    || (long) days * (residents + guests) > 20_000_000) {
+                JOptionPane.showMessageDialog(dialog, "天数须为1~365，终端数不能为负，且天数×(常驻+访客)不超过两千万",
+                        "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            run.accept(() -> DhcpLeaseSimulator.Trace.synthetic(days, residents, guests, guestHours, 1L));
+        });
+        importBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("选择轨迹文件（CSV）");
+            if (chooser.showOpenDialog(dialog) != JFileChooser.APPROVE_OPTION) return;
+            File file = chooser.getSelectedFile();
+            run.accept(() -> {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return DhcpLeaseSimulator.Trace.read(reader);
+                } catch (IOException ex) {
+                    throw new IOException("读取 " + file.getName() + " 失败: " + ex.getMessage(), ex);
+                }
+            });
+        });
+        closeBtn.addActionListener(e -> dialog.dispose());
+        dialog.setVisible(true);
+    }
+
+    private DhcpPoolChecker newChecker() {
+        List<DhcpPool> pools = new ArrayList<>(poolTableModel.getRowCount());
+        for (int i = 0; i < poolTableModel.getRowCount(); i++) pools.add(toDhcpPool(i));
+        return new DhcpPoolChecker(pools, interfaceSource == null ? null : interfaceSource.get());
+    }
+
+    private static String formatIssues(List<DhcpPoolChecker.Issue> issues, DhcpPool candidate) {
+        StringBuilder sb = new StringBuilder();
+        long usable = DhcpPoolChecker.usableHosts(candidate);
+        if (usable >= 0) sb.append("可分配地址 ").append(usable).append(" 个\n");
+        for (DhcpPoolChecker.Issue issue : issues) sb.append(issue).append("\n");
+        if (issues.isEmpty() && usable >= 0) sb.append("未发现问题\n");
+        return sb.toString();
+    }
+
+    // 预计终端数，空或非法为 0
+    private static int parseClients(String text) {
+        try {
+            return Math.max(0, Integer.parseInt(text.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private DhcpPool toDhcpPool(int row) {
+        DhcpPool p = new DhcpPool(
+                poolTableModel.getValueAt(row, 0).toString(),
+                poolTableModel.getValueAt(row, 1).toString(),
+                poolTableModel.getValueAt(row, 2).toString(),
+                poolTableModel.getValueAt(row, 3).toString(),
+                poolTableModel.getValueAt(row, 4).toString(),
+                Integer.parseInt(poolTableModel.getValueAt(row, 5).toString()));
+        p.expectedClients = parseClients(poolTableModel.getValueAt(row, 6).toString());
+        return p;
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < poolTableModel.getRowCount(); i++) cfg.dhcpPools.add(toDhcpPool(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        poolTableModel.setRowCount(0);
+        for (DhcpPool p : cfg.dhcpPools) {
+            poolTableModel.addRow(new Object[]{p.name, p.network, p.mask, p.gateway, p.dns, String.valueOf(p.leaseHours),
+                    p.expectedClients > 0 ? String.valueOf(p.expectedClients) : ""});
+        }
     }
 }
\ No newline at end of file
@@ -1,9 +1,17 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceName;
+import engine.InterfaceNames;
+import model.DeviceConfig;
+import model.IpInterface;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * IP地址配置界面
@@ -13,7 +21,7 @@ import java.awt.event.*;
  *    端口类型：XGE口（XGigabitethernet）、GE口（Gigabitethernet）、FE口（FastEthernet）、E口（Ethernet）
  * 3. 命令生成预览
  */
-public class IpPanel extends JPanel {
+public class IpPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
     private JButton addBtn, editBtn, delBtn, previewBtn;
@@ -89,18 +97,10 @@ public class IpPanel extends JPanel {
         JTextField ifaceNumField = new JTextField(10);
         if (data != null && data[2] != null) {
             String iface = data[2].toString();
-            if (iface.startsWith("XGE口")) {
-                ifaceTypeBox.setSelectedItem("XGE口");
-                ifaceNumField.setText(iface.substring(3));
-            } else if (iface.startsWith("GE口")) {
-                ifaceTypeBox.setSelectedItem("GE口");
-                ifaceNumField.setText(iface.substring(2));
-            } else if (iface.startsWith("FE口")) {
-                ifaceTypeBox.setSelectedItem("FE口");
-                ifaceNumField.setText(iface.substring(2));
-            } else if (iface.startsWith("E口")) {
-                ifaceTypeBox.setSelectedItem("E口");
-                ifaceNumField.setText(iface.substring(2));
+            InterfaceName n = InterfaceNames.parse(iface);
+            if (n != null && n.type.uiLabel != null) {
+                ifaceTypeBox.setSelectedItem(n.type.uiLabel);
+                ifaceNumField.setText(n.numbers());
             } else {
                 ifaceNumField.setText(iface);
             }
@@ -129,7 +129,9 @@ public class IpPanel extends JPanel {
             String mask = maskField.getText().trim();
             String ifaceType = (String) ifaceTypeBox.getSelectedItem();
             String ifaceNum = ifaceNumField.getText().trim();
-            String iface = ifaceType + ifaceNum;
+            // 号码框里直接写了完整接口名（如 Vlanif100）时不再拼类型前缀
+            InterfaceName typed = InterfaceNames.parse(ifaceNum);
+            String iface = typed != null ? typed.uiName() : ifaceType + ifaceNum;
             if (ip.isEmpty() || mask.isEmpty() || ifaceNum.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "请填写IP、掩码和接口号", "提示", JOptionPane.WARNING_MESSAGE);
                 return;
@@ -177,26 +179,33 @@ public class IpPanel extends JPanel {
             cmdPreviewArea.setText("请先选择IP条目");
             return;
         }
-        String ip = tableModel.getValueAt(row, 0).toString();
-        String mask = tableModel.getValueAt(row, 1).toString();
-        String iface = tableModel.getValueAt(row, 2).toString();
-
-        // 端口类型映射
-        String mappedIface = iface;
-        if (iface.startsWith("XGE口")) {
-            mappedIface = "XGigabitethernet" + iface.substring(3);
-        } else if (iface.startsWith("GE口")) {
-            mappedIface = "Gigabitethernet" + iface.substring(2);
-        } else if (iface.startsWith("FE口")) {
-            mappedIface = "FastEthernet" + iface.substring(2);
-        } else if (iface.startsWith("E口")) {
-            mappedIface = "Ethernet" + iface.substring(2);
-        }
+        cmdPreviewArea.setText(ConfigEngine.getDefault().ip.preview(toIpInterface(row)));
+    }
+
+    private IpInterface toIpInterface(int row) {
+        return new IpInterface(
+                tableModel.getValueAt(row, 0).toString(),
+                tableModel.getValueAt(row, 1).toString(),
+                tableModel.getValueAt(row, 2).toString());
+    }
+
+    /**
+     * 当前界面上的接口地址（DHCP地址池检查使用）
+     */
+    public List<IpInterface> getInterfaces() {
+        List<IpInterface> list = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) list.add(toIpInterface(i));
+        return list;
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.interfaces.add(toIpInterface(i));
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("interface ").append(mappedIface).append("\n");
-        sb.append(" ip address ").append(ip).append(" ").append(mask).append("\n");
-        sb.append("quit\n");
-        cmdPreviewArea.setText(sb.toString());
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (IpInterface i : cfg.interfaces) tableModel.addRow(new Object[]{i.ip, i.mask, i.iface});
     }
 }
\ No newline at end of file
@@ -1,9 +1,25 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceName;
+import engine.InterfaceNames;
+import engine.LoadBalanceSimulator;
+import model.DeviceConfig;
+import model.EthTrunk;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * 端口聚合（LACP/静态）配置界面
@@ -12,12 +28,15 @@ import java.awt.event.*;
  * 2. 添加、编辑、删除聚合组及成员端口
  * 3. 设置聚合模式（LACP/静态）、负载均衡方式
  * 4. 命令生成预览
+ * 5. 负载分担仿真：按各模式统计成员端口的流量分布并推荐模式
  */
-public class LacpPanel extends JPanel {
+public class LacpPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel groupTableModel;
     private JTable groupTable;
-    private JButton addGroupBtn, editGroupBtn, delGroupBtn, previewBtn;
+    private JButton addGroupBtn, editGroupBtn, delGroupBtn, previewBtn, simulateBtn;
     private JTextArea cmdPreviewArea;
+    // 首次仿真时创建，各次仿真共用线程池
+    private LoadBalanceSimulator simulator;
 
     public LacpPanel(String 端口聚合) {
         setLayout(new BorderLayout());
@@ -44,10 +63,12 @@ public class LacpPanel extends JPanel {
         editGroupBtn = new JButton("编辑聚合组");
         delGroupBtn = new JButton("删除聚合组");
         previewBtn = new JButton("命令预览");
+        simulateBtn = new JButton("负载仿真");
         btnPanel.add(addGroupBtn);
         btnPanel.add(editGroupBtn);
         btnPanel.add(delGroupBtn);
         btnPanel.add(previewBtn);
+        btnPanel.add(simulateBtn);
         add(btnPanel, BorderLayout.SOUTH);
 
         // 命令预览区
@@ -66,6 +87,7 @@ public class LacpPanel extends JPanel {
         editGroupBtn.addActionListener(e -> editSelectedGroup());
         delGroupBtn.addActionListener(e -> deleteSelectedGroup());
         previewBtn.addActionListener(e -> previewSelectedGroupCmd());
+        simulateBtn.addActionListener(e -> showSimulateDialog());
 
         // 双击编辑
         groupTable.addMouseListener(new MouseAdapter() {
@@ -100,7 +122,7 @@ public class LacpPanel extends JPanel {
         form.add(groupIdField);
         form.add(new JLabel("聚合模式:"));
         form.add(modeBox);
-        form.add(new JLabel("成员端口(逗号分隔):"));
+        form.add(new JLabel("成员端口(逗号分隔，可写 to 区间):"));
         form.add(membersField);
         form.add(new JLabel("负载均衡方式:"));
         form.add(lbBox);
@@ -134,6 +156,18 @@ public class LacpPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "聚合组号应为1~64的数字！", "错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            // 成员端口支持区间写法，统一展开成规范全称
+            try {
+                StringBuilder sb = new StringBuilder();
+                for (InterfaceName n : InterfaceNames.expand(members)) {
+                    if (sb.length() > 0) sb.append(", ");
+                    sb.append(n.name);
+                }
+                members = sb.toString();
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             if (data == null) {
                 groupTableModel.addRow(new Object[]{groupId, mode, members, lb, desc});
             } else {
@@ -179,34 +213,154 @@ public class LacpPanel extends JPanel {
             cmdPreviewArea.setText("请先选择聚合组条目");
             return;
         }
-        String groupId = groupTableModel.getValueAt(row, 0).toString();
-        String mode = groupTableModel.getValueAt(row, 1).toString();
-        String members = groupTableModel.getValueAt(row, 2).toString();
-        String lb = groupTableModel.getValueAt(row, 3).toString();
-        String desc = groupTableModel.getValueAt(row, 4).toString();
-
-        StringBuilder sb = new StringBuilder();
-        // 配置聚合接口
-        sb.append("interface Eth-Trunk").append(groupId).append("\n");
-        if (!desc.isEmpty()) sb.append(" description ").append(desc).append("\n");
-        if ("LACP".equals(mode)) sb.append(" mode lacp\n");
-        else sb.append(" mode manual\n");
-        sb.append(" load-balance ").append(lb).append("\n");
-        sb.append(" quit\n");
-
-        // 配置成员端口
-        if (!members.isEmpty()) {
-            String[] portArr = members.split(",");
-            for (String port : portArr) {
-                String p = port.trim();
-                if (!p.isEmpty()) {
-                    sb.append("interface ").append(p).append("\n");
-                    sb.append(" eth-trunk ").append(groupId).append("\n");
-                    sb.append(" quit\n");
+        cmdPreviewArea.setText(ConfigEngine.getDefault().ethTrunk.preview(toEthTrunk(row)));
+    }
+
+    private void showSimulateDialog() {
+        int row = groupTable.getSelectedRow();
+        if (row == -1) {
+            JOptionPane.showMessageDialog(this, "请先选择聚合组", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        EthTrunk trunk = toEthTrunk(row);
+        List<String> memberNames = new ArrayList<>();
+        for (String m : trunk.members) memberNames.add(InterfaceNames.canonical(m));
+        if (memberNames.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "该聚合组没有成员端口", "提示", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        LoadBalanceSimulator.Mode current = LoadBalanceSimulator.Mode.of(trunk.loadBalance);
+        if (simulator == null) simulator = new LoadBalanceSimulator();
+
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "负载仿真 - Eth-Trunk " + trunk.groupId, true);
+        dialog.setSize(640, 560);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel form = new JPanel(new GridLayout(2, 3, 8, 4));
+        JTextField countField = new JTextField("1000000");
+        JTextField clientsField = new JTextField("500");
+        JTextField serversField = new JTextField("8");
+        form.add(new JLabel("流数"));
+        form.add(new JLabel("终端数"));
+        form.add(new JLabel("服务器数"));
+        form.add(countField);
+        form.add(clientsField);
+        form.add(serversField);
+
+        JTextArea resultArea = new JTextArea();
+        resultArea.setEditable(false);
+        resultArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        JScrollPane resultScroll = new JScrollPane(resultArea);
+        resultScroll.setBorder(BorderFactory.createTitledBorder("仿真结果"));
+
+        JPanel btnPanel = new JPanel();
+        JButton syntheticBtn = new JButton("合成流量仿真");
+        JButton importBtn = new JButton("导入流文件");
+        JButton applyBtn = new JButton("应用推荐模式");
+        JButton closeBtn = new JButton("关闭");
+        applyBtn.setEnabled(false);
+        btnPanel.add(syntheticBtn);
+        btnPanel.add(importBtn);
+        btnPanel.add(applyBtn);
+        btnPanel.add(closeBtn);
+
+        dialog.add(form, BorderLayout.NORTH);
+        dialog.add(resultScroll, BorderLayout.CENTER);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        resultArea.setText("成员端口: " + String.join(", ", memberNames) + "\n"
+                + "流文件每行：源MAC,目的MAC,源IP,目的IP[,字节数]\n");
+
+        LoadBalanceSimulator.Mode[] recommended = new LoadBalanceSimulator.Mode[1];
+        // 后台生成或读取流并仿真，完成后在界面线程输出报告
+        Consumer<Callable<LoadBalanceSimulator.Flows>> run = source -> {
+            syntheticBtn.setEnabled(false);
+            importBtn.setEnabled(false);
+            resultArea.setText("正在仿真...\n");
+            new Thread(() -> {
+                String text;
+                LoadBalanceSimulator.Mode best = null;
+                try {
+                    LoadBalanceSimulator.Flows flows = source.call();
+                    long start = System.nanoTime();
+                    List<LoadBalanceSimulator.Result> results = simulator.simulate(flows, memberNames.size());
+                    long nanos = System.nanoTime() - start;
+                    best = LoadBalanceSimulator.best(results, current).mode;
+                    text = (flows.skippedLines > 0 ? "跳过格式不符的行 " + flows.skippedLines + " 行\n" : "")
+                            + LoadBalanceSimulator.report(results, memberNames, current, flows.size, nanos);
+                } catch (Exception ex) {
+                    text = "仿真失败: " + ex.getMessage() + "\n";
                 }
+                String out = text;
+                LoadBalanceSimulator.Mode b = best;
+                SwingUtilities.invokeLater(() -> {
+                    syntheticBtn.setEnabled(true);
+                    importBtn.setEnabled(true);
+                    resultArea.setText(out);
+                    resultArea.setCaretPosition(0);
+                    recommended[0] = b;
+                    applyBtn.setEnabled(b != null && b != current);
+                });
+            }, "lb-simulate").start();
+        };
+        syntheticBtn.addActionListener(e -> {
+            int count, clients, servers;
+            try {
+                count = Integer.parseInt(countField.getText().trim());
+                clients = Integer.parseInt(clientsField.getText().trim());
+                servers = Integer.parseInt(serversField.getText().trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "流数、终端数、服务器数须为整数", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-        }
+            if (count <= 0 || count > 50_000_000 || clients <= 0 || servers <= 0) {
+                JOptionPane.showMessageDialog(dialog, "流数须在1~50000000之间，终端数、服务器数须大于0", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            run.accept(() -> LoadBalanceSimulator.Flows.synthetic(count, clients, servers, 1L));
+        });
+        importBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("选择流文件（CSV）");
+            if (chooser.showOpenDialog(dialog) != JFileChooser.APPROVE_OPTION) return;
+            File file = chooser.getSelectedFile();
+            run.accept(() -> {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return LoadBalanceSimulator.Flows.read(reader);
+                } catch (IOException ex) {
+                    throw new IOException("读取 " + file.getName() + " 失败: " + ex.getMessage(), ex);
+                }
+            });
+        });
+        applyBtn.addActionListener(e -> {
+            int confirm = JOptionPane.showConfirmDialog(dialog, "将负载均衡方式改为 " + recommended[0].command + "？", "确认", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            groupTableModel.setValueAt(recommended[0].command, row, 3);
+            previewSelectedGroupCmd();
+            dialog.dispose();
+        });
+        closeBtn.addActionListener(e -> dialog.dispose());
+        dialog.setVisible(true);
+    }
 
-        cmdPreviewArea.setText(sb.toString());
+    private EthTrunk toEthTrunk(int row) {
+        return new EthTrunk(
+                Integer.parseInt(groupTableModel.getValueAt(row, 0).toString()),
+                groupTableModel.getValueAt(row, 1).toString(),
+                groupTableModel.getValueAt(row, 2).toString(),
+                groupTableModel.getValueAt(row, 3).toString(),
+                groupTableModel.getValueAt(row, 4).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < groupTableModel.getRowCount(); i++) cfg.trunks.add(toEthTrunk(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        groupTableModel.setRowCount(0);
+        for (EthTrunk t : cfg.trunks) {
+            groupTableModel.addRow(new Object[]{String.valueOf(t.groupId), t.mode, String.join(", ", t.members), t.loadBalance, t.description});
+        }
     }
 }
\ No newline at end of file
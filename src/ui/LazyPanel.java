@@ -0,0 +1,68 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * CardLayout中的占位卡片，首次访问时才构造真正的功能面板
+ * 须在事件派发线程中使用。
+ */
+public class LazyPanel<T extends JComponent> extends JPanel {
+    private Supplier<T> factory;
+    private T panel;
+    private List<Consumer<T>> callbacks = new ArrayList<>();
+
+    public LazyPanel(Supplier<T> factory) {
+        super(new BorderLayout());
+        this.factory = factory;
+    }
+
+    /**
+     * 返回功能面板，尚未构造时立即构造并放入卡片
+     */
+    public T get() {
+        if (panel == null) {
+            panel = factory.get();
+            factory = null;
+            add(panel, BorderLayout.CENTER);
+            revalidate();
+            for (Consumer<T> c : callbacks) c.accept(panel);
+            callbacks = null;
+        }
+        return panel;
+    }
+
+    public boolean isCreated() {
+        return panel != null;
+    }
+
+    /**
+     * 按需构造的面板列表视图，访问某个元素时才构造该面板
+     */
+    public static List<ConfigContributor> contributors(List<LazyPanel<? extends ConfigContributor>> cards) {
+        return new AbstractList<ConfigContributor>() {
+            @Override
+            public ConfigContributor get(int index) {
+                return cards.get(index).get();
+            }
+
+            @Override
+            public int size() {
+                return cards.size();
+            }
+        };
+    }
+
+    /**
+     * 面板构造后执行（已构造则立即执行）
+     */
+    public void whenCreated(Consumer<T> callback) {
+        if (panel != null) callback.accept(panel);
+        else callbacks.add(callback);
+    }
+}
\ No newline at end of file
@@ -2,14 +2,20 @@ package ui;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.management.ManagementFactory;
 
 /**
  * 华为交换机网络配置管理程序 - 主界面（带色彩美化）
  * 依赖：无第三方皮肤库，仅用Java自带API
  */
 public class MainFrame extends JFrame {
+    private static final int PREWARM_INTERVAL_MILLIS = 50;
+
     private CardLayout cardLayout;
     private JPanel centerPanel;
+    private LazyPanel<?>[] cards;
+    private final long constructStart = System.nanoTime();
+    private boolean painted;
 
     public MainFrame() {
         // 设置全局字体
@@ -39,23 +45,40 @@ public class MainFrame extends JFrame {
         centerPanel = new JPanel(new CardLayout());
         cardLayout = (CardLayout) centerPanel.getLayout();
 
-        // 加载各功能面板（可用占位Panel演示）
-        centerPanel.add(new DevicePanel("设备管理"), "设备管理");
-        centerPanel.add(new VlanPanel("VLAN"), "VLAN");
-        centerPanel.add(new StpPanel("生成树"), "生成树");
-        centerPanel.add(new LacpPanel("端口聚合"), "端口聚合");
-        centerPanel.add(new PortSecurityPanel("端口安全"), "端口安全");
-        centerPanel.add(new IpPanel("IP配置"), "IP配置");
-        centerPanel.add(new RoutePanel("路由配置"), "路由配置");
-        centerPanel.add(new AclPanel("ACL"), "ACL");
-        centerPanel.add(new QosPanel("QoS"), "QoS");
-        centerPanel.add(new DhcpPanel("DHCP"), "DHCP");
-        centerPanel.add(new NatPanel("NAT"), "NAT");
-        centerPanel.add(new SnmpPanel("SNMP"), "SNMP");
-        centerPanel.add(new MirrorPanel("端口镜像"), "端口镜像");
-        centerPanel.add(new UserPanel("用户管理"), "用户管理");
-        centerPanel.add(new ConfigPanel("配置管理"), "配置管理");
-        centerPanel.add(new TopologyPanel("拓扑监控"), "拓扑监控");
+        // 各功能面板在首次切换到对应卡片时才构造，设备管理为首页立即构造
+        LazyPanel<DevicePanel> deviceCard = new LazyPanel<>(() -> new DevicePanel("设备管理"));
+        LazyPanel<VlanPanel> vlanCard = new LazyPanel<>(() -> new VlanPanel("VLAN"));
+        LazyPanel<StpPanel> stpCard = new LazyPanel<>(() -> new StpPanel("生成树"));
+        LazyPanel<LacpPanel> lacpCard = new LazyPanel<>(() -> new LacpPanel("端口聚合"));
+        LazyPanel<PortSecurityPanel> portSecurityCard = new LazyPanel<>(() -> new PortSecurityPanel("端口安全"));
+        LazyPanel<IpPanel> ipCard = new LazyPanel<>(() -> new IpPanel("IP配置"));
+        LazyPanel<RoutePanel> routeCard = new LazyPanel<>(() -> new RoutePanel("路由配置"));
+        LazyPanel<AclPanel> aclCard = new LazyPanel<>(() -> new AclPanel("ACL"));
+        LazyPanel<QosPanel> qosCard = new LazyPanel<>(() -> new QosPanel("QoS"));
+        LazyPanel<DhcpPanel> dhcpCard = new LazyPanel<>(() -> new DhcpPanel("DHCP"));
+        LazyPanel<NatPanel> natCard = new LazyPanel<>(() -> new NatPanel("NAT"));
+        LazyPanel<SnmpPanel> snmpCard = new LazyPanel<>(() -> new SnmpPanel("SNMP"));
+        LazyPanel<MirrorPanel> mirrorCard = new LazyPanel<>(() -> new MirrorPanel("端口镜像"));
+        LazyPanel<UserPanel> userCard = new LazyPanel<>(() -> new UserPanel("用户管理"));
+        LazyPanel<ConfigPanel> configCard = new LazyPanel<>(() -> new ConfigPanel("配置管理"));
+        LazyPanel<TopologyPanel> topologyCard = new LazyPanel<>(() -> new TopologyPanel("拓扑监控"));
+        cards = new LazyPanel<?>[]{deviceCard, vlanCard, stpCard, lacpCard, portSecurityCard, ipCard, routeCard,
+                aclCard, qosCard, dhcpCard, natCard, snmpCard, mirrorCard, userCard, configCard, topologyCard};
+        for (int i = 0; i < modules.length; i++) centerPanel.add(cards[i], modules[i]);
+        DevicePanel devicePanel = deviceCard.get();
+
+        // 批量生成时各模块面板作为整机配置模板，工程保存时同样按模块读写；遍历时按需构造
+        java.util.List<ConfigContributor> contributors = LazyPanel.contributors(java.util.Arrays.asList(
+                vlanCard, stpCard, lacpCard, portSecurityCard, ipCard, routeCard, aclCard,
+                qosCard, dhcpCard, natCard, snmpCard, mirrorCard, userCard));
+        devicePanel.setConfigContributors(contributors);
+        // 配置面板未打开过时设备面板使用相同的默认值
+        configCard.whenCreated(devicePanel::setConfigPanel);
+        // 拓扑STP仿真读取生成树面板的当前参数
+        topologyCard.whenCreated(t -> t.setStpSource(() -> stpCard.get().getStpConfig()));
+        dhcpCard.whenCreated(d -> d.setInterfaceSource(() -> ipCard.get().getInterfaces()));
+        routeCard.whenCreated(r -> r.setInterfaceSource(() -> ipCard.get().getInterfaces()));
+        ProjectController projectController = new ProjectController(this, devicePanel, contributors, topologyCard::get);
 
         // 按钮组实现选中高亮
         ButtonGroup navButtonGroup = new ButtonGroup();
@@ -72,6 +95,7 @@ public class MainFrame extends JFrame {
             // 高亮选中
             final int idx = i;
             buttons[i].addActionListener(e -> {
+                cards[idx].get();
                 cardLayout.show(centerPanel, modules[idx]);
                 // 切换高亮
                 for (int j = 0; j < modules.length; j++) {
@@ -129,6 +153,25 @@ public class MainFrame extends JFrame {
         titleLabel.setForeground(Color.WHITE);
         topPanel.add(titleLabel, BorderLayout.CENTER);
 
+        // 工程打开/保存
+        JPanel projectPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 14));
+        projectPanel.setOpaque(false);
+        JButton openProjectBtn = new JButton("打开工程");
+        JButton saveProjectBtn = new JButton("保存工程");
+        openProjectBtn.setFocusPainted(false);
+        saveProjectBtn.setFocusPainted(false);
+        openProjectBtn.addActionListener(e -> projectController.openProject());
+        saveProjectBtn.addActionListener(e -> projectController.saveProject());
+        projectPanel.add(openProjectBtn);
+        projectPanel.add(saveProjectBtn);
+        topPanel.add(projectPanel, BorderLayout.EAST);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                projectController.close();
+            }
+        });
+
         // 主体分割
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, navPanel, centerPanel);
         splitPane.setDividerLocation(180);
@@ -143,6 +186,37 @@ public class MainFrame extends JFrame {
         setVisible(true);
     }
 
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            SwingUtilities.invokeLater(this::afterFirstPaint);
+        }
+    }
+
+    /**
+     * 报告首帧耗时，并在空闲时逐个预构造其余面板（-Dui.prewarm=false 关闭）
+     */
+    private void afterFirstPaint() {
+        long frameMs = (System.nanoTime() - constructStart) / 1_000_000;
+        long jvmMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("首帧绘制: 主窗口构造起 " + frameMs + " ms，JVM启动起 " + jvmMs + " ms");
+        if (!Boolean.parseBoolean(System.getProperty("ui.prewarm", "true"))) return;
+        // 每次只构造一个面板，避免长时间占用事件派发线程
+        Timer prewarm = new Timer(PREWARM_INTERVAL_MILLIS, null);
+        prewarm.addActionListener(e -> {
+            for (LazyPanel<?> card : cards) {
+                if (!card.isCreated()) {
+                    card.get();
+                    return;
+                }
+            }
+            prewarm.stop();
+        });
+        prewarm.start();
+    }
+
     /**
      * 创建占位面板（实际项目中请替换为对应功能面板）
      */
@@ -157,12 +231,13 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * 全局字体设置
+     * 全局字体设置（只取 *.font 键的值，避免解析其余懒加载的默认值）
      */
     public static void setUIFont(javax.swing.plaf.FontUIResource f) {
         java.util.Enumeration<Object> keys = UIManager.getDefaults().keys();
         while (keys.hasMoreElements()) {
             Object key = keys.nextElement();
+            if (!(key instanceof String) || !((String) key).endsWith(".font")) continue;
             Object value = UIManager.get(key);
             if (value instanceof javax.swing.plaf.FontUIResource) {
                 UIManager.put(key, f);
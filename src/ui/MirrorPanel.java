@@ -1,5 +1,10 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceNames;
+import model.DeviceConfig;
+import model.MirrorSession;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -12,7 +17,7 @@ import java.awt.event.*;
  * 2. 支持新增、编辑、删除镜像配置
  * 3. 命令生成预览
  */
-public class MirrorPanel extends JPanel {
+public class MirrorPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
     private JButton addBtn, editBtn, delBtn, previewBtn;
@@ -121,9 +126,9 @@ public class MirrorPanel extends JPanel {
         okBtn.addActionListener(e -> {
             String session = sessionField.getText().trim();
             String type = (String) typeBox.getSelectedItem();
-            String srcPort = srcPortField.getText().trim();
+            String srcPort = InterfaceNames.canonical(srcPortField.getText().trim());
             String direction = (String) directionBox.getSelectedItem();
-            String dstPort = dstPortField.getText().trim();
+            String dstPort = InterfaceNames.canonical(dstPortField.getText().trim());
             String desc = descField.getText().trim();
 
             if (session.isEmpty() || srcPort.isEmpty() || dstPort.isEmpty()) {
@@ -183,29 +188,29 @@ public class MirrorPanel extends JPanel {
             cmdPreviewArea.setText("请先选择端口镜像配置条目");
             return;
         }
-        String session = tableModel.getValueAt(row, 0).toString();
-        String type = tableModel.getValueAt(row, 1).toString();
-        String srcPort = tableModel.getValueAt(row, 2).toString();
-        String direction = tableModel.getValueAt(row, 3).toString();
-        String dstPort = tableModel.getValueAt(row, 4).toString();
-        String desc = tableModel.getValueAt(row, 5).toString();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("mirroring-group ").append(session).append(" ").append("local".equals(type) || "本地".equals(type) ? "local" : "remote-source").append("\n");
-        if (!desc.isEmpty()) sb.append(" description ").append(desc).append("\n");
-        sb.append("mirroring-group ").append(session).append(" ").append("local".equals(type) || "本地".equals(type) ? "local" : "remote-source")
-                .append(" source ").append(srcPort).append(" ");
-        if ("入".equals(direction)) {
-            sb.append("inbound\n");
-        } else if ("出".equals(direction)) {
-            sb.append("outbound\n");
-        } else {
-            sb.append("both\n");
-        }
-        sb.append("mirroring-group ").append(session).append(" ").append("local".equals(type) || "本地".equals(type) ? "local" : "remote-source")
-                .append(" monitor-port ").append(dstPort).append("\n");
+        cmdPreviewArea.setText(ConfigEngine.getDefault().mirror.preview(toMirrorSession(row)));
+    }
+
+    private MirrorSession toMirrorSession(int row) {
+        return new MirrorSession(
+                Integer.parseInt(tableModel.getValueAt(row, 0).toString()),
+                tableModel.getValueAt(row, 1).toString(),
+                tableModel.getValueAt(row, 2).toString(),
+                tableModel.getValueAt(row, 3).toString(),
+                tableModel.getValueAt(row, 4).toString(),
+                tableModel.getValueAt(row, 5).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.mirrors.add(toMirrorSession(i));
+    }
 
-        sb.append("quit\n");
-        cmdPreviewArea.setText(sb.toString());
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (MirrorSession m : cfg.mirrors) {
+            tableModel.addRow(new Object[]{String.valueOf(m.session), m.type, m.sourcePort, m.direction, m.destPort, m.description});
+        }
     }
 }
\ No newline at end of file
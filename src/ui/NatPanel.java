@@ -1,5 +1,9 @@
 package ui;
 
+import engine.ConfigEngine;
+import model.DeviceConfig;
+import model.NatPolicy;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -12,7 +16,7 @@ import java.awt.event.*;
  * 2. 支持条目的新增、编辑、删除
  * 3. 命令生成预览
  */
-public class NatPanel extends JPanel {
+public class NatPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
     private JButton addBtn, editBtn, delBtn, previewBtn;
@@ -175,26 +179,29 @@ public class NatPanel extends JPanel {
             cmdPreviewArea.setText("请先选择NAT策略条目");
             return;
         }
-        String name = tableModel.getValueAt(row, 0).toString();
-        String type = tableModel.getValueAt(row, 1).toString();
-        String src = tableModel.getValueAt(row, 2).toString();
-        String dst = tableModel.getValueAt(row, 3).toString();
-        String iface = tableModel.getValueAt(row, 4).toString();
-        String desc = tableModel.getValueAt(row, 5).toString();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("nat ").append("源NAT".equals(type) ? "address-group " : "server ").append(name).append("\n");
-        if (!desc.isEmpty()) sb.append(" description ").append(desc).append("\n");
-        if ("源NAT".equals(type)) {
-            sb.append(" rule 1 source-address ").append(src.isEmpty() ? "any" : src);
-            sb.append(" outbound-interface ").append(iface);
-            sb.append("\n");
-        } else {
-            sb.append(" rule 1 destination-address ").append(dst.isEmpty() ? "any" : dst);
-            sb.append(" inbound-interface ").append(iface);
-            sb.append("\n");
+        cmdPreviewArea.setText(ConfigEngine.getDefault().nat.preview(toNatPolicy(row)));
+    }
+
+    private NatPolicy toNatPolicy(int row) {
+        return new NatPolicy(
+                tableModel.getValueAt(row, 0).toString(),
+                tableModel.getValueAt(row, 1).toString(),
+                tableModel.getValueAt(row, 2).toString(),
+                tableModel.getValueAt(row, 3).toString(),
+                tableModel.getValueAt(row, 4).toString(),
+                tableModel.getValueAt(row, 5).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.natPolicies.add(toNatPolicy(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (NatPolicy n : cfg.natPolicies) {
+            tableModel.addRow(new Object[]{n.name, n.type, n.source, n.destination, n.iface, n.description});
         }
-        sb.append(" quit\n");
-        cmdPreviewArea.setText(sb.toString());
     }
 }
\ No newline at end of file
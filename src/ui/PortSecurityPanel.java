@@ -1,5 +1,10 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceNames;
+import model.DeviceConfig;
+import model.PortSecurityEntry;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -13,7 +18,7 @@ import java.awt.event.*;
  * 3. 支持批量端口配置
  * 4. 命令生成预览
  */
-public class PortSecurityPanel extends JPanel {
+public class PortSecurityPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
     private JButton addBtn, editBtn, delBtn, previewBtn;
@@ -113,7 +118,7 @@ public class PortSecurityPanel extends JPanel {
         dialog.add(btnPanel, BorderLayout.SOUTH);
 
         okBtn.addActionListener(e -> {
-            String port = portField.getText().trim();
+            String port = InterfaceNames.canonical(portField.getText().trim());
             String maxMac = maxMacField.getText().trim();
             String macs = macsField.getText().trim();
             String action = (String) actionBox.getSelectedItem();
@@ -173,32 +178,27 @@ public class PortSecurityPanel extends JPanel {
             cmdPreviewArea.setText("请先选择端口安全配置条目");
             return;
         }
-        String port = tableModel.getValueAt(row, 0).toString();
-        String maxMac = tableModel.getValueAt(row, 1).toString();
-        String macs = tableModel.getValueAt(row, 2).toString();
-        String action = tableModel.getValueAt(row, 3).toString();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("interface ").append(port).append("\n");
-        sb.append(" port-security enable\n");
-        sb.append(" port-security max-mac-num ").append(maxMac).append("\n");
-        if (!macs.isEmpty()) {
-            String[] macArr = macs.split(",");
-            for (String mac : macArr) {
-                String m = mac.trim();
-                if (!m.isEmpty()) {
-                    sb.append(" port-security mac-address ").append(m).append(" sticky\n");
-                }
-            }
+        cmdPreviewArea.setText(ConfigEngine.getDefault().portSecurity.preview(toPortSecurityEntry(row)));
+    }
+
+    private PortSecurityEntry toPortSecurityEntry(int row) {
+        return new PortSecurityEntry(
+                tableModel.getValueAt(row, 0).toString(),
+                Integer.parseInt(tableModel.getValueAt(row, 1).toString()),
+                tableModel.getValueAt(row, 2).toString(),
+                tableModel.getValueAt(row, 3).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.portSecurity.add(toPortSecurityEntry(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (PortSecurityEntry p : cfg.portSecurity) {
+            tableModel.addRow(new Object[]{p.port, String.valueOf(p.maxMac), String.join(",", p.macs), p.action});
         }
-        if ("shutdown".equals(action))
-            sb.append(" port-security violation shutdown\n");
-        else if ("restrict".equals(action))
-            sb.append(" port-security violation restrict\n");
-        else if ("protect".equals(action))
-            sb.append(" port-security violation protect\n");
-        sb.append(" quit\n");
-
-        cmdPreviewArea.setText(sb.toString());
     }
 }
\ No newline at end of file
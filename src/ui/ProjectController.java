@@ -0,0 +1,159 @@
+package ui;
+
+import engine.ProjectStore;
+import model.Device;
+import model.DeviceConfig;
+import model.Project;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 工程的打开、保存和自动保存
+ * 1. 打开时用工程数据替换设备清单、各模块面板和拓扑
+ * 2. 保存时只向工程文件追加有变化的设备、模块和ACL
+ * 3. 已打开工程时每分钟自动保存一次，退出时保存并关闭文件
+ */
+public class ProjectController {
+    private static final int AUTOSAVE_MILLIS = 60_000;
+
+    private final Component parent;
+    private final DevicePanel devicePanel;
+    private final List<ConfigContributor> contributors;
+    private final Supplier<TopologyPanel> topologyPanel;
+    private final Timer autosaveTimer;
+    private ProjectStore store;
+
+    public ProjectController(Component parent, DevicePanel devicePanel, List<ConfigContributor> contributors,
+                             Supplier<TopologyPanel> topologyPanel) {
+        this.parent = parent;
+        this.devicePanel = devicePanel;
+        this.contributors = contributors;
+        this.topologyPanel = topologyPanel;
+        autosaveTimer = new Timer(AUTOSAVE_MILLIS, e -> autosave());
+    }
+
+    public void openProject() {
+        JFileChooser chooser = chooser("打开工程");
+        if (chooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        Path path = chooser.getSelectedFile().toPath();
+        if (!Files.exists(path)) {
+            JOptionPane.showMessageDialog(parent, "文件不存在: " + path, "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        long start = System.nanoTime();
+        ProjectStore opened;
+        Project project;
+        try {
+            opened = ProjectStore.open(path);
+            project = opened.getProject();
+        } catch (IOException | RuntimeException ex) {
+            JOptionPane.showMessageDialog(parent, "打开工程失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        closeQuietly();
+        store = opened;
+        DeviceTableModel model = devicePanel.getTableModel();
+        model.clear();
+        model.addDevices(project.devices, project.deviceIds);
+        for (ConfigContributor c : contributors) c.loadFrom(project.template);
+        topologyPanel.get().importTopology(project.nodes, project.links);
+        autosaveTimer.start();
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        JOptionPane.showMessageDialog(parent, "已打开工程 " + path.getFileName() + "，设备 " + project.devices.size()
+                + " 台，耗时 " + ms + " ms", "提示", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    public void saveProject() {
+        if (store == null) {
+            JFileChooser chooser = chooser("保存工程");
+            chooser.setSelectedFile(new File("project.hwp"));
+            if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+            File file = chooser.getSelectedFile();
+            if (!file.getName().contains(".")) file = new File(file.getParentFile(), file.getName() + ".hwp");
+            try {
+                if (file.exists()) {
+                    int confirm = JOptionPane.showConfirmDialog(parent, "文件已存在，是否覆盖？", "确认",
+                            JOptionPane.YES_NO_OPTION);
+                    if (confirm != JOptionPane.YES_OPTION) return;
+                    Files.delete(file.toPath());
+                }
+                store = ProjectStore.open(file.toPath());
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(parent, "创建工程失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            autosaveTimer.start();
+        }
+        try {
+            int records = save();
+            JOptionPane.showMessageDialog(parent, "工程已保存: " + store.getPath().getFileName() + "（追加 " + records
+                    + " 条记录，文件 " + store.getFileSize() / 1024 + " KB）", "提示", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(parent, "保存工程失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * 退出前保存并关闭工程文件
+     */
+    public void close() {
+        autosaveTimer.stop();
+        if (store == null) return;
+        try {
+            save();
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(parent, "保存工程失败: " + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+        }
+        closeQuietly();
+    }
+
+    private int save() throws IOException {
+        DeviceTableModel model = devicePanel.getTableModel();
+        int[] ids = new int[model.getRowCount()];
+        List<Device> devices = model.getDevices(ids);
+        int records = store.syncDevices(ids, devices);
+        DeviceConfig template = new DeviceConfig(null);
+        for (ConfigContributor c : contributors) c.contributeTo(template);
+        records += store.saveConfig(template);
+        TopologyPanel topology = topologyPanel.get();
+        if (store.saveTopology(topology.exportNodes(), topology.exportLinks())) records++;
+        store.flush();
+        return records;
+    }
+
+    private void autosave() {
+        if (store == null) return;
+        try {
+            save();
+        } catch (IOException ex) {
+            autosaveTimer.stop();
+            JOptionPane.showMessageDialog(parent, "自动保存失败，已停止自动保存: " + ex.getMessage(), "错误",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void closeQuietly() {
+        if (store == null) return;
+        try {
+            store.close();
+        } catch (IOException ignored) {
+            // 关闭失败时最近一次保存的数据仍在文件中
+        }
+        store = null;
+    }
+
+    private static JFileChooser chooser(String title) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(title);
+        chooser.setFileFilter(new FileNameExtensionFilter("工程文件 (*.hwp)", "hwp"));
+        return chooser;
+    }
+}
\ No newline at end of file
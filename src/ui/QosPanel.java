@@ -1,9 +1,21 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceNames;
+import engine.PreviewSink;
+import engine.QosCompiler;
+import model.DeviceConfig;
+import model.QosPolicy;
+import model.QosRule;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * QoS（服务质量）配置界面
@@ -11,14 +23,18 @@ import java.awt.event.*;
  * 1. 支持流量分类、限速、优先级等策略管理
  * 2. 支持策略应用到接口
  * 3. 命令生成预览
+ * 4. 策略编译：全部策略的流分类和流行为按内容去重后统一定义，显示本设备节省的命令行数
  */
-public class QosPanel extends JPanel {
+public class QosPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel policyTableModel, ruleTableModel;
     private JTable policyTable, ruleTable;
     private JButton addPolicyBtn, editPolicyBtn, delPolicyBtn;
     private JButton addRuleBtn, editRuleBtn, delRuleBtn;
-    private JButton previewBtn;
+    private JButton previewBtn, compileBtn;
     private JTextArea cmdPreviewArea;
+    // 各策略的规则行（按策略名），规则表只显示 shownPolicy 的规则
+    private final Map<String, List<Object[]>> rulesByPolicy = new HashMap<>();
+    private String shownPolicy;
 
     public QosPanel(String qoS) {
         setLayout(new BorderLayout());
@@ -91,7 +107,9 @@ public class QosPanel extends JPanel {
         // 底部命令按钮
         JPanel bottomPanel = new JPanel();
         previewBtn = new JButton("命令预览");
+        compileBtn = new JButton("策略编译");
         bottomPanel.add(previewBtn);
+        bottomPanel.add(compileBtn);
         add(bottomPanel, BorderLayout.SOUTH);
 
         add(cmdScroll, BorderLayout.EAST);
@@ -107,6 +125,7 @@ public class QosPanel extends JPanel {
         editRuleBtn.addActionListener(e -> editSelectedRule());
         delRuleBtn.addActionListener(e -> deleteSelectedRule());
         previewBtn.addActionListener(e -> previewCmd());
+        compileBtn.addActionListener(e -> compileAll());
 
         // 选中策略时，加载对应规则
         policyTable.getSelectionModel().addListSelectionListener(e -> {
@@ -133,6 +152,7 @@ public class QosPanel extends JPanel {
         // 只为第一个策略加演示规则
         ruleTableModel.addRow(new Object[]{"10", "协议", "tcp/80", "限速", "1000kbit", "限制HTTP"});
         ruleTableModel.addRow(new Object[]{"20", "源地址", "192.168.1.0/24", "优先级", "7", "办公优先"});
+        shownPolicy = "limit_web";
     }
 
     private void showPolicyDialog(Object[] data) {
@@ -164,7 +184,7 @@ public class QosPanel extends JPanel {
         okBtn.addActionListener(e -> {
             String name = nameField.getText().trim();
             String desc = descField.getText().trim();
-            String iface = ifaceField.getText().trim();
+            String iface = InterfaceNames.canonical(ifaceField.getText().trim());
             if (name.isEmpty() || iface.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "请填写策略名称和接口", "提示", JOptionPane.WARNING_MESSAGE);
                 return;
@@ -173,6 +193,13 @@ public class QosPanel extends JPanel {
                 policyTableModel.addRow(new Object[]{name, desc, iface});
             } else {
                 int row = policyTable.getSelectedRow();
+                String old = policyTableModel.getValueAt(row, 0).toString();
+                if (!old.equals(name)) {
+                    // 策略改名时规则随之迁移
+                    List<Object[]> rules = rulesByPolicy.remove(old);
+                    if (rules != null) rulesByPolicy.put(name, rules);
+                    if (old.equals(shownPolicy)) shownPolicy = name;
+                }
                 policyTableModel.setValueAt(name, row, 0);
                 policyTableModel.setValueAt(desc, row, 1);
                 policyTableModel.setValueAt(iface, row, 2);
@@ -202,8 +229,14 @@ public class QosPanel extends JPanel {
         }
         int confirm = JOptionPane.showConfirmDialog(this, "确认删除所选策略？", "确认", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
+            // 同时删除该策略的规则
+            String name = policyTableModel.getValueAt(row, 0).toString();
+            rulesByPolicy.remove(name);
+            if (name.equals(shownPolicy)) {
+                shownPolicy = null;
+                ruleTableModel.setRowCount(0);
+            }
             policyTableModel.removeRow(row);
-            // 实际应删除对应规则，此处简化
         }
     }
 
@@ -303,14 +336,25 @@ public class QosPanel extends JPanel {
         }
     }
 
-    // 选中不同策略时应加载对应规则，本示例为简化（仅演示用），实际可用Map<策略名, List<规则>>
+    // 选中不同策略时先暂存当前规则表，再加载所选策略的规则
     private void loadPolicyRules() {
+        if (shownPolicy != null) rulesByPolicy.put(shownPolicy, tableRows());
         ruleTableModel.setRowCount(0);
         int row = policyTable.getSelectedRow();
-        if (row == 0) { // 演示：第一个策略加载测试规则
-            ruleTableModel.addRow(new Object[]{"10", "协议", "tcp/80", "限速", "1000kbit", "限制HTTP"});
-            ruleTableModel.addRow(new Object[]{"20", "源地址", "192.168.1.0/24", "优先级", "7", "办公优先"});
+        shownPolicy = row == -1 ? null : policyTableModel.getValueAt(row, 0).toString();
+        if (shownPolicy == null) return;
+        List<Object[]> rules = rulesByPolicy.get(shownPolicy);
+        if (rules != null) for (Object[] r : rules) ruleTableModel.addRow(r);
+    }
+
+    private List<Object[]> tableRows() {
+        List<Object[]> rows = new ArrayList<>(ruleTableModel.getRowCount());
+        for (int i = 0; i < ruleTableModel.getRowCount(); i++) {
+            Object[] r = new Object[ruleTableModel.getColumnCount()];
+            for (int j = 0; j < r.length; j++) r[j] = ruleTableModel.getValueAt(i, j);
+            rows.add(r);
         }
+        return rows;
     }
 
     private void previewCmd() {
@@ -319,49 +363,69 @@ public class QosPanel extends JPanel {
             cmdPreviewArea.setText("请先选择QoS策略");
             return;
         }
-        String policyName = policyTableModel.getValueAt(policyRow, 0).toString();
-        String policyDesc = policyTableModel.getValueAt(policyRow, 1).toString();
-        String iface = policyTableModel.getValueAt(policyRow, 2).toString();
-        StringBuilder sb = new StringBuilder();
-        sb.append("traffic policy ").append(policyName).append("\n");
-        if (!policyDesc.isEmpty()) sb.append(" description ").append(policyDesc).append("\n");
-        for (int i = 0; i < ruleTableModel.getRowCount(); i++) {
-            String id = ruleTableModel.getValueAt(i, 0).toString();
-            String matchType = ruleTableModel.getValueAt(i, 1).toString();
-            String matchValue = ruleTableModel.getValueAt(i, 2).toString();
-            String action = ruleTableModel.getValueAt(i, 3).toString();
-            String param = ruleTableModel.getValueAt(i, 4).toString();
-            String desc = ruleTableModel.getValueAt(i, 5).toString();
-            sb.append(" classifier c").append(id).append(" ");
-            switch (matchType) {
-                case "协议":
-                    sb.append("if-match protocol ").append(matchValue);
-                    break;
-                case "源地址":
-                    sb.append("if-match src-ip ").append(matchValue);
-                    break;
-                case "目的地址":
-                    sb.append("if-match dst-ip ").append(matchValue);
-                    break;
-                case "端口":
-                    sb.append("if-match dport ").append(matchValue);
-                    break;
-            }
-            sb.append("\n behavior b").append(id).append("\n");
-            if ("限速".equals(action)) {
-                sb.append("  car cir ").append(param).append("\n");
-            } else if ("优先级".equals(action)) {
-                sb.append("  priority ").append(param).append("\n");
-            } else if ("丢弃".equals(action)) {
-                sb.append("  discard\n");
+        // 流分类和流行为按全部策略统一编号，预览所选策略在整表编译结果中的部分，与下发的命令一致
+        QosCompiler.Result result = QosCompiler.compile(allPolicies());
+        cmdPreviewArea.setText(ConfigEngine.getDefault().qos.previewPolicy(result, policyRow));
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    /**
+     * 编译全部策略，预览区显示统计和去重后的整套命令
+     */
+    private void compileAll() {
+        QosCompiler.Result result = QosCompiler.compile(allPolicies());
+        PreviewSink out = new PreviewSink();
+        out.append(String.format("策略 %d 个，规则 %d 条 -> 流分类 %d 个、流行为 %d 个\n", result.policies.size(),
+                result.rules, result.classifiers.size(), result.behaviors.size()));
+        out.append(String.format("本设备命令 %d 行 -> %d 行，节省 %d 行（%.1f%%），耗时 %.2f ms\n", result.linesBefore,
+                result.linesAfter, result.saved(), result.reduction() * 100, result.nanos / 1e6));
+        for (String issue : result.issues) out.append("[提示] ").append(issue).append("\n");
+        out.append("\n");
+        ConfigEngine.getDefault().qos.render(result, out);
+        cmdPreviewArea.setText(out.toString());
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    private List<QosPolicy> allPolicies() {
+        List<QosPolicy> policies = new ArrayList<>(policyTableModel.getRowCount());
+        for (int i = 0; i < policyTableModel.getRowCount(); i++) policies.add(toQosPolicy(i));
+        return policies;
+    }
+
+    private QosPolicy toQosPolicy(int policyRow) {
+        QosPolicy policy = new QosPolicy(
+                policyTableModel.getValueAt(policyRow, 0).toString(),
+                policyTableModel.getValueAt(policyRow, 1).toString(),
+                policyTableModel.getValueAt(policyRow, 2).toString());
+        // 正在显示的策略以规则表为准，其余取暂存的规则
+        String name = policyTableModel.getValueAt(policyRow, 0).toString();
+        List<Object[]> rules = name.equals(shownPolicy) ? tableRows() : rulesByPolicy.get(name);
+        if (rules == null) return policy;
+        for (Object[] r : rules) {
+            policy.rules.add(new QosRule(Integer.parseInt(r[0].toString()), r[1].toString(), r[2].toString(),
+                    r[3].toString(), r[4].toString(), r[5].toString()));
+        }
+        return policy;
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        cfg.qosPolicies.addAll(allPolicies());
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        shownPolicy = null;
+        rulesByPolicy.clear();
+        policyTableModel.setRowCount(0);
+        ruleTableModel.setRowCount(0);
+        for (QosPolicy p : cfg.qosPolicies) {
+            List<Object[]> rules = new ArrayList<>(p.rules.size());
+            for (QosRule r : p.rules) {
+                rules.add(new Object[]{String.valueOf(r.id), r.matchType, r.matchValue, r.action, r.param, r.description});
             }
-            if (!desc.isEmpty()) sb.append("  // ").append(desc).append("\n");
-            sb.append(" quit\n");
+            rulesByPolicy.put(p.name, rules);
+            policyTableModel.addRow(new Object[]{p.name, p.description, p.iface});
         }
-        sb.append(" quit\n");
-        sb.append("interface ").append(iface).append("\n");
-        sb.append(" traffic-policy ").append(policyName).append(" inbound\n");
-        sb.append(" quit\n");
-        cmdPreviewArea.setText(sb.toString());
     }
 }
\ No newline at end of file
@@ -1,9 +1,27 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.IpTrie;
+import engine.PreviewSink;
+import engine.RouteAggregator;
+import engine.RouteTable;
+import model.DeviceConfig;
+import model.IpInterface;
+import model.RouteEntry;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * 路由配置界面
@@ -11,13 +29,17 @@ import java.awt.event.*;
  * 1. 支持静态路由和动态路由（RIP/OSPF/BGP）配置（可扩展）
  * 2. 显示所有路由条目
  * 3. 新增、编辑、删除路由配置
- * 4. 命令生成预览
+ * 4. 命令生成预览：选中多行或未选中时按整表生成，同一协议合并为一个进程视图，OSPF 按区域分组
+ * 5. 路由查询：由静态路由和接口直连网段编译路由表，按最长匹配查询单个地址或批量查询地址文件
+ * 6. 路由汇总：合并下一跳相同的连续网段，预览汇总后的命令和压缩比例，确认后替换表中的静态路由
  */
-public class RoutePanel extends JPanel {
+public class RoutePanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
-    private JButton addBtn, editBtn, delBtn, previewBtn;
+    private JButton addBtn, editBtn, delBtn, previewBtn, lookupBtn, aggregateBtn;
     private JTextArea cmdPreviewArea;
+    // IP配置界面的接口地址（直连路由），未设置时不解析出接口
+    private Supplier<List<IpInterface>> interfaceSource;
 
     public RoutePanel(String 路由配置) {
         setLayout(new BorderLayout());
@@ -33,7 +55,7 @@ public class RoutePanel extends JPanel {
             public boolean isCellEditable(int row, int col) { return false; }
         };
         table = new JTable(tableModel);
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane tableScroll = new JScrollPane(table);
         tableScroll.setBorder(BorderFactory.createTitledBorder("路由表"));
         add(tableScroll, BorderLayout.CENTER);
@@ -44,10 +66,14 @@ public class RoutePanel extends JPanel {
         editBtn = new JButton("编辑路由");
         delBtn = new JButton("删除路由");
         previewBtn = new JButton("命令预览");
+        lookupBtn = new JButton("路由查询");
+        aggregateBtn = new JButton("路由汇总");
         btnPanel.add(addBtn);
         btnPanel.add(editBtn);
         btnPanel.add(delBtn);
         btnPanel.add(previewBtn);
+        btnPanel.add(lookupBtn);
+        btnPanel.add(aggregateBtn);
         add(btnPanel, BorderLayout.SOUTH);
 
         // 命令预览区
@@ -66,6 +92,8 @@ public class RoutePanel extends JPanel {
         editBtn.addActionListener(e -> editSelected());
         delBtn.addActionListener(e -> deleteSelected());
         previewBtn.addActionListener(e -> previewCmd());
+        lookupBtn.addActionListener(e -> showLookupDialog());
+        aggregateBtn.addActionListener(e -> aggregateRoutes());
 
         // 双击编辑
         table.addMouseListener(new MouseAdapter() {
@@ -83,6 +111,13 @@ public class RoutePanel extends JPanel {
         tableModel.addRow(new Object[]{"OSPF", "192.168.2.0", "255.255.255.0", "-", "area 0"});
     }
 
+    /**
+     * 设置接口地址来源（IP配置界面），用于生成直连路由和解析出接口
+     */
+    public void setInterfaceSource(Supplier<List<IpInterface>> source) {
+        this.interfaceSource = source;
+    }
+
     private void showDialog(Object[] data) {
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), data == null ? "新增路由" : "编辑路由", true);
         dialog.setSize(430, 265);
@@ -168,48 +203,194 @@ public class RoutePanel extends JPanel {
     }
 
     private void deleteSelected() {
-        int row = table.getSelectedRow();
-        if (row == -1) {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
             JOptionPane.showMessageDialog(this, "请先选择要删除的路由", "提示", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-        int confirm = JOptionPane.showConfirmDialog(this, "确认删除所选路由？", "确认", JOptionPane.YES_NO_OPTION);
+        String msg = rows.length == 1 ? "确认删除所选路由？" : "确认删除所选 " + rows.length + " 条路由？";
+        int confirm = JOptionPane.showConfirmDialog(this, msg, "确认", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            tableModel.removeRow(row);
+            // 从后往前删，保持前面的行号不变
+            for (int i = rows.length - 1; i >= 0; i--) tableModel.removeRow(rows[i]);
         }
     }
 
     private void previewCmd() {
-        int row = table.getSelectedRow();
-        if (row == -1) {
-            cmdPreviewArea.setText("请先选择路由条目");
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 1) {
+            cmdPreviewArea.setText(ConfigEngine.getDefault().route.preview(toRouteEntry(rows[0])));
             return;
         }
-        String type = tableModel.getValueAt(row, 0).toString();
-        String dest = tableModel.getValueAt(row, 1).toString();
-        String mask = tableModel.getValueAt(row, 2).toString();
-        String nextHop = tableModel.getValueAt(row, 3).toString();
-        String param = tableModel.getValueAt(row, 4).toString();
+        // 多选时生成所选行，未选中时生成整表
+        int count = rows.length == 0 ? tableModel.getRowCount() : rows.length;
+        if (count == 0) {
+            cmdPreviewArea.setText("路由表为空");
+            return;
+        }
+        List<RouteEntry> routes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) routes.add(toRouteEntry(rows.length == 0 ? i : rows[i]));
+        cmdPreviewArea.setText(ConfigEngine.getDefault().route.previewBatch(routes));
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    private void showLookupDialog() {
+        List<RouteEntry> entries = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) entries.add(toRouteEntry(i));
+        long start = System.nanoTime();
+        RouteTable routes = RouteTable.compile(entries, interfaceSource == null ? null : interfaceSource.get());
+        long compileMs = (System.nanoTime() - start) / 1_000_000;
+
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "路由查询", true);
+        dialog.setSize(640, 520);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel form = new JPanel(new BorderLayout(8, 4));
+        JTextField addrField = new JTextField("10.1.1.10");
+        form.add(new JLabel("目的地址:"), BorderLayout.WEST);
+        form.add(addrField, BorderLayout.CENTER);
+
+        JTextArea resultArea = new JTextArea();
+        resultArea.setEditable(false);
+        JScrollPane resultScroll = new JScrollPane(resultArea);
+        resultScroll.setBorder(BorderFactory.createTitledBorder("查询结果"));
+
+        JPanel btnPanel = new JPanel();
+        JButton queryBtn = new JButton("查询");
+        JButton batchBtn = new JButton("批量查询地址文件");
+        JButton closeBtn = new JButton("关闭");
+        btnPanel.add(queryBtn);
+        btnPanel.add(batchBtn);
+        btnPanel.add(closeBtn);
+
+        dialog.add(form, BorderLayout.NORTH);
+        dialog.add(resultScroll, BorderLayout.CENTER);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        StringBuilder head = new StringBuilder();
+        head.append("路由表 ").append(routes.size()).append(" 条，编译耗时 ").append(compileMs).append(" ms");
+        if (routes.dynamicEntries > 0) head.append("；").append(routes.dynamicEntries).append(" 条RIP/OSPF/BGP条目为宣告网段，不参与查表");
+        if (interfaceSource == null) head.append("；未获取接口地址，不解析出接口");
+        head.append("\n");
+        for (String issue : routes.issues) head.append(issue).append("\n");
+        head.append("地址文件每行一个IPv4地址\n");
+        resultArea.setText(head.toString());
 
+        ActionListener query = e -> {
+            long addr = IpTrie.parseIpv4(addrField.getText().trim());
+            if (addr < 0) {
+                JOptionPane.showMessageDialog(dialog, "请填写正确的IPv4地址", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            int r = routes.lookup((int) addr);
+            resultArea.append(IpTrie.formatIpv4((int) addr) + " -> " + (r < 0 ? "无路由，丢弃" : routes.route(r).toString()) + "\n");
+        };
+        queryBtn.addActionListener(query);
+        addrField.addActionListener(query);
+        batchBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("选择地址文件");
+            if (chooser.showOpenDialog(dialog) != JFileChooser.APPROVE_OPTION) return;
+            File file = chooser.getSelectedFile();
+            batchBtn.setEnabled(false);
+            resultArea.append("正在查询 " + file.getName() + " ...\n");
+            new Thread(() -> {
+                String text;
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    text = batchReport(routes, reader);
+                } catch (IOException ex) {
+                    text = "读取失败: " + ex.getMessage() + "\n";
+                }
+                String out = text;
+                SwingUtilities.invokeLater(() -> {
+                    batchBtn.setEnabled(true);
+                    resultArea.append(out);
+                });
+            }, "route-lookup").start();
+        });
+        closeBtn.addActionListener(e -> dialog.dispose());
+        dialog.setVisible(true);
+    }
+
+    private void aggregateRoutes() {
+        List<RouteEntry> entries = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) entries.add(toRouteEntry(i));
+        aggregateBtn.setEnabled(false);
+        cmdPreviewArea.setText("正在汇总 " + entries.size() + " 条路由...");
+        new Thread(() -> {
+            RouteAggregator.Result result = RouteAggregator.aggregate(entries);
+            PreviewSink out = new PreviewSink();
+            out.append(String.format("静态路由 %d 条 -> %d 条，减少 %.1f%%，耗时 %d ms\n", result.inputStatic,
+                    result.outputStatic, result.reduction() * 100, result.nanos / 1_000_000));
+            if (result.skipped > 0) out.append("格式错误而原样保留 ").append(result.skipped).append(" 条\n");
+            out.append("\n");
+            for (int i = 0; i < result.outputStatic; i++) ConfigEngine.getDefault().route.render(result.routes.get(i), out);
+            SwingUtilities.invokeLater(() -> {
+                aggregateBtn.setEnabled(true);
+                cmdPreviewArea.setText(out.toString());
+                cmdPreviewArea.setCaretPosition(0);
+                if (result.outputStatic >= result.inputStatic) return;
+                int confirm = JOptionPane.showConfirmDialog(this, "用汇总结果替换路由表中的静态路由？（其他路由排在静态路由之后）",
+                        "路由汇总", JOptionPane.YES_NO_OPTION);
+                if (confirm != JOptionPane.YES_OPTION) return;
+                tableModel.setRowCount(0);
+                for (RouteEntry r : result.routes) tableModel.addRow(new Object[]{r.type, r.dest, r.mask, r.nextHop, r.param});
+            });
+        }, "route-aggregate").start();
+    }
+
+    // 读入全部地址后一次批量查表，按命中数列出前20条路由
+    private static String batchReport(RouteTable routes, BufferedReader reader) throws IOException {
+        int[] addrs = new int[1 << 16];
+        int n = 0, skipped = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long a = IpTrie.parseIpv4(line.trim());
+            if (a < 0) {
+                if (!line.trim().isEmpty()) skipped++;
+                continue;
+            }
+            if (n == addrs.length) addrs = Arrays.copyOf(addrs, n * 2);
+            addrs[n++] = (int) a;
+        }
+        int[] hit = new int[n];
+        long start = System.nanoTime();
+        routes.lookupAll(addrs, n, hit);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        long[] counts = new long[routes.size()];
+        long unrouted = 0;
+        for (int i = 0; i < n; i++) {
+            if (hit[i] < 0) unrouted++;
+            else counts[hit[i]]++;
+        }
         StringBuilder sb = new StringBuilder();
-        if ("静态".equals(type)) {
-            sb.append("ip route-static ").append(dest).append(" ").append(mask).append(" ").append(nextHop).append("\n");
-        } else if ("RIP".equals(type)) {
-            sb.append("rip\n");
-            sb.append(" version ").append(param.isEmpty() ? "2" : param).append("\n");
-            sb.append(" network ").append(dest).append("\n");
-            sb.append(" quit\n");
-        } else if ("OSPF".equals(type)) {
-            sb.append("ospf 1\n");
-            sb.append(" area ").append(param.isEmpty() ? "0" : param).append("\n");
-            sb.append(" network ").append(dest).append(" ").append(mask).append("\n");
-            sb.append(" quit\n");
-        } else if ("BGP".equals(type)) {
-            sb.append("bgp 100\n");
-            sb.append(" network ").append(dest).append(" mask ").append(mask).append("\n");
-            if (!param.isEmpty()) sb.append(" ").append(param).append("\n");
-            sb.append(" quit\n");
+        sb.append("查询 ").append(n).append(" 个地址，跳过 ").append(skipped).append(" 行，无路由 ").append(unrouted)
+                .append(String.format(" 个，查表耗时 %.1f ms（%.1f 百万次/秒）\n", nanos / 1e6, n * 1e3 / nanos));
+        Integer[] idx = new Integer[counts.length];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> Long.compare(counts[b], counts[a]));
+        for (int i = 0; i < Math.min(20, idx.length) && counts[idx[i]] > 0; i++) {
+            sb.append(String.format("%10d  ", counts[idx[i]])).append(routes.route(idx[i])).append("\n");
         }
-        cmdPreviewArea.setText(sb.toString());
+        return sb.toString();
+    }
+
+    private RouteEntry toRouteEntry(int row) {
+        return new RouteEntry(
+                tableModel.getValueAt(row, 0).toString(),
+                tableModel.getValueAt(row, 1).toString(),
+                tableModel.getValueAt(row, 2).toString(),
+                tableModel.getValueAt(row, 3).toString(),
+                tableModel.getValueAt(row, 4).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.routes.add(toRouteEntry(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (RouteEntry r : cfg.routes) tableModel.addRow(new Object[]{r.type, r.dest, r.mask, r.nextHop, r.param});
     }
 }
\ No newline at end of file
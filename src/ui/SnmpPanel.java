@@ -1,5 +1,11 @@
 package ui;
 
+import engine.ConfigEngine;
+import model.DeviceConfig;
+import model.SnmpCommunity;
+import model.SnmpConfig;
+import model.SnmpTrapHost;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -12,7 +18,7 @@ import java.awt.event.*;
  * 2. 支持社区字符串、权限、Trap服务器的增删改
  * 3. 命令生成预览
  */
-public class SnmpPanel extends JPanel {
+public class SnmpPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel commuTableModel;
     private JTable commuTable;
     private JButton addCommuBtn, editCommuBtn, delCommuBtn;
@@ -284,25 +290,37 @@ public class SnmpPanel extends JPanel {
     }
 
     private void previewCmd() {
-        StringBuilder sb = new StringBuilder();
-        // 社区配置
+        cmdPreviewArea.setText(ConfigEngine.getDefault().snmp.preview(toSnmpConfig()));
+    }
+
+    private SnmpConfig toSnmpConfig() {
+        SnmpConfig snmp = new SnmpConfig();
         for (int i = 0; i < commuTableModel.getRowCount(); i++) {
-            String name = commuTableModel.getValueAt(i, 0).toString();
-            String perm = commuTableModel.getValueAt(i, 1).toString();
-            String src = commuTableModel.getValueAt(i, 2).toString();
-            sb.append("snmp-agent community ").append(perm.toLowerCase()).append(" ").append(name);
-            if (!"any".equals(src)) sb.append(" source ").append(src);
-            sb.append("\n");
+            snmp.communities.add(new SnmpCommunity(
+                    commuTableModel.getValueAt(i, 0).toString(),
+                    commuTableModel.getValueAt(i, 1).toString(),
+                    commuTableModel.getValueAt(i, 2).toString()));
         }
-        // Trap配置
         for (int i = 0; i < trapTableModel.getRowCount(); i++) {
-            String addr = trapTableModel.getValueAt(i, 0).toString();
-            String type = trapTableModel.getValueAt(i, 1).toString();
-            String ver = trapTableModel.getValueAt(i, 2).toString();
-            sb.append("snmp-agent target-host ").append(addr)
-                    .append(" params securityname public")
-                    .append(" ").append(type).append(" version-").append(ver).append("\n");
+            snmp.trapHosts.add(new SnmpTrapHost(
+                    trapTableModel.getValueAt(i, 0).toString(),
+                    trapTableModel.getValueAt(i, 1).toString(),
+                    trapTableModel.getValueAt(i, 2).toString()));
         }
-        cmdPreviewArea.setText(sb.toString());
+        return snmp;
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        cfg.snmp = toSnmpConfig();
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        commuTableModel.setRowCount(0);
+        trapTableModel.setRowCount(0);
+        if (cfg.snmp == null) return;
+        for (SnmpCommunity c : cfg.snmp.communities) commuTableModel.addRow(new Object[]{c.name, c.permission, c.source});
+        for (SnmpTrapHost h : cfg.snmp.trapHosts) trapTableModel.addRow(new Object[]{h.address, h.type, h.version});
     }
 }
\ No newline at end of file
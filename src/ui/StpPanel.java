@@ -1,9 +1,17 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceName;
+import engine.InterfaceNames;
+import model.DeviceConfig;
+import model.StpConfig;
+import model.StpPort;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.List;
 
 /**
  * 生成树协议（STP/RSTP/MSTP）配置界面（美化版）
@@ -12,7 +20,7 @@ import java.awt.event.*;
  * 2. 支持启用/关闭STP、切换模式、设置全局和端口参数
  * 3. 一键生成相关华为设备配置命令
  */
-public class StpPanel extends JPanel {
+public class StpPanel extends JPanel implements ConfigContributor {
     private JComboBox<String> stpModeBox;
     private JCheckBox stpEnableBox;
     private JTextField bridgePriorityField;
@@ -190,11 +198,23 @@ public class StpPanel extends JPanel {
                 JOptionPane.showMessageDialog(dialog, "端口优先级需为0~240之间16的倍数", "错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            // 新增时可写区间，如 GE0/0/1 to 0/0/24，逐个端口加一行
+            List<InterfaceName> ports;
+            try {
+                ports = InterfaceNames.expand(port);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             if (data == null) {
-                portTableModel.addRow(new Object[]{port, pri, edge, status});
+                for (InterfaceName n : ports) portTableModel.addRow(new Object[]{n.name, pri, edge, status});
             } else {
+                if (ports.size() > 1) {
+                    JOptionPane.showMessageDialog(dialog, "编辑时只能填写一个端口", "提示", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
                 int row = portTable.getSelectedRow();
-                portTableModel.setValueAt(port, row, 0);
+                portTableModel.setValueAt(ports.get(0).name, row, 0);
                 portTableModel.setValueAt(pri, row, 1);
                 portTableModel.setValueAt(edge, row, 2);
                 portTableModel.setValueAt(status, row, 3);
@@ -229,37 +249,43 @@ public class StpPanel extends JPanel {
     }
 
     private void previewStpCmd() {
-        StringBuilder sb = new StringBuilder();
-        boolean stpEnable = stpEnableBox.isSelected();
-        String mode = (String) stpModeBox.getSelectedItem();
-        String pri = bridgePriorityField.getText().trim();
+        cmdPreviewArea.setText(ConfigEngine.getDefault().stp.preview(toStpConfig()));
+    }
 
-        if (!stpEnable) {
-            sb.append("undo stp enable\n");
-            cmdPreviewArea.setText(sb.toString());
-            return;
+    private StpConfig toStpConfig() {
+        StpConfig stp = new StpConfig(stpEnableBox.isSelected(), (String) stpModeBox.getSelectedItem(),
+                bridgePriorityField.getText().trim());
+        for (int i = 0; i < portTableModel.getRowCount(); i++) {
+            stp.ports.add(new StpPort(
+                    portTableModel.getValueAt(i, 0).toString(),
+                    Integer.parseInt(portTableModel.getValueAt(i, 1).toString()),
+                    "是".equals(portTableModel.getValueAt(i, 2)),
+                    "启用".equals(portTableModel.getValueAt(i, 3))));
         }
+        return stp;
+    }
 
-        sb.append("stp enable\n");
-        if ("STP".equals(mode)) sb.append("stp mode stp\n");
-        else if ("RSTP".equals(mode)) sb.append("stp mode rstp\n");
-        else if ("MSTP".equals(mode)) sb.append("stp mode mstp\n");
-        sb.append("stp priority ").append(pri).append("\n");
+    /**
+     * 当前界面上的生成树参数（拓扑仿真使用）
+     */
+    public StpConfig getStpConfig() {
+        return toStpConfig();
+    }
 
-        for (int i = 0; i < portTableModel.getRowCount(); i++) {
-            String port = portTableModel.getValueAt(i, 0).toString();
-            String portPri = portTableModel.getValueAt(i, 1).toString();
-            String edge = portTableModel.getValueAt(i, 2).toString();
-            String status = portTableModel.getValueAt(i, 3).toString();
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        cfg.stp = toStpConfig();
+    }
 
-            sb.append("interface ").append(port).append("\n");
-            sb.append(" stp port priority ").append(portPri).append("\n");
-            if ("是".equals(edge)) sb.append(" stp edged-port enable\n");
-            else sb.append(" stp edged-port disable\n");
-            if ("启用".equals(status)) sb.append(" stp enable\n");
-            else sb.append(" stp disable\n");
-            sb.append(" quit\n");
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        portTableModel.setRowCount(0);
+        if (cfg.stp == null) return;
+        stpEnableBox.setSelected(cfg.stp.enabled);
+        stpModeBox.setSelectedItem(cfg.stp.mode);
+        bridgePriorityField.setText(cfg.stp.bridgePriority);
+        for (StpPort p : cfg.stp.ports) {
+            portTableModel.addRow(new Object[]{p.port, String.valueOf(p.priority), p.edge ? "是" : "否", p.enabled ? "启用" : "禁用"});
         }
-        cmdPreviewArea.setText(sb.toString());
     }
 }
\ No newline at end of file
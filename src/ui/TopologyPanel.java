@@ -1,10 +1,16 @@
 package ui;
 
+import engine.StpSimulator;
+import model.StpConfig;
+import model.TopologyLink;
+import model.TopologyNode;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Supplier;
 import java.awt.image.BufferedImage;
 
 /**
@@ -15,6 +21,7 @@ import java.awt.image.BufferedImage;
  * 3. 支持节点基本属性设置
  * 4. 支持链路属性设置（带宽、延迟等）
  * 5. 可导出拓扑图为图片
+ * 6. 按生成树面板的参数仿真STP选举，标出根桥、端口角色和阻塞链路
  */
 public class TopologyPanel extends JPanel {
     private List<TopoNode> nodes = new ArrayList<>();
@@ -22,9 +29,19 @@ public class TopologyPanel extends JPanel {
     private TopoNode selectedNode = null;
     private TopoNode linkStartNode = null;
     private Point mousePt = null;
+    private TopologyCanvas canvas;
 
     private JButton addSwitchBtn, addRouterBtn, addPcBtn, delBtn, addLinkBtn, delLinkBtn, exportBtn;
 
+    // 生成树仿真：开启期间的拓扑编辑都增量更新到仿真器
+    private JToggleButton stpBtn;
+    private JLabel stpStatus = new JLabel();
+    private Supplier<StpConfig> stpSource = StpConfig::new;
+    private StpConfig stpConfig;
+    private StpSimulator stpSim;
+    private Map<TopoNode, Integer> stpNodes = new IdentityHashMap<>();
+    private Map<TopoLink, Integer> stpLinks = new IdentityHashMap<>();
+
     public TopologyPanel(String 拓扑监控) {
         setLayout(new BorderLayout());
 
@@ -42,6 +59,7 @@ public class TopologyPanel extends JPanel {
         delBtn = new JButton("删除节点");
         delLinkBtn = new JButton("删除链路");
         exportBtn = new JButton("导出图片");
+        stpBtn = new JToggleButton("STP仿真");
         btnPanel.add(addSwitchBtn);
         btnPanel.add(addRouterBtn);
         btnPanel.add(addPcBtn);
@@ -49,10 +67,12 @@ public class TopologyPanel extends JPanel {
         btnPanel.add(delBtn);
         btnPanel.add(delLinkBtn);
         btnPanel.add(exportBtn);
+        btnPanel.add(stpBtn);
+        btnPanel.add(stpStatus);
         add(btnPanel, BorderLayout.SOUTH);
 
         // 绘图区
-        TopologyCanvas canvas = new TopologyCanvas();
+        canvas = new TopologyCanvas();
         JScrollPane scroll = new JScrollPane(canvas);
         add(scroll, BorderLayout.CENTER);
 
@@ -63,6 +83,12 @@ public class TopologyPanel extends JPanel {
         addLinkBtn.addActionListener(e -> canvas.setAddMode("link"));
         delBtn.addActionListener(e -> {
             if (selectedNode != null) {
+                if (stpSim != null) {
+                    long start = System.nanoTime();
+                    stpSim.removeNode(stpNodes.remove(selectedNode));
+                    stpLinks.keySet().removeIf(l -> l.a == selectedNode || l.b == selectedNode);
+                    stpUpdated("删除节点", start);
+                }
                 nodes.remove(selectedNode);
                 // 删除与该节点相关链路
                 links.removeIf(l -> l.a == selectedNode || l.b == selectedNode);
@@ -72,12 +98,120 @@ public class TopologyPanel extends JPanel {
         });
         delLinkBtn.addActionListener(e -> {
             if (canvas.selectedLink != null) {
+                if (stpSim != null) {
+                    long start = System.nanoTime();
+                    stpSim.removeLink(stpLinks.remove(canvas.selectedLink));
+                    stpUpdated("删除链路", start);
+                }
                 links.remove(canvas.selectedLink);
                 canvas.selectedLink = null;
                 canvas.repaint();
             }
         });
         exportBtn.addActionListener(e -> canvas.exportImage());
+        stpBtn.addActionListener(e -> {
+            if (stpBtn.isSelected()) startStp();
+            else stopStp();
+        });
+    }
+
+    /**
+     * 生成树仿真使用的全局参数来源（生成树面板）
+     */
+    public void setStpSource(Supplier<StpConfig> source) {
+        this.stpSource = source;
+    }
+
+    private void startStp() {
+        stpConfig = stpSource.get();
+        if (!stpConfig.enabled) {
+            JOptionPane.showMessageDialog(this, "生成树面板中未启用STP", "提示", JOptionPane.INFORMATION_MESSAGE);
+            stpBtn.setSelected(false);
+            return;
+        }
+        long start = System.nanoTime();
+        stpSim = new StpSimulator();
+        stpNodes.clear();
+        stpLinks.clear();
+        for (TopoNode n : nodes) stpAddNode(n);
+        for (TopoLink l : links) stpAddLink(l);
+        stpSim.recompute();
+        stpUpdated("全量计算", start);
+    }
+
+    private void stopStp() {
+        stpSim = null;
+        stpNodes.clear();
+        stpLinks.clear();
+        stpStatus.setText("");
+        canvas.repaint();
+    }
+
+    private void stpAddNode(TopoNode n) {
+        int priority = n.stpPriority >= 0 ? n.stpPriority : StpSimulator.bridgePriority(stpConfig);
+        stpNodes.put(n, "switch".equals(n.type) ? stpSim.addBridge(priority) : stpSim.addHost());
+    }
+
+    // 端口号按节点上链路的加入顺序分配，端口优先级取生成树面板中同编号端口的设置
+    private void stpAddLink(TopoLink l) {
+        int id = stpSim.addLink(stpNodes.get(l.a), stpNodes.get(l.b), StpSimulator.pathCost(l.bandwidth));
+        for (int end = 0; end < 2; end++) {
+            int priority = StpSimulator.portPriority(stpConfig, stpSim.portNo(id, end));
+            if (priority != StpSimulator.DEFAULT_PORT_PRIORITY) stpSim.setPortPriority(id, end, priority);
+        }
+        stpLinks.put(l, id);
+    }
+
+    private void stpUpdated(String action, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        StringBuilder roots = new StringBuilder();
+        for (Map.Entry<TopoNode, Integer> e : stpNodes.entrySet()) {
+            if (!stpSim.isBridge(e.getValue()) || !stpSim.isRoot(e.getValue())) continue;
+            if (roots.length() > 0) roots.append(",");
+            roots.append(e.getKey().name);
+        }
+        stpStatus.setText(stpConfig.mode + " " + action + " " + micros + "µs  根桥: " + (roots.length() == 0 ? "无" : roots)
+                + "  阻塞链路: " + stpSim.blockedCount() + "  (R根端口 D指定端口 A替代端口)");
+        canvas.repaint();
+    }
+
+    // 导出为工程保存用的拓扑数据
+    public List<TopologyNode> exportNodes() {
+        List<TopologyNode> list = new ArrayList<>(nodes.size());
+        for (TopoNode n : nodes) list.add(new TopologyNode(n.name, n.type, n.x, n.y));
+        return list;
+    }
+
+    public List<TopologyLink> exportLinks() {
+        List<TopologyLink> list = new ArrayList<>(links.size());
+        for (TopoLink l : links) {
+            list.add(new TopologyLink(nodes.indexOf(l.a), nodes.indexOf(l.b), l.name, l.bandwidth, l.delay));
+        }
+        return list;
+    }
+
+    // 用工程中的拓扑替换画布内容
+    public void importTopology(List<TopologyNode> nodeList, List<TopologyLink> linkList) {
+        nodes.clear();
+        links.clear();
+        selectedNode = null;
+        linkStartNode = null;
+        canvas.selectedLink = null;
+        for (TopologyNode n : nodeList) {
+            TopoNode node = new TopoNode(n.x, n.y, n.type);
+            node.name = n.name;
+            nodes.add(node);
+        }
+        for (TopologyLink l : linkList) {
+            if (l.a < 0 || l.b < 0 || l.a >= nodes.size() || l.b >= nodes.size()) continue;
+            TopoLink link = new TopoLink(nodes.get(l.a), nodes.get(l.b));
+            link.name = l.name;
+            link.bandwidth = l.bandwidth;
+            link.delay = l.delay;
+            links.add(link);
+        }
+        if (stpSim != null) startStp();
+        canvas.repaint();
     }
 
     // 节点类型
@@ -86,6 +220,8 @@ public class TopologyPanel extends JPanel {
         public String type; // switch, router, pc
         public String name = "";
         public int radius = 32;
+        // 仿真用的桥优先级，-1表示取生成树面板的设置；不存入工程
+        public int stpPriority = -1;
 
         public TopoNode(int x, int y, String type) {
             this.x = x;
@@ -128,6 +264,7 @@ public class TopologyPanel extends JPanel {
 
     // 绘图区
     class TopologyCanvas extends JPanel {
+        private final Stroke dashed = new BasicStroke(3, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[]{8, 6}, 0);
         private String addMode = ""; // switch/router/pc/link
         public TopoLink selectedLink = null;
 
@@ -141,6 +278,11 @@ public class TopologyPanel extends JPanel {
                     if ("switch".equals(addMode) || "router".equals(addMode) || "pc".equals(addMode)) {
                         TopoNode node = new TopoNode(mousePt.x, mousePt.y, addMode);
                         nodes.add(node);
+                        if (stpSim != null) {
+                            long start = System.nanoTime();
+                            stpAddNode(node);
+                            stpUpdated("新增节点", start);
+                        }
                         selectedNode = node;
                         addMode = "";
                         repaint();
@@ -173,6 +315,11 @@ public class TopologyPanel extends JPanel {
                         if (end != null && end != linkStartNode) {
                             TopoLink link = new TopoLink(linkStartNode, end);
                             links.add(link);
+                            if (stpSim != null) {
+                                long start = System.nanoTime();
+                                stpAddLink(link);
+                                stpUpdated("新增链路", start);
+                            }
                         }
                         linkStartNode = null;
                         addMode = "";
@@ -216,9 +363,12 @@ public class TopologyPanel extends JPanel {
 
             // 画链路
             for (TopoLink link : links) {
-                g.setColor(link == selectedLink ? Color.RED : Color.GRAY);
-                ((Graphics2D) g).setStroke(new BasicStroke(3));
+                Integer stpLink = stpSim == null ? null : stpLinks.get(link);
+                boolean blocked = stpLink != null && stpSim.isBlocked(stpLink);
+                g.setColor(link == selectedLink ? Color.RED : blocked ? new Color(200, 120, 120) : Color.GRAY);
+                ((Graphics2D) g).setStroke(blocked ? dashed : new BasicStroke(3));
                 g.drawLine(link.a.x, link.a.y, link.b.x, link.b.y);
+                if (stpLink != null) paintPortRoles(g, link, stpLink, blocked);
 
                 // 链路名字
                 int mx = (link.a.x + link.b.x) / 2, my = (link.a.y + link.b.y) / 2;
@@ -249,6 +399,13 @@ public class TopologyPanel extends JPanel {
                         g.drawString(node.name, node.x - r + 4, node.y);
                         break;
                 }
+                Integer stpNode = stpSim == null ? null : stpNodes.get(node);
+                if (stpNode != null && stpSim.isBridge(stpNode) && stpSim.isRoot(stpNode)) {
+                    g.setColor(new Color(218, 165, 32));
+                    ((Graphics2D) g).setStroke(new BasicStroke(3));
+                    g.drawOval(node.x - r - 8, node.y - r - 8, 2 * r + 16, 2 * r + 16);
+                    g.drawString("根桥", node.x - 12, node.y - r - 12);
+                }
                 if (node == selectedNode) {
                     g.setColor(Color.RED);
                     g.drawRect(node.x - r - 3, node.y - r - 3, 2 * r + 6, 2 * r + 6);
@@ -256,22 +413,72 @@ public class TopologyPanel extends JPanel {
             }
         }
 
+        // 链路两端标出端口角色，阻塞链路中点画叉
+        private void paintPortRoles(Graphics g, TopoLink link, int id, boolean blocked) {
+            for (int end = 0; end < 2; end++) {
+                StpSimulator.Role role = stpSim.role(id, end);
+                if (role == StpSimulator.Role.NONE) continue;
+                TopoNode from = end == 0 ? link.a : link.b, to = end == 0 ? link.b : link.a;
+                double len = Math.max(1, Math.hypot(to.x - from.x, to.y - from.y));
+                double t = Math.min(0.4, (from.radius + 12) / len);
+                int px = (int) (from.x + (to.x - from.x) * t), py = (int) (from.y + (to.y - from.y) * t);
+                g.setColor(role == StpSimulator.Role.ROOT ? new Color(37, 81, 166)
+                        : role == StpSimulator.Role.DESIGNATED ? new Color(46, 139, 87) : Color.RED);
+                g.drawString(role.name().substring(0, 1), px - 3, py + 4);
+            }
+            if (blocked) {
+                int mx = (link.a.x + link.b.x) / 2, my = (link.a.y + link.b.y) / 2;
+                g.setColor(Color.RED);
+                ((Graphics2D) g).setStroke(new BasicStroke(3));
+                g.drawLine(mx - 6, my - 6, mx + 6, my + 6);
+                g.drawLine(mx - 6, my + 6, mx + 6, my - 6);
+            }
+        }
+
         // 节点属性对话框
         private void showNodePropertyDialog(TopoNode node) {
             JTextField nameField = new JTextField(node.name, 14);
             JTextField xField = new JTextField(String.valueOf(node.x), 6);
             JTextField yField = new JTextField(String.valueOf(node.y), 6);
 
-            JPanel panel = new JPanel(new GridLayout(3, 2, 6, 6));
+            boolean isSwitch = "switch".equals(node.type);
+            JTextField priField = new JTextField(node.stpPriority < 0 ? "" : String.valueOf(node.stpPriority), 6);
+
+            JPanel panel = new JPanel(new GridLayout(isSwitch ? 4 : 3, 2, 6, 6));
             panel.add(new JLabel("名称:"));
             panel.add(nameField);
             panel.add(new JLabel("X:"));
             panel.add(xField);
             panel.add(new JLabel("Y:"));
             panel.add(yField);
+            if (isSwitch) {
+                panel.add(new JLabel("STP桥优先级(空为全局):"));
+                panel.add(priField);
+            }
 
             int ret = JOptionPane.showConfirmDialog(this, panel, "节点属性", JOptionPane.OK_CANCEL_OPTION);
             if (ret == JOptionPane.OK_OPTION) {
+                if (isSwitch) {
+                    String pri = priField.getText().trim();
+                    int priority = -1;
+                    if (!pri.isEmpty()) {
+                        try {
+                            priority = Integer.parseInt(pri);
+                            if (priority < 0 || priority > 61440 || priority % 4096 != 0) throw new NumberFormatException();
+                        } catch (NumberFormatException ex) {
+                            JOptionPane.showMessageDialog(this, "桥优先级需为0~61440之间4096的倍数", "错误", JOptionPane.ERROR_MESSAGE);
+                            return;
+                        }
+                    }
+                    if (priority != node.stpPriority) {
+                        node.stpPriority = priority;
+                        if (stpSim != null) {
+                            long start = System.nanoTime();
+                            stpSim.setBridgePriority(stpNodes.get(node), priority >= 0 ? priority : StpSimulator.bridgePriority(stpConfig));
+                            stpUpdated("修改优先级", start);
+                        }
+                    }
+                }
                 node.name = nameField.getText().trim();
                 try {
                     node.x = Integer.parseInt(xField.getText().trim());
@@ -299,7 +506,13 @@ public class TopologyPanel extends JPanel {
             int ret = JOptionPane.showConfirmDialog(this, panel, "链路属性", JOptionPane.OK_CANCEL_OPTION);
             if (ret == JOptionPane.OK_OPTION) {
                 link.name = nameField.getText().trim();
-                link.bandwidth = bwField.getText().trim();
+                String bandwidth = bwField.getText().trim();
+                if (stpSim != null && !bandwidth.equals(link.bandwidth)) {
+                    long start = System.nanoTime();
+                    stpSim.setLinkCost(stpLinks.get(link), StpSimulator.pathCost(bandwidth));
+                    stpUpdated("修改带宽", start);
+                }
+                link.bandwidth = bandwidth;
                 link.delay = delayField.getText().trim();
                 repaint();
             }
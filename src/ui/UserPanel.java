@@ -1,5 +1,9 @@
 package ui;
 
+import engine.ConfigEngine;
+import model.DeviceConfig;
+import model.LocalUser;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -12,7 +16,7 @@ import java.awt.event.*;
  * 2. 增加、编辑、删除用户
  * 3. 命令生成预览
  */
-public class UserPanel extends JPanel {
+public class UserPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
     private JButton addBtn, editBtn, delBtn, previewBtn;
@@ -181,17 +185,25 @@ public class UserPanel extends JPanel {
             cmdPreviewArea.setText("请先选择用户条目");
             return;
         }
-        String username = tableModel.getValueAt(row, 0).toString();
-        String level = tableModel.getValueAt(row, 1).toString();
-        String pwd = tableModel.getValueAt(row, 2).toString();
-        // String note = tableModel.getValueAt(row, 3).toString();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("local-user ").append(username).append("\n");
-        sb.append(" password irreversible-cipher ").append(pwd).append("\n");
-        sb.append(" privilege level ").append(level).append("\n");
-        sb.append(" service-type ssh telnet terminal\n");
-        sb.append(" quit\n");
-        cmdPreviewArea.setText(sb.toString());
+        cmdPreviewArea.setText(ConfigEngine.getDefault().user.preview(toLocalUser(row)));
+    }
+
+    private LocalUser toLocalUser(int row) {
+        return new LocalUser(
+                tableModel.getValueAt(row, 0).toString(),
+                Integer.parseInt(tableModel.getValueAt(row, 1).toString()),
+                tableModel.getValueAt(row, 2).toString(),
+                tableModel.getValueAt(row, 3).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.users.add(toLocalUser(i));
+    }
+
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (LocalUser u : cfg.users) tableModel.addRow(new Object[]{u.username, String.valueOf(u.level), u.password, u.note});
     }
 }
\ No newline at end of file
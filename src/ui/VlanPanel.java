@@ -1,9 +1,20 @@
 package ui;
 
+import engine.ConfigEngine;
+import engine.InterfaceName;
+import engine.InterfaceNames;
+import engine.VlanMembership;
+import engine.VlanRanges;
+import model.DeviceConfig;
+import model.VlanEntry;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * VLAN配置界面（UI美化版）
@@ -12,11 +23,12 @@ import java.awt.event.*;
  * 2. 支持成员端口填写：端口类型（选择），端口号（填写）
  *    端口类型：XGE口（XGigabitethernet）、GE口（Gigabitethernet）、FE口（FastEthernet）、E口（Ethernet）
  * 3. 命令生成预览
+ * 4. 按区间批量新增（如 100-399,1000-1099），多选预览时生成 vlan batch 等区间命令
  */
-public class VlanPanel extends JPanel {
+public class VlanPanel extends JPanel implements ConfigContributor {
     private DefaultTableModel tableModel;
     private JTable table;
-    private JButton addBtn, editBtn, delBtn, previewBtn;
+    private JButton addBtn, batchBtn, editBtn, delBtn, queryBtn, previewBtn;
     private JTextArea cmdPreviewArea;
 
     public VlanPanel(String vlan) {
@@ -41,7 +53,7 @@ public class VlanPanel extends JPanel {
         table.setSelectionBackground(new Color(208, 227, 255));
         table.setSelectionForeground(new Color(25, 52, 105));
         table.setGridColor(new Color(220, 230, 240));
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane tableScroll = new JScrollPane(table);
         tableScroll.setBorder(BorderFactory.createLineBorder(new Color(69, 149, 236), 1, true));
         add(tableScroll, BorderLayout.CENTER);
@@ -59,18 +71,24 @@ public class VlanPanel extends JPanel {
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 16, 12));
         btnPanel.setOpaque(false);
         addBtn = createButton("新增VLAN", new Color(69, 149, 236), Color.WHITE);
+        batchBtn = createButton("批量新增", new Color(69, 149, 236), Color.WHITE);
         editBtn = createButton("编辑VLAN", new Color(37, 81, 166), Color.WHITE);
         delBtn = createButton("删除VLAN", new Color(240, 61, 70), Color.WHITE);
+        queryBtn = createButton("成员查询", new Color(37, 81, 166), Color.WHITE);
         previewBtn = createButton("命令预览", new Color(37, 166, 81), Color.WHITE);
         btnPanel.add(addBtn);
+        btnPanel.add(batchBtn);
         btnPanel.add(editBtn);
         btnPanel.add(delBtn);
+        btnPanel.add(queryBtn);
         btnPanel.add(previewBtn);
         add(btnPanel, BorderLayout.SOUTH);
 
         addBtn.addActionListener(e -> showDialog(null));
+        batchBtn.addActionListener(e -> showBatchDialog());
         editBtn.addActionListener(e -> editSelected());
         delBtn.addActionListener(e -> deleteSelected());
+        queryBtn.addActionListener(e -> queryMembership());
         previewBtn.addActionListener(e -> previewCmd());
 
         table.addMouseListener(new MouseAdapter() {
@@ -128,18 +146,10 @@ public class VlanPanel extends JPanel {
         JTextField portNumField = new JTextField(10);
         if (data != null && data[2] != null) {
             String port = data[2].toString();
-            if (port.startsWith("XGE口")) {
-                portTypeBox.setSelectedItem("XGE口");
-                portNumField.setText(port.substring(3));
-            } else if (port.startsWith("GE口")) {
-                portTypeBox.setSelectedItem("GE口");
-                portNumField.setText(port.substring(2));
-            } else if (port.startsWith("FE口")) {
-                portTypeBox.setSelectedItem("FE口");
-                portNumField.setText(port.substring(2));
-            } else if (port.startsWith("E口")) {
-                portTypeBox.setSelectedItem("E口");
-                portNumField.setText(port.substring(2));
+            InterfaceName n = InterfaceNames.parse(port);
+            if (n != null && n.type.uiLabel != null) {
+                portTypeBox.setSelectedItem(n.type.uiLabel);
+                portNumField.setText(n.numbers());
             } else {
                 portNumField.setText(port);
             }
@@ -168,7 +178,9 @@ public class VlanPanel extends JPanel {
             String name = nameField.getText().trim();
             String portType = (String) portTypeBox.getSelectedItem();
             String portNum = portNumField.getText().trim();
-            String port = portType + portNum;
+            // 号码框里直接写了完整接口名时不再拼类型前缀
+            InterfaceName typed = InterfaceNames.parse(portNum);
+            String port = typed != null ? typed.uiName() : portType + portNum;
             if (id.isEmpty() || portNum.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "请填写VLAN ID和端口号", "提示", JOptionPane.WARNING_MESSAGE);
                 return;
@@ -194,6 +206,61 @@ public class VlanPanel extends JPanel {
         dialog.setVisible(true);
     }
 
+    /**
+     * 按区间批量新增VLAN，名称和成员端口对区间内所有VLAN相同（端口可不填）
+     */
+    private void showBatchDialog() {
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "批量新增VLAN", true);
+        dialog.setSize(480, 220);
+        dialog.setLocationRelativeTo(this);
+
+        JPanel form = new JPanel(new GridLayout(3, 2, 10, 10));
+        JTextField rangeField = new JTextField("100-399,1000-1099");
+        JTextField nameField = new JTextField();
+        JPanel portPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        JComboBox<String> portTypeBox = new JComboBox<>(new String[]{"XGE口", "GE口", "FE口", "E口"});
+        JTextField portNumField = new JTextField(10);
+        portPanel.add(portTypeBox);
+        portPanel.add(portNumField);
+        form.add(new JLabel("VLAN区间:"));
+        form.add(rangeField);
+        form.add(new JLabel("VLAN名称:"));
+        form.add(nameField);
+        form.add(new JLabel("成员端口(可选):"));
+        form.add(portPanel);
+        dialog.add(form, BorderLayout.CENTER);
+
+        JPanel btnPanel = new JPanel();
+        JButton okBtn = createButton("确定", new Color(37, 81, 166), Color.WHITE);
+        JButton cancelBtn = createButton("取消", new Color(180, 180, 180), Color.WHITE);
+        btnPanel.add(okBtn);
+        btnPanel.add(cancelBtn);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+
+        okBtn.addActionListener(e -> {
+            BitSet ids;
+            try {
+                ids = VlanRanges.parse(rangeField.getText());
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String name = nameField.getText().trim();
+            String portNum = portNumField.getText().trim();
+            InterfaceName typed = InterfaceNames.parse(portNum);
+            String port = portNum.isEmpty() ? "" : typed != null ? typed.uiName() : portTypeBox.getSelectedItem() + portNum;
+            int first = tableModel.getRowCount();
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                tableModel.addRow(new Object[]{String.valueOf(id), name, port});
+            }
+            table.getSelectionModel().setSelectionInterval(first, tableModel.getRowCount() - 1);
+            dialog.dispose();
+            previewCmd();
+        });
+        cancelBtn.addActionListener(e -> dialog.dispose());
+        dialog.setVisible(true);
+    }
+
     private void editSelected() {
         int row = table.getSelectedRow();
         if (row == -1) {
@@ -206,44 +273,86 @@ public class VlanPanel extends JPanel {
     }
 
     private void deleteSelected() {
-        int row = table.getSelectedRow();
-        if (row == -1) {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
             JOptionPane.showMessageDialog(this, "请先选择要删除的VLAN", "提示", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-        int confirm = JOptionPane.showConfirmDialog(this, "确认删除所选VLAN？", "确认", JOptionPane.YES_NO_OPTION);
+        String msg = rows.length == 1 ? "确认删除所选VLAN？" : "确认删除所选 " + rows.length + " 个VLAN？";
+        int confirm = JOptionPane.showConfirmDialog(this, msg, "确认", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            tableModel.removeRow(row);
+            // 从后往前删，保持前面的行号不变
+            for (int i = rows.length - 1; i >= 0; i--) tableModel.removeRow(rows[i]);
+        }
+    }
+
+    /**
+     * 按端口查所属VLAN，或按VLAN编号查承载端口
+     */
+    private void queryMembership() {
+        String input = JOptionPane.showInputDialog(this, "输入端口（如 GE0/0/12）或VLAN编号：", "成员查询", JOptionPane.QUESTION_MESSAGE);
+        if (input == null || input.trim().isEmpty()) return;
+        input = input.trim();
+        List<VlanEntry> vlans = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) vlans.add(toVlanEntry(i));
+        VlanMembership members = new VlanMembership(vlans);
+        if (input.chars().allMatch(Character::isDigit)) {
+            int id;
+            try {
+                id = Integer.parseInt(input);
+                if (id < VlanRanges.MIN || id > VlanRanges.MAX) throw new NumberFormatException();
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "VLAN ID须为1~4094的数字！", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            List<String> ports = members.portsOf(id);
+            cmdPreviewArea.setText(!members.vlans().get(id) ? "VLAN " + id + " 未配置"
+                    : ports.isEmpty() ? "VLAN " + id + " 没有成员端口"
+                    : "VLAN " + id + " 的成员端口（" + ports.size() + "）：\n" + String.join("\n", ports));
+        } else {
+            if (InterfaceNames.parse(input) == null) {
+                JOptionPane.showMessageDialog(this, "无法识别的接口: " + input, "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            BitSet ids = members.vlansOf(input);
+            String port = InterfaceNames.canonical(input);
+            cmdPreviewArea.setText(ids.isEmpty() ? port + " 不属于任何VLAN"
+                    : port + " 所属VLAN（" + ids.cardinality() + "）：" + VlanRanges.format(ids));
         }
+        cmdPreviewArea.setCaretPosition(0);
     }
 
     private void previewCmd() {
-        int row = table.getSelectedRow();
-        if (row == -1) {
+        int[] rows = table.getSelectedRows();
+        if (rows.length == 0) {
             cmdPreviewArea.setText("请先选择VLAN条目");
             return;
         }
-        String id = tableModel.getValueAt(row, 0).toString();
-        String name = tableModel.getValueAt(row, 1).toString();
-        String port = tableModel.getValueAt(row, 2).toString();
-
-        // 端口类型映射
-        String mappedPort = port;
-        if (port.startsWith("XGE口")) {
-            mappedPort = "XGigabitethernet" + port.substring(3);
-        } else if (port.startsWith("GE口")) {
-            mappedPort = "Gigabitethernet" + port.substring(2);
-        } else if (port.startsWith("FE口")) {
-            mappedPort = "FastEthernet" + port.substring(2);
-        } else if (port.startsWith("E口")) {
-            mappedPort = "Ethernet" + port.substring(2);
+        if (rows.length == 1) {
+            cmdPreviewArea.setText(ConfigEngine.getDefault().vlan.preview(toVlanEntry(rows[0])));
+            return;
         }
+        List<VlanEntry> vlans = new ArrayList<>(rows.length);
+        for (int row : rows) vlans.add(toVlanEntry(row));
+        cmdPreviewArea.setText(ConfigEngine.getDefault().vlan.previewBatch(vlans));
+        cmdPreviewArea.setCaretPosition(0);
+    }
+
+    private VlanEntry toVlanEntry(int row) {
+        return new VlanEntry(
+                Integer.parseInt(tableModel.getValueAt(row, 0).toString()),
+                tableModel.getValueAt(row, 1).toString(),
+                tableModel.getValueAt(row, 2).toString());
+    }
+
+    @Override
+    public void contributeTo(DeviceConfig cfg) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) cfg.vlans.add(toVlanEntry(i));
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("vlan ").append(id).append("\n");
-        if (!name.isEmpty()) sb.append(" description ").append(name).append("\n");
-        sb.append(" port ").append(mappedPort).append("\n");
-        sb.append("quit\n");
-        cmdPreviewArea.setText(sb.toString());
+    @Override
+    public void loadFrom(DeviceConfig cfg) {
+        tableModel.setRowCount(0);
+        for (VlanEntry v : cfg.vlans) tableModel.addRow(new Object[]{String.valueOf(v.id), v.name, v.port});
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * ACL精简等价性测试：输入规则与 AclCompiler 精简后的规则分别交给 AclClassifier，
+ * 对随机五元组及各规则区间端点逐一分类，首条命中规则的动作（未命中记为 none）必须一致；
+ * AclAnalyzer 判为重复、冗余、被遮蔽的规则删除后同样不得改变分类结果。
+ * 随机规则集中在 10.0.0.0/22 和少量端口上，保证大量重叠、反向动作穿插及可合并的兄弟网段。
+ * 不依赖测试框架：java -cp out engine.AclCompilerEquivalenceTest，失败时退出码为 1
+ */
+public class AclCompilerEquivalenceTest {
+    private static final int BASE = 0x0A000000; // 10.0.0.0
+    private static final int[] PROTOCOLS = {1, 6, 17, 47};
+    private static final String[] PROTOCOL_NAMES = {"ip", "icmp", "tcp", "udp"};
+    private static int failures;
+
+    public static void main(String[] args) {
+        randomAcls();
+        oppositeActionBetween();
+        oppositeActionDisjoint();
+        windowLimit();
+        finish();
+    }
+
+    // 随机ACL：规则数、网段长度、端口条件和动作均随机
+    private static void randomAcls() {
+        Random rnd = new Random(20261018L);
+        int merged = 0;
+        for (int round = 0; round < 400; round++) {
+            Acl acl = new Acl(3000, "高级", "");
+            int n = 5 + rnd.nextInt(80);
+            for (int i = 0; i < n; i++) acl.rules.add(randomRule(rnd, (i + 1) * 5));
+            AclCompiler.Result result = AclCompiler.compile(acl);
+            if (result.rulesAfter < result.rulesBefore) merged++;
+            assertEquivalent("随机ACL #" + round, acl.rules, result.acl.rules, rnd);
+            assertEquivalent("随机ACL #" + round + " 删除分析器标记的规则", acl.rules, withoutCovered(acl.rules), rnd);
+        }
+        // 规则生成方式须能触发精简，否则上面的比较没有意义
+        check(merged > 100, "随机ACL中只有 " + merged + " 个被精简");
+    }
+
+    // 中间夹着动作相反且重叠的规则：两条 permit 不得越过 deny 合并成 /24
+    private static void oppositeActionBetween() {
+        Acl acl = new Acl(3001, "高级", "");
+        acl.rules.add(rule(5, "permit", "ip", "10.0.0.0 0.0.0.127"));
+        acl.rules.add(rule(10, "deny", "ip", "10.0.0.128 0"));
+        acl.rules.add(rule(15, "permit", "ip", "10.0.0.128 0.0.0.127"));
+        AclCompiler.Result result = AclCompiler.compile(acl);
+        assertEquivalent("反向动作规则夹在中间", acl.rules, result.acl.rules, new Random(1));
+        check(action(result.acl.rules, 6, BASE + 128, 80).equals("deny"), "10.0.0.128 应被 deny，精简后为 "
+                + action(result.acl.rules, 6, BASE + 128, 80));
+        check(result.rulesAfter == 3, "不应合并，精简后规则数 " + result.rulesAfter);
+    }
+
+    // 中间的反向规则与两者都不相交时可以越过合并
+    private static void oppositeActionDisjoint() {
+        Acl acl = new Acl(3002, "高级", "");
+        acl.rules.add(rule(5, "permit", "ip", "10.0.0.0 0.0.0.127"));
+        acl.rules.add(rule(10, "deny", "ip", "10.0.1.0 0.0.0.255"));
+        acl.rules.add(rule(15, "permit", "ip", "10.0.0.128 0.0.0.127"));
+        AclCompiler.Result result = AclCompiler.compile(acl);
+        assertEquivalent("不相交的反向规则", acl.rules, result.acl.rules, new Random(2));
+        check(result.rulesAfter == 2, "应合并为 /24，精简后规则数 " + result.rulesAfter);
+    }
+
+    // 两条可合并的规则之间隔着 gap 条不相交的反向规则：不超过 WINDOW 时合并，超过时保留，两种情况分类都不变
+    private static void windowLimit() {
+        for (int gap : new int[]{AclCompiler.WINDOW - 2, AclCompiler.WINDOW - 1, AclCompiler.WINDOW, AclCompiler.WINDOW + 5}) {
+            Acl acl = new Acl(3003, "高级", "");
+            acl.rules.add(rule(1, "permit", "ip", "10.0.0.0 0.0.0.127"));
+            for (int i = 0; i < gap; i++) {
+                // 172.16.2i.0/24：与 10.0.0.0/24 不相交，彼此也不是可合并的兄弟网段
+                acl.rules.add(rule(2 + i, "deny", "ip", "172.16." + 2 * i + ".0 0.0.0.255"));
+            }
+            acl.rules.add(rule(2 + gap, "permit", "ip", "10.0.0.128 0.0.0.127"));
+            AclCompiler.Result result = AclCompiler.compile(acl);
+            assertEquivalent("WINDOW 间隔 " + gap, acl.rules, result.acl.rules, new Random(gap));
+            // 后一条规则最多向前查看 WINDOW 条，即中间最多隔 WINDOW - 1 条
+            int expected = gap < AclCompiler.WINDOW ? gap + 1 : gap + 2;
+            check(result.rulesAfter == expected, "间隔 " + gap + " 条时精简后应为 " + expected + " 条，实际 " + result.rulesAfter);
+        }
+    }
+
+    private static void assertEquivalent(String name, List<AclRule> before, List<AclRule> after, Random rnd) {
+        AclClassifier a = new AclClassifier(before);
+        AclClassifier b = new AclClassifier(after);
+        List<int[]> packets = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) packets.add(randomPacket(rnd));
+        // 每条规则匹配区间的端点及其外侧一位
+        for (AclRule r : before) {
+            AclMatch m = AclMatch.parse(r);
+            if (m == null) continue;
+            int proto = m.protocol == AclMatch.PROTO_IP ? PROTOCOLS[rnd.nextInt(PROTOCOLS.length)] : m.protocol;
+            int srcHi = m.srcNet | ~AclMatch.mask(m.srcLen);
+            int dstHi = m.dstNet | ~AclMatch.mask(m.dstLen);
+            boolean ports = proto == 6 || proto == 17;
+            int[][] srcs = {{m.srcNet}, {srcHi}, {m.srcNet - 1}, {srcHi + 1}};
+            for (int[] s : srcs) {
+                packets.add(packet(proto, s[0], m.dstNet, ports ? m.srcPortLo : 0, ports ? m.dstPortLo : 0));
+                packets.add(packet(proto, s[0], dstHi, ports ? m.srcPortHi : 0, ports ? m.dstPortHi : 0));
+            }
+            if (ports) {
+                packets.add(packet(proto, m.srcNet, m.dstNet, Math.max(0, m.srcPortLo - 1), m.dstPortLo));
+                packets.add(packet(proto, m.srcNet, m.dstNet, m.srcPortLo, Math.min(AclMatch.PORT_MAX, m.dstPortHi + 1)));
+            }
+        }
+        for (int[] p : packets) {
+            String x = actionOf(before, a.classify(p[0], p[1], p[2], p[3], p[4]));
+            String y = actionOf(after, b.classify(p[0], p[1], p[2], p[3], p[4]));
+            if (!x.equals(y)) {
+                check(false, name + "：报文 " + describe(p) + " 精简前为 " + x + "，精简后为 " + y
+                        + "\n精简前 " + format(before) + "\n精简后 " + format(after));
+                return;
+            }
+        }
+    }
+
+    private static List<AclRule> withoutCovered(List<AclRule> rules) {
+        Set<AclRule> drop = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AclAnalyzer.Finding f : AclAnalyzer.analyze(rules)) {
+            if (f.kind == AclAnalyzer.Kind.DUPLICATE || f.kind == AclAnalyzer.Kind.REDUNDANT
+                    || f.kind == AclAnalyzer.Kind.SHADOWED) {
+                drop.add(f.rule);
+            }
+        }
+        List<AclRule> kept = new ArrayList<>();
+        for (AclRule r : rules) if (!drop.contains(r)) kept.add(r);
+        return kept;
+    }
+
+    private static AclRule randomRule(Random rnd, int id) {
+        String action = rnd.nextBoolean() ? "permit" : "deny";
+        String proto = PROTOCOL_NAMES[rnd.nextInt(PROTOCOL_NAMES.length)];
+        boolean ports = proto.equals("tcp") || proto.equals("udp");
+        return new AclRule(id, action, proto, randomAddress(rnd), ports ? randomPorts(rnd) : "",
+                randomAddress(rnd), ports ? randomPorts(rnd) : "", "");
+    }
+
+    // 10.0.0.0/22 内 /22~/32 的网段，偶尔为 any
+    private static String randomAddress(Random rnd) {
+        if (rnd.nextInt(6) == 0) return "any";
+        int len = 22 + rnd.nextInt(11);
+        int net = (BASE + rnd.nextInt(1024)) & AclMatch.mask(len);
+        return AclMatch.formatAddress(net, len);
+    }
+
+    // 集中在 75~90 附近，便于相邻区间合并
+    private static String randomPorts(Random rnd) {
+        int lo = 75 + rnd.nextInt(16);
+        switch (rnd.nextInt(5)) {
+            case 0:
+                return "any";
+            case 1:
+                return "eq " + lo;
+            case 2:
+                return "range " + lo + " " + (lo + rnd.nextInt(6));
+            case 3:
+                return "gt " + lo;
+            default:
+                return "lt " + lo;
+        }
+    }
+
+    private static int[] randomPacket(Random rnd) {
+        int proto = PROTOCOLS[rnd.nextInt(PROTOCOLS.length)];
+        boolean ports = proto == 6 || proto == 17;
+        int src = rnd.nextInt(20) == 0 ? rnd.nextInt() : BASE + rnd.nextInt(1024);
+        int dst = rnd.nextInt(20) == 0 ? rnd.nextInt() : BASE + rnd.nextInt(1024);
+        int sp = ports ? (rnd.nextInt(10) == 0 ? rnd.nextInt(AclMatch.PORT_MAX + 1) : 70 + rnd.nextInt(30)) : 0;
+        int dp = ports ? (rnd.nextInt(10) == 0 ? rnd.nextInt(AclMatch.PORT_MAX + 1) : 70 + rnd.nextInt(30)) : 0;
+        return packet(proto, src, dst, sp, dp);
+    }
+
+    private static int[] packet(int proto, int src, int dst, int srcPort, int dstPort) {
+        return new int[]{proto, src, dst, srcPort, dstPort};
+    }
+
+    private static AclRule rule(int id, String action, String proto, String source) {
+        return new AclRule(id, action, proto, source, "", "any", "", "");
+    }
+
+    private static String action(List<AclRule> rules, int proto, int src, int dstPort) {
+        return actionOf(rules, new AclClassifier(rules).classify(proto, src, BASE, 1024, dstPort));
+    }
+
+    private static String actionOf(List<AclRule> rules, int index) {
+        return index < 0 ? "none" : rules.get(index).action;
+    }
+
+    private static String describe(int[] p) {
+        return p[0] + " " + IpTrie.formatIpv4(p[1]) + ":" + p[3] + " -> " + IpTrie.formatIpv4(p[2]) + ":" + p[4];
+    }
+
+    private static String format(List<AclRule> rules) {
+        StringBuilder sb = new StringBuilder();
+        for (AclRule r : rules) {
+            sb.append("\n  rule ").append(r.id).append(' ').append(r.action).append(' ').append(r.protocol)
+                    .append(" src ").append(r.source).append(' ').append(r.sourcePort)
+                    .append(" dst ").append(r.destination).append(' ').append(r.destPort);
+        }
+        return sb.toString();
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) return;
+        failures++;
+        System.out.println("失败: " + message);
+    }
+
+    private static void finish() {
+        System.out.println(failures == 0 ? "通过" : failures + " 项失败");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
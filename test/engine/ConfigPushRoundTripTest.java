@@ -0,0 +1,104 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+import model.Device;
+import model.DeviceConfig;
+import model.QosPolicy;
+import model.QosRule;
+import model.RouteEntry;
+import model.StpConfig;
+import model.StpPort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 配置下发回环测试：完整渲染（生成树、路由、ACL、QoS）经 ConfigPusher 推送到 FakeVrpServer，
+ * 检查设备收到的命令与渲染结果一致、每条命令在正确的视图中执行，且会话没有被多余的 quit 断开。
+ * 不依赖测试框架：java -cp out engine.ConfigPushRoundTripTest，失败时退出码为 1
+ */
+public class ConfigPushRoundTripTest {
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        DeviceConfig template = new DeviceConfig(null);
+        template.stp = new StpConfig(true, "RSTP", "4096");
+        template.stp.ports.add(new StpPort("GE0/0/1", 128, true, true));
+        template.stp.ports.add(new StpPort("GE0/0/2", 64, false, true));
+        template.routes.add(new RouteEntry("静态", "0.0.0.0", "0.0.0.0", "192.168.0.1", ""));
+        template.routes.add(new RouteEntry("RIP", "172.16.0.0", "255.255.0.0", "", "version 2"));
+        template.routes.add(new RouteEntry("OSPF", "10.0.0.0", "255.255.255.0", "", "area 0"));
+        template.routes.add(new RouteEntry("OSPF", "10.0.1.0", "255.255.255.0", "", "1"));
+        template.routes.add(new RouteEntry("BGP", "10.9.0.0", "255.255.0.0", "", "peer 192.168.9.1 as-number 200"));
+        Acl acl = new Acl(3000, "高级", "web");
+        acl.rules.add(new AclRule(5, "permit", "tcp", "any", "any", "any", "80", "放行HTTP"));
+        acl.rules.add(new AclRule(10, "deny", "ip", "any", "any", "any", "any", ""));
+        template.acls.add(acl);
+        QosPolicy web = new QosPolicy("limit_web", "限制HTTP带宽", "GE0/0/1");
+        web.rules.add(new QosRule(10, "协议", "tcp/80", "限速", "1000kbit", "限制HTTP"));
+        web.rules.add(new QosRule(20, "源地址", "192.168.1.0/24", "优先级", "7", ""));
+        QosPolicy voice = new QosPolicy("voice", "", "GE0/0/2");
+        voice.rules.add(new QosRule(10, "源地址", "192.168.1.0/24", "优先级", "7", ""));
+        template.qosPolicies.add(web);
+        template.qosPolicies.add(voice);
+
+        try (FakeVrpServer server = new FakeVrpServer(0, "admin", "admin")) {
+            Device device = new Device("SW-test", "127.0.0.1:" + server.getPort(), "S5735", "Telnet", "在线");
+            ConfigPusher pusher = new ConfigPusher(ConfigEngine.getDefault(), 1, 3000, 0);
+            ConfigPusher.Job job = pusher.push(Collections.singletonList(device), template, "admin", "admin", "Telnet");
+            job.await();
+            ConfigPusher.Result result = job.getResults().get(0);
+            check(result.success, "下发失败: " + result.message);
+
+            StringSink sink = new StringSink();
+            ConfigEngine.getDefault().renderDevice(template.withDevice(device), sink);
+            List<String> expected = new ArrayList<>();
+            for (String cmd : ConfigPusher.toCommands(sink.toString())) {
+                if (!cmd.equals("system-view") && !cmd.equals("quit") && !cmd.equals("return")) expected.add(cmd);
+            }
+            List<String> applied = server.getConfigs().get("SW-test");
+            List<String> views = server.getConfigViews().get("SW-test");
+            check(applied != null, "设备没有收到配置");
+            if (applied == null) finish();
+            check(applied.equals(expected), "收到的命令与渲染结果不一致:\n期望 " + expected + "\n实际 " + applied);
+
+            checkView(applied, views, "stp edged-port enable", "interface-GigabitEthernet0/0/1");
+            checkView(applied, views, "interface GigabitEthernet0/0/2", "");
+            checkView(applied, views, "ip route-static 0.0.0.0 0.0.0.0 192.168.0.1", "");
+            checkView(applied, views, "network 172.16.0.0", "rip");
+            checkView(applied, views, "area 0", "ospf-1");
+            checkView(applied, views, "network 10.0.0.0 255.255.255.0", "ospf-1/area-0");
+            checkView(applied, views, "area 1", "ospf-1");
+            checkView(applied, views, "network 10.0.1.0 255.255.255.0", "ospf-1/area-1");
+            checkView(applied, views, "bgp 100", "");
+            checkView(applied, views, "peer 192.168.9.1 as-number 200", "bgp-100");
+            checkView(applied, views, "rule 5 permit tcp source any destination any destination-port eq 80", "acl-number-3000");
+            checkView(applied, views, "traffic classifier c1", "");
+            checkView(applied, views, "car cir 1000kbit", "traffic-behavior-b1");
+            checkView(applied, views, "classifier c2 behavior b2", "traffic-policy-limit_web");
+            checkView(applied, views, "traffic-policy voice inbound", "interface-GigabitEthernet0/0/2");
+            for (String cmd : applied) check(!cmd.contains("//"), "注释被当作命令下发: " + cmd);
+        }
+        finish();
+    }
+
+    // 命令应在 view 视图中执行（"" 为系统视图）
+    private static void checkView(List<String> applied, List<String> views, String cmd, String view) {
+        int i = applied.indexOf(cmd);
+        check(i >= 0, "设备没有收到命令: " + cmd);
+        if (i >= 0) check(views.get(i).equals(view), cmd + " 应在视图 [" + view + "] 执行，实际为 [" + views.get(i) + "]");
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) return;
+        failures++;
+        System.out.println("失败: " + message);
+    }
+
+    private static void finish() {
+        System.out.println(failures == 0 ? "通过" : failures + " 项失败");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
\ No newline at end of file
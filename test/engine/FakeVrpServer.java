@@ -0,0 +1,210 @@
+package engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地模拟的VRP设备（Telnet明文，无协商），用于联调和压测配置下发
+ * 支持用户名/密码登录、用户视图/系统视图/子视图及 OSPF 区域这类下一级视图的提示符、sysname、quit/return，
+ * 以 "error" 开头的命令返回 Error 行；可设置前若干次连接直接断开以验证重试。
+ */
+public class FakeVrpServer implements Closeable {
+    private static final String[] VIEW_COMMANDS = {
+            "vlan ", "interface ", "acl ", "traffic classifier ", "traffic behavior ", "traffic policy ",
+            "ip pool ", "aaa", "stp region-configuration", "rip", "ospf", "bgp ", "user-interface "};
+    // 在子视图中进入下一级视图的命令
+    private static final String[] NESTED_VIEW_COMMANDS = {"area "};
+
+    private final ServerSocket server;
+    private final String username, password;
+    private final AtomicInteger dropRemaining = new AtomicInteger();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger commands = new AtomicInteger();
+    private final Map<String, List<String>> configs = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> configViews = new ConcurrentHashMap<>();
+    private volatile int commandDelayMillis;
+
+    public FakeVrpServer(int port, String username, String password) throws IOException {
+        this.server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.username = username;
+        this.password = password;
+        Thread t = new Thread(this::acceptLoop, "fake-vrp-accept");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * 接下来的 n 次连接在登录前直接断开
+     */
+    public void dropNextConnections(int n) {
+        dropRemaining.set(n);
+    }
+
+    /**
+     * 每条命令的模拟处理耗时
+     */
+    public void setCommandDelayMillis(int millis) {
+        commandDelayMillis = millis;
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    public int getCommandCount() {
+        return commands.get();
+    }
+
+    /**
+     * 各设备（按最终sysname）在系统视图及子视图中收到的配置命令
+     */
+    public Map<String, List<String>> getConfigs() {
+        return configs;
+    }
+
+    /**
+     * 与 getConfigs 逐条对应，每条命令执行时所在的视图："" 系统视图，子视图如 "ospf-1"，下一级视图如 "ospf-1/area-0"
+     */
+    public Map<String, List<String>> getConfigViews() {
+        return configViews;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket s = server.accept();
+                if (dropRemaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    s.close();
+                    continue;
+                }
+                Thread t = new Thread(() -> serve(s), "fake-vrp-session");
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = s.getOutputStream();
+            write(out, "\r\nLogin authentication\r\n\r\nUsername:");
+            String user = in.readLine();
+            write(out, "\r\nPassword:");
+            String pass = in.readLine();
+            if (user == null || pass == null || !user.trim().equals(username) || !pass.trim().equals(password)) {
+                write(out, "\r\nError: Local authentication is rejected.\r\n");
+                return;
+            }
+            sessions.incrementAndGet();
+            String sysname = "HUAWEI";
+            String view = null; // null 用户视图，"" 系统视图，否则子视图名
+            String parentView = null; // 处于下一级视图时的上级子视图
+            List<String> received = new ArrayList<>();
+            List<String> receivedViews = new ArrayList<>();
+            write(out, "\r\n" + prompt(sysname, view));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String cmd = line.trim();
+                commands.incrementAndGet();
+                if (commandDelayMillis > 0) Thread.sleep(commandDelayMillis);
+                StringBuilder reply = new StringBuilder(cmd).append("\r\n");
+                if (cmd.startsWith("error")) {
+                    reply.append("Error: Unrecognized command found at '^' position.\r\n");
+                } else if (cmd.equals("system-view")) {
+                    if (view == null) view = "";
+                } else if (cmd.equals("return")) {
+                    view = null;
+                    parentView = null;
+                    // 回复前先登记，客户端收到提示符后即可读到本次配置
+                    publish(sysname, received, receivedViews);
+                } else if (cmd.equals("quit")) {
+                    if (view == null) {
+                        publish(sysname, received, receivedViews);
+                        write(out, reply.toString());
+                        break;
+                    }
+                    if (parentView != null) {
+                        view = parentView;
+                        parentView = null;
+                    } else {
+                        view = view.isEmpty() ? null : "";
+                    }
+                } else if (view != null && !cmd.isEmpty()) {
+                    received.add(cmd);
+                    receivedViews.add(parentView == null ? view : parentView + "/" + view);
+                    if (cmd.startsWith("sysname ")) {
+                        sysname = cmd.substring(8).trim();
+                    } else if (!view.isEmpty() && parentView == null && isNestedView(cmd)) {
+                        parentView = view;
+                        view = cmd.replace(' ', '-');
+                    } else if (enteredView(cmd) != null) {
+                        view = enteredView(cmd);
+                        parentView = null;
+                    }
+                }
+                reply.append(prompt(sysname, view));
+                write(out, reply.toString());
+            }
+            publish(sysname, received, receivedViews);
+        } catch (IOException | InterruptedException ignored) {
+            // 客户端断开
+        }
+    }
+
+    private void publish(String sysname, List<String> received, List<String> receivedViews) {
+        configViews.put(sysname, Collections.unmodifiableList(new ArrayList<>(receivedViews)));
+        configs.put(sysname, Collections.unmodifiableList(new ArrayList<>(received)));
+    }
+
+    private static String enteredView(String cmd) {
+        for (String v : VIEW_COMMANDS) {
+            if (cmd.startsWith(v) || cmd.equals(v.trim())) {
+                if (cmd.startsWith("vlan batch")) return null;
+                return cmd.replace(' ', '-');
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNestedView(String cmd) {
+        for (String v : NESTED_VIEW_COMMANDS) {
+            if (cmd.startsWith(v)) return true;
+        }
+        return false;
+    }
+
+    private static String prompt(String sysname, String view) {
+        if (view == null) return "<" + sysname + ">";
+        return view.isEmpty() ? "[" + sysname + "]" : "[" + sysname + "-" + view + "]";
+    }
+
+    private static void write(OutputStream out, String s) throws IOException {
+        out.write(s.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
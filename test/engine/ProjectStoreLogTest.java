@@ -0,0 +1,219 @@
+package engine;
+
+import model.Acl;
+import model.AclRule;
+import model.Device;
+import model.DeviceConfig;
+import model.Project;
+import model.VlanEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工程文件日志测试：增量保存只追加有变化的记录，重新打开后状态一致；
+ * 末尾追加垃圾字节或截断最后一条记录（写入中断）后重新打开，只丢弃残缺部分并截掉文件尾；
+ * compact() 后文件变小，重新打开状态不变且可继续追加。
+ * 不依赖测试框架：java -cp out engine.ProjectStoreLogTest，失败时退出码为 1
+ */
+public class ProjectStoreLogTest {
+    private static final int DEVICES = 100;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("hwp-test");
+        Path file = dir.resolve("test.hwp");
+        try {
+            incremental(file);
+            garbageTail(file);
+            truncatedTail(file);
+            compactAndReopen(file);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir.resolve("test.hwp.tmp"));
+            Files.deleteIfExists(dir);
+        }
+        finish();
+    }
+
+    private static void incremental(Path file) throws IOException {
+        List<Device> devices = new ArrayList<>();
+        int[] ids = new int[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            devices.add(new Device("SW-" + i, "10.0.0." + i, "S5735", "SSH", "在线"));
+            ids[i] = i;
+        }
+        DeviceConfig cfg = config();
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(store.syncDevices(ids, devices) == DEVICES, "首次同步应写入 " + DEVICES + " 条设备记录");
+            check(store.syncDevices(ids, devices) == 0, "设备未变化时不应写入记录");
+            int sections = ProjectCodec.SECTIONS.length;
+            int written = store.saveConfig(cfg);
+            check(written == sections + 2, "首次保存应写入 " + (sections + 2) + " 条（各分段加两个ACL），实际 " + written);
+            check(store.saveConfig(cfg) == 0, "配置未变化时不应写入记录");
+        }
+
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(store.getDeviceCount() == DEVICES, "重新打开后设备数应为 " + DEVICES + "，实际 " + store.getDeviceCount());
+            check(store.saveConfig(cfg) == 0, "重新打开后保存相同配置不应写入记录");
+
+            // 改一台、删一台、加一台
+            devices.get(5).status = "离线";
+            devices.remove(7);
+            int[] next = new int[DEVICES];
+            for (int i = 0, j = 0; i < DEVICES; i++) if (i != 7) next[j++] = i;
+            devices.add(new Device("SW-new", "10.0.1.1", "S5735", "Telnet", "在线"));
+            next[DEVICES - 1] = DEVICES;
+            int written = store.syncDevices(next, devices);
+            check(written == 3, "改、删、加各一台应写入 3 条记录，实际 " + written);
+
+            // 只改一个ACL的一条规则只写该ACL；加一个VLAN只写VLAN分段；删一个ACL写一条删除记录
+            cfg.acls.get(0).rules.get(0).action = "deny";
+            check(store.saveConfig(cfg) == 1, "修改一条ACL规则应只写入 1 条记录");
+            cfg.vlans.add(new VlanEntry(30, "voice", "GE0/0/3"));
+            check(store.saveConfig(cfg) == 1, "新增VLAN应只写入 1 条记录");
+            cfg.acls.remove(1);
+            check(store.saveConfig(cfg) == 1, "删除ACL应只写入 1 条记录");
+        }
+
+        try (ProjectStore store = ProjectStore.open(file)) {
+            Project p = store.getProject();
+            check(p.devices.size() == DEVICES, "设备数应为 " + DEVICES + "，实际 " + p.devices.size());
+            check(deviceById(p, 5) != null && "离线".equals(deviceById(p, 5).status), "设备 5 的状态应为离线");
+            check(deviceById(p, 7) == null, "设备 7 应已删除");
+            check(deviceById(p, DEVICES) != null && "SW-new".equals(deviceById(p, DEVICES).name), "新增设备应存在");
+            check(p.template.vlans.size() == 3, "VLAN数应为 3，实际 " + p.template.vlans.size());
+            check(p.template.acls.size() == 1 && p.template.acls.get(0).rules.get(0).action.equals("deny"),
+                    "应只剩 ACL 3000 且首条规则为 deny");
+        }
+    }
+
+    // 末尾追加垃圾：重新打开时状态不变，文件截回最后一条完整记录
+    private static void garbageTail(Path file) throws IOException {
+        long good = Files.size(file);
+        Project before = load(file);
+        append(file, new byte[]{0, 0, 0, 40, 3, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        Project after;
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(store.getFileSize() == good, "垃圾尾应被截掉：文件应为 " + good + " 字节，实际 " + store.getFileSize());
+            after = store.getProject();
+        }
+        check(Files.size(file) == good, "磁盘上的文件应截回 " + good + " 字节，实际 " + Files.size(file));
+        check(sameDevices(before, after), "追加垃圾后重新打开，设备应不变");
+    }
+
+    // 最后一条记录只写了一半：只丢这一条，之前的记录完整保留，之后可以继续追加
+    private static void truncatedTail(Path file) throws IOException {
+        long good = Files.size(file);
+        try (ProjectStore store = ProjectStore.open(file)) {
+            store.putDevice(500, new Device("SW-torn", "10.9.9.9", "S5735", "SSH", "在线"));
+        }
+        long full = Files.size(file);
+        check(full > good, "写入设备后文件应变大");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(full - 3);
+        }
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(store.getFileSize() == good, "残缺记录应被截掉：文件应为 " + good + " 字节，实际 " + store.getFileSize());
+            check(deviceById(store.getProject(), 500) == null, "残缺的设备记录不应被重放");
+            check(store.getDeviceCount() == DEVICES, "之前的设备应全部保留，实际 " + store.getDeviceCount());
+            store.putDevice(501, new Device("SW-after", "10.9.9.10", "S5735", "SSH", "在线"));
+        }
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(deviceById(store.getProject(), 501) != null, "截断后追加的记录应能重放");
+            store.removeDevice(501);
+        }
+    }
+
+    private static void compactAndReopen(Path file) throws IOException {
+        Project before;
+        long beforeSize, afterSize;
+        try (ProjectStore store = ProjectStore.open(file)) {
+            // 反复改同一批设备制造过期记录；getProject 的设备对象与存储共享，须换成新对象
+            Project p = store.getProject();
+            for (int round = 0; round < 5; round++) {
+                List<Device> changed = new ArrayList<>();
+                for (Device d : p.devices) {
+                    changed.add(new Device(d.name, d.ip, d.model, d.mgmtType, round % 2 == 0 ? "维护" : "在线"));
+                }
+                check(store.syncDevices(p.deviceIds, changed) == changed.size(), "每轮应为每台设备写入一条记录");
+                store.flush();
+            }
+            before = store.getProject();
+            beforeSize = store.getFileSize();
+            store.compact();
+            afterSize = store.getFileSize();
+            check(afterSize < beforeSize, "compact 后文件应变小：" + beforeSize + " -> " + afterSize);
+            check(Files.size(file) == afterSize, "磁盘上的文件大小应为 " + afterSize + "，实际 " + Files.size(file));
+        }
+        try (ProjectStore store = ProjectStore.open(file)) {
+            Project after = store.getProject();
+            check(sameDevices(before, after), "compact 后重新打开，设备应不变");
+            check(after.template.vlans.size() == 3 && after.template.acls.size() == 1, "compact 后重新打开，配置应不变");
+            check(store.saveConfig(after.template) == 0, "compact 后保存相同配置不应写入记录");
+            store.putDevice(600, new Device("SW-compacted", "10.8.8.8", "S5735", "SSH", "在线"));
+        }
+        try (ProjectStore store = ProjectStore.open(file)) {
+            check(deviceById(store.getProject(), 600) != null, "compact 后追加的记录应能重放");
+        }
+    }
+
+    private static DeviceConfig config() {
+        DeviceConfig cfg = new DeviceConfig(null);
+        cfg.vlans.add(new VlanEntry(10, "office", "GE0/0/1"));
+        cfg.vlans.add(new VlanEntry(20, "servers", "GE0/0/2"));
+        Acl a = new Acl(3000, "高级", "web");
+        a.rules.add(new AclRule(5, "permit", "tcp", "any", "", "any", "eq 80", ""));
+        Acl b = new Acl(3001, "高级", "");
+        b.rules.add(new AclRule(5, "deny", "ip", "10.0.0.0 0.0.0.255", "", "any", "", ""));
+        cfg.acls.add(a);
+        cfg.acls.add(b);
+        return cfg;
+    }
+
+    private static Project load(Path file) throws IOException {
+        try (ProjectStore store = ProjectStore.open(file)) {
+            return store.getProject();
+        }
+    }
+
+    private static Device deviceById(Project p, int id) {
+        for (int i = 0; i < p.deviceIds.length; i++) if (p.deviceIds[i] == id) return p.devices.get(i);
+        return null;
+    }
+
+    private static boolean sameDevices(Project a, Project b) {
+        if (a.devices.size() != b.devices.size()) return false;
+        for (int i = 0; i < a.devices.size(); i++) {
+            Device x = a.devices.get(i), y = b.devices.get(i);
+            if (a.deviceIds[i] != b.deviceIds[i] || !x.name.equals(y.name) || !x.ip.equals(y.ip)
+                    || !x.status.equals(y.status)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(bytes));
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) return;
+        failures++;
+        System.out.println("失败: " + message);
+    }
+
+    private static void finish() {
+        System.out.println(failures == 0 ? "通过" : failures + " 项失败");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,174 @@
+package engine;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可达性轮询回环测试：本地 ServerSocket 应报在线，已关闭的端口应报离线，
+ * 黑洞地址（accept 队列已满、SYN 被丢弃的本地监听）应在 timeoutMillis 左右超时报离线；
+ * 并发数小于目标数时每台设备恰好回调一次、每批不超过 512 条，提前完成的连接不占用并发名额。
+ * 不依赖测试框架：java -cp out engine.StatusPollerLoopbackTest，失败时退出码为 1
+ */
+public class StatusPollerLoopbackTest {
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final int TIMEOUT = 800;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        List<Socket> held = new ArrayList<>();
+        try (ServerSocket up1 = acceptingListener();
+             ServerSocket up2 = acceptingListener();
+             ServerSocket hole = blackhole(held)) {
+            int closedPort = closedPort();
+            upAndDown(up1.getLocalPort(), up2.getLocalPort(), closedPort);
+            timeout(hole.getLocalPort());
+            concurrencyCap(up1.getLocalPort());
+            finishedKeysFreeSlots(hole.getLocalPort(), up1.getLocalPort());
+        } finally {
+            for (Socket s : held) s.close();
+        }
+        finish();
+    }
+
+    private static void upAndDown(int upPort1, int upPort2, int closedPort) throws InterruptedException {
+        List<StatusPoller.Target> targets = new ArrayList<>();
+        targets.add(new StatusPoller.Target(1, LOOPBACK, upPort1));
+        targets.add(new StatusPoller.Target(2, "localhost", upPort2));
+        targets.add(new StatusPoller.Target(3, LOOPBACK, closedPort));
+        Collector c = run(new StatusPoller(4, TIMEOUT, 0), targets);
+        check(c.up[1] == 1 && c.up[2] == 1, "监听中的端口应报在线");
+        check(c.down[3] == 1, "已关闭的端口应报离线");
+        check(c.job.getReachable() == 2, "在线数应为 2，实际 " + c.job.getReachable());
+    }
+
+    private static void timeout(int holePort) throws InterruptedException {
+        List<StatusPoller.Target> targets = new ArrayList<>();
+        targets.add(new StatusPoller.Target(1, LOOPBACK, holePort));
+        Collector c = run(new StatusPoller(4, TIMEOUT, 0), targets);
+        long elapsed = c.job.getElapsedMillis();
+        check(c.down[1] == 1, "黑洞地址应报离线");
+        check(elapsed >= TIMEOUT - 50 && elapsed < TIMEOUT + 500,
+                "黑洞地址应在 " + TIMEOUT + "ms 左右超时，实际 " + elapsed + "ms");
+    }
+
+    // 并发数 1、目标数远超并发和批大小：每台设备恰好回调一次，每批不超过 512 条
+    private static void concurrencyCap(int upPort) throws InterruptedException {
+        int n = 1500;
+        List<StatusPoller.Target> targets = new ArrayList<>();
+        for (int i = 0; i < n; i++) targets.add(new StatusPoller.Target(i, LOOPBACK, upPort));
+        Collector c = run(new StatusPoller(1, TIMEOUT, 0), targets);
+        check(c.job.getDone() == n, "应完成 " + n + " 台，实际 " + c.job.getDone());
+        check(c.maxBatch <= 512, "单批回调 " + c.maxBatch + " 条，超过 512");
+        int missing = 0, repeated = 0;
+        for (int i = 0; i < n; i++) {
+            int times = c.up[i] + c.down[i];
+            if (times == 0) missing++;
+            if (times > 1) repeated++;
+        }
+        check(missing == 0 && repeated == 0, "缺少回调 " + missing + " 台，重复回调 " + repeated + " 台");
+        check(c.job.getReachable() == n, "应全部在线，实际 " + c.job.getReachable());
+    }
+
+    // 黑洞目标穿插在在线目标之间：先完成的连接须立即让出名额，总耗时约为一次超时而不是逐个排队超时
+    private static void finishedKeysFreeSlots(int holePort, int upPort) throws InterruptedException {
+        List<StatusPoller.Target> targets = new ArrayList<>();
+        int id = 0;
+        for (int h = 0; h < 3; h++) {
+            targets.add(new StatusPoller.Target(id++, LOOPBACK, holePort));
+            for (int i = 0; i < 30; i++) targets.add(new StatusPoller.Target(id++, LOOPBACK, upPort));
+        }
+        Collector c = run(new StatusPoller(4, TIMEOUT, 0), targets);
+        long elapsed = c.job.getElapsedMillis();
+        check(c.job.getDone() == targets.size(), "应完成 " + targets.size() + " 台，实际 " + c.job.getDone());
+        check(c.job.getReachable() == 90, "在线数应为 90，实际 " + c.job.getReachable());
+        check(elapsed < 2 * TIMEOUT, "3 个黑洞目标、并发 4 时应约 " + TIMEOUT + "ms 完成，实际 " + elapsed + "ms");
+    }
+
+    private static Collector run(StatusPoller poller, List<StatusPoller.Target> targets) throws InterruptedException {
+        int maxId = 0;
+        for (StatusPoller.Target t : targets) maxId = Math.max(maxId, t.id);
+        Collector c = new Collector(maxId + 1);
+        c.job = poller.poll(targets, c);
+        c.job.await();
+        check(c.job.getError() == null, "轮询异常: " + c.job.getError());
+        return c;
+    }
+
+    // 持续 accept 并关闭连接；轮询方连上即关闭，accept 可能落后，队列留足余量
+    private static ServerSocket acceptingListener() throws IOException {
+        ServerSocket server = new ServerSocket(0, 4096, InetAddress.getLoopbackAddress());
+        Thread t = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    server.accept().close();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }, "loopback-accept");
+        t.setDaemon(true);
+        t.start();
+        return server;
+    }
+
+    // 不 accept 的监听，连到 accept 队列满为止，之后的 SYN 被内核丢弃，效果同黑洞地址
+    private static ServerSocket blackhole(List<Socket> held) throws IOException {
+        ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        InetSocketAddress addr = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        for (int i = 0; i < 16; i++) {
+            Socket s = new Socket();
+            try {
+                s.connect(addr, 200);
+                held.add(s);
+            } catch (SocketTimeoutException e) {
+                s.close();
+                return server;
+            }
+        }
+        server.close();
+        throw new IllegalStateException("无法构造黑洞监听：accept 队列始终未满");
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return s.getLocalPort();
+        }
+    }
+
+    private static class Collector implements StatusPoller.Listener {
+        final int[] up, down;
+        int maxBatch;
+        StatusPoller.Job job;
+
+        Collector(int ids) {
+            up = new int[ids];
+            down = new int[ids];
+        }
+
+        @Override
+        public void onResults(int[] ids, boolean[] reachable, int count) {
+            maxBatch = Math.max(maxBatch, count);
+            for (int i = 0; i < count; i++) {
+                if (reachable[i]) up[ids[i]]++;
+                else down[ids[i]]++;
+            }
+        }
+    }
+
+    private static void check(boolean ok, String message) {
+        if (ok) return;
+        failures++;
+        System.out.println("失败: " + message);
+    }
+
+    private static void finish() {
+        System.out.println(failures == 0 ? "通过" : failures + " 项失败");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}